@@ -0,0 +1,28 @@
+package lpsolver;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+/** Linear programs used by the benchmarks, the same seed gives the same program. */
+final class BenchmarkProblems {
+  static final long SEED = 20180101L;
+
+  private BenchmarkProblems() {}
+
+  /** Dense form of {@link LPGenerator#random(int, int, double)}, feasible and bounded. */
+  static LPStandardForm generate(int m, int n, double density, long seed) {
+    return new LPGenerator(seed).random(m, n, density).toDense();
+  }
+
+  /** Text of the program in the format of {@link LPInputReader}. */
+  static String toText(LPStandardForm stForm) {
+    StringWriter out = new StringWriter();
+    try {
+      LPGenerator.write(stForm, out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toString();
+  }
+}
@@ -0,0 +1,76 @@
+package lpsolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocations of a pivot through the public {@code pivot} entry point, logging included. Run with
+ * the GC profiler, {@code java -jar target/benchmarks.jar PivotAllocationBenchmark -prof gc}:
+ * {@code gc.alloc.rate.norm} stays at zero bytes per operation while tracing is disabled. States
+ * have no variable names, renaming the basis boxes indexes regardless of logging.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PivotAllocationBenchmark {
+  @Param({"100"})
+  int m;
+
+  @Param({"100"})
+  int n;
+
+  @Param({"0.1"})
+  double density;
+
+  private DoubleLPState doubleState;
+  private SparseLPState sparseState;
+  private int entering, leaving;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    LPSolver solver = new LPSolver();
+    LPStandardForm stForm = new LPGenerator(BenchmarkProblems.SEED).random(m, n, density);
+    doubleState = solver.convertIntoDoubleLP(stForm.toDense(), false);
+    sparseState = solver.convertIntoSparseLP(stForm, false);
+    doubleState.variables = null;
+    doubleState.coefficients = null;
+    sparseState.variables = null;
+    sparseState.coefficients = null;
+    leaving = m / 2;
+    entering = 0;
+    while (doubleState.getEntry(leaving, entering) == 0.0) {
+      ++entering;
+    }
+  }
+
+  /** Pivots twice on the same entry, which restores the dictionary. */
+  @Benchmark
+  public DoubleLPState doublePivot() {
+    doubleState.pivot(entering, leaving);
+    doubleState.pivot(entering, leaving);
+    return doubleState;
+  }
+
+  /** After the first pair of pivots the fill-in is in place and rows do not grow any more. */
+  @Benchmark
+  public SparseLPState sparsePivot() {
+    sparseState.pivot(entering, leaving);
+    sparseState.pivot(entering, leaving);
+    return sparseState;
+  }
+}
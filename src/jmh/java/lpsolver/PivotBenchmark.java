@@ -0,0 +1,86 @@
+package lpsolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single pivot of the tableau. Pivoting twice on the same entry restores the dictionary,
+ * so the state stays numerically stable across invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PivotBenchmark {
+  @Param({"100", "400"})
+  int m;
+
+  @Param({"100", "400"})
+  int n;
+
+  @Param({"0.1", "1.0"})
+  double density;
+
+  private LPState state;
+  private DoubleLPState doubleState;
+  private int entering, leaving;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    LPSolver solver = new LPSolver();
+    LPStandardForm stForm = BenchmarkProblems.generate(m, n, density, BenchmarkProblems.SEED);
+    doubleState = solver.convertIntoDoubleLP(stForm, false);
+    state = solver.convertIntoSlackForm(stForm);
+    leaving = m / 2;
+    BigDecimal[] row = state.A[leaving];
+    entering = 0;
+    while (row[entering].signum() == 0) {
+      ++entering;
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    PivotPool.shutdown();
+  }
+
+  @Benchmark
+  public LPState pivotSequentially() {
+    state.pivotSequentially(entering, leaving);
+    return state;
+  }
+
+  @Benchmark
+  public LPState pivotConcurrently() {
+    state.pivotConcurrently(entering, leaving);
+    return state;
+  }
+
+  @Benchmark
+  public DoubleLPState doublePivotSequentially() {
+    doubleState.pivotSequentially(entering, leaving);
+    return doubleState;
+  }
+
+  @Benchmark
+  public DoubleLPState doublePivotConcurrently() {
+    doubleState.pivotConcurrently(entering, leaving);
+    return doubleState;
+  }
+}
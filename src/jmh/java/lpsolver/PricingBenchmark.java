@@ -0,0 +1,76 @@
+package lpsolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of choosing the entering variable of the {@code BigDecimal} tableau. Only the last reduced
+ * cost is positive, so every pricing rule has to scan all columns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingBenchmark {
+  @Param({"100", "1000"})
+  int m;
+
+  @Param({"100", "1000"})
+  int n;
+
+  @Param({"0.1", "1.0"})
+  double density;
+
+  @Param({"bland", "dantzig", "devex", "steepest", "partial", "multiple"})
+  String rule;
+
+  private LPState state;
+  private PricingRule pricingRule;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    LPStandardForm stForm = BenchmarkProblems.generate(m, n, density, BenchmarkProblems.SEED);
+    for (int j = 0; j < n - 1; j++) {
+      stForm.c[j] = stForm.c[j].negate();
+    }
+    state = new LPSolver().convertIntoSlackForm(stForm);
+    pricingRule = createRule(rule);
+    pricingRule.reset(state);
+  }
+
+  private static PricingRule createRule(String rule) {
+    switch (rule) {
+      case "dantzig":
+        return new DantzigPricing();
+      case "devex":
+        return new DevexPricing();
+      case "steepest":
+        return new SteepestEdgePricing();
+      case "partial":
+        return new PartialPricing();
+      case "multiple":
+        return new MultiplePricing();
+      default:
+        return new BlandPricing();
+    }
+  }
+
+  @Benchmark
+  public int getEntering() {
+    return pricingRule.getEntering(state);
+  }
+}
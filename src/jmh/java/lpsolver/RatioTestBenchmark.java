@@ -0,0 +1,54 @@
+package lpsolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Cost of choosing the leaving variable of the {@code BigDecimal} tableau. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RatioTestBenchmark {
+  @Param({"100", "1000"})
+  int m;
+
+  @Param({"100", "1000"})
+  int n;
+
+  @Param({"0.1", "1.0"})
+  double density;
+
+  @Param({"min", "harris"})
+  String test;
+
+  private LPState state;
+  private RatioTest ratioTest;
+  private int entering;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    LPStandardForm stForm = BenchmarkProblems.generate(m, n, density, BenchmarkProblems.SEED);
+    state = new LPSolver().convertIntoSlackForm(stForm);
+    ratioTest = test.equals("harris") ? new HarrisRatioTest() : new MinRatioTest();
+    entering = n / 2;
+  }
+
+  @Benchmark
+  public int getLeaving() {
+    return ratioTest.getLeaving(state, entering);
+  }
+}
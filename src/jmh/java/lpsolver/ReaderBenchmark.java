@@ -0,0 +1,83 @@
+package lpsolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of parsing a linear program from its text and from a file, with dense and sparse
+ * constraint matrix, and of loading the same program from its binary file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReaderBenchmark {
+  @Param({"100", "1000"})
+  int m;
+
+  @Param({"100", "1000"})
+  int n;
+
+  @Param({"0.01", "0.1"})
+  double density;
+
+  @Param({"false", "true"})
+  boolean sparse;
+
+  private String lp;
+  private File file;
+  private File binaryFile;
+  private LPInputReader reader;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, LPException {
+    lp =
+        BenchmarkProblems.toText(
+            BenchmarkProblems.generate(m, n, density, BenchmarkProblems.SEED));
+    file = File.createTempFile("reader-benchmark", ".lp");
+    Files.write(file.toPath(), lp.getBytes(StandardCharsets.US_ASCII));
+    reader = new LPInputReader(sparse);
+    binaryFile = File.createTempFile("reader-benchmark", ".lpb");
+    BinaryModel.write(reader.readLP(file), binaryFile);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.delete(file.toPath());
+    Files.delete(binaryFile.toPath());
+  }
+
+  @Benchmark
+  public LPStandardForm readLP() throws LPException {
+    return reader.readLP(lp);
+  }
+
+  @Benchmark
+  public LPStandardForm readFile() throws LPException, IOException {
+    return reader.readLP(file);
+  }
+
+  @Benchmark
+  public LPStandardForm readBinary() throws LPException, IOException {
+    return BinaryModel.read(binaryFile);
+  }
+}
@@ -0,0 +1,60 @@
+package lpsolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link LPSolver#solve(LPStandardForm)}. Solving leaves the program unchanged, so every
+ * invocation solves the same one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+  @Param({"50", "200"})
+  int m;
+
+  @Param({"50", "200"})
+  int n;
+
+  @Param({"0.1", "1.0"})
+  double density;
+
+  @Param({"BIG_DECIMAL", "DOUBLE", "SPARSE", "REVISED"})
+  NumericBackend backend;
+
+  @Param({"bland", "dantzig"})
+  String pricing;
+
+  private LPStandardForm initial;
+  private LPSolver solver;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    initial = BenchmarkProblems.generate(m, n, density, BenchmarkProblems.SEED);
+    solver = new LPSolver();
+    solver.setBackend(backend);
+    solver.setPricingRule(pricing.equals("dantzig") ? new DantzigPricing() : new BlandPricing());
+  }
+
+  @Benchmark
+  public BigDecimal solve() throws LPException {
+    return solver.solve(initial);
+  }
+}
@@ -1,61 +1,76 @@
+import lpsolver.BatchSolver;
+import lpsolver.LPException;
+import lpsolver.LPInputReader;
+import lpsolver.LPSolution;
+import lpsolver.LPSolver;
+import lpsolver.SolutionCache;
+import lpsolver.SolverService;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
 import java.io.File;
+import java.io.IOException;
 
-/** Created by Timofey on 8/3/2017. */
+/**
+ * Solves the linear program of a file, or runs a {@link SolverService} until the process is
+ * stopped.
+ *
+ * <p>Created by Timofey on 8/3/2017.
+ */
 public class Main {
-  private static final File configFile =
-      new File("C:\\Java_Projects\\LPSolver\\conf\\config.properties");
 
   public static void main(String[] args) {
-
-    /*Properties properties = new Properties();
-
     Options options = new Options();
-
-    Option inputOption = new Option("i", "input file", true, "file containing linear program");
-    inputOption.setRequired(false);
-    options.addOption(inputOption);
-
-    Option outputOption = new Option("o", "output file", true, "file to print results in");
-    outputOption.setRequired(false);
-    options.addOption(outputOption);
+    options.addOption(new Option("i", "input", true, "file containing linear program"));
+    options.addOption(new Option("s", "serve", true, "run the solver service on the port"));
+    options.addOption(new Option("t", "threads", true, "number of workers of the service"));
+    options.addOption(new Option("q", "queue", true, "number of programs waiting for a worker"));
+    options.addOption(new Option(null, "sparse", false, "read programs into sparse matrices"));
+    options.addOption(new Option(null, "cache", false, "cache solutions of repeated programs"));
 
     CommandLineParser parser = new DefaultParser();
     HelpFormatter formatter = new HelpFormatter();
-    CommandLine cmd;
-
-    try (BufferedReader reader = new BufferedReader(new FileReader(configFile))) {
-      properties.load(reader);
-      cmd = parser.parse(options, args);
-
-      String strInputFile = cmd.getOptionValue("i");
-      if (strInputFile == null) {
-        strInputFile = properties.getProperty("input_file");
-        if (strInputFile == null) {
-          System.err.println("Input file is not specified in config file");
-          System.exit(1);
-          return;
-        }
+    try {
+      CommandLine cmd = parser.parse(options, args);
+      LPSolver solver = new LPSolver();
+      if (cmd.hasOption("cache")) {
+        solver.setSolutionCache(new SolutionCache());
       }
-      String strOutputFile = cmd.getOptionValue("o");
-      if (strOutputFile == null) {
-        strOutputFile = properties.getProperty("output_file");
-        if (strOutputFile == null) {
-          System.err.println("Output file is not specified in config file");
-          System.exit(1);
-          return;
-        }
+      boolean sparse = cmd.hasOption("sparse");
+      if (cmd.hasOption("s")) {
+        int port = Integer.parseInt(cmd.getOptionValue("s"));
+        int threads =
+            Integer.parseInt(cmd.getOptionValue("t", String.valueOf(BatchSolver.DEF_THREADS)));
+        int queue =
+            Integer.parseInt(
+                cmd.getOptionValue("q", String.valueOf(SolverService.DEF_QUEUE_CAPACITY)));
+        SolverService service = new SolverService(solver, port, threads, queue, sparse);
+        System.out.println("Solver service listens on port " + service.getPort());
+        // workers are daemons, the main thread keeps the process alive
+        Thread.currentThread().join();
+      } else if (cmd.hasOption("i")) {
+        LPSolution solution =
+            solver.optimize(new LPInputReader(sparse).readLP(new File(cmd.getOptionValue("i"))));
+        System.out.println(solution.getObjectiveValue());
+        solution.getValues().forEach((name, value) -> System.out.println(name + " " + value));
+      } else {
+        formatter.printHelp("lpsolver", options);
+        System.exit(1);
       }
-      LPInputReader lpInputReader = new LPInputReader();
-      LPStandardForm stForm = lpInputReader.readLP(new File(strInputFile));
-      LPSolver solver = new LPSolver(stForm);
-      solver.setOut(strOutputFile);
-      solver.solve(10);
-    } catch (SolutionException | IOException e) {
-      e.printStackTrace();
-    } catch (ParseException e) {
-      System.out.println(e.getMessage());
-      formatter.printHelp("utility-name", options);
+    } catch (ParseException | NumberFormatException e) {
+      System.err.println(e.getMessage());
+      formatter.printHelp("lpsolver", options);
+      System.exit(1);
+    } catch (LPException | IOException e) {
+      System.err.println(e.getMessage());
       System.exit(1);
-    }*/
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
   }
 }
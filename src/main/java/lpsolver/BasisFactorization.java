@@ -0,0 +1,374 @@
+package lpsolver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Factorization of a simplex basis {@code B} whose columns are either columns of the constraint
+ * matrix or unit columns of slack variables.
+ *
+ * <p>{@link #factorize(int[])} computes {@code L^-1 B Q = U} by left-looking Gaussian elimination
+ * with threshold partial pivoting, preferring sparse rows. Basis changes are appended as eta
+ * matrices of the product form, so {@code B^-1 = E_k ... E_1 U^-1 L^-1} until the next
+ * refactorization.
+ */
+class BasisFactorization {
+  static final double PIVOT_THRESHOLD = 0.1;
+  static final double SINGULARITY_TOLERANCE = 1e-11;
+  static final double DROP_TOLERANCE = 1e-14;
+  private static final Logger logger = LogManager.getLogger(BasisFactorization.class);
+
+  private final SparseMatrix columnMatrix;
+  private final int structural;
+  private final int m;
+  // signs of the structural columns and of the unit columns of slack variables, null if positive
+  double[] columnSigns;
+  double[] slackSigns;
+
+  // L^-1 as a sequence of column etas, one per elimination step
+  private final int[] pivotRow;
+  private final int[] order;
+  private int[][] lIndexes;
+  private double[][] lValues;
+  // U by columns in elimination order, row coordinates are elimination steps
+  private int[][] uIndexes;
+  private double[][] uValues;
+  private double[] uDiagonal;
+  // product form updates
+  private int[] etaRow = new int[16];
+  private int[][] etaIndexes = new int[16][];
+  private double[][] etaValues = new double[16][];
+  private int updates;
+
+  private final double[] work;
+
+  /**
+   * @param columnMatrix constraint matrix stored by columns, i.e. transposed
+   * @param m number of rows of the constraint matrix
+   */
+  BasisFactorization(SparseMatrix columnMatrix, int m) {
+    this.columnMatrix = columnMatrix;
+    this.structural = columnMatrix.rows;
+    this.m = m;
+    this.pivotRow = new int[m];
+    this.order = new int[m];
+    this.work = new double[m];
+  }
+
+  int getUpdates() {
+    return updates;
+  }
+
+  /**
+   * Factorizes the basis formed by {@code basis} variables, slack variable of the row {@code i}
+   * has index {@code structural + i}.
+   */
+  void factorize(int[] basis) throws SolutionException {
+    if (logger.isTraceEnabled()) {
+      logger.trace("Factorizing basis of size {}", m);
+    }
+    lIndexes = new int[m][];
+    lValues = new double[m][];
+    uIndexes = new int[m][];
+    uValues = new double[m][];
+    uDiagonal = new double[m];
+    updates = 0;
+
+    int[] rowCount = new int[m];
+    Integer[] positions = new Integer[m];
+    for (int k = 0; k < m; k++) {
+      positions[k] = k;
+      int var = basis[k];
+      if (var < structural) {
+        for (int t = columnMatrix.rowStart[var]; t < columnMatrix.rowStart[var + 1]; t++) {
+          ++rowCount[columnMatrix.columnIndexes[t]];
+        }
+      }
+    }
+    // slack columns first, then structural columns from the sparsest one
+    Arrays.sort(
+        positions, (p1, p2) -> Integer.compare(columnCount(basis[p1]), columnCount(basis[p2])));
+
+    int[] step = new int[m];
+    Arrays.fill(step, -1);
+    int[] indexes = new int[m];
+    double[] values = new double[m];
+    // rows of the nonzeros of the transformed column, so a step costs its nonzeros and not m
+    int[] pattern = new int[m];
+    boolean[] inPattern = new boolean[m];
+    int[] heap = new int[m];
+    for (int k = 0; k < m; k++) {
+      int position = positions[k];
+      order[k] = position;
+      double[] a = work;
+      int size = loadColumn(basis[position], a, pattern, inPattern);
+      size = applyL(a, pattern, size, inPattern, step, heap);
+
+      int pivot = -1;
+      double max = 0.0;
+      for (int t = 0; t < size; t++) {
+        int i = pattern[t];
+        if (step[i] == -1 && Math.abs(a[i]) > max) {
+          max = Math.abs(a[i]);
+        }
+      }
+      if (max < SINGULARITY_TOLERANCE) {
+        clear(a, pattern, size, inPattern);
+        throw logger.throwing(new SolutionException("Basis matrix is singular"));
+      }
+      for (int t = 0; t < size; t++) {
+        int i = pattern[t];
+        if (step[i] == -1
+            && Math.abs(a[i]) >= PIVOT_THRESHOLD * max
+            && (pivot == -1 || rowCount[i] < rowCount[pivot])) {
+          pivot = i;
+        }
+      }
+      pivotRow[k] = pivot;
+      step[pivot] = k;
+      double diagonal = a[pivot];
+      uDiagonal[k] = diagonal;
+
+      int uSize = 0, lSize = 0;
+      for (int t = 0; t < size; t++) {
+        int i = pattern[t];
+        double value = a[i];
+        if (i == pivot || Math.abs(value) < DROP_TOLERANCE) {
+          continue;
+        }
+        if (step[i] != -1) {
+          indexes[uSize] = step[i];
+          values[uSize++] = value;
+        } else {
+          indexes[m - 1 - lSize] = i;
+          values[m - 1 - lSize++] = value / diagonal;
+        }
+      }
+      clear(a, pattern, size, inPattern);
+      uIndexes[k] = Arrays.copyOf(indexes, uSize);
+      uValues[k] = Arrays.copyOf(values, uSize);
+      lIndexes[k] = Arrays.copyOfRange(indexes, m - lSize, m);
+      lValues[k] = Arrays.copyOfRange(values, m - lSize, m);
+    }
+  }
+
+  private int columnCount(int var) {
+    return var < structural ? columnMatrix.rowStart[var + 1] - columnMatrix.rowStart[var] : 0;
+  }
+
+  /** Loads the column of {@code var} into zero {@code a}, returns the number of its nonzeros. */
+  private int loadColumn(int var, double[] a, int[] pattern, boolean[] inPattern) {
+    int size = 0;
+    if (var < structural) {
+      double sign = columnSigns == null ? 1.0 : columnSigns[var];
+      for (int t = columnMatrix.rowStart[var]; t < columnMatrix.rowStart[var + 1]; t++) {
+        int i = columnMatrix.columnIndexes[t];
+        a[i] = sign * columnMatrix.values[t];
+        inPattern[i] = true;
+        pattern[size++] = i;
+      }
+    } else {
+      int i = var - structural;
+      a[i] = slackSigns == null ? 1.0 : slackSigns[i];
+      inPattern[i] = true;
+      pattern[size++] = i;
+    }
+    return size;
+  }
+
+  /**
+   * Applies the column etas of the elimination steps done so far to the column {@code a} with
+   * {@code size} nonzeros in {@code pattern}. Only the steps whose pivot row is a nonzero are
+   * applied, in increasing order taken from a heap, and the rows they fill in are added to the
+   * pattern. Returns the number of nonzeros.
+   */
+  private int applyL(
+      double[] a, int[] pattern, int size, boolean[] inPattern, int[] step, int[] heap) {
+    int heapSize = 0;
+    for (int t = 0; t < size; t++) {
+      if (step[pattern[t]] != -1) {
+        heapSize = push(heap, heapSize, step[pattern[t]]);
+      }
+    }
+    while (heapSize > 0) {
+      int k = heap[0];
+      heapSize = pop(heap, heapSize);
+      double pivotValue = a[pivotRow[k]];
+      if (pivotValue == 0.0) {
+        continue;
+      }
+      int[] indexes = lIndexes[k];
+      double[] values = lValues[k];
+      for (int t = 0; t < indexes.length; t++) {
+        int i = indexes[t];
+        if (!inPattern[i]) {
+          inPattern[i] = true;
+          pattern[size++] = i;
+          if (step[i] != -1) {
+            heapSize = push(heap, heapSize, step[i]);
+          }
+        }
+        a[i] -= values[t] * pivotValue;
+      }
+    }
+    return size;
+  }
+
+  private static void clear(double[] a, int[] pattern, int size, boolean[] inPattern) {
+    for (int t = 0; t < size; t++) {
+      a[pattern[t]] = 0.0;
+      inPattern[pattern[t]] = false;
+    }
+  }
+
+  /** Adds {@code value} to the binary min-heap of {@code size} elements. */
+  private static int push(int[] heap, int size, int value) {
+    int i = size;
+    while (i > 0 && heap[(i - 1) / 2] > value) {
+      heap[i] = heap[(i - 1) / 2];
+      i = (i - 1) / 2;
+    }
+    heap[i] = value;
+    return size + 1;
+  }
+
+  /** Removes the minimum of the binary min-heap of {@code size} elements. */
+  private static int pop(int[] heap, int size) {
+    int last = heap[--size];
+    int i = 0;
+    while (2 * i + 1 < size) {
+      int child = 2 * i + 1;
+      if (child + 1 < size && heap[child + 1] < heap[child]) {
+        ++child;
+      }
+      if (heap[child] >= last) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = last;
+    return size;
+  }
+
+  private void applyL(double[] a, int steps) {
+    for (int k = 0; k < steps; k++) {
+      double pivotValue = a[pivotRow[k]];
+      if (pivotValue != 0.0) {
+        int[] indexes = lIndexes[k];
+        double[] values = lValues[k];
+        for (int t = 0; t < indexes.length; t++) {
+          a[indexes[t]] -= values[t] * pivotValue;
+        }
+      }
+    }
+  }
+
+  /** Solves {@code B x = a}, {@code x} replaces {@code a} and is indexed by basis positions. */
+  void ftran(double[] a) {
+    applyL(a, m);
+    double[] z = work;
+    for (int k = m - 1; k >= 0; k--) {
+      int row = pivotRow[k];
+      double zk = a[row] / uDiagonal[k];
+      a[row] = 0.0;
+      z[k] = zk;
+      if (zk != 0.0) {
+        int[] indexes = uIndexes[k];
+        double[] values = uValues[k];
+        for (int t = 0; t < indexes.length; t++) {
+          a[pivotRow[indexes[t]]] -= values[t] * zk;
+        }
+      }
+    }
+    for (int k = 0; k < m; k++) {
+      a[order[k]] = z[k];
+      z[k] = 0.0;
+    }
+    for (int e = 0; e < updates; e++) {
+      int r = etaRow[e];
+      double xr = a[r];
+      if (xr != 0.0) {
+        int[] indexes = etaIndexes[e];
+        double[] values = etaValues[e];
+        for (int t = 0; t < indexes.length; t++) {
+          int i = indexes[t];
+          a[i] = i == r ? xr * values[t] : a[i] + xr * values[t];
+        }
+      }
+    }
+  }
+
+  /** Solves {@code y B = a}, {@code y} replaces {@code a} and is indexed by rows. */
+  void btran(double[] a) {
+    for (int e = updates - 1; e >= 0; e--) {
+      int[] indexes = etaIndexes[e];
+      double[] values = etaValues[e];
+      double sum = 0.0;
+      for (int t = 0; t < indexes.length; t++) {
+        sum += values[t] * a[indexes[t]];
+      }
+      a[etaRow[e]] = sum;
+    }
+    double[] w = work;
+    for (int k = 0; k < m; k++) {
+      int[] indexes = uIndexes[k];
+      double[] values = uValues[k];
+      double sum = a[order[k]];
+      for (int t = 0; t < indexes.length; t++) {
+        sum -= values[t] * w[pivotRow[indexes[t]]];
+      }
+      w[pivotRow[k]] = sum / uDiagonal[k];
+    }
+    for (int k = m - 1; k >= 0; k--) {
+      int[] indexes = lIndexes[k];
+      double[] values = lValues[k];
+      double sum = 0.0;
+      for (int t = 0; t < indexes.length; t++) {
+        sum += values[t] * w[indexes[t]];
+      }
+      w[pivotRow[k]] -= sum;
+    }
+    for (int i = 0; i < m; i++) {
+      a[i] = w[i];
+      w[i] = 0.0;
+    }
+  }
+
+  /**
+   * Replaces the basic variable of the position {@code r}, {@code alpha} is the entering column
+   * already transformed by {@link #ftran(double[])}.
+   */
+  void update(double[] alpha, int r) {
+    if (updates == etaRow.length) {
+      etaRow = Arrays.copyOf(etaRow, updates * 2);
+      etaIndexes = Arrays.copyOf(etaIndexes, updates * 2);
+      etaValues = Arrays.copyOf(etaValues, updates * 2);
+    }
+    double pivot = alpha[r];
+    int size = 0;
+    for (int i = 0; i < m; i++) {
+      if (i == r || Math.abs(alpha[i]) >= DROP_TOLERANCE) {
+        ++size;
+      }
+    }
+    int[] indexes = new int[size];
+    double[] values = new double[size];
+    size = 0;
+    for (int i = 0; i < m; i++) {
+      if (i == r) {
+        indexes[size] = i;
+        values[size++] = 1.0 / pivot;
+      } else if (Math.abs(alpha[i]) >= DROP_TOLERANCE) {
+        indexes[size] = i;
+        values[size++] = -alpha[i] / pivot;
+      }
+    }
+    etaRow[updates] = r;
+    etaIndexes[updates] = indexes;
+    etaValues[updates] = values;
+    ++updates;
+  }
+}
@@ -0,0 +1,48 @@
+package lpsolver;
+
+/**
+ * Outcome of one linear program of a batch, see {@link BatchSolver}: its solution, or the
+ * exception thrown while reading or solving it.
+ */
+public class BatchResult {
+  private final int index;
+  private final LPSolution solution;
+  private final Exception exception;
+
+  BatchResult(int index, LPSolution solution, Exception exception) {
+    this.index = index;
+    this.solution = solution;
+    this.exception = exception;
+  }
+
+  /** Position of the linear program in the submitted batch. */
+  public int getIndex() {
+    return index;
+  }
+
+  public boolean isSolved() {
+    return solution != null;
+  }
+
+  /** Solution of the linear program, {@code null} if it was not solved. */
+  public LPSolution getSolution() {
+    return solution;
+  }
+
+  /**
+   * {@link LPException} (or {@link SolutionException}) of an infeasible, unbounded or malformed
+   * program, {@link java.io.IOException} of an unreadable file, any other runtime exception of a
+   * failed solve, {@code null} if it was solved.
+   */
+  public Exception getException() {
+    return exception;
+  }
+
+  @Override
+  public String toString() {
+    return "BatchResult{index="
+        + index
+        + (solution != null ? ", value=" + solution.getObjectiveValue() : ", error=" + exception)
+        + '}';
+  }
+}
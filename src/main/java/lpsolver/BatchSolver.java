@@ -0,0 +1,247 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Solves many independent linear programs concurrently on a fixed pool of worker threads. Every
+ * worker solves with the {@link LPSolver} the solver factory makes on its thread. Solvers are
+ * reentrant and take a snapshot of their settings for every solve, so the factory may as well
+ * return one shared solver, for example to share its {@link SolutionCache}; separate solvers only
+ * matter for workers configured differently. Every worker has its own {@link LPInputReader}s, so
+ * the file buffer of a reader is reused by the programs of one worker without contention.
+ *
+ * <p>Collections are solved with results in the order of submission. Streams are solved with
+ * results passed to a consumer on the calling thread as they complete, keeping at most twice as
+ * many programs in flight as there are workers, so a stream is never read ahead of the solving.
+ * A program that cannot be read or solved gives a {@link BatchResult} with its exception and does
+ * not stop the batch. Programs are not changed by solving, see {@link
+ * LPSolver#optimize(LPStandardForm)}.
+ */
+public class BatchSolver implements AutoCloseable {
+  public static final int DEF_THREADS = Runtime.getRuntime().availableProcessors();
+  private static final Logger logger = LogManager.getLogger(BatchSolver.class);
+  private static final AtomicInteger poolNumber = new AtomicInteger();
+
+  private final int threads;
+  private final ExecutorService executor;
+  private final ThreadLocal<Worker> workers;
+
+  /** Batch solver with one worker per available core and default solvers. */
+  public BatchSolver() {
+    this(DEF_THREADS, LPSolver::new);
+  }
+
+  /**
+   * @param threads number of workers
+   * @param solverFactory gives the solver of every worker, called once on each worker thread; it
+   *     may return the same solver every time
+   */
+  public BatchSolver(int threads, Supplier<LPSolver> solverFactory) {
+    Validate.isTrue(threads > 0, "Number of threads should be positive");
+    Objects.requireNonNull(solverFactory);
+    this.threads = threads;
+    this.workers = ThreadLocal.withInitial(() -> new Worker(solverFactory.get()));
+    this.executor = Executors.newFixedThreadPool(threads, new WorkerFactory());
+    logger.debug("Created batch solver with {} threads", threads);
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  /** Solves the programs, results are in the order of the collection. */
+  public List<BatchResult> solveAll(Collection<LPStandardForm> forms) {
+    List<Task> tasks = new ArrayList<>(forms.size());
+    for (LPStandardForm form : forms) {
+      tasks.add(new Task(tasks.size(), Objects.requireNonNull(form), null, false));
+    }
+    return invokeAll(tasks);
+  }
+
+  /**
+   * Reads the programs from the files in the text format of {@link LPInputReader} and solves them,
+   * results are in the order of the collection.
+   *
+   * @param sparse whether the programs are read with a sparse constraint matrix
+   */
+  public List<BatchResult> readAndSolveAll(Collection<File> files, boolean sparse) {
+    List<Task> tasks = new ArrayList<>(files.size());
+    for (File file : files) {
+      tasks.add(new Task(tasks.size(), null, Objects.requireNonNull(file), sparse));
+    }
+    return invokeAll(tasks);
+  }
+
+  /**
+   * Solves the programs of the stream, results are passed to {@code consumer} on the calling
+   * thread in the order of completion. Returns when all of them are solved.
+   */
+  public void solveAll(Stream<LPStandardForm> forms, Consumer<BatchResult> consumer) {
+    Iterator<LPStandardForm> iterator = forms.iterator();
+    submitAll(
+        index -> iterator.hasNext() ? new Task(index, iterator.next(), null, false) : null,
+        consumer);
+  }
+
+  /**
+   * Reads and solves the programs of the files of the stream, results are passed to {@code
+   * consumer} on the calling thread in the order of completion.
+   *
+   * @param sparse whether the programs are read with a sparse constraint matrix
+   */
+  public void readAndSolveAll(Stream<File> files, boolean sparse, Consumer<BatchResult> consumer) {
+    Iterator<File> iterator = files.iterator();
+    submitAll(
+        index -> iterator.hasNext() ? new Task(index, null, iterator.next(), sparse) : null,
+        consumer);
+  }
+
+  private List<BatchResult> invokeAll(List<Task> tasks) {
+    List<BatchResult> results = new ArrayList<>(tasks.size());
+    try {
+      for (Future<BatchResult> future : executor.invokeAll(tasks)) {
+        results.add(getResult(future));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Batch was interrupted", e);
+    }
+    return results;
+  }
+
+  private void submitAll(TaskSource source, Consumer<BatchResult> consumer) {
+    CompletionService<BatchResult> completion = new ExecutorCompletionService<>(executor);
+    int submitted = 0;
+    int inFlight = 0;
+    Task next = source.next(submitted);
+    try {
+      while (next != null || inFlight > 0) {
+        while (next != null && inFlight < 2 * threads) {
+          completion.submit(next);
+          ++inFlight;
+          next = source.next(++submitted);
+        }
+        BatchResult result = getResult(completion.take());
+        --inFlight;
+        consumer.accept(result);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Batch was interrupted", e);
+    }
+  }
+
+  private static BatchResult getResult(Future<BatchResult> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      // tasks catch the exceptions of reading and solving, anything else is a bug
+      throw new IllegalStateException("Batch task failed", e.getCause());
+    }
+  }
+
+  /** Stops the workers after the submitted programs are solved. */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return executor.awaitTermination(timeout, unit);
+  }
+
+  /** Next task of a stream, {@code null} at its end. */
+  @FunctionalInterface
+  private interface TaskSource {
+    Task next(int index);
+  }
+
+  /** Solver and readers of a worker thread. */
+  private static class Worker {
+    private final LPSolver solver;
+    private LPInputReader denseReader, sparseReader;
+
+    Worker(LPSolver solver) {
+      this.solver = solver;
+    }
+
+    LPInputReader getReader(boolean sparse) {
+      if (sparse) {
+        if (sparseReader == null) {
+          sparseReader = new LPInputReader(true);
+        }
+        return sparseReader;
+      }
+      if (denseReader == null) {
+        denseReader = new LPInputReader(false);
+      }
+      return denseReader;
+    }
+  }
+
+  private class Task implements Callable<BatchResult> {
+    private final int index;
+    private final LPStandardForm form;
+    private final File file;
+    private final boolean sparse;
+
+    Task(int index, LPStandardForm form, File file, boolean sparse) {
+      this.index = index;
+      this.form = form;
+      this.file = file;
+      this.sparse = sparse;
+    }
+
+    @Override
+    public BatchResult call() {
+      Worker worker = workers.get();
+      try {
+        LPStandardForm stForm = form != null ? form : worker.getReader(sparse).readLP(file);
+        return new BatchResult(index, worker.solver.optimize(stForm), null);
+      } catch (LPException | IOException | IllegalArgumentException e) {
+        logger.debug("Program {} of the batch failed: {}", index, e.getMessage());
+        return new BatchResult(index, null, e);
+      } catch (RuntimeException e) {
+        logger.error("Program {} of the batch failed", index, e);
+        return new BatchResult(index, null, e);
+      }
+    }
+  }
+
+  /** Daemon workers, so an application that never closes the batch solver still exits. */
+  private static class WorkerFactory implements ThreadFactory {
+    private final int pool = poolNumber.incrementAndGet();
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread =
+          new Thread(runnable, "lp-batch-" + pool + "-worker-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
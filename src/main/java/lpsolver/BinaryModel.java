@@ -0,0 +1,327 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+/**
+ * Binary file of a {@link LPStandardForm}, read back without parsing. All numbers are little
+ * endian; the file is a 32 byte header followed by sections aligned to 8 bytes:
+ *
+ * <pre>
+ *   header       magic "LPSF", version, flags, m, n, nonzeros, length of names, reserved
+ *   rowStart     int[m + 1]      compressed sparse rows of A
+ *   columns      int[nonzeros]
+ *   values       double[nonzeros]
+ *   b            double[m]
+ *   c            double[n]
+ *   equalities   byte[m]         if FLAG_EQUALITIES, 1 for an equality row
+ *   lower        double[n]       if FLAG_BOUNDS
+ *   upper        double[n]       if FLAG_BOUNDS, infinity if unbounded
+ *   nameStart    int[n + 1]      if FLAG_NAMES, offsets of the names of variables
+ *   names        byte[]          if FLAG_NAMES, UTF-8
+ * </pre>
+ *
+ * <p>Numbers are stored as doubles, as in {@link SparseMatrix}. Sections are mapped from the file
+ * one by one and copied in bulk into the arrays of the program, so loading costs about as much as
+ * reading the file and no section but the whole file may exceed 2 GiB.
+ */
+public class BinaryModel {
+  private static final Logger logger = LogManager.getLogger(BinaryModel.class);
+  static final int MAGIC = 0x4653504C; // "LPSF" read as a little endian int
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 32;
+  static final int FLAG_MAXIMIZE = 1;
+  static final int FLAG_SPARSE = 2;
+  static final int FLAG_EQUALITIES = 4;
+  static final int FLAG_BOUNDS = 8;
+  static final int FLAG_NAMES = 16;
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  private BinaryModel() {}
+
+  /** Writes {@code stForm} to the {@code file}, replacing its contents. */
+  public static void write(LPStandardForm stForm, File file) throws IOException {
+    logger.trace("Start writing binary program to {}", file);
+    int m = stForm.m;
+    int n = stForm.n;
+    SparseMatrix A = stForm.isSparse() ? stForm.sparseA : SparseMatrix.fromDense(stForm.A, m, n);
+    int nonZeros = A.getNonZeros();
+    byte[][] names = null;
+    int namesLength = 0;
+    if (stForm.hasVariableNames()) {
+      names = new byte[n][];
+      for (int j = 0; j < n; j++) {
+        String name = stForm.variables.get(j);
+        Validate.notNull(name, "Variable %d has no name", j);
+        names[j] = name.getBytes(StandardCharsets.UTF_8);
+        namesLength += names[j].length;
+      }
+    }
+    int flags = (stForm.maximize ? FLAG_MAXIMIZE : 0) | (stForm.isSparse() ? FLAG_SPARSE : 0);
+    flags |= stForm.hasEqualities() ? FLAG_EQUALITIES : 0;
+    flags |= stForm.hasBounds() ? FLAG_BOUNDS : 0;
+    flags |= names != null ? FLAG_NAMES : 0;
+
+    try (FileChannel channel =
+        FileChannel.open(
+            file.toPath(),
+            StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      Output out = new Output(channel);
+      out.putInt(MAGIC).putInt(VERSION).putInt(flags).putInt(m).putInt(n).putInt(nonZeros);
+      out.putInt(namesLength).putInt(0);
+      for (int i = 0; i <= m; i++) {
+        out.putInt(A.rowStart[i]);
+      }
+      out.align();
+      for (int k = 0; k < nonZeros; k++) {
+        out.putInt(A.columnIndexes[k]);
+      }
+      out.align();
+      for (int k = 0; k < nonZeros; k++) {
+        out.putDouble(A.values[k]);
+      }
+      for (int i = 0; i < m; i++) {
+        out.putDouble(stForm.b[i].doubleValue());
+      }
+      for (int j = 0; j < n; j++) {
+        out.putDouble(stForm.c[j].doubleValue());
+      }
+      if ((flags & FLAG_EQUALITIES) != 0) {
+        for (int i = 0; i < m; i++) {
+          out.put(stForm.isEquality(i) ? (byte) 1 : (byte) 0);
+        }
+        out.align();
+      }
+      if ((flags & FLAG_BOUNDS) != 0) {
+        for (int j = 0; j < n; j++) {
+          out.putDouble(stForm.getLowerBound(j).doubleValue());
+        }
+        for (int j = 0; j < n; j++) {
+          BigDecimal upper = stForm.getUpperBound(j);
+          out.putDouble(upper == null ? Double.POSITIVE_INFINITY : upper.doubleValue());
+        }
+      }
+      if (names != null) {
+        int offset = 0;
+        out.putInt(0);
+        for (int j = 0; j < n; j++) {
+          offset += names[j].length;
+          out.putInt(offset);
+        }
+        out.align();
+        for (int j = 0; j < n; j++) {
+          out.put(names[j]);
+        }
+      }
+      out.flush();
+    }
+  }
+
+  /**
+   * Reads a program written by {@link #write}. It is sparse if the written program was sparse and
+   * dense otherwise.
+   *
+   * @throws LPException if the file is not a binary program of a known version, is truncated, or
+   *     its row pointers or column indexes are out of range
+   */
+  @Contract("null -> fail")
+  public static LPStandardForm read(@NotNull File file) throws LPException, IOException {
+    logger.trace("Start reading binary program from {}", file);
+    if (!file.isFile() || !file.canRead()) {
+      logger.error("{} should be a readable file", file);
+      throw new IllegalArgumentException();
+    }
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      Input in = new Input(channel);
+      ByteBuffer header = in.map(HEADER_SIZE);
+      if (header.getInt() != MAGIC) {
+        throw new LPException(file + " is not a binary program");
+      }
+      int version = header.getInt();
+      if (version != VERSION) {
+        throw new LPException("Unsupported binary program version " + version);
+      }
+      int flags = header.getInt();
+      int m = header.getInt();
+      int n = header.getInt();
+      int nonZeros = header.getInt();
+      int namesLength = header.getInt();
+      if (m < 0 || n < 0 || nonZeros < 0 || namesLength < 0) {
+        throw new LPException("Corrupted header of " + file);
+      }
+
+      int[] rowStart = new int[m + 1];
+      in.map(4L * (m + 1)).asIntBuffer().get(rowStart);
+      if (rowStart[0] != 0 || rowStart[m] != nonZeros) {
+        throw new LPException("Corrupted row pointers of " + file);
+      }
+      for (int i = 0; i < m; i++) {
+        if (rowStart[i] > rowStart[i + 1]) {
+          throw new LPException("Corrupted row pointers of " + file);
+        }
+      }
+      int[] columnIndexes = new int[nonZeros];
+      in.map(4L * nonZeros).asIntBuffer().get(columnIndexes);
+      for (int k = 0; k < nonZeros; k++) {
+        if (columnIndexes[k] < 0 || columnIndexes[k] >= n) {
+          throw new LPException("Corrupted column indexes of " + file);
+        }
+      }
+      double[] values = new double[nonZeros];
+      in.map(8L * nonZeros).asDoubleBuffer().get(values);
+      SparseMatrix A = new SparseMatrix(m, n, rowStart, columnIndexes, values);
+      BigDecimal[] b = in.decimals(m);
+      BigDecimal[] c = in.decimals(n);
+
+      boolean[] equalities = null;
+      if ((flags & FLAG_EQUALITIES) != 0) {
+        ByteBuffer rows = in.map(m);
+        equalities = new boolean[m];
+        for (int i = 0; i < m; i++) {
+          equalities[i] = rows.get(i) != 0;
+        }
+      }
+      BigDecimal[] lower = null;
+      BigDecimal[] upper = null;
+      if ((flags & FLAG_BOUNDS) != 0) {
+        lower = in.decimals(n);
+        upper = in.decimals(n);
+      }
+      HashMap<Integer, String> variables = null;
+      HashMap<String, Integer> coefficients = null;
+      if ((flags & FLAG_NAMES) != 0) {
+        int[] nameStart = new int[n + 1];
+        in.map(4L * (n + 1)).asIntBuffer().get(nameStart);
+        byte[] names = new byte[namesLength];
+        in.map(namesLength).get(names);
+        variables = new HashMap<>(2 * n);
+        coefficients = new HashMap<>(2 * n);
+        for (int j = 0; j < n; j++) {
+          int from = nameStart[j];
+          int to = nameStart[j + 1];
+          if (from < 0 || from > to || to > namesLength) {
+            throw new LPException("Corrupted names of " + file);
+          }
+          String name = new String(names, from, to - from, StandardCharsets.UTF_8);
+          variables.put(j, name);
+          coefficients.put(name, j);
+        }
+      }
+
+      LPStandardForm stForm =
+          new LPStandardForm(A, b, c, variables, coefficients, (flags & FLAG_MAXIMIZE) != 0);
+      stForm.equalities = equalities;
+      stForm.lower = lower;
+      stForm.upper = upper;
+      logger.trace("Read binary program with {} rows and {} nonzeros", m, nonZeros);
+      return (flags & FLAG_SPARSE) != 0 ? stForm : stForm.toDense();
+    }
+  }
+
+  /** Sections of the file mapped one after another. */
+  private static class Input {
+    private final FileChannel channel;
+    private final long size;
+    private long position;
+
+    Input(FileChannel channel) throws IOException {
+      this.channel = channel;
+      this.size = channel.size();
+    }
+
+    ByteBuffer map(long length) throws IOException, LPException {
+      if (length > Integer.MAX_VALUE || position + length > size) {
+        throw new LPException("Binary program is truncated");
+      }
+      ByteBuffer section = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+      position = (position + length + 7) & ~7L;
+      return section.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    BigDecimal[] decimals(int length) throws IOException, LPException {
+      ByteBuffer section = map(8L * length);
+      BigDecimal[] decimals = new BigDecimal[length];
+      for (int k = 0; k < length; k++) {
+        double value = section.getDouble(8 * k);
+        decimals[k] = value == Double.POSITIVE_INFINITY ? null : BigDecimal.valueOf(value);
+      }
+      return decimals;
+    }
+  }
+
+  /** Buffered writes to the channel that keep track of the alignment of sections. */
+  private static class Output {
+    private final FileChannel channel;
+    private final ByteBuffer buffer =
+        ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long position;
+
+    Output(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    Output putInt(int value) throws IOException {
+      ensure(4);
+      buffer.putInt(value);
+      position += 4;
+      return this;
+    }
+
+    Output putDouble(double value) throws IOException {
+      ensure(8);
+      buffer.putDouble(value);
+      position += 8;
+      return this;
+    }
+
+    Output put(byte value) throws IOException {
+      ensure(1);
+      buffer.put(value);
+      ++position;
+      return this;
+    }
+
+    Output put(byte[] bytes) throws IOException {
+      for (byte value : bytes) {
+        put(value);
+      }
+      return this;
+    }
+
+    /** Pads the current section to a multiple of 8 bytes. */
+    void align() throws IOException {
+      while ((position & 7) != 0) {
+        put((byte) 0);
+      }
+    }
+
+    void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    private void ensure(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) {
+        flush();
+      }
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package lpsolver;
+
+/**
+ * Smallest index rule: the first non-basic variable with positive reduced cost enters the basis.
+ * Together with the smallest row ratio test it never cycles.
+ */
+public class BlandPricing implements PricingRule {
+
+  @Override
+  public int getEntering(SimplexState state) {
+    return state.getEntering();
+  }
+
+  @Override
+  public String getName() {
+    return "Bland";
+  }
+}
@@ -0,0 +1,122 @@
+package lpsolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/** SHA-256 hash of some content, used as a key of {@link ModelCache} and {@link SolutionCache}. */
+final class ContentHash {
+  private final byte[] hash;
+  private final int hashCode;
+
+  private ContentHash(byte[] hash) {
+    this.hash = hash;
+    this.hashCode = Arrays.hashCode(hash);
+  }
+
+  static ContentHash of(File file) throws IOException {
+    Hasher hasher = new Hasher();
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      hasher.put(channel);
+    }
+    return hasher.hash();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof ContentHash && Arrays.equals(hash, ((ContentHash) o).hash);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  /** Buffered feed of a digest. */
+  static final class Hasher {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final MessageDigest digest;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    Hasher() {
+      try {
+        digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        // every Java platform supports SHA-256
+        throw new IllegalStateException(e);
+      }
+    }
+
+    Hasher putInt(int value) {
+      ensure(4);
+      buffer.putInt(value);
+      return this;
+    }
+
+    Hasher putBoolean(boolean value) {
+      ensure(1);
+      buffer.put(value ? (byte) 1 : (byte) 0);
+      return this;
+    }
+
+    /** Puts the value so that numerically equal decimals of any scale hash the same. */
+    Hasher putDecimal(BigDecimal value) {
+      if (value == null) {
+        return putInt(-1);
+      }
+      BigDecimal stripped = value.stripTrailingZeros();
+      byte[] unscaled = stripped.unscaledValue().toByteArray();
+      return putInt(unscaled.length).putBytes(unscaled).putInt(stripped.scale());
+    }
+
+    /** Puts the length and the characters, {@code null} differs from every string. */
+    Hasher putString(String value) {
+      if (value == null) {
+        return putInt(-1);
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      return putInt(bytes.length).putBytes(bytes);
+    }
+
+    private Hasher putBytes(byte[] bytes) {
+      if (bytes.length > buffer.remaining()) {
+        flush();
+        digest.update(bytes);
+      } else {
+        buffer.put(bytes);
+      }
+      return this;
+    }
+
+    void put(FileChannel channel) throws IOException {
+      flush();
+      while (channel.read(buffer) != -1) {
+        flush();
+      }
+    }
+
+    ContentHash hash() {
+      flush();
+      return new ContentHash(digest.digest());
+    }
+
+    private void ensure(int bytes) {
+      if (buffer.remaining() < bytes) {
+        flush();
+      }
+    }
+
+    private void flush() {
+      buffer.flip();
+      digest.update(buffer);
+      buffer.clear();
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package lpsolver;
+
+/** Largest coefficient rule: the variable with the greatest reduced cost enters the basis. */
+public class DantzigPricing implements PricingRule {
+
+  @Override
+  public int getEntering(SimplexState state) {
+    int entering = -1;
+    double max = state.getTolerance();
+    for (int j = 0; j < state.n; j++) {
+      double reducedCost = state.getReducedCost(j);
+      if (reducedCost > max) {
+        max = reducedCost;
+        entering = j;
+      }
+    }
+    return entering;
+  }
+
+  @Override
+  public String getName() {
+    return "Dantzig";
+  }
+}
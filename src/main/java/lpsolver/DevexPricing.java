@@ -0,0 +1,76 @@
+package lpsolver;
+
+import java.util.Arrays;
+
+/**
+ * Devex rule of Harris: approximates steepest edge weights relative to the reference framework of
+ * the variables that were non-basic when the rule was reset. The weights are updated from the
+ * pivot row only, so an iteration costs one row of the dictionary instead of all column norms.
+ */
+public class DevexPricing implements PricingRule {
+  /** Reference framework is reset when a weight grows beyond this bound. */
+  public static final double DEF_RESET_BOUND = 1e6;
+
+  double[] weights = new double[0];
+  private double[] row = new double[0];
+
+  @Override
+  public void reset(SimplexState state) {
+    if (weights.length != state.n) {
+      weights = new double[state.n];
+      row = new double[state.n];
+    }
+    Arrays.fill(weights, 1.0);
+  }
+
+  @Override
+  public int getEntering(SimplexState state) {
+    if (weights.length != state.n) {
+      reset(state);
+    }
+    int entering = -1;
+    double max = 0.0;
+    double epsilon = state.getTolerance();
+    for (int j = 0; j < state.n; j++) {
+      double reducedCost = state.getReducedCost(j);
+      if (reducedCost > epsilon) {
+        double score = reducedCost * reducedCost / weights[j];
+        if (score > max) {
+          max = score;
+          entering = j;
+        }
+      }
+    }
+    return entering;
+  }
+
+  @Override
+  public void beforePivot(SimplexState state, int entering, int leaving) {
+    state.loadRow(leaving, row);
+    double pivot = row[entering];
+    double enteringWeight = weights[entering];
+    boolean overflow = false;
+    for (int j = 0; j < weights.length; j++) {
+      if (j != entering && row[j] != 0.0) {
+        double ratio = row[j] / pivot;
+        weights[j] = Math.max(weights[j], ratio * ratio * enteringWeight);
+        overflow |= weights[j] > DEF_RESET_BOUND;
+      }
+    }
+    // leaving variable takes the slot of the entering one
+    weights[entering] = Math.max(enteringWeight / (pivot * pivot), 1.0);
+    if (overflow) {
+      Arrays.fill(weights, 1.0);
+    }
+  }
+
+  @Override
+  public PricingRule copy() {
+    return new DevexPricing();
+  }
+
+  @Override
+  public String getName() {
+    return "devex";
+  }
+}
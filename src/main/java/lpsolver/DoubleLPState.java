@@ -0,0 +1,255 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Simplex dictionary backed by primitive arrays. The constraint matrix is stored row-major in a
+ * single {@code double[]}, so a pivot only updates the arrays in place.
+ */
+public class DoubleLPState extends SimplexState {
+  public static final double DEF_EPSILON = LPState.DEF_EPSILON.doubleValue();
+  public static final double DEF_INF = LPState.DEF_INF.doubleValue();
+  /** Pivots of dictionaries with at least this many entries ({@code m * n}) run in parallel. */
+  public static final int PARALLEL_THRESHOLD = 1 << 18;
+  /** Approximate number of entries updated by one task of a parallel pivot. */
+  static final int BLOCK_WORK = 1 << 14;
+  private static final Logger logger = LogManager.getLogger(DoubleLPState.class);
+  double[] A;
+  double[] b, c;
+  double v;
+  private double epsilon;
+  private double INF;
+
+  DoubleLPState(
+      double[] A,
+      double[] b,
+      double[] c,
+      double v,
+      HashMap<Integer, String> variables,
+      HashMap<String, Integer> coefficients,
+      int m,
+      int n,
+      double epsilon,
+      double INF) {
+    Validate.isTrue(A.length == m * n, "Constraint matrix should have m * n entries");
+    this.A = A;
+    this.b = b;
+    this.c = c;
+    this.v = v;
+    this.variables = variables;
+    this.coefficients = coefficients;
+    this.m = m;
+    this.n = n;
+    this.epsilon = epsilon;
+    this.INF = INF;
+  }
+
+  DoubleLPState(
+      double[] A,
+      double[] b,
+      double[] c,
+      HashMap<Integer, String> variables,
+      HashMap<String, Integer> coefficients,
+      int m,
+      int n) {
+    this(A, b, c, 0.0, variables, coefficients, m, n, DEF_EPSILON, DEF_INF);
+  }
+
+  DoubleLPState(double[] A, double[] b, double[] c, int m, int n) {
+    this(A, b, c, 0.0, null, null, m, n, DEF_EPSILON, DEF_INF);
+  }
+
+  @Override
+  public void pivot(int entering, int leaving) {
+    if (logger.isTraceEnabled()) {
+      logger.trace("Start pivoting with, entering - {}, leaving - {}", entering, leaving);
+    }
+    if ((long) m * n >= PARALLEL_THRESHOLD && PivotPool.getParallelism() > 1) {
+      pivotConcurrently(entering, leaving);
+    } else {
+      pivotSequentially(entering, leaving);
+    }
+  }
+
+  void pivotSequentially(int entering, int leaving) {
+    double pivEntCoef = divideLeavingRow(entering, leaving);
+    updateRows(0, m, entering, leaving, pivEntCoef);
+    updateObjective(entering, leaving, pivEntCoef);
+    exchangeIndexes(entering, leaving);
+  }
+
+  /** Same as {@link #pivotSequentially(int, int)}, but rows are updated by {@link PivotPool}. */
+  void pivotConcurrently(int entering, int leaving) {
+    logger.trace("Start pivoting concurrently");
+    double pivEntCoef = divideLeavingRow(entering, leaving);
+    PivotPool.forEachRowBlock(
+        m, BLOCK_WORK / n, (from, to) -> updateRows(from, to, entering, leaving, pivEntCoef));
+    updateObjective(entering, leaving, pivEntCoef);
+    exchangeIndexes(entering, leaving);
+  }
+
+  private double divideLeavingRow(int entering, int leaving) {
+    int pivotOffset = leaving * n;
+    double pivEntCoef = A[pivotOffset + entering];
+    for (int j = pivotOffset, end = pivotOffset + n; j < end; j++) {
+      A[j] /= pivEntCoef;
+    }
+    A[pivotOffset + entering] = 1.0 / pivEntCoef;
+    b[leaving] /= pivEntCoef;
+    return pivEntCoef;
+  }
+
+  private void updateRows(int from, int to, int entering, int leaving, double pivEntCoef) {
+    int pivotOffset = leaving * n;
+    double bEntering = b[leaving];
+    for (int i = from; i < to; i++) {
+      if (i == leaving) {
+        continue;
+      }
+      int offset = i * n;
+      double curEntCoef = A[offset + entering];
+      if (curEntCoef == 0.0) {
+        continue;
+      }
+      for (int j = 0; j < n; j++) {
+        A[offset + j] -= curEntCoef * A[pivotOffset + j];
+      }
+      A[offset + entering] = -curEntCoef / pivEntCoef;
+      b[i] -= curEntCoef * bEntering;
+    }
+  }
+
+  private void updateObjective(int entering, int leaving, double pivEntCoef) {
+    int pivotOffset = leaving * n;
+    double pivotCoefficientInC = c[entering];
+    v += b[leaving] * pivotCoefficientInC;
+    for (int j = 0; j < n; j++) {
+      c[j] -= pivotCoefficientInC * A[pivotOffset + j];
+    }
+    c[entering] = -pivotCoefficientInC / pivEntCoef;
+  }
+
+  @Override
+  public int getEntering() {
+    for (int i = 0; i < n; i++) {
+      if (c[i] > epsilon) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int getLeaving(int entering) {
+    Validate.isTrue(entering >= 0 && entering < n);
+    int leaving = -1;
+    double minSlack = INF;
+    for (int i = 0, offset = entering; i < m; i++, offset += n) {
+      double aie = A[offset];
+      if (aie >= epsilon) {
+        double slack = b[i] / aie;
+        if (slack < minSlack) {
+          minSlack = slack;
+          leaving = i;
+        }
+      }
+    }
+    return leaving;
+  }
+
+  @Override
+  void complementColumn(int column, double bound) {
+    for (int i = 0, k = column; i < m; i++, k += n) {
+      double aij = A[k];
+      if (aij != 0.0) {
+        b[i] -= aij * bound;
+        A[k] = -aij;
+      }
+    }
+    v += c[column] * bound;
+    c[column] = -c[column];
+  }
+
+  @Override
+  void complementRow(int row, double bound) {
+    for (int k = row * n, end = k + n; k < end; k++) {
+      A[k] = -A[k];
+    }
+    b[row] = bound - b[row];
+  }
+
+  @Override
+  public BigDecimal getObjectiveValue() {
+    return BigDecimal.valueOf(v);
+  }
+
+  @Override
+  double getRhs(int row) {
+    return b[row];
+  }
+
+  @Override
+  void loadColumn(int column, double[] out) {
+    for (int i = 0, offset = column; i < m; i++, offset += n) {
+      out[i] = A[offset];
+    }
+  }
+
+  @Override
+  double getReducedCost(int column) {
+    return c[column];
+  }
+
+  @Override
+  double getTolerance() {
+    return epsilon;
+  }
+
+  @Override
+  double getEntry(int row, int column) {
+    return A[row * n + column];
+  }
+
+  @Override
+  DoubleLPState restoreInitialLP(LPStandardForm initial, int indexOfX0) {
+    logger.trace("Restoring initial linear program after initialization");
+    int n = initial.n;
+
+    // restoring A
+    double[] A = new double[m * n];
+    for (int i = 0; i < m; i++) {
+      System.arraycopy(this.A, i * this.n, A, i * n, indexOfX0);
+      System.arraycopy(this.A, i * this.n + indexOfX0 + 1, A, i * n + indexOfX0, n - indexOfX0);
+    }
+
+    Set<String> initialVariables = initial.coefficients.keySet();
+    double v = 0.0;
+    double[] c = new double[n];
+    for (String currentVar : initialVariables) {
+      int index = initial.coefficients.get(currentVar);
+      double initialCoefficient = initial.c[index].doubleValue();
+      int currentIndex = coefficients.get(currentVar);
+      if (currentIndex >= this.n) {
+        // basis variable, need to substitute
+        int row = currentIndex - this.n;
+        v += b[row] * initialCoefficient;
+        for (int j = 0, offset = row * n; j < n; j++) {
+          c[j] -= A[offset + j] * initialCoefficient;
+        }
+      } else {
+        // non-basis variable, columns after x0 are shifted
+        c[currentIndex > indexOfX0 ? currentIndex - 1 : currentIndex] += initialCoefficient;
+      }
+    }
+
+    removeVariable(indexOfX0, n, m);
+    return new DoubleLPState(
+        A, b, c, v, variables, coefficients, initial.m, initial.n, epsilon, INF);
+  }
+}
@@ -0,0 +1,68 @@
+package lpsolver;
+
+/**
+ * Pricing and ratio test of the dual simplex method. The dictionary is dual feasible, every
+ * coefficient of the objective function is non-positive, and basic variables may be negative or
+ * exceed their upper bounds. The leaving variable is an infeasible basic one, the entering variable
+ * keeps the dictionary dual feasible. The dictionary is optimal once it is primal feasible.
+ */
+class DualSimplex {
+  private double[] row = new double[0];
+
+  /**
+   * Dual pricing, chooses the row of the basic variable with the largest infeasibility, below zero
+   * or above its upper bound, or the first infeasible one with Bland's rule. A variable above its
+   * upper bound has to be complemented before the dual ratio test.
+   *
+   * @return row of the leaving variable, {@code -1} if the dictionary is primal feasible
+   */
+  int getLeaving(SimplexState state, boolean bland) {
+    double tolerance = state.getTolerance();
+    int leaving = -1;
+    double maxInfeasibility = tolerance;
+    for (int i = 0; i < state.m; i++) {
+      double rhs = state.getRhs(i);
+      double infeasibility = Math.max(-rhs, rhs - state.getUpperBound(state.n + i));
+      if (infeasibility > maxInfeasibility) {
+        leaving = i;
+        if (bland) {
+          break;
+        }
+        maxInfeasibility = infeasibility;
+      }
+    }
+    return leaving;
+  }
+
+  /**
+   * Dual ratio test. Among non-basic variables with a negative coefficient in the {@code leaving}
+   * row, chooses the one with the smallest ratio {@code c_j / a_rj}, preferring larger pivot
+   * elements on ties, or the first one with Bland's rule.
+   *
+   * @return index of the entering variable, {@code -1} if the linear program is infeasible
+   */
+  int getEntering(SimplexState state, int leaving, boolean bland) {
+    int n = state.n;
+    if (row.length < n) {
+      row = new double[n];
+    }
+    state.loadRow(leaving, row);
+    double tolerance = state.getTolerance();
+    int entering = -1;
+    double minRatio = Double.POSITIVE_INFINITY;
+    double maxPivot = 0.0;
+    for (int j = 0; j < n; j++) {
+      double arj = row[j];
+      if (arj < -tolerance) {
+        double ratio = Math.min(state.getReducedCost(j), 0.0) / arj;
+        if (ratio < minRatio - tolerance
+            || (!bland && ratio <= minRatio + tolerance && -arj > maxPivot)) {
+          entering = j;
+          minRatio = Math.min(ratio, minRatio);
+          maxPivot = -arj;
+        }
+      }
+    }
+    return entering;
+  }
+}
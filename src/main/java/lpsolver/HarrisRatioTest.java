@@ -0,0 +1,82 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Two-pass ratio test of Harris. The first pass computes the step {@code theta} allowed when every
+ * basic variable may become negative by at most {@code tolerance}. The second pass chooses, among
+ * the rows whose exact ratio does not exceed {@code theta}, the one with the largest pivot
+ * element. Ratios are compared by cross-multiplication, so only the first pass divides.
+ *
+ * <p>Large pivots keep the dictionary well conditioned at the price of basic variables slightly
+ * below zero, which the next iterations treat as zero.
+ */
+public class HarrisRatioTest implements RatioTest {
+  public static final double DEF_TOLERANCE = 1e-9;
+
+  private final double tolerance;
+  private double[] column = new double[0];
+
+  public HarrisRatioTest() {
+    this(DEF_TOLERANCE);
+  }
+
+  public HarrisRatioTest(double tolerance) {
+    Validate.isTrue(tolerance >= 0, "Tolerance should be non-negative");
+    this.tolerance = tolerance;
+  }
+
+  @Override
+  public int getLeaving(SimplexState state, int entering) {
+    int m = state.m;
+    if (column.length < m) {
+      column = new double[m];
+    }
+    state.loadColumn(entering, column);
+    double pivotTolerance = state.getTolerance();
+
+    // first pass, bound of the step with relaxed feasibility
+    double theta = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < m; i++) {
+      double aie = column[i];
+      if (aie >= pivotTolerance) {
+        double relaxed = (Math.max(state.getRhs(i), 0.0) + tolerance) / aie;
+        if (relaxed < theta) {
+          theta = relaxed;
+        }
+      }
+    }
+    if (theta == Double.POSITIVE_INFINITY) {
+      return -1;
+    }
+
+    // second pass, largest pivot among rows with b_i / a_ie <= theta
+    int leaving = -1;
+    double maxPivot = 0.0;
+    for (int i = 0; i < m; i++) {
+      double aie = column[i];
+      if (aie >= pivotTolerance
+          && aie > maxPivot
+          && Math.max(state.getRhs(i), 0.0) <= theta * aie) {
+        maxPivot = aie;
+        leaving = i;
+      }
+    }
+    return leaving;
+  }
+
+  @Override
+  public RatioTest copy() {
+    return new HarrisRatioTest(tolerance);
+  }
+
+  @Override
+  public String getName() {
+    return "Harris";
+  }
+
+  @Override
+  public String getKey() {
+    return getName() + '(' + tolerance + ')';
+  }
+}
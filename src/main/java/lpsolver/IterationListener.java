@@ -0,0 +1,17 @@
+package lpsolver;
+
+/** Receives a notification after every pivot performed by {@link LPSolver}. */
+@FunctionalInterface
+public interface IterationListener {
+
+  /**
+   * Called on the solving thread right after a pivot.
+   *
+   * @param phase {@code 0} while installing a warm start basis, {@code 1} while solving the
+   *     auxiliary linear program or by dual simplex, {@code 2} afterwards
+   * @param entering index of the entering non-basic variable
+   * @param leaving row of the leaving basic variable
+   * @param statistics statistics of the running solve, updated with this pivot
+   */
+  void iterationFinished(int phase, int entering, int leaving, SolveStatistics statistics);
+}
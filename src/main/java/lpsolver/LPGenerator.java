@@ -0,0 +1,471 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generator of reproducible linear programs for benchmarks and scaling tests: the same seed and
+ * the same calls always give the same programs. Programs are built as sparse {@link
+ * LPStandardForm}s, so sizes are limited by the number of non-zeros rather than by {@code m * n};
+ * {@link LPStandardForm#toDense()} gives the dense form. {@link #write(LPStandardForm, Writer)}
+ * saves a program in the format of {@link LPInputReader}.
+ *
+ * <p>Random families are constructed around a known feasible point {@code x*}: {@code b = A x* +
+ * s} with non-negative slack {@code s}, so right-hand sides of both signs appear and the
+ * initialization phase is exercised.
+ */
+public class LPGenerator {
+  public static final int DEF_MAX_COEFFICIENT = 9;
+  private static final Logger logger = LogManager.getLogger(LPGenerator.class);
+  private final Random random;
+  private int maxCoefficient = DEF_MAX_COEFFICIENT;
+
+  public LPGenerator(long seed) {
+    this.random = new Random(seed);
+  }
+
+  public int getMaxCoefficient() {
+    return maxCoefficient;
+  }
+
+  /** Sets the bound of absolute values of generated constraint coefficients. */
+  public void setMaxCoefficient(int maxCoefficient) {
+    Validate.isTrue(maxCoefficient > 0, "Max coefficient should be positive");
+    this.maxCoefficient = maxCoefficient;
+  }
+
+  /** Feasible and bounded program with every entry of the constraint matrix non-zero. */
+  public LPStandardForm dense(int m, int n) {
+    return random(m, n, 1.0);
+  }
+
+  /**
+   * Feasible and bounded program, {@code m - 1} random rows with the given density and a row
+   * bounding the sum of all variables.
+   */
+  public LPStandardForm random(int m, int n, double density) {
+    validateSize(m, n, density);
+    logger.debug("Generating random program {}x{}, density {}", m, n, density);
+    double[] point = randomPoint(n, 0.5);
+    Rows rows = new Rows(m, n);
+    for (int i = 0; i < m - 1; i++) {
+      randomRow(rows, n, density, true);
+      rows.end(rows.activity(point) + random.nextInt(10 * maxCoefficient + 1));
+    }
+    addBoundingRow(rows, point);
+    return rows.build(randomCosts(n, true), true);
+  }
+
+  /**
+   * Feasible and bounded program whose known feasible point has many zero components and makes
+   * every random constraint tight, so most bases met by the simplex are degenerate.
+   */
+  public LPStandardForm degenerate(int m, int n, double density) {
+    validateSize(m, n, density);
+    double[] point = randomPoint(n, 0.8);
+    Rows rows = new Rows(m, n);
+    for (int i = 0; i < m - 1; i++) {
+      randomRow(rows, n, density, true);
+      rows.end(rows.activity(point));
+    }
+    addBoundingRow(rows, point);
+    return rows.build(randomCosts(n, true), true);
+  }
+
+  /** Program whose last two rows require {@code a x <= beta} and {@code a x >= beta + 1}. */
+  public LPStandardForm infeasible(int m, int n, double density) {
+    validateSize(m, n, density);
+    Validate.isTrue(m >= 2, "Infeasible program needs at least 2 rows");
+    double[] point = randomPoint(n, 0.5);
+    Rows rows = new Rows(m, n);
+    for (int i = 0; i < m - 2; i++) {
+      randomRow(rows, n, density, true);
+      rows.end(rows.activity(point) + random.nextInt(10 * maxCoefficient + 1));
+    }
+    randomRow(rows, n, density, false);
+    int[] columns = Arrays.copyOf(rows.columns, rows.size);
+    double[] values = Arrays.copyOf(rows.values, rows.size);
+    double beta = rows.end(rows.activity(point));
+    for (int k = 0; k < columns.length; k++) {
+      rows.add(columns[k], -values[k]);
+    }
+    rows.end(-beta - 1);
+    return rows.build(randomCosts(n, true), true);
+  }
+
+  /**
+   * Feasible program in which the last variable has positive cost and non-positive coefficients
+   * in every row, so the objective function grows without bound along it.
+   */
+  public LPStandardForm unbounded(int m, int n, double density) {
+    validateSize(m, n, density);
+    Validate.isTrue(n >= 2, "Unbounded program needs at least 2 variables");
+    double[] point = randomPoint(n, 0.5);
+    Rows rows = new Rows(m, n);
+    for (int i = 0; i < m; i++) {
+      randomRow(rows, n - 1, density, true);
+      if (random.nextDouble() < density) {
+        rows.add(n - 1, -1 - random.nextInt(maxCoefficient));
+      }
+      rows.end(rows.activity(point) + random.nextInt(10 * maxCoefficient + 1));
+    }
+    BigDecimal[] c = randomCosts(n, true);
+    c[n - 1] = BigDecimal.ONE;
+    return rows.build(c, true);
+  }
+
+  /**
+   * Minimum cost assignment of {@code size} workers to {@code size} jobs. Variable {@code i * size
+   * + j} assigns the worker {@code i} to the job {@code j}; rows are equalities.
+   */
+  public LPStandardForm assignment(int size) {
+    Validate.isTrue(size > 0, "Size should be positive");
+    int n = size * size;
+    Rows rows = new Rows(2 * size, n);
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        rows.add(i * size + j, 1);
+      }
+      rows.endEquality(1);
+    }
+    for (int j = 0; j < size; j++) {
+      for (int i = 0; i < size; i++) {
+        rows.add(i * size + j, 1);
+      }
+      rows.endEquality(1);
+    }
+    return rows.build(randomCosts(n, true), false);
+  }
+
+  /**
+   * Minimum cost transportation from {@code suppliers} to {@code consumers}, total supply exceeds
+   * total demand. Variable {@code i * consumers + j} is shipped from {@code i} to {@code j}.
+   */
+  public LPStandardForm transportation(int suppliers, int consumers) {
+    Validate.isTrue(suppliers > 0 && consumers > 0, "Sizes should be positive");
+    int n = suppliers * consumers;
+    int[] demand = new int[consumers];
+    long totalDemand = 0;
+    for (int j = 0; j < consumers; j++) {
+      demand[j] = 1 + random.nextInt(100);
+      totalDemand += demand[j];
+    }
+    Rows rows = new Rows(suppliers + consumers, n);
+    long supplied = 0;
+    for (int i = 0; i < suppliers; i++) {
+      long supply =
+          i == suppliers - 1
+              ? Math.max(totalDemand - supplied, 0) + 1 + random.nextInt(100)
+              : (totalDemand / suppliers) + random.nextInt(100);
+      supplied += supply;
+      for (int j = 0; j < consumers; j++) {
+        rows.add(i * consumers + j, 1);
+      }
+      rows.end(supply);
+    }
+    for (int j = 0; j < consumers; j++) {
+      for (int i = 0; i < suppliers; i++) {
+        rows.add(i * consumers + j, -1);
+      }
+      rows.end(-demand[j]);
+    }
+    return rows.build(randomCosts(n, true), false);
+  }
+
+  /**
+   * Maximum flow from the node {@code 0} to the node {@code nodes - 1} of a random network. Arcs
+   * {@code i -> i + 1} keep the sink reachable and every node has {@code arcsPerNode - 1} more
+   * arcs to random nodes. Variable {@code e} is the flow along the arc {@code e}, bounded by the
+   * capacity of the arc; rows are the flow conservation equalities of inner nodes.
+   */
+  public LPStandardForm maxFlow(int nodes, int arcsPerNode) {
+    Validate.isTrue(
+        nodes >= 2 && arcsPerNode > 0, "Network should have 2 nodes and 1 arc per node");
+    int arcs = (nodes - 1) * arcsPerNode;
+    int[] tail = new int[arcs], head = new int[arcs];
+    for (int v = 0, e = 0; v < nodes - 1; v++) {
+      tail[e] = v;
+      head[e++] = v + 1;
+      for (int k = 1; k < arcsPerNode; k++, e++) {
+        int to = random.nextInt(nodes - 1);
+        tail[e] = v;
+        head[e] = to >= v ? to + 1 : to;
+      }
+    }
+    int[] outStart = new int[nodes + 1], inStart = new int[nodes + 1];
+    for (int e = 0; e < arcs; e++) {
+      ++outStart[tail[e] + 1];
+      ++inStart[head[e] + 1];
+    }
+    for (int v = 0; v < nodes; v++) {
+      outStart[v + 1] += outStart[v];
+      inStart[v + 1] += inStart[v];
+    }
+    int[] outArcs = new int[arcs], inArcs = new int[arcs];
+    int[] outFill = outStart.clone(), inFill = inStart.clone();
+    for (int e = 0; e < arcs; e++) {
+      outArcs[outFill[tail[e]]++] = e;
+      inArcs[inFill[head[e]]++] = e;
+    }
+
+    int[] capacity = new int[arcs];
+    for (int e = 0; e < arcs; e++) {
+      capacity[e] = 1 + random.nextInt(100);
+    }
+    Rows rows = new Rows(nodes - 2, arcs);
+    for (int v = 1; v < nodes - 1; v++) {
+      for (int k = outStart[v]; k < outStart[v + 1]; k++) {
+        rows.add(outArcs[k], 1);
+      }
+      for (int k = inStart[v]; k < inStart[v + 1]; k++) {
+        rows.add(inArcs[k], -1);
+      }
+      rows.endEquality(0);
+    }
+    BigDecimal[] c = new BigDecimal[arcs];
+    for (int e = 0; e < arcs; e++) {
+      c[e] = BigDecimal.valueOf((tail[e] == 0 ? 1 : 0) - (head[e] == 0 ? 1 : 0));
+    }
+    LPStandardForm stForm = rows.build(c, true);
+    for (int e = 0; e < arcs; e++) {
+      stForm.setBounds(e, BigDecimal.ZERO, BigDecimal.valueOf(capacity[e]));
+    }
+    return stForm;
+  }
+
+  /**
+   * Writes {@code stForm} in the format of {@link LPInputReader}. The objective function lists all
+   * variables, so the program read back has the same variable order.
+   */
+  public static void write(LPStandardForm stForm, Writer out) throws IOException {
+    Validate.isTrue(stForm.hasVariableNames(), "Standard form should have variable names");
+    out.write(stForm.maximize ? "max\n" : "min\n");
+    StringBuilder builder = new StringBuilder();
+    for (int j = 0; j < stForm.n; j++) {
+      appendTerm(builder, stForm.c[j], stForm.variables.get(j), j == 0);
+    }
+    out.write(builder.toString());
+    for (int i = 0; i < stForm.m; i++) {
+      builder.setLength(0);
+      builder.append('\n');
+      boolean first = true;
+      if (stForm.isSparse()) {
+        SparseMatrix A = stForm.sparseA;
+        for (int k = A.rowStart[i]; k < A.rowStart[i + 1]; k++) {
+          appendTerm(
+              builder,
+              BigDecimal.valueOf(A.values[k]),
+              stForm.variables.get(A.columnIndexes[k]),
+              first);
+          first = false;
+        }
+      } else {
+        for (int j = 0; j < stForm.n; j++) {
+          if (stForm.A[i][j].signum() != 0) {
+            appendTerm(builder, stForm.A[i][j], stForm.variables.get(j), first);
+            first = false;
+          }
+        }
+      }
+      if (first) {
+        // the reader needs at least one variable in every constraint
+        appendTerm(builder, BigDecimal.ZERO, stForm.variables.get(0), true);
+      }
+      builder
+          .append(stForm.isEquality(i) ? " = " : " <= ")
+          .append(stForm.b[i].stripTrailingZeros().toPlainString());
+      out.write(builder.toString());
+    }
+    if (stForm.hasBounds()) {
+      out.write("\nbounds");
+      for (int j = 0; j < stForm.n; j++) {
+        BigDecimal lower = stForm.getLowerBound(j);
+        BigDecimal upper = stForm.getUpperBound(j);
+        if (lower.signum() != 0 || upper != null) {
+          builder.setLength(0);
+          builder.append('\n');
+          if (upper == null) {
+            builder.append(stForm.variables.get(j)).append(" >= ");
+            builder.append(lower.stripTrailingZeros().toPlainString());
+          } else {
+            if (lower.signum() != 0) {
+              builder.append(lower.stripTrailingZeros().toPlainString()).append(" <= ");
+            }
+            builder.append(stForm.variables.get(j)).append(" <= ");
+            builder.append(upper.stripTrailingZeros().toPlainString());
+          }
+          out.write(builder.toString());
+        }
+      }
+    }
+    out.write('\n');
+  }
+
+  public static void write(LPStandardForm stForm, File file) throws IOException {
+    try (Writer out = new BufferedWriter(new FileWriter(file))) {
+      write(stForm, out);
+    }
+  }
+
+  private static void appendTerm(
+      StringBuilder builder, BigDecimal coefficient, String variable, boolean first) {
+    if (!first) {
+      builder.append(coefficient.signum() < 0 ? " - " : " + ");
+    } else if (coefficient.signum() < 0) {
+      builder.append('-');
+    }
+    builder.append(coefficient.abs().stripTrailingZeros().toPlainString()).append(variable);
+  }
+
+  private void validateSize(int m, int n, double density) {
+    Validate.isTrue(m > 0 && n > 0, "Sizes should be positive");
+    Validate.isTrue(density > 0 && density <= 1, "Density should be in (0, 1]");
+  }
+
+  private double[] randomPoint(int n, double zeroProbability) {
+    double[] point = new double[n];
+    for (int j = 0; j < n; j++) {
+      point[j] = random.nextDouble() < zeroProbability ? 0 : random.nextInt(10);
+    }
+    return point;
+  }
+
+  private BigDecimal[] randomCosts(int n, boolean positive) {
+    BigDecimal[] c = new BigDecimal[n];
+    for (int j = 0; j < n; j++) {
+      c[j] = BigDecimal.valueOf(positive ? 1 + random.nextInt(20) : random.nextInt(41) - 20);
+    }
+    return c;
+  }
+
+  /**
+   * Adds non-zeros of a random row with the expected {@code density}, at least one. Sparse rows
+   * draw only their non-zero columns, so the cost does not depend on {@code n}.
+   */
+  private void randomRow(Rows rows, int n, double density, boolean signed) {
+    if (density >= 0.25) {
+      for (int j = 0; j < n; j++) {
+        if (random.nextDouble() < density) {
+          rows.add(j, randomCoefficient(signed));
+        }
+      }
+    } else {
+      double mean = n * density;
+      int count = (int) Math.max(0, Math.round(mean + random.nextGaussian() * Math.sqrt(mean)));
+      for (int k = 0; k < count; k++) {
+        rows.add(random.nextInt(n), randomCoefficient(signed));
+      }
+    }
+    if (rows.isRowEmpty()) {
+      rows.add(random.nextInt(n), randomCoefficient(signed));
+    }
+  }
+
+  private double randomCoefficient(boolean signed) {
+    int value = 1 + random.nextInt(maxCoefficient);
+    return signed && random.nextInt(4) == 0 ? -value : value;
+  }
+
+  private void addBoundingRow(Rows rows, double[] point) {
+    double sum = 0;
+    for (int j = 0; j < point.length; j++) {
+      rows.add(j, 1);
+      sum += point[j];
+    }
+    rows.end(sum + 1 + random.nextInt(100));
+  }
+
+  /**
+   * Constraint rows {@code a x <= beta} collected before the matrix is built. Repeated columns of
+   * a row are ignored, so right-hand sides computed from {@link #activity(double[])} match the
+   * built matrix.
+   */
+  private static class Rows {
+    final int n;
+    final SparseMatrix.Builder builder;
+    final BigDecimal[] b;
+    final boolean[] equalities;
+    final int[] rowOfColumn;
+    int[] columns = new int[16];
+    double[] values = new double[16];
+    int size, row;
+
+    Rows(int m, int n) {
+      this.n = n;
+      this.builder = new SparseMatrix.Builder();
+      this.b = new BigDecimal[m];
+      this.equalities = new boolean[m];
+      this.rowOfColumn = new int[n];
+      Arrays.fill(rowOfColumn, -1);
+    }
+
+    void add(int column, double value) {
+      if (rowOfColumn[column] == row) {
+        return;
+      }
+      rowOfColumn[column] = row;
+      if (size == columns.length) {
+        columns = Arrays.copyOf(columns, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      columns[size] = column;
+      values[size++] = value;
+    }
+
+    boolean isRowEmpty() {
+      return size == 0;
+    }
+
+    /** Value of the left-hand side of the current row at {@code point}. */
+    double activity(double[] point) {
+      double sum = 0;
+      for (int k = 0; k < size; k++) {
+        sum += values[k] * point[columns[k]];
+      }
+      return sum;
+    }
+
+    double end(double beta) {
+      for (int k = 0; k < size; k++) {
+        builder.add(columns[k], values[k]);
+      }
+      builder.endRow();
+      b[row++] = BigDecimal.valueOf(beta);
+      size = 0;
+      return beta;
+    }
+
+    /** Ends the current row as the equality {@code a x = beta}. */
+    void endEquality(double beta) {
+      equalities[row] = true;
+      end(beta);
+    }
+
+    LPStandardForm build(BigDecimal[] c, boolean maximize) {
+      LPStandardForm stForm =
+          new LPStandardForm(
+              builder.build(n),
+              b,
+              c,
+              LPStandardForm.defaultVariables(n),
+              LPStandardForm.defaultCoefficients(n),
+              maximize);
+      for (int i = 0; i < b.length; i++) {
+        if (equalities[i]) {
+          stForm.setEquality(i, true);
+        }
+      }
+      return stForm;
+    }
+  }
+}
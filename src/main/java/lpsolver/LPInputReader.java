@@ -1,51 +1,63 @@
 package lpsolver;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Reads linear programs of the form
+ *
+ * <pre>
+ * max
+ * 3x1 + 2x2
+ * x1 + x2 <= 4
+ * x1 - x2 = 1
+ * bounds
+ * x1 <= 3
+ * -1 <= x2 <= 2
+ * </pre>
+ *
+ * Constraints are {@code <=}, {@code >=} or equalities {@code =}, {@code ==}. The optional {@code
+ * bounds} section after the constraints sets bounds of single variables, the default bounds are
+ * {@code x >= 0}. A blank line after the constraints ends the program.
+ *
+ * <p>The input is scanned in a single pass by {@link LPTokenizer}; rows go straight into the
+ * sparse matrix builder, or into a list of entries for the dense matrix, so neither the whole file
+ * nor a dense row is held while reading.
+ *
+ * <p>A reader holds no state of a read, so one reader can read many programs concurrently.
+ */
 public class LPInputReader {
-  private static final Pattern tokenPattern;
-  private static final Pattern objectivePattern;
-  private static final Pattern constraintPattern;
+  private static final String BOUNDS = "bounds";
   private static final Logger logger = LogManager.getLogger(LPInputReader.class);
 
-  static {
-    objectivePattern = Pattern.compile("^((\\s*[+-]?\\s*\\d*\\.?\\d*)\\*?([a-zA-Z]+\\d*))+\\s*$");
-    constraintPattern =
-        Pattern.compile(
-            "^((\\s*[+-]?\\s*\\d*\\.?\\d*)\\*?([a-zA-Z]+\\d*))+\\s*(=|==|<=|>=)\\s*(-?\\s*\\d+(\\.\\d+)?)\\s*$");
-    tokenPattern = Pattern.compile("(([+-]?\\s*\\d*\\.?\\d*)\\*?([a-zA-Z]+\\d*))");
+  private final boolean sparse;
+  // buffer of file reads, taken by a read and put back for the next one
+  private final AtomicReference<ByteBuffer> fileBuffer = new AtomicReference<>();
+
+  public LPInputReader() {
+    this(false);
   }
 
-  private ArrayList<ArrayList<BigDecimal>> A;
-  private ArrayList<BigDecimal> b, c;
-  private HashMap<Integer, String> variables;
-  private HashMap<String, Integer> coefficients;
-  private int numOfVariables, numOfInequalities;
-
-  public LPInputReader() {}
-
-  private void reload() {
-    this.A = new ArrayList<>();
-    this.b = new ArrayList<>();
-    this.c = new ArrayList<>();
-    this.variables = new HashMap<>();
-    this.coefficients = new HashMap<>();
-    this.numOfVariables = 0;
-    this.numOfInequalities = 0;
+  /**
+   * @param sparse whether the constraint matrix should be read into a {@link SparseMatrix}
+   *     instead of dense rows
+   */
+  public LPInputReader(boolean sparse) {
+    this.sparse = sparse;
   }
 
   @Contract("null -> fail")
@@ -59,58 +71,38 @@ public class LPInputReader {
       logger.error("{} should be a readable file", file);
       throw new IllegalArgumentException();
     }
-    reload();
-    boolean maximized;
-    int constraintCounter = 0;
-    try (BufferedReader in = new BufferedReader(new FileReader(file))) {
-      String maxOrMin = in.readLine();
-      if (maxOrMin == null) {
-        logger.error("Input file is empty");
-        throw new LPException("Input file is empty");
-      }
-      maximized = processMaxMinParam(maxOrMin);
-
-      String objective = in.readLine();
-      this.c = processObjective(objective);
-      String constraint;
-      while ((constraint = in.readLine()) != null) {
-        if (!StringUtils.isBlank(constraint)) {
-          processConstraint(constraint);
-          ++constraintCounter;
-        } else if (constraintCounter > 0) {
-          break;
-        } else {
-          logger.error("No constraints in the input file");
-          throw new LPException("No constraints in the input file");
-        }
-      }
+    ByteBuffer buffer = fileBuffer.getAndSet(null);
+    if (buffer == null) {
+      buffer = ByteBuffer.allocate(LPTokenizer.BUFFER_SIZE);
+    }
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      return new Parse(new LPTokenizer(channel, buffer)).read();
+    } finally {
+      fileBuffer.set(buffer);
     }
-    normalizeConstraintMatrix();
-    logger.info(
-        "Linear program has {} inequalities and {} variables", numOfInequalities, numOfVariables);
-    return new LPStandardForm(
-        A, b, c, variables, coefficients, numOfInequalities, numOfVariables, maximized);
   }
 
   @Contract("null -> fail")
   public LPStandardForm readLP(@NotNull String lp) throws LPException {
     logger.trace("Start reading lp {}", lp);
-    reload();
-    String[] lines = lp.split("\n");
-    if (lines.length < 3) {
-      logger.error("Linear program {} is incomplete", lp);
-      throw new LPException("Incomplete lp");
-    }
-    boolean maximized = processMaxMinParam(lines[0]);
-    c = processObjective(lines[1]);
-    for (int i = 2; i < lines.length; i++) {
-      processConstraint(lines[i]);
-    }
-    normalizeConstraintMatrix();
-    logger.info(
-        "Linear program has {} inequalities and {} variables", numOfInequalities, numOfVariables);
-    return new LPStandardForm(
-        A, b, c, variables, coefficients, numOfInequalities, numOfVariables, maximized);
+    try {
+      return new Parse(new LPTokenizer(lp)).read();
+    } catch (IOException e) {
+      // a string is never read with an I/O error
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Reads a program from its bytes, as a file of the same bytes is read. */
+  @Contract("null -> fail")
+  public LPStandardForm readLP(@NotNull byte[] lp) throws LPException {
+    logger.trace("Start reading lp of {} bytes", lp.length);
+    try {
+      return new Parse(new LPTokenizer(ByteBuffer.wrap(lp))).read();
+    } catch (IOException e) {
+      // bytes in memory are never read with an I/O error
+      throw new UncheckedIOException(e);
+    }
   }
 
   @Contract("null -> fail")
@@ -127,98 +119,306 @@ public class LPInputReader {
     }
   }
 
-  @Contract("null -> fail")
-  private ArrayList<BigDecimal> processObjective(@NotNull String objective) throws LPException {
-    logger.trace("Processing objective {}", objective);
-    if (!Pattern.matches(objectivePattern.pattern(), objective)) {
-      logger.error("Can't recognize objective {}", objective);
-      throw new LPException("Can't recognize objective");
-    }
-    ArrayList<BigDecimal> objectiveCoefficients = new ArrayList<>();
-    Matcher tokenMatcher = tokenPattern.matcher(objective);
-    String t;
-    for (int i = 0; tokenMatcher.find(); i++) {
-      String variableName = tokenMatcher.group(3);
-      variables.put(i, variableName);
-      coefficients.put(variableName, i);
-      t = tokenMatcher.group(2).trim();
-      t = t.replaceAll("\\s", "");
-      if (t.compareTo("") == 0 || t.compareTo("+") == 0) {
-        t = "1";
-      } else if (t.compareTo("-") == 0) {
-        t = "-1";
-      }
-      objectiveCoefficients.add(new BigDecimal(t));
-    }
-    numOfVariables = variables.size();
-    return objectiveCoefficients;
-  }
+  /** State of a single read, so reads running concurrently share nothing. */
+  private class Parse {
+    private final LPTokenizer tokenizer;
+    private final NameTable names = new NameTable();
+    private final ArrayList<BigDecimal> b = new ArrayList<>(), c = new ArrayList<>();
+    private final SparseMatrix.Builder sparseA;
+    // entries of the dense matrix in the order of reading
+    private int[] entryRows, entryColumns;
+    private BigDecimal[] entryValues;
+    private int entries;
+    // entries of the current row, negated for >= once the relation is read
+    private int[] rowColumns = new int[16];
+    private double[] rowDoubles = new double[16];
+    private BigDecimal[] rowDecimals = new BigDecimal[16];
+    private int rowSize;
+    private final ArrayList<Integer> equalityRows = new ArrayList<>();
+    private final HashMap<Integer, BigDecimal> lowerBounds = new HashMap<>();
+    private final HashMap<Integer, BigDecimal> upperBounds = new HashMap<>();
+    private boolean readingBounds;
+    private int numOfInequalities;
 
-  @Contract("null -> fail")
-  private void processConstraint(@NotNull String constraint) throws LPException {
-    logger.trace("Processing constraint {}", constraint);
-    Matcher constraintMatcher = constraintPattern.matcher(constraint);
-    if (!constraintMatcher.find()) {
-      logger.error("Can't recognize constraint {}", constraint);
-      throw new LPException("Can't recognize constraint");
-    }
-    ArrayList<BigDecimal> coefficients = new ArrayList<>(numOfVariables + 1);
-    for (int i = 0; i < numOfVariables; i++) {
-      coefficients.add(BigDecimal.ZERO);
-    }
-    Matcher tokenMatcher = tokenPattern.matcher(constraint);
-    while (tokenMatcher.find()) {
-      String varName = tokenMatcher.group(3);
-      if (!this.coefficients.containsKey(varName)) {
-        this.variables.put(numOfVariables, varName);
-        this.coefficients.put(varName, numOfVariables);
-        this.numOfVariables += 1;
-        coefficients.add(null);
+    Parse(LPTokenizer tokenizer) {
+      this.tokenizer = tokenizer;
+      if (sparse) {
+        sparseA = new SparseMatrix.Builder();
+      } else {
+        sparseA = null;
+        entryRows = new int[64];
+        entryColumns = new int[64];
+        entryValues = new BigDecimal[64];
+      }
+    }
+
+    LPStandardForm read() throws LPException, IOException {
+      if (!tokenizer.nextLine()) {
+        logger.error("Linear program is empty");
+        throw new LPException("Linear program is empty");
+      }
+      boolean maximized = processMaxMinParam(tokenizer.getLine());
+      if (!tokenizer.nextLine()) {
+        logger.error("Linear program has no objective");
+        throw new LPException("Incomplete lp");
+      }
+      processObjective();
+      int lines = 0;
+      while (tokenizer.nextLine()) {
+        if (!tokenizer.isBlank()) {
+          processLine();
+          ++lines;
+        } else if (lines > 0) {
+          break;
+        } else {
+          logger.error("No constraints in the linear program");
+          throw new LPException("No constraints in the linear program");
+        }
+      }
+      if (lines == 0) {
+        logger.error("No constraints in the linear program");
+        throw new LPException("Incomplete lp");
+      }
+      return createStandardForm(maximized);
+    }
+
+    private LPStandardForm createStandardForm(boolean maximized) throws LPException {
+      int numOfVariables = names.size();
+      logger.info(
+          "Linear program has {} constraints, {} of them equalities, and {} variables",
+          numOfInequalities,
+          equalityRows.size(),
+          numOfVariables);
+      BigDecimal[] rhs = b.toArray(new BigDecimal[0]);
+      BigDecimal[] objective = c.toArray(new BigDecimal[0]);
+      LPStandardForm stForm;
+      if (sparse) {
+        stForm =
+            new LPStandardForm(
+                sparseA.build(numOfVariables),
+                rhs,
+                objective,
+                names.toVariables(),
+                names.toCoefficients(),
+                maximized);
+      } else {
+        BigDecimal[][] A = new BigDecimal[numOfInequalities][numOfVariables];
+        for (BigDecimal[] row : A) {
+          Arrays.fill(row, BigDecimal.ZERO);
+        }
+        for (int k = 0; k < entries; k++) {
+          A[entryRows[k]][entryColumns[k]] = entryValues[k];
+        }
+        stForm =
+            new LPStandardForm(
+                A,
+                rhs,
+                objective,
+                names.toVariables(),
+                names.toCoefficients(),
+                numOfInequalities,
+                numOfVariables,
+                maximized);
+      }
+      for (int row : equalityRows) {
+        stForm.setEquality(row, true);
+      }
+      for (int j = 0; j < numOfVariables; j++) {
+        BigDecimal lower = lowerBounds.getOrDefault(j, BigDecimal.ZERO);
+        BigDecimal upper = upperBounds.get(j);
+        if (upper != null && lower.compareTo(upper) > 0) {
+          logger.error("Lower bound of {} exceeds its upper bound", names.getName(j));
+          throw new LPException("Lower bound of " + names.getName(j) + " exceeds its upper bound");
+        }
+        if (lower.signum() != 0 || upper != null) {
+          stForm.setBounds(j, lower, upper);
+        }
+      }
+      return stForm;
+    }
+
+    /** Processes a constraint, or a bound once the {@code bounds} section has started. */
+    private void processLine() throws LPException {
+      if (tokenizer.lineEquals(BOUNDS)) {
+        readingBounds = true;
+      } else if (readingBounds) {
+        processBound();
+      } else {
+        processConstraint();
+      }
+    }
+
+    /** Processes {@code x <= u}, {@code x >= l}, {@code x = v} or {@code l <= x <= u}. */
+    private void processBound() throws LPException {
+      if (logger.isTraceEnabled()) {
+        logger.trace("Processing bound {}", tokenizer.getLine());
+      }
+      BigDecimal lower = null;
+      if (!tokenizer.atName()) {
+        lower = readSignedNumber();
+        if (lower == null || tokenizer.readRelation() != '<') {
+          throw error("Can't recognize bound");
+        }
+      }
+      int start = tokenizer.readName();
+      if (start < 0) {
+        throw error("Can't recognize bound");
+      }
+      int column = getColumn(start);
+      char relation = tokenizer.readRelation();
+      BigDecimal value = readSignedNumber();
+      if (relation == 0 || value == null || !tokenizer.atEnd()) {
+        throw error("Can't recognize bound");
+      }
+      if (lower != null) {
+        if (relation != '<') {
+          throw error("Can't recognize bound");
+        }
+        lowerBounds.put(column, lower);
+        upperBounds.put(column, value);
+      } else if (relation == '<') {
+        upperBounds.put(column, value);
+      } else if (relation == '>') {
+        lowerBounds.put(column, value);
+      } else {
+        lowerBounds.put(column, value);
+        upperBounds.put(column, value);
+      }
+    }
+
+    /** Column of the variable, a new variable with zero cost is added for an unknown name. */
+    private int getColumn(int start) {
+      char[] chars = tokenizer.chars();
+      int length = tokenizer.getPosition() - start;
+      int column = names.get(chars, start, length);
+      if (column < 0) {
+        column = names.add(new String(chars, start, length));
         c.add(BigDecimal.ZERO);
       }
-      String t = tokenMatcher.group(2);
-      t = t.replaceAll("\\s+", "");
-      if (t.compareTo("") == 0 || t.compareTo("+") == 0) {
-        t = "1";
-      } else if (t.compareTo("-") == 0) {
-        t = "-1";
+      return column;
+    }
+
+    private void processObjective() throws LPException {
+      if (logger.isTraceEnabled()) {
+        logger.trace("Processing objective {}", tokenizer.getLine());
+      }
+      if (processTerms(true) <= 0 || !tokenizer.atEnd()) {
+        throw error("Can't recognize objective");
       }
-      coefficients.set(this.coefficients.get(varName), new BigDecimal(t));
     }
 
-    String inequalitySign = constraintMatcher.group(4).trim();
-    BigDecimal constraintNumber = new BigDecimal(constraintMatcher.group(5).replaceAll("\\s", ""));
-    if (inequalitySign.compareTo(">=") == 0) {
-      for (int i = 0; i < coefficients.size(); i++) {
-        coefficients.set(i, coefficients.get(i).negate());
+    private void processConstraint() throws LPException {
+      if (logger.isTraceEnabled()) {
+        logger.trace("Processing constraint {}", tokenizer.getLine());
+      }
+      rowSize = 0;
+      int terms = processTerms(false);
+      char relation = tokenizer.readRelation();
+      BigDecimal constraintNumber = readSignedNumber();
+      if (terms <= 0 || relation == 0 || constraintNumber == null || !tokenizer.atEnd()) {
+        throw error("Can't recognize constraint");
+      }
+      if (relation == '>') {
+        endRow(true);
+        b.add(constraintNumber.negate());
+      } else {
+        if (relation == '=') {
+          equalityRows.add(numOfInequalities);
+        }
+        endRow(false);
+        b.add(constraintNumber);
       }
-      b.add(constraintNumber.negate());
-      A.add(coefficients);
-      this.numOfInequalities += 1;
-    } else if (inequalitySign.compareTo("==") == 0 || inequalitySign.compareTo("=") == 0) {
-      ArrayList<BigDecimal> auxiliaryCoefficients = new ArrayList<>(coefficients);
-      for (int i = 0; i < coefficients.size(); i++) {
-        auxiliaryCoefficients.set(i, coefficients.get(i).negate());
-      }
-      A.add(coefficients);
-      A.add(auxiliaryCoefficients);
-      b.add(constraintNumber);
-      b.add(constraintNumber.negate());
-      this.numOfInequalities += 2;
-    } else {
-      A.add(coefficients);
-      b.add(constraintNumber);
       this.numOfInequalities += 1;
     }
-  }
 
-  private void normalizeConstraintMatrix() {
-    logger.trace("Normalizing constraint matrix");
-    for (ArrayList<BigDecimal> row : A) {
-      int size = row.size();
-      for (int j = 0; j < numOfVariables - size; j++) {
-        row.add(BigDecimal.ZERO);
+    /**
+     * Reads the terms {@code [+-][number][*]name} of a linear expression up to a relation or the
+     * end of the line, into the objective or the current row. A later term of the same variable
+     * replaces the former.
+     *
+     * @return the number of terms, {@code -1} if a term can't be recognized
+     */
+    private int processTerms(boolean objective) {
+      boolean doubles = sparse && !objective;
+      int terms = 0;
+      char next;
+      while ((next = tokenizer.peek()) != 0 && next != '<' && next != '>' && next != '=') {
+        int sign = tokenizer.readSign();
+        double value = 1.0;
+        BigDecimal decimal = BigDecimal.ONE;
+        if (tokenizer.atNumber()) {
+          if (doubles) {
+            value = tokenizer.readDouble();
+          } else {
+            decimal = tokenizer.readNumber();
+          }
+        }
+        tokenizer.consume('*');
+        int start = tokenizer.readName();
+        if (start < 0) {
+          return -1;
+        }
+        int column = getColumn(start);
+        if (sign < 0) {
+          value = -value;
+          decimal = decimal.negate();
+        }
+        if (objective) {
+          c.set(column, decimal);
+        } else {
+          addToRow(column, value, decimal);
+        }
+        ++terms;
+      }
+      return terms;
+    }
+
+    private void addToRow(int column, double value, BigDecimal decimal) {
+      if (rowSize == rowColumns.length) {
+        rowColumns = Arrays.copyOf(rowColumns, rowSize * 2);
+        rowDoubles = Arrays.copyOf(rowDoubles, rowSize * 2);
+        rowDecimals = Arrays.copyOf(rowDecimals, rowSize * 2);
+      }
+      rowColumns[rowSize] = column;
+      rowDoubles[rowSize] = value;
+      rowDecimals[rowSize] = decimal;
+      ++rowSize;
+    }
+
+    /** Moves the current row into the matrix. */
+    private void endRow(boolean negate) {
+      if (sparse) {
+        for (int k = 0; k < rowSize; k++) {
+          sparseA.add(rowColumns[k], negate ? -rowDoubles[k] : rowDoubles[k]);
+        }
+        sparseA.endRow();
+        return;
+      }
+      if (entries + rowSize > entryRows.length) {
+        int capacity = Math.max(entryRows.length * 2, entries + rowSize);
+        entryRows = Arrays.copyOf(entryRows, capacity);
+        entryColumns = Arrays.copyOf(entryColumns, capacity);
+        entryValues = Arrays.copyOf(entryValues, capacity);
+      }
+      for (int k = 0; k < rowSize; k++) {
+        entryRows[entries] = numOfInequalities;
+        entryColumns[entries] = rowColumns[k];
+        entryValues[entries] = negate ? rowDecimals[k].negate() : rowDecimals[k];
+        ++entries;
       }
     }
+
+    /** Reads {@code [+-]number}, {@code null} if there is no number. */
+    private BigDecimal readSignedNumber() {
+      int sign = tokenizer.readSign();
+      BigDecimal number = tokenizer.readNumber();
+      return number == null || sign > 0 ? number : number.negate();
+    }
+
+    private LPException error(String message) {
+      int line = tokenizer.getLineNumber();
+      logger.error("{} at line {}: {}", message, line, tokenizer.getLine());
+      return new LPException(message + " at line " + line);
+    }
   }
 }
@@ -0,0 +1,89 @@
+package lpsolver;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of {@link LPSolver#optimize(LPStandardForm)}. Values are rounded to 6 digits. Duals and
+ * slacks are indexed by the rows of the standard form, where {@code >=} constraints are negated;
+ * the dual of an equality may have either sign. Duals and reduced costs follow the sense of the
+ * initial objective: the dual of a row is the rate of change of the optimal value per unit of its
+ * right-hand side, the reduced cost of a variable at a bound is the rate per unit of the bound.
+ */
+public class LPSolution {
+  private final BigDecimal objectiveValue;
+  private final Map<String, BigDecimal> values;
+  private final Map<String, BigDecimal> reducedCosts;
+  private final BigDecimal[] duals;
+  private final BigDecimal[] slacks;
+  private final List<String> basis;
+  private final SolveStatistics statistics;
+
+  LPSolution(
+      BigDecimal objectiveValue,
+      Map<String, BigDecimal> values,
+      Map<String, BigDecimal> reducedCosts,
+      BigDecimal[] duals,
+      BigDecimal[] slacks,
+      List<String> basis,
+      SolveStatistics statistics) {
+    this.objectiveValue = objectiveValue;
+    this.values = Collections.unmodifiableMap(values);
+    this.reducedCosts = Collections.unmodifiableMap(reducedCosts);
+    this.duals = duals;
+    this.slacks = slacks;
+    this.basis = Collections.unmodifiableList(basis);
+    this.statistics = statistics;
+  }
+
+  /** Optimal objective function value of the initial linear program. */
+  public BigDecimal getObjectiveValue() {
+    return objectiveValue;
+  }
+
+  /** Values of the variables of the initial linear program, in the order of their columns. */
+  public Map<String, BigDecimal> getValues() {
+    return values;
+  }
+
+  public BigDecimal getValue(String variable) {
+    return values.get(variable);
+  }
+
+  /** Reduced costs of the variables of the initial linear program, zero for basic ones. */
+  public Map<String, BigDecimal> getReducedCosts() {
+    return reducedCosts;
+  }
+
+  public BigDecimal getReducedCost(String variable) {
+    return reducedCosts.get(variable);
+  }
+
+  public BigDecimal[] getDuals() {
+    return duals.clone();
+  }
+
+  public BigDecimal getDual(int row) {
+    return duals[row];
+  }
+
+  /** Slacks {@code b - Ax} of the rows, zero for tight constraints. */
+  public BigDecimal[] getSlacks() {
+    return slacks.clone();
+  }
+
+  public BigDecimal getSlack(int row) {
+    return slacks[row];
+  }
+
+  /** Names of the basic variables of the final dictionary by row, slack variables included. */
+  public List<String> getBasis() {
+    return basis;
+  }
+
+  public SolveStatistics getStatistics() {
+    return statistics;
+  }
+}
@@ -1,5 +1,6 @@
 package lpsolver;
 
+import org.apache.commons.lang3.Validate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -8,18 +9,39 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Set;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
 
 public class LPSolver {
+  /** Number of consecutive degenerate pivots after which Bland's rule is used to avoid cycling. */
+  public static final int DEF_DEGENERATE_PIVOTS_LIMIT = 50;
 
   private static final Logger logger = LogManager.getLogger(LPSolver.class);
+  private static final PricingRule BLAND = new BlandPricing();
+  private static final RatioTest MIN_RATIO = new MinRatioTest();
+  private static final int SOLUTION_SCALE = 6;
+  // result of the ratio test when the entering variable reaches its upper bound first
+  private static final int BOUND_FLIP = -2;
 
-  private MathContext printRounder;
-  private MathContext rounder;
-  private BigDecimal epsilon;
-  private BigDecimal inf;
+  private final MathContext printRounder;
+  private final MathContext rounder;
+  private final BigDecimal epsilon;
+  private final BigDecimal inf;
+  // settings are read once by every solve, see Solve
+  private volatile NumericBackend backend = NumericBackend.BIG_DECIMAL;
+  private volatile PricingRule pricingRule = BLAND;
+  private volatile RatioTest ratioTest = MIN_RATIO;
+  private volatile int degeneratePivotsLimit = DEF_DEGENERATE_PIVOTS_LIMIT;
+  private volatile IterationListener iterationListener;
+  private volatile SimplexMethod method = SimplexMethod.PRIMAL;
+  private volatile boolean presolve;
+  private volatile SolutionCache solutionCache;
 
   public LPSolver() {
     printRounder = LPState.DEF_PRINT_ROUNDER;
@@ -76,84 +98,750 @@ public class LPSolver {
   }
 
   public BigDecimal solve(LPStandardForm stForm) throws LPException {
-    logger.trace("Start solving linear program {}", stForm);
-    if (stForm.maximize) {
-      BigDecimal result = simplex(stForm);
-      logger.info("Optimal objective function value is {}", result);
-      return result;
-    } else {
+    return optimize(stForm).getObjectiveValue();
+  }
+
+  /**
+   * Solves the linear program. The solution is read from the final dictionary: values of the
+   * variables, duals, reduced costs, slacks and the basis, with statistics of the solve.
+   */
+  public LPSolution optimize(LPStandardForm stForm) throws LPException {
+    return optimize(stForm, null);
+  }
+
+  /**
+   * Solves the linear program starting from the {@code basis} of a previous solve of a program
+   * with the same variables and rows, see {@link LPSolution#getBasis()}. Phase 1 is skipped if
+   * the basis is feasible for this program, otherwise the solve starts from scratch.
+   *
+   * @param basis names of the basic variables by row, or {@code null} to start from scratch
+   */
+  public LPSolution optimize(LPStandardForm initial, List<String> basis) throws LPException {
+    logger.trace("Start solving linear program {}", initial);
+    SolveStatistics statistics = new SolveStatistics();
+    statistics.start();
+    Solve solve = new Solve(statistics);
+    SolutionCache cache = basis == null ? solve.solutionCache : null;
+    ContentHash key = null;
+    if (cache != null) {
+      // keyed by the settings of this solve, which setters called meanwhile do not change
+      key = solve.solutionKey(initial);
+      LPSolution cached = cache.get(key);
+      if (cached != null) {
+        logger.debug("Cached objective function value is {}", cached.getObjectiveValue());
+        return cached;
+      }
+    }
+    LPStandardForm stForm = maximized(initial);
+    String[] names = getNames(stForm);
+    LPStandardForm reduced = stForm;
+    Presolve presolver = null;
+    if (solve.presolve && basis == null) {
+      long start = System.nanoTime();
+      presolver = new Presolve(stForm, rounder, epsilon);
+      LPStandardForm presolved = presolver.presolve();
+      statistics.recordPresolve(
+          presolver.getRemovedRows(), presolver.getRemovedColumns(), System.nanoTime() - start);
+      if (presolved == null) {
+        presolver = null;
+      } else {
+        reduced = presolved;
+      }
+    }
+    String[] reducedNames = presolver == null ? names : getNames(reduced);
+    String[] slackNames = getSlackNames(reduced.coefficients, reduced.m);
+    SimplexState lpState = simplex(shiftLowerBounds(reduced), basis, solve);
+    if (presolver != null && presolver.isUnbounded()) {
+      logger.error("This linear program is unbounded");
+      throw new SolutionException("This linear program is unbounded");
+    }
+    LPSolution solution =
+        extractSolution(
+            lpState,
+            names,
+            reducedNames,
+            slackNames,
+            reduced,
+            presolver,
+            stForm.maximize,
+            statistics);
+    statistics.finish();
+    logger.info("Optimal objective function value is {}", solution.getObjectiveValue());
+    logger.debug("Solve statistics {}", statistics);
+    if (cache != null) {
+      cache.put(key, solution);
+    }
+    return solution;
+  }
+
+  /**
+   * Program solved in place of {@code stForm}: its objective function maximized, with default
+   * names of variables if it has none. The matrix, right-hand side and bounds are shared, since
+   * every dictionary is made of copies, so {@code stForm} is never changed by solving.
+   */
+  private static LPStandardForm maximized(LPStandardForm stForm) {
+    BigDecimal[] c = stForm.c;
+    if (!stForm.maximize) {
       logger.trace("Converting into maximization problem");
-      BigDecimal[] c = stForm.c;
-      for (int i = 0; i < c.length; i++) {
-        c[i] = c[i].negate();
+      c = new BigDecimal[stForm.n];
+      for (int j = 0; j < c.length; j++) {
+        c[j] = stForm.c[j].negate();
       }
-      BigDecimal result = simplex(stForm).negate();
-      logger.info("Optimal objective function value is {}", result);
-      return result;
     }
+    HashMap<Integer, String> variables = stForm.variables;
+    HashMap<String, Integer> coefficients = stForm.coefficients;
+    if (!stForm.hasVariableNames()) {
+      variables = LPStandardForm.defaultVariables(stForm.n);
+      coefficients = LPStandardForm.defaultCoefficients(stForm.n);
+    }
+    int m = stForm.m;
+    int n = stForm.n;
+    boolean maximize = stForm.maximize;
+    LPStandardForm maximized =
+        stForm.isSparse()
+            ? new LPStandardForm(stForm.sparseA, stForm.b, c, variables, coefficients, maximize)
+            : new LPStandardForm(stForm.A, stForm.b, c, variables, coefficients, m, n, maximize);
+    maximized.equalities = stForm.equalities;
+    maximized.lower = stForm.lower;
+    maximized.upper = stForm.upper;
+    return maximized;
+  }
+
+  /**
+   * Reads the solution of the initial linear program from the optimal dictionary {@code lpState}.
+   * A non-basic variable is zero, its reduced cost is its coefficient in the objective function;
+   * the dual of a row is the negated coefficient of its slack variable. Complemented variables are
+   * mapped back from {@code u - x} and shifted by the lower bounds of {@code reduced}. If the
+   * program was presolved, the solution of the reduced program is mapped back by {@code presolver}
+   * and the basis is not reported.
+   */
+  private LPSolution extractSolution(
+      SimplexState lpState,
+      String[] names,
+      String[] reducedNames,
+      String[] slackNames,
+      LPStandardForm reduced,
+      Presolve presolver,
+      boolean maximize,
+      SolveStatistics statistics) {
+    BigDecimal[] x = new BigDecimal[reducedNames.length];
+    BigDecimal[] d = new BigDecimal[reducedNames.length];
+    BigDecimal v = lpState.getObjectiveValue();
+    for (int j = 0; j < reducedNames.length; j++) {
+      int index = lpState.coefficients.get(reducedNames[j]);
+      x[j] = getValue(lpState, index).add(reduced.getLowerBound(j));
+      d[j] = getReducedCost(lpState, index);
+      v = v.add(reduced.c[j].multiply(reduced.getLowerBound(j)));
+    }
+    int m = slackNames.length;
+    BigDecimal[] y = new BigDecimal[m];
+    BigDecimal[] slacks = new BigDecimal[m];
+    for (int i = 0; i < m; i++) {
+      int index = lpState.coefficients.get(slackNames[i]);
+      slacks[i] = getValue(lpState, index);
+      y[i] = getReducedCost(lpState, index).negate();
+    }
+    List<String> basis = lpState.getBasicVariables();
+    if (presolver != null) {
+      Presolve.Solution initial = presolver.postsolve(x, y, v);
+      x = initial.values;
+      d = initial.reducedCosts;
+      y = initial.duals;
+      slacks = initial.slacks;
+      v = initial.objectiveValue;
+      basis = Collections.emptyList();
+    }
+
+    BigDecimal sign = maximize ? BigDecimal.ONE : BigDecimal.ONE.negate();
+    LinkedHashMap<String, BigDecimal> values = new LinkedHashMap<>();
+    LinkedHashMap<String, BigDecimal> reducedCosts = new LinkedHashMap<>();
+    for (int j = 0; j < names.length; j++) {
+      values.put(names[j], round(x[j]));
+      reducedCosts.put(names[j], round(d[j].multiply(sign)));
+    }
+    BigDecimal[] duals = new BigDecimal[y.length];
+    for (int i = 0; i < y.length; i++) {
+      duals[i] = round(y[i].multiply(sign));
+      slacks[i] = round(slacks[i]);
+    }
+    return new LPSolution(
+        round(v.multiply(sign)), values, reducedCosts, duals, slacks, basis, statistics);
+  }
+
+  /** Value of the variable of the {@code index}, zero if it is non-basic. */
+  private static BigDecimal getValue(SimplexState state, int index) {
+    BigDecimal value = index >= state.n ? state.getBasicValue(index - state.n) : BigDecimal.ZERO;
+    if (state.complemented != null && state.complemented[index]) {
+      value = BigDecimal.valueOf(state.upper[index]).subtract(value);
+    }
+    return value;
+  }
+
+  /** Coefficient of the variable of the {@code index} in the objective function. */
+  private static BigDecimal getReducedCost(SimplexState state, int index) {
+    if (index >= state.n) {
+      return BigDecimal.ZERO;
+    }
+    BigDecimal reducedCost = state.getObjectiveCoefficient(index);
+    if (state.complemented != null && state.complemented[index]) {
+      reducedCost = reducedCost.negate();
+    }
+    return reducedCost;
+  }
+
+  /**
+   * Substitutes {@code x_j = l_j + x'_j} for the variables with non-zero lower bounds {@code l_j},
+   * so the simplex works with {@code 0 <= x' <= u - l}. The constant {@code c l} of the objective
+   * function is added back with the values of the variables when the solution is read.
+   *
+   * @return shifted copy of {@code stForm}, or {@code stForm} if all lower bounds are zero
+   */
+  private static LPStandardForm shiftLowerBounds(LPStandardForm stForm) {
+    if (!stForm.hasBounds()) {
+      return stForm;
+    }
+    boolean shifted = false;
+    for (int j = 0; j < stForm.n && !shifted; j++) {
+      shifted = stForm.getLowerBound(j).signum() != 0;
+    }
+    if (!shifted) {
+      return stForm;
+    }
+    LPStandardForm copy = stForm.copy();
+    BigDecimal[] lower = stForm.lower;
+    for (int i = 0; i < stForm.m; i++) {
+      BigDecimal activity = BigDecimal.ZERO;
+      if (stForm.isSparse()) {
+        SparseMatrix A = stForm.sparseA;
+        for (int k = A.rowStart[i]; k < A.rowStart[i + 1]; k++) {
+          activity =
+              activity.add(BigDecimal.valueOf(A.values[k]).multiply(lower[A.columnIndexes[k]]));
+        }
+      } else {
+        for (int j = 0; j < stForm.n; j++) {
+          activity = activity.add(stForm.A[i][j].multiply(lower[j]));
+        }
+      }
+      copy.b[i] = copy.b[i].subtract(activity);
+    }
+    for (int j = 0; j < stForm.n; j++) {
+      copy.lower[j] = BigDecimal.ZERO;
+      if (copy.upper[j] != null) {
+        copy.upper[j] = copy.upper[j].subtract(lower[j]);
+      }
+    }
+    return copy;
+  }
+
+  private static String[] getNames(LPStandardForm stForm) {
+    String[] names = new String[stForm.n];
+    for (int j = 0; j < stForm.n; j++) {
+      names[j] = stForm.variables.get(j);
+    }
+    return names;
+  }
+
+  private static BigDecimal round(BigDecimal value) {
+    return value.setScale(SOLUTION_SCALE, RoundingMode.HALF_UP);
+  }
+
+  public MathContext getRounder() {
+    return rounder;
+  }
+
+  public BigDecimal getEpsilon() {
+    return epsilon;
+  }
+
+  public BigDecimal getInf() {
+    return inf;
+  }
+
+  public NumericBackend getBackend() {
+    return backend;
+  }
+
+  public void setBackend(NumericBackend backend) {
+    this.backend = Objects.requireNonNull(backend);
+  }
+
+  public PricingRule getPricingRule() {
+    return pricingRule;
+  }
+
+  public void setPricingRule(PricingRule pricingRule) {
+    this.pricingRule = Objects.requireNonNull(pricingRule);
+  }
+
+  public RatioTest getRatioTest() {
+    return ratioTest;
+  }
+
+  public void setRatioTest(RatioTest ratioTest) {
+    this.ratioTest = Objects.requireNonNull(ratioTest);
+  }
+
+  public boolean isPresolve() {
+    return presolve;
   }
 
-  private BigDecimal simplex(LPStandardForm stForm) throws LPException {
+  /**
+   * Enables reductions of the linear program before the simplex, see {@link Presolve}. Presolve is
+   * skipped when warm starting, since the basis refers to the initial program.
+   */
+  public void setPresolve(boolean presolve) {
+    this.presolve = presolve;
+  }
+
+  public SimplexMethod getMethod() {
+    return method;
+  }
+
+  /**
+   * Sets the algorithm used to reach a feasible dictionary. A warm start basis that is infeasible
+   * but dual feasible is reoptimized by dual simplex with either method.
+   */
+  public void setMethod(SimplexMethod method) {
+    this.method = Objects.requireNonNull(method);
+  }
+
+  public IterationListener getIterationListener() {
+    return iterationListener;
+  }
+
+  /** Sets the listener notified after every pivot, {@code null} removes it. */
+  public void setIterationListener(IterationListener iterationListener) {
+    this.iterationListener = iterationListener;
+  }
+
+  /** Key of {@code stForm} solved with the current settings, see {@link SolutionCache}. */
+  ContentHash solutionKey(LPStandardForm stForm) {
+    return new Solve(new SolveStatistics()).solutionKey(stForm);
+  }
+
+  public SolutionCache getSolutionCache() {
+    return solutionCache;
+  }
+
+  /**
+   * Sets the cache of solutions consulted by solves without a warm start basis, {@code null}
+   * removes it. A cached solution is returned without solving and without notifying the iteration
+   * listener.
+   */
+  public void setSolutionCache(SolutionCache solutionCache) {
+    this.solutionCache = solutionCache;
+  }
+
+  public int getDegeneratePivotsLimit() {
+    return degeneratePivotsLimit;
+  }
+
+  /**
+   * Sets the number of consecutive degenerate pivots after which the solver falls back to Bland's
+   * rule until the objective function improves again.
+   */
+  public void setDegeneratePivotsLimit(int degeneratePivotsLimit) {
+    Validate.isTrue(degeneratePivotsLimit > 0, "Limit should be positive");
+    this.degeneratePivotsLimit = degeneratePivotsLimit;
+  }
+
+  private SimplexState simplex(
+      LPStandardForm stForm, List<String> basis, Solve solve) throws LPException {
     logger.trace("Starting simplex");
-    LPState lpState = initializeSimplex(stForm);
+    if (stForm.isSparse() && !solve.backend.isSparse()) {
+      logger.trace("Densifying sparse linear program for {} backend", solve.backend);
+      stForm = stForm.toDense();
+    }
+    Bounds bounds = getBounds(stForm);
+    SimplexState lpState = basis == null ? null : warmStart(stForm, basis, bounds, solve);
+    if (lpState == null && solve.method == SimplexMethod.DUAL) {
+      lpState = dualStart(stForm, bounds, solve);
+    }
+    if (lpState == null) {
+      lpState = initializeSimplex(stForm, bounds, solve);
+    }
+    solve.pricingRule.reset(lpState);
     int entering, leaving;
     int numberOfIterationgs = 0;
-    while ((entering = lpState.getEntering()) != -1) {
-      leaving = lpState.getLeaving(entering);
+    int degeneratePivots = 0;
+    while ((entering = getEntering(lpState, degeneratePivots, solve)) != -1) {
+      leaving = getLeaving(lpState, entering, solve);
       if (leaving == -1) {
         logger.error("This linear program is unbounded");
         throw new SolutionException("This linear program is unbounded");
       }
-      lpState.pivot(entering, leaving);
+      if (leaving == BOUND_FLIP) {
+        boolean degenerate = flip(lpState, entering, solve);
+        degeneratePivots = degenerate ? degeneratePivots + 1 : 0;
+        continue;
+      }
+      boolean degenerate = pivot(lpState, entering, leaving, 2, solve);
+      degeneratePivots = degenerate ? degeneratePivots + 1 : 0;
       ++numberOfIterationgs;
       if (numberOfIterationgs % 10 == 0) {
         logger.info("Number of iterations is {}", numberOfIterationgs);
       }
     }
-    return lpState.v.setScale(6, RoundingMode.HALF_UP);
+    logger.info(
+        "Simplex finished in {} iterations, pricing - {}, ratio test - {}",
+        solve.statistics.getIterations(),
+        solve.pricingRule.getName(),
+        solve.ratioTest.getName());
+    return lpState;
+  }
+
+  /**
+   * Chooses the entering variable with the configured pricing rule, or with Bland's rule when the
+   * last {@code degeneratePivots} pivots did not improve the objective function.
+   */
+  private int getEntering(SimplexState state, int degeneratePivots, Solve solve) {
+    long start = System.nanoTime();
+    PricingRule rule = solve.pricingRule;
+    if (degeneratePivots >= solve.degeneratePivotsLimit) {
+      rule = BLAND;
+      solve.statistics.countBlandIteration();
+    }
+    int entering = rule.getEntering(state);
+    solve.statistics.addPricingTime(System.nanoTime() - start);
+    if (logger.isDebugEnabled()) {
+      logger.debug("Pricing - {}, entering - {}", rule.getName(), entering);
+    }
+    return entering;
+  }
+
+  /**
+   * Chooses the leaving variable with the configured ratio test, bounded by the upper bounds of
+   * the variables. A basic variable leaving at its upper bound is complemented before the pivot.
+   *
+   * @return row of the leaving variable, {@code -1} if the program is unbounded, or {@link
+   *     #BOUND_FLIP} if the entering variable reaches its upper bound first
+   */
+  private int getLeaving(SimplexState state, int entering, Solve solve) {
+    long start = System.nanoTime();
+    int leaving = solve.ratioTest.getLeaving(state, entering);
+    if (state.upper != null) {
+      leaving = boundedRatioTest(state, entering, leaving, solve);
+      if (leaving >= state.m) {
+        leaving -= state.m;
+        state.complementRow(leaving);
+      }
+    }
+    solve.statistics.addRatioTestTime(System.nanoTime() - start);
+    if (logger.isDebugEnabled()) {
+      logger.debug("Ratio test - {}, leaving - {}", solve.ratioTest.getName(), leaving);
+    }
+    return leaving;
+  }
+
+  /**
+   * Ratio test of the bounded simplex. The step chosen by the ratio test, where the {@code
+   * leaving} variable reaches zero, is shortened if a basic variable with a decreasing coefficient
+   * reaches its upper bound first, or if the entering variable itself does.
+   *
+   * @return row of the leaving variable, the row plus {@code m} if it leaves at its upper bound,
+   *     {@link #BOUND_FLIP}, or {@code -1} if the step is unbounded
+   */
+  private int boundedRatioTest(SimplexState state, int entering, int leaving, Solve solve) {
+    int m = state.m;
+    if (solve.column.length < m) {
+      solve.column = new double[m];
+    }
+    double[] column = solve.column;
+    state.loadColumn(entering, column);
+    double tolerance = state.getTolerance();
+    double step =
+        leaving == -1
+            ? Double.POSITIVE_INFINITY
+            : Math.max(state.getRhs(leaving), 0.0) / column[leaving];
+    for (int i = 0; i < m; i++) {
+      double aie = column[i];
+      double bound = state.upper[state.n + i];
+      if (aie <= -tolerance && bound != Double.POSITIVE_INFINITY) {
+        double ratio = Math.max(bound - state.getRhs(i), 0.0) / -aie;
+        if (ratio < step) {
+          step = ratio;
+          leaving = m + i;
+        }
+      }
+    }
+    double bound = state.upper[entering];
+    if (bound != Double.POSITIVE_INFINITY && bound <= step) {
+      return BOUND_FLIP;
+    }
+    return leaving;
+  }
+
+  /**
+   * Moves the entering variable to its other bound, an iteration of the bounded simplex without a
+   * pivot.
+   *
+   * @return whether the variable is fixed, so the objective function did not change
+   */
+  private boolean flip(SimplexState state, int entering, Solve solve) {
+    boolean degenerate = state.upper[entering] <= epsilon.doubleValue();
+    state.complementColumn(entering);
+    solve.statistics.countBoundFlip();
+    if (logger.isDebugEnabled()) {
+      logger.debug("Entering variable {} moved to its other bound", entering);
+    }
+    return degenerate;
+  }
+
+  /**
+   * Pivots the state chosen by the pricing rule and the ratio test.
+   *
+   * @return whether the pivot was degenerate
+   */
+  private boolean pivot(
+      SimplexState state, int entering, int leaving, int phase, Solve solve)
+      throws SolutionException {
+    long start = System.nanoTime();
+    solve.pricingRule.beforePivot(state, entering, leaving);
+    solve.statistics.addPricingTime(System.nanoTime() - start);
+    return applyPivot(state, entering, leaving, phase, solve);
+  }
+
+  private boolean applyPivot(
+      SimplexState state, int entering, int leaving, int phase, Solve solve)
+      throws SolutionException {
+    boolean degenerate = state.getRhs(leaving) <= epsilon.doubleValue();
+    return applyPivot(state, entering, leaving, phase, degenerate, solve);
+  }
+
+  /** Pivots the state, recording the pivot in {@code statistics} and notifying the listener. */
+  private boolean applyPivot(
+      SimplexState state, int entering, int leaving, int phase, boolean degenerate, Solve solve)
+      throws SolutionException {
+    double pivotElement = Math.abs(state.getEntry(leaving, entering));
+    long start = System.nanoTime();
+    state.pivot(entering, leaving);
+    solve.statistics.recordPivot(phase, pivotElement, degenerate, System.nanoTime() - start);
+    if (solve.iterationListener != null) {
+      solve.iterationListener.iterationFinished(phase, entering, leaving, solve.statistics);
+    }
+    return degenerate;
+  }
+
+  /**
+   * Pivots the slack form of a copy of {@code stForm} until the variables of the {@code basis} are
+   * basic. Each variable of the basis enters in place of the basic variable out of the basis with
+   * the largest coefficient in its column.
+   *
+   * @return the dictionary of the basis, or {@code null} if the basis does not fit this linear
+   *     program, is singular or infeasible
+   */
+  private SimplexState warmStart(
+      LPStandardForm stForm, List<String> basis, Bounds bounds, Solve solve)
+      throws SolutionException {
+    logger.trace("Warm starting from basis {}", basis);
+    if (basis.size() != stForm.m) {
+      logger.info(
+          "Basis of size {} does not fit {} rows, starting from scratch", basis.size(), stForm.m);
+      return null;
+    }
+    SimplexState lpState = createSlackForm(stForm, solve);
+    setBounds(lpState, bounds, false);
+    HashSet<String> target = new HashSet<>(basis);
+    int n = lpState.n;
+    double tolerance = lpState.getTolerance();
+    double[] column = new double[lpState.m];
+    for (String name : basis) {
+      Integer entering = lpState.coefficients.get(name);
+      if (entering == null) {
+        logger.info("Unknown basic variable {}, starting from scratch", name);
+        return null;
+      }
+      if (entering >= n) {
+        continue;
+      }
+      int leaving = -1;
+      double maxEntry = tolerance;
+      lpState.loadColumn(entering, column);
+      for (int i = 0; i < lpState.m; i++) {
+        double entry = Math.abs(column[i]);
+        if (entry > maxEntry && !target.contains(lpState.variables.get(n + i))) {
+          maxEntry = entry;
+          leaving = i;
+        }
+      }
+      if (leaving == -1) {
+        logger.info("Basis is singular, starting from scratch");
+        return null;
+      }
+      applyPivot(lpState, entering, leaving, 0, solve);
+    }
+    for (int i = 0; i < lpState.m; i++) {
+      double rhs = lpState.getRhs(i);
+      if (rhs < -tolerance || rhs > lpState.getUpperBound(n + i) + tolerance) {
+        if (makeDualFeasible(lpState)) {
+          logger.info("Warm start basis is dual feasible, reoptimizing with dual simplex");
+          dualSimplex(lpState, solve);
+          return lpState;
+        }
+        logger.info("Basis is infeasible, starting from scratch");
+        return null;
+      }
+    }
+    logger.info("Warm start basis is feasible");
+    return lpState;
   }
 
-  private LPState initializeSimplex(LPStandardForm standardForm) throws LPException {
+  /**
+   * Solves the slack form of {@code stForm} by dual simplex if its basic solution is infeasible
+   * and it is dual feasible. Variables with positive costs are dual feasible at their upper bounds.
+   *
+   * @return optimal dictionary, or {@code null} if the dual simplex can not start
+   */
+  private SimplexState dualStart(LPStandardForm stForm, Bounds bounds, Solve solve)
+      throws SolutionException {
+    if (isFeasible(stForm)) {
+      return null;
+    }
+    for (int j = 0; j < stForm.n; j++) {
+      if (stForm.c[j].compareTo(epsilon) > 0 && stForm.getUpperBound(j) == null) {
+        logger.info("Basic solution is not dual feasible, solving by primal simplex");
+        return null;
+      }
+    }
+    SimplexState lpState = createSlackForm(stForm, solve);
+    setBounds(lpState, bounds, false);
+    makeDualFeasible(lpState);
+    dualSimplex(lpState, solve);
+    return lpState;
+  }
+
+  /**
+   * Moves variables with positive coefficients in the objective function to their upper bounds.
+   *
+   * @return whether the dictionary is dual feasible
+   */
+  private boolean makeDualFeasible(SimplexState lpState) {
+    double tolerance = lpState.getTolerance();
+    for (int j = 0; j < lpState.n; j++) {
+      if (lpState.getReducedCost(j) > tolerance) {
+        if (lpState.getUpperBound(j) == Double.POSITIVE_INFINITY) {
+          return false;
+        }
+        lpState.complementColumn(j);
+      }
+    }
+    return true;
+  }
+
+  /** Whether the basic solution of the slack form, all variables at zero, is feasible. */
+  private boolean isFeasible(LPStandardForm stForm) {
+    for (int i = 0; i < stForm.m; i++) {
+      BigDecimal bi = stForm.b[i];
+      if (bi.signum() < 0 || (stForm.isEquality(i) && bi.abs().compareTo(epsilon) > 0)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Pivots dual feasible {@code lpState} by dual simplex until it is primal feasible, and hence
+   * optimal. Pivots are counted as phase 1.
+   */
+  private void dualSimplex(SimplexState lpState, Solve solve) throws SolutionException {
+    logger.trace("Starting dual simplex");
+    double tolerance = lpState.getTolerance();
+    int degeneratePivots = 0;
+    int leaving;
+    while (true) {
+      long start = System.nanoTime();
+      boolean bland = degeneratePivots >= solve.degeneratePivotsLimit;
+      if (bland) {
+        solve.statistics.countBlandIteration();
+      }
+      leaving = solve.dualSimplex.getLeaving(lpState, bland);
+      solve.statistics.addPricingTime(System.nanoTime() - start);
+      if (leaving == -1) {
+        break;
+      }
+      if (lpState.getRhs(leaving) > lpState.getUpperBound(lpState.n + leaving)) {
+        lpState.complementRow(leaving);
+      }
+      start = System.nanoTime();
+      int entering = solve.dualSimplex.getEntering(lpState, leaving, bland);
+      solve.statistics.addRatioTestTime(System.nanoTime() - start);
+      if (entering == -1) {
+        logger.error("This linear program is infeasible");
+        throw new SolutionException("This linear program is infeasible");
+      }
+      boolean degenerate = lpState.getReducedCost(entering) >= -tolerance;
+      applyPivot(lpState, entering, leaving, 1, degenerate, solve);
+      degeneratePivots = degenerate ? degeneratePivots + 1 : 0;
+    }
+    logger.info("Dual simplex finished, {} iterations", solve.statistics.getPhase1Iterations());
+  }
+
+  private SimplexState initializeSimplex(
+      LPStandardForm standardForm, Bounds bounds, Solve solve) throws LPException {
     logger.trace("Starting simplex initialization");
-    int minInB = minInB(standardForm.b);
-    if (minInB == -1 || standardForm.b[minInB].compareTo(BigDecimal.ZERO) >= 0) {
+    if (isFeasible(standardForm)) {
       logger.info("Basic solution is feasible");
-      return convertIntoSlackForm(standardForm);
+      SimplexState lpState = createSlackForm(standardForm, solve);
+      setBounds(lpState, bounds, false);
+      return lpState;
     } else {
       logger.info("Basic solution is infeasible");
       if (!standardForm.hasVariableNames()) {
         logger.trace("Standard form has no variable names, need to add default");
         addDefaultVariables(standardForm);
       }
-      LPState auxLP = convertIntoAuxLP(standardForm);
+      SimplexState auxLP = createAuxLP(standardForm, solve);
+      setBounds(auxLP, bounds, true);
       int indexOfx0 = auxLP.n - 1;
-      int x0CurrentIndex = solveAuxLP(auxLP, indexOfx0, minInB);
-      return handleInitialization(auxLP, standardForm, x0CurrentIndex);
+      int minInB = minInB(standardForm.b);
+      if (standardForm.b[minInB].signum() >= 0) {
+        // only equality rows are infeasible, x0 stays non-basic
+        minInB = -1;
+      }
+      int x0CurrentIndex = solveAuxLP(auxLP, indexOfx0, minInB, solve);
+      return handleInitialization(auxLP, standardForm, x0CurrentIndex, bounds, solve);
     }
   }
 
-  private int solveAuxLP(LPState auxLP, int indexOfx0, int minInB) throws SolutionException {
+  private int solveAuxLP(SimplexState auxLP, int indexOfx0, int minInB)
+      throws SolutionException {
+    return solveAuxLP(auxLP, indexOfx0, minInB, new Solve(new SolveStatistics()));
+  }
+
+  private int solveAuxLP(
+      SimplexState auxLP, int indexOfx0, int minInB, Solve solve) throws SolutionException {
     logger.trace("Solving auxiliary linear program");
     int n = auxLP.n;
-    auxLP.pivot(indexOfx0, minInB);
-    int x0CurrentIndex = minInB + n;
+    int x0CurrentIndex = indexOfx0;
+    if (minInB != -1) {
+      applyPivot(auxLP, indexOfx0, minInB, 1, solve);
+      x0CurrentIndex = minInB + n;
+    }
+    solve.pricingRule.reset(auxLP);
     int numberOfIterations = 0;
+    int degeneratePivots = 0;
     for (; ; ) {
-      int entering = auxLP.getEntering();
+      int entering = getEntering(auxLP, degeneratePivots, solve);
       if (entering == -1) {
         break;
       }
-      int leaving = auxLP.getLeaving(entering);
+      int leaving = getLeaving(auxLP, entering, solve);
       if (leaving == -1) {
         logger.error("Auxiliary linear program is unbounded, something went really wrong");
         throw new SolutionException("Auxiliary lp is unbounded");
       }
+      if (leaving == BOUND_FLIP) {
+        boolean degenerate = flip(auxLP, entering, solve);
+        degeneratePivots = degenerate ? degeneratePivots + 1 : 0;
+        continue;
+      }
       if (entering == x0CurrentIndex) {
         x0CurrentIndex = leaving + n;
       } else if (leaving + n == x0CurrentIndex) {
         x0CurrentIndex = entering;
       }
-      auxLP.pivot(entering, leaving);
+      boolean degenerate = pivot(auxLP, entering, leaving, 1, solve);
+      degeneratePivots = degenerate ? degeneratePivots + 1 : 0;
       ++numberOfIterations;
       if (numberOfIterations % 10 == 0) {
         logger.info("Number of iterations if {}", numberOfIterations);
@@ -163,28 +851,41 @@ public class LPSolver {
     return x0CurrentIndex;
   }
 
-  private LPState handleInitialization(LPState auxLP, LPStandardForm initial, int currentIndexOfX0)
+  private SimplexState handleInitialization(
+      SimplexState auxLP, LPStandardForm initial, int currentIndexOfX0, Bounds bounds, Solve solve)
       throws LPException {
 
-    BigDecimal x0Value =
-        (currentIndexOfX0 < auxLP.n) ? BigDecimal.ZERO : auxLP.b[currentIndexOfX0 - auxLP.n];
-    if (x0Value.abs().compareTo(epsilon) > 0) {
+    double x0Value =
+        (currentIndexOfX0 < auxLP.n) ? 0.0 : auxLP.getRhs(currentIndexOfX0 - auxLP.n);
+    if (Math.abs(x0Value) > epsilon.doubleValue()) {
       logger.error("This linear program is infeasible");
       throw new LPException("This linear program is infeasible");
     }
+    if (bounds != null) {
+      for (String slack : bounds.equalitySlacks) {
+        int index = auxLP.coefficients.get(slack);
+        if (index >= auxLP.n && Math.abs(auxLP.getRhs(index - auxLP.n)) > epsilon.doubleValue()) {
+          logger.error("This linear program is infeasible");
+          throw new LPException("This linear program is infeasible");
+        }
+      }
+    }
     if (currentIndexOfX0 >= auxLP.n) { // x0 is basis variable
       logger.trace("Auxiliary variables is basis variables, need to perform degenerate pivot");
-      currentIndexOfX0 = performDegeneratePivot(auxLP, currentIndexOfX0);
+      currentIndexOfX0 = performDegeneratePivot(auxLP, currentIndexOfX0, solve);
     }
-    return restoreInitialLP(auxLP, initial, currentIndexOfX0);
+    return restoreInitialLP(auxLP, initial, currentIndexOfX0, bounds);
   }
 
-  private int performDegeneratePivot(LPState auxLP, int indexOfx0) throws SolutionException {
+  private int performDegeneratePivot(
+      SimplexState auxLP, int indexOfx0, Solve solve) throws SolutionException {
     logger.trace("Performing degenerate pivot");
     int entering = -1;
-    BigDecimal[] row = auxLP.A[indexOfx0 - auxLP.n];
+    double[] row = new double[auxLP.n];
+    auxLP.loadRow(indexOfx0 - auxLP.n, row);
+    double eps = epsilon.doubleValue();
     for (int i = 0; i < auxLP.n; i++) {
-      if (row[i].abs().compareTo(epsilon) > 0) {
+      if (Math.abs(row[i]) > eps) {
         entering = i;
         break;
       }
@@ -192,82 +893,191 @@ public class LPSolver {
     if (entering == -1) {
       throw logger.throwing(new SolutionException("Can't perform degenerate pivot"));
     }
-    auxLP.pivot(entering, indexOfx0 - auxLP.n);
+    applyPivot(auxLP, entering, indexOfx0 - auxLP.n, 1, solve);
     // log printProgress(entering, indexOfx0 - n);
     return entering;
   }
 
-  private LPState restoreInitialLP(LPState auxLP, LPStandardForm initial, int indexOfX0) {
-    logger.trace("Restoring initial linear program after initialization");
-    int n = initial.n;
-    int m = auxLP.m;
+  private SimplexState restoreInitialLP(
+      SimplexState auxLP, LPStandardForm initial, int indexOfX0) throws SolutionException {
+    return restoreInitialLP(auxLP, initial, indexOfX0, null);
+  }
 
-    // restoring A
-    BigDecimal[][] A = new BigDecimal[m][n];
-    BigDecimal[][] auxA = auxLP.A;
-    for (int i = 0; i < m; i++) {
-      System.arraycopy(auxA[i], 0, A[i], 0, indexOfX0);
-      System.arraycopy(auxA[i], indexOfX0 + 1, A[i], indexOfX0, n - indexOfX0);
+  /**
+   * Restores the objective function of the {@code initial} program. The states rebuild it from the
+   * costs of the initial variables, so complemented variables are restored before and complemented
+   * again after, and slacks of equality rows get their zero upper bounds back.
+   */
+  private SimplexState restoreInitialLP(
+      SimplexState auxLP, LPStandardForm initial, int indexOfX0, Bounds bounds)
+      throws SolutionException {
+    if (auxLP.upper == null) {
+      return auxLP.restoreInitialLP(initial, indexOfX0);
     }
-
-    Set<String> initialVariables = initial.coefficients.keySet();
-    BigDecimal v = BigDecimal.ZERO;
-    BigDecimal[] c = new BigDecimal[n];
-    Arrays.fill(c, BigDecimal.ZERO);
-    for (String currentVar : initialVariables) {
-      int index = initial.coefficients.get(currentVar);
-      BigDecimal initialCoefficient = initial.c[index];
-      int currentIndex = auxLP.coefficients.get(currentVar);
-      if (currentIndex >= auxLP.n) {
-        // basis variable, need to substitute
-        v = v.add(auxLP.b[currentIndex - auxLP.n].multiply(initialCoefficient, rounder), rounder);
-        BigDecimal[] row = A[currentIndex - auxLP.n];
-        for (int j = 0; j < n; j++) {
-          BigDecimal varCoefficient = row[j].negate();
-          c[j] = c[j].add(varCoefficient.multiply(initialCoefficient, rounder), rounder);
+    ArrayList<String> complemented = new ArrayList<>();
+    for (int k = 0; k < auxLP.n + auxLP.m; k++) {
+      if (auxLP.complemented[k]) {
+        complemented.add(auxLP.variables.get(k));
+        if (k < auxLP.n) {
+          auxLP.complementColumn(k);
+        } else {
+          auxLP.complementRow(k - auxLP.n);
         }
+      }
+    }
+    SimplexState lpState = auxLP.restoreInitialLP(initial, indexOfX0);
+    setBounds(lpState, bounds, false);
+    for (String name : complemented) {
+      int k = lpState.coefficients.get(name);
+      if (k < lpState.n) {
+        lpState.complementColumn(k);
       } else {
-        // non-basis variable
-        c[currentIndex] = c[currentIndex].add(initialCoefficient, rounder);
+        lpState.complementRow(k - lpState.n);
+      }
+    }
+    return lpState;
+  }
+
+  /**
+   * Settings and buffers of a single solve. The settings of the solver are read once when the solve
+   * starts and rules with state are copied, so solves running concurrently share nothing.
+   */
+  private final class Solve {
+    final NumericBackend backend = LPSolver.this.backend;
+    final PricingRule pricingRule = LPSolver.this.pricingRule.copy();
+    final RatioTest ratioTest = LPSolver.this.ratioTest.copy();
+    final int degeneratePivotsLimit = LPSolver.this.degeneratePivotsLimit;
+    final IterationListener iterationListener = LPSolver.this.iterationListener;
+    final SimplexMethod method = LPSolver.this.method;
+    final boolean presolve = LPSolver.this.presolve;
+    final SolutionCache solutionCache = LPSolver.this.solutionCache;
+    final SolveStatistics statistics;
+    final DualSimplex dualSimplex = new DualSimplex();
+    double[] column = new double[0];
+
+    Solve(SolveStatistics statistics) {
+      this.statistics = statistics;
+    }
+
+    /** Key of {@code stForm} solved with the settings of this solve, see {@link SolutionCache}. */
+    ContentHash solutionKey(LPStandardForm stForm) {
+      ContentHash.Hasher settings = new ContentHash.Hasher();
+      settings.putInt(rounder.getPrecision()).putInt(rounder.getRoundingMode().ordinal());
+      settings.putDecimal(epsilon).putDecimal(inf);
+      settings.putString(backend.name()).putString(method.name());
+      settings.putBoolean(presolve).putInt(degeneratePivotsLimit);
+      settings.putString(pricingRule.getKey()).putString(ratioTest.getKey());
+      return SolutionCache.key(settings, stForm);
+    }
+  }
+
+  /** Upper bounds of the variables and of the slacks of equality rows by name. */
+  private static final class Bounds {
+    final HashMap<String, Double> upper = new HashMap<>();
+    final HashSet<String> equalitySlacks = new HashSet<>();
+  }
+
+  /** Bounds of the slack form of {@code stForm}, {@code null} if it has no bounded variables. */
+  private Bounds getBounds(LPStandardForm stForm) {
+    if (!stForm.hasBounds() && !stForm.hasEqualities()) {
+      return null;
+    }
+    Bounds bounds = new Bounds();
+    for (int j = 0; j < stForm.n; j++) {
+      BigDecimal upper = stForm.getUpperBound(j);
+      if (upper != null) {
+        bounds.upper.put(stForm.variables.get(j), upper.doubleValue());
+      }
+    }
+    String[] slackNames = getSlackNames(stForm.coefficients, stForm.m);
+    for (int i = 0; i < stForm.m; i++) {
+      if (stForm.isEquality(i)) {
+        bounds.upper.put(slackNames[i], 0.0);
+        bounds.equalitySlacks.add(slackNames[i]);
       }
     }
+    return bounds;
+  }
 
-    HashMap<Integer, String> variables = auxLP.variables;
-    HashMap<String, Integer> coefficients = auxLP.coefficients;
-    String x0 = variables.get(indexOfX0);
-    coefficients.remove(x0);
-    for (int i = indexOfX0; i < n + m; i++) {
-      String varName = variables.get(i + 1);
-      variables.put(i, varName);
-      coefficients.put(varName, i);
+  /**
+   * Sets upper bounds of the variables of {@code state} by their names. Slacks of equality rows
+   * are fixed at zero, except for phase 1 which drives them to zero.
+   */
+  private static void setBounds(SimplexState state, Bounds bounds, boolean phase1) {
+    if (bounds == null) {
+      return;
+    }
+    int size = state.n + state.m;
+    state.upper = new double[size];
+    state.complemented = new boolean[size];
+    for (int k = 0; k < size; k++) {
+      String name = state.variables.get(k);
+      Double upper = bounds.upper.get(name);
+      boolean relaxed = phase1 && bounds.equalitySlacks.contains(name);
+      state.upper[k] = upper == null || relaxed ? Double.POSITIVE_INFINITY : upper;
     }
-    variables.remove(n + m);
-    return new LPState(A, auxLP.b, c, v, variables, coefficients, initial.m, initial.n);
   }
 
+  private SimplexState createSlackForm(LPStandardForm stForm, Solve solve)
+      throws SolutionException {
+    switch (solve.backend) {
+      case DOUBLE:
+        return convertIntoDoubleLP(stForm, false);
+      case SPARSE:
+        return convertIntoSparseLP(stForm, false);
+      case REVISED:
+        return convertIntoRevisedLP(stForm, false);
+      default:
+        return convertIntoSlackForm(stForm);
+    }
+  }
+
+  private SimplexState createAuxLP(LPStandardForm stForm, Solve solve) throws SolutionException {
+    switch (solve.backend) {
+      case DOUBLE:
+        return convertIntoDoubleLP(stForm, true);
+      case SPARSE:
+        return convertIntoSparseLP(stForm, true);
+      case REVISED:
+        return convertIntoRevisedLP(stForm, true);
+      default:
+        return convertIntoAuxLP(stForm);
+    }
+  }
+
+  /**
+   * Converts given standard form into {@link LPState}.
+   *
+   * @implNote Copies the matrix, vectors and names of {@code stForm}, which pivots of the state
+   *     would change otherwise
+   */
   public LPState convertIntoSlackForm(LPStandardForm stForm) {
     logger.trace("Converting into slack form");
+    BigDecimal[][] A = new BigDecimal[stForm.m][];
+    for (int i = 0; i < stForm.m; i++) {
+      A[i] = stForm.A[i].clone();
+    }
+    return slackForm(A, stForm.b.clone(), stForm.c.clone(), stForm);
+  }
+
+  /**
+   * Slack form made of {@code A}, {@code b} and {@code c} with the names of {@code stForm}, rounded
+   * and compared with the settings of this solver.
+   */
+  private LPState slackForm(
+      BigDecimal[][] A, BigDecimal[] b, BigDecimal[] c, LPStandardForm stForm) {
     if (stForm.hasVariableNames()) {
-      HashMap<String, Integer> coefficients = stForm.coefficients;
-      HashMap<Integer, String> variables = stForm.variables;
+      HashMap<String, Integer> coefficients = new HashMap<>(stForm.coefficients);
+      HashMap<Integer, String> variables = new HashMap<>(stForm.variables);
       int m = stForm.m;
       int n = stForm.n;
-      int addedVariables = 0;
-      int variableIndexCounter = 1;
-      while (addedVariables < m) {
-        String varName = "x" + String.valueOf(variableIndexCounter);
-        if (!coefficients.containsKey(varName)) {
-          variables.put(n + addedVariables, varName);
-          coefficients.put(varName, n + addedVariables);
-
-          ++addedVariables;
-        }
-        ++variableIndexCounter;
-      }
-      return new LPState(stForm.A, stForm.b, stForm.c, variables, coefficients, m, n);
+      addSlackVariables(variables, coefficients, m, n);
+      return new LPState(
+          A, b, c, BigDecimal.ZERO, variables, coefficients, m, n, printRounder, rounder, epsilon,
+          inf);
     } else {
       logger.trace("This standard form has no variable names, no need to convert into slack form");
-      return new LPState(stForm.A, stForm.b, stForm.c, stForm.m, stForm.n);
+      return new LPState(A, b, c, stForm.m, stForm.n, rounder, printRounder, epsilon, inf);
     }
   }
 
@@ -296,9 +1106,7 @@ public class LPSolver {
     BigDecimal[] b = new BigDecimal[standardForm.m];
     System.arraycopy(standardForm.b, 0, b, 0, standardForm.m);
 
-    BigDecimal[] auxC = new BigDecimal[n + 1];
-    Arrays.fill(auxC, BigDecimal.ZERO);
-    auxC[n] = x0Coeff;
+    BigDecimal[] auxC = getAuxiliaryCosts(standardForm);
 
     HashMap<Integer, String> variables = new HashMap<>(standardForm.variables);
     HashMap<String, Integer> coefficients = new HashMap<>(standardForm.coefficients);
@@ -317,7 +1125,197 @@ public class LPSolver {
             standardForm.m,
             standardForm.n + 1,
             standardForm.maximize);
-    return convertIntoSlackForm(auxStForm);
+    return slackForm(auxA, b, auxC, auxStForm);
+  }
+
+  /**
+   * Converts given standard form into {@link DoubleLPState}, optionally adding auxiliary variable
+   * {@code x0} as the last non-basic variable.
+   *
+   * @implNote Copies all fields of standard form so that {@code stForm} and resulting {@code
+   *     DoubleLPState} are independent objects
+   */
+  DoubleLPState convertIntoDoubleLP(LPStandardForm stForm, boolean auxiliary) {
+    logger.trace("Converting into double slack form, auxiliary - {}", auxiliary);
+    int m = stForm.m;
+    int n = auxiliary ? stForm.n + 1 : stForm.n;
+    BigDecimal[][] initialA = stForm.A;
+    double[] A = new double[m * n];
+    double[] b = new double[m];
+    double[] c = new double[n];
+    for (int i = 0; i < m; i++) {
+      BigDecimal[] row = initialA[i];
+      int offset = i * n;
+      for (int j = 0; j < stForm.n; j++) {
+        A[offset + j] = row[j].doubleValue();
+      }
+      if (auxiliary) {
+        A[offset + n - 1] = -1.0;
+      }
+      b[i] = stForm.b[i].doubleValue();
+    }
+    BigDecimal[] costs = auxiliary ? getAuxiliaryCosts(stForm) : stForm.c;
+    for (int j = 0; j < n; j++) {
+      c[j] = costs[j].doubleValue();
+    }
+
+    HashMap<Integer, String> variables = null;
+    HashMap<String, Integer> coefficients = null;
+    if (stForm.hasVariableNames()) {
+      variables = new HashMap<>(stForm.variables);
+      coefficients = new HashMap<>(stForm.coefficients);
+      addSlackVariables(variables, coefficients, m, n, auxiliary);
+    }
+    return new DoubleLPState(
+        A, b, c, 0.0, variables, coefficients, m, n, epsilon.doubleValue(), inf.doubleValue());
+  }
+
+  /**
+   * Converts given standard form into {@link SparseLPState}, optionally adding auxiliary variable
+   * {@code x0} as the last non-basic variable. Dense standard forms are compressed first.
+   */
+  SparseLPState convertIntoSparseLP(LPStandardForm stForm, boolean auxiliary) {
+    logger.trace("Converting into sparse slack form, auxiliary - {}", auxiliary);
+    SparseMatrix A =
+        stForm.isSparse() ? stForm.sparseA : SparseMatrix.fromDense(stForm.A, stForm.m, stForm.n);
+    int m = stForm.m;
+    int n = auxiliary ? stForm.n + 1 : stForm.n;
+    double[] b = new double[m];
+    for (int i = 0; i < m; i++) {
+      b[i] = stForm.b[i].doubleValue();
+    }
+    double[] c = new double[n];
+    BigDecimal[] costs = auxiliary ? getAuxiliaryCosts(stForm) : stForm.c;
+    for (int j = 0; j < n; j++) {
+      c[j] = costs[j].doubleValue();
+    }
+
+    HashMap<Integer, String> variables = null;
+    HashMap<String, Integer> coefficients = null;
+    if (stForm.hasVariableNames()) {
+      variables = new HashMap<>(stForm.variables);
+      coefficients = new HashMap<>(stForm.coefficients);
+      addSlackVariables(variables, coefficients, m, n, auxiliary);
+    }
+    SparseLPState state =
+        SparseLPState.of(
+            A,
+            auxiliary ? 1 : 0,
+            b,
+            c,
+            variables,
+            coefficients,
+            epsilon.doubleValue(),
+            inf.doubleValue());
+    if (auxiliary) {
+      for (int i = 0; i < m; i++) {
+        state.setEntry(i, n - 1, -1.0);
+      }
+    }
+    return state;
+  }
+
+  /**
+   * Creates {@link RevisedLPState} of given standard form with slack basis, optionally adding
+   * auxiliary variable {@code x0} as the last non-basic variable. Constraint matrix of {@code
+   * stForm} is not modified.
+   */
+  RevisedLPState convertIntoRevisedLP(LPStandardForm stForm, boolean auxiliary)
+      throws SolutionException {
+    logger.trace("Converting into revised simplex form, auxiliary - {}", auxiliary);
+    SparseMatrix A =
+        stForm.isSparse() ? stForm.sparseA : SparseMatrix.fromDense(stForm.A, stForm.m, stForm.n);
+    int m = stForm.m;
+    int n = auxiliary ? stForm.n + 1 : stForm.n;
+    double[] b = new double[m];
+    for (int i = 0; i < m; i++) {
+      b[i] = stForm.b[i].doubleValue();
+    }
+    double[] c = new double[n];
+    BigDecimal[] costs = auxiliary ? getAuxiliaryCosts(stForm) : stForm.c;
+    for (int j = 0; j < n; j++) {
+      c[j] = costs[j].doubleValue();
+    }
+
+    HashMap<Integer, String> variables = null;
+    HashMap<String, Integer> coefficients = null;
+    if (stForm.hasVariableNames()) {
+      variables = new HashMap<>(stForm.variables);
+      coefficients = new HashMap<>(stForm.coefficients);
+      addSlackVariables(variables, coefficients, m, n, auxiliary);
+    }
+    return RevisedLPState.of(
+        A, auxiliary, b, c, variables, coefficients, epsilon.doubleValue(), inf.doubleValue());
+  }
+
+  /**
+   * Objective function of the auxiliary linear program, {@code max -x0 - s}, where {@code s} is
+   * the sum of the slacks of equality rows, {@code s = b - A x + k x0} for {@code k} such rows.
+   *
+   * @return coefficients of the variables of {@code stForm} followed by the coefficient of {@code
+   *     x0}
+   */
+  private static BigDecimal[] getAuxiliaryCosts(LPStandardForm stForm) {
+    int n = stForm.n;
+    BigDecimal[] c = new BigDecimal[n + 1];
+    Arrays.fill(c, BigDecimal.ZERO);
+    c[n] = BigDecimal.ONE.negate();
+    for (int i = 0; i < stForm.m; i++) {
+      if (!stForm.isEquality(i)) {
+        continue;
+      }
+      if (stForm.isSparse()) {
+        SparseMatrix A = stForm.sparseA;
+        for (int k = A.rowStart[i]; k < A.rowStart[i + 1]; k++) {
+          int j = A.columnIndexes[k];
+          c[j] = c[j].add(BigDecimal.valueOf(A.values[k]));
+        }
+      } else {
+        for (int j = 0; j < n; j++) {
+          c[j] = c[j].add(stForm.A[i][j]);
+        }
+      }
+      c[n] = c[n].subtract(BigDecimal.ONE);
+    }
+    return c;
+  }
+
+  private void addSlackVariables(
+      HashMap<Integer, String> variables,
+      HashMap<String, Integer> coefficients,
+      int m,
+      int n,
+      boolean auxiliary) {
+    if (auxiliary) {
+      String x0Identifier = getNameForX0(coefficients);
+      variables.put(n - 1, x0Identifier);
+      coefficients.put(x0Identifier, n - 1);
+    }
+    addSlackVariables(variables, coefficients, m, n);
+  }
+
+  private void addSlackVariables(
+      HashMap<Integer, String> variables, HashMap<String, Integer> coefficients, int m, int n) {
+    String[] slackNames = getSlackNames(coefficients, m);
+    for (int i = 0; i < m; i++) {
+      variables.put(n + i, slackNames[i]);
+      coefficients.put(slackNames[i], n + i);
+    }
+  }
+
+  /** Names of slack variables of the {@code m} rows, the first unused names {@code x1, x2, ...}. */
+  private String[] getSlackNames(HashMap<String, Integer> coefficients, int m) {
+    String[] slackNames = new String[m];
+    int addedVariables = 0;
+    int variableIndexCounter = 1;
+    while (addedVariables < m) {
+      String varName = "x" + String.valueOf(variableIndexCounter);
+      if (!coefficients.containsKey(varName)) {
+        slackNames[addedVariables++] = varName;
+      }
+      ++variableIndexCounter;
+    }
+    return slackNames;
   }
 
   private String getNameForX0(HashMap<String, Integer> coefficients) {
@@ -341,37 +1339,6 @@ public class LPSolver {
     }
   }
 
-  /*private void printSolution() throws IOException {
-    ArrayList<BigDecimal> solution = new ArrayList<>(n);
-    for (int i = 0; i < n; i++) {
-      solution.add(BigDecimal.ZERO);
-    }
-    for (int i = n; i < n + m; i++) {
-      String varName = variables.get(i);
-      int coefficient = initialCoefficients.get(varName);
-      if (coefficient < n) {
-        solution.set(coefficient, b.get(i - n));
-      }
-    }
-    // need to fix;
-    BigDecimal vPrint = v.setScale(printRounder.getPrecision(), printRounder.getRoundingMode());
-    printStatement(
-        "Optimal objective value: "
-            + (stForm.getMaximize() ? vPrint.toString() : vPrint.negate().toString())
-            + "\n");
-    printStatement("Solution " + "\n");
-    for (int i = 0; i < n; i++) {
-      printStatement(
-          initialVariables.get(i)
-              + " = "
-              + solution
-                  .get(i)
-                  .setScale(printRounder.getPrecision(), printRounder.getRoundingMode())
-                  .toPlainString()
-              + "\n");
-    }
-    printStatement("\n\n");
-  }*/
   private int minInB(BigDecimal[] b) {
     logger.trace("Finding minimum element in b");
     BigDecimal minInB = LPState.DEF_INF;
@@ -1,19 +1,25 @@
 package lpsolver;
 
+import org.apache.commons.lang3.Validate;
+
 import java.io.IOException;
 import java.io.Writer;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 public class LPStandardForm {
   BigDecimal[][] A;
+  SparseMatrix sparseA; // set instead of A for sparse linear programs
   BigDecimal[] b, c;
   HashMap<String, Integer> coefficients; // (variable name : coefficient in the system)
   HashMap<Integer, String> variables;
   int m, n;
   boolean maximize;
+  boolean[] equalities; // rows a x = b, null if every row is an inequality
+  BigDecimal[] lower, upper; // bounds of variables, null if every variable is only non-negative
 
   public LPStandardForm(
       BigDecimal[][] A,
@@ -64,6 +70,135 @@ public class LPStandardForm {
     this.maximize = maximize;
   }
 
+  public LPStandardForm(
+      SparseMatrix A,
+      BigDecimal[] b,
+      BigDecimal[] c,
+      HashMap<Integer, String> variables,
+      HashMap<String, Integer> coefficients,
+      boolean maximize) {
+    this.sparseA = A;
+    this.b = b;
+    this.c = c;
+    this.variables = variables;
+    this.coefficients = coefficients;
+    this.m = A.getRows();
+    this.n = A.getColumns();
+    this.maximize = maximize;
+  }
+
+  /** Whether the {@code row} holds with equality instead of {@code <=}. */
+  public boolean isEquality(int row) {
+    return equalities != null && equalities[row];
+  }
+
+  public void setEquality(int row, boolean equality) {
+    Validate.validIndex(b, row);
+    if (equalities == null) {
+      equalities = new boolean[m];
+    }
+    equalities[row] = equality;
+  }
+
+  public BigDecimal getLowerBound(int column) {
+    return lower == null ? BigDecimal.ZERO : lower[column];
+  }
+
+  /** Upper bound of the variable of the {@code column}, {@code null} if it is unbounded. */
+  public BigDecimal getUpperBound(int column) {
+    return upper == null ? null : upper[column];
+  }
+
+  /**
+   * Sets bounds {@code lower <= x_j <= upper} of the variable of the {@code column}, the default
+   * bounds are {@code 0 <= x_j}.
+   *
+   * @param upper upper bound, {@code null} if the variable is unbounded
+   */
+  public void setBounds(int column, BigDecimal lower, BigDecimal upper) {
+    Validate.validIndex(c, column);
+    Validate.notNull(lower, "Lower bound should not be null");
+    Validate.isTrue(
+        upper == null || lower.compareTo(upper) <= 0, "Lower bound should not exceed upper bound");
+    if (this.lower == null) {
+      this.lower = new BigDecimal[n];
+      Arrays.fill(this.lower, BigDecimal.ZERO);
+      this.upper = new BigDecimal[n];
+    }
+    this.lower[column] = lower;
+    this.upper[column] = upper;
+  }
+
+  boolean hasEqualities() {
+    if (equalities != null) {
+      for (boolean equality : equalities) {
+        if (equality) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  boolean hasBounds() {
+    for (int j = 0; j < n; j++) {
+      if (isBounded(j)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Whether the variable of the {@code column} has other bounds than {@code x >= 0}. */
+  private boolean isBounded(int column) {
+    return lower != null && (lower[column].signum() != 0 || upper[column] != null);
+  }
+
+  public boolean isSparse() {
+    return sparseA != null;
+  }
+
+  /** Returns dense copy of this sparse linear program, or this linear program if it is dense. */
+  public LPStandardForm toDense() {
+    if (!isSparse()) {
+      return this;
+    }
+    LPStandardForm dense =
+        new LPStandardForm(
+            sparseA.toDense(), b.clone(), c.clone(), variables, coefficients, m, n, maximize);
+    copyRowsAndBounds(dense);
+    return dense;
+  }
+
+  /** Copy that can be solved without changing this linear program, the sparse matrix is shared. */
+  LPStandardForm copy() {
+    HashMap<Integer, String> variablesCopy = variables == null ? null : new HashMap<>(variables);
+    HashMap<String, Integer> coefficientsCopy =
+        coefficients == null ? null : new HashMap<>(coefficients);
+    LPStandardForm copy;
+    if (isSparse()) {
+      copy =
+          new LPStandardForm(
+              sparseA, b.clone(), c.clone(), variablesCopy, coefficientsCopy, maximize);
+    } else {
+      BigDecimal[][] ACopy = new BigDecimal[m][];
+      for (int i = 0; i < m; i++) {
+        ACopy[i] = A[i].clone();
+      }
+      copy =
+          new LPStandardForm(
+              ACopy, b.clone(), c.clone(), variablesCopy, coefficientsCopy, m, n, maximize);
+    }
+    copyRowsAndBounds(copy);
+    return copy;
+  }
+
+  private void copyRowsAndBounds(LPStandardForm copy) {
+    copy.equalities = equalities == null ? null : equalities.clone();
+    copy.lower = lower == null ? null : lower.clone();
+    copy.upper = upper == null ? null : upper.clone();
+  }
+
   public void printLP(Writer out) throws IOException {
     StringBuilder builder = new StringBuilder();
     builder
@@ -81,22 +216,47 @@ public class LPStandardForm {
     builder.append("\nSubject to\n");
     out.write(builder.toString());
     builder.setLength(0);
-    for (int i = 0; i < n; i++) {
-      appendExpression(builder, A[i]);
-      builder.append(" <= ").append(b[i].toPlainString()).append('\n');
+    for (int i = 0; i < m; i++) {
+      appendExpression(builder, isSparse() ? denseRow(i) : A[i]);
+      builder
+          .append(isEquality(i) ? " = " : " <= ")
+          .append(b[i].toPlainString())
+          .append('\n');
       out.write(builder.toString());
       builder.setLength(0);
     }
     for (Map.Entry<Integer, String> var : variables.entrySet()) {
-      builder.append(var.getValue() + ',');
+      if (!isBounded(var.getKey())) {
+        builder.append(var.getValue() + ',');
+      }
+    }
+    if (builder.length() > 0) {
+      builder.deleteCharAt(builder.length() - 1);
+      builder.append(" >= 0\n");
+    }
+    for (int j = 0; j < n; j++) {
+      if (isBounded(j)) {
+        builder.append(getLowerBound(j).toPlainString()).append(" <= ").append(variables.get(j));
+        if (getUpperBound(j) != null) {
+          builder.append(" <= ").append(getUpperBound(j).toPlainString());
+        }
+        builder.append('\n');
+      }
     }
-    builder.deleteCharAt(builder.length() - 1);
-    builder.append(" >= 0\n");
     out.write(builder.toString());
     out.write("\n\n");
     builder.setLength(0);
   }
 
+  private BigDecimal[] denseRow(int i) {
+    BigDecimal[] row = new BigDecimal[n];
+    Arrays.fill(row, BigDecimal.ZERO);
+    for (int k = sparseA.rowStart[i]; k < sparseA.rowStart[i + 1]; k++) {
+      row[sparseA.columnIndexes[k]] = BigDecimal.valueOf(sparseA.values[k]);
+    }
+    return row;
+  }
+
   private void appendExpression(StringBuilder builder, BigDecimal[] expr) {
     int initialLength = builder.length();
     for (int i = 0; i < expr.length; i++) {
@@ -127,6 +287,16 @@ public class LPStandardForm {
   }
 
   public LPStandardForm getDual() {
+    Validate.validState(
+        !hasEqualities() && !hasBounds(), "Dual of equalities and bounds is not supported");
+    if (isSparse()) {
+      if (hasVariableNames()) {
+        return new LPStandardForm(
+            sparseA.transpose(), c, b, defaultVariables(m), defaultCoefficients(m), !maximize);
+      } else {
+        return new LPStandardForm(sparseA.transpose(), c, b, null, null, !maximize);
+      }
+    }
     if (A != null) {
       BigDecimal[][] B = new BigDecimal[n][m];
       for (int i = 0; i < n; i++) {
@@ -151,6 +321,22 @@ public class LPStandardForm {
     }
   }
 
+  static HashMap<Integer, String> defaultVariables(int n) {
+    HashMap<Integer, String> variables = new HashMap<>(n);
+    for (int i = 1; i <= n; i++) {
+      variables.put(i - 1, "x" + i);
+    }
+    return variables;
+  }
+
+  static HashMap<String, Integer> defaultCoefficients(int n) {
+    HashMap<String, Integer> coefficients = new HashMap<>(n);
+    for (int i = 1; i <= n; i++) {
+      coefficients.put("x" + i, i - 1);
+    }
+    return coefficients;
+  }
+
   public boolean hasVariableNames() {
     return variables != null && coefficients != null;
   }
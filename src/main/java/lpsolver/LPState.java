@@ -9,30 +9,27 @@ import java.math.BigInteger;
 import java.math.MathContext;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Set;
 
-public class LPState {
+public class LPState extends SimplexState {
   public static final MathContext DEF_ROUNDER = new MathContext(15, RoundingMode.HALF_UP);
   public static final MathContext DEF_PRINT_ROUNDER = new MathContext(4, RoundingMode.HALF_UP);
   public static final BigDecimal DEF_EPSILON = new BigDecimal(BigInteger.ONE, 9);
   public static final BigDecimal DEF_INF = new BigDecimal(BigInteger.ONE, -50);
-  public static final int THREAD_AMOUNT = 4;
-  public static final int PARALLEL_THRESHOLD = 3000000;
+  /** Pivots of dictionaries with at least this many entries ({@code m * n}) run in parallel. */
+  public static final int PARALLEL_THRESHOLD = 20000;
+  /** Approximate number of entries updated by one task of a parallel pivot. */
+  static final int BLOCK_WORK = 2048;
   private static final Logger logger = LogManager.getLogger(LPState.class);
   BigDecimal[][] A;
   BigDecimal[] b, c;
-  HashMap<Integer, String> variables;
-  HashMap<String, Integer> coefficients;
   BigDecimal v;
-  int m, n;
   private MathContext printRounder;
   private MathContext rounder;
   private BigDecimal epsilon;
   private BigDecimal INF;
-  private ExecutorService pool;
 
   LPState(
       BigDecimal[][] A,
@@ -112,18 +109,14 @@ public class LPState {
   }
 
   public void pivot(int entering, int leaving) throws SolutionException {
-    logger.trace(
-        "Start pivoting with, entering - {}, leaving - {}",
-        hasVariablesNames() ? variables.get(entering) : entering,
-        hasVariablesNames() ? variables.get(leaving) : leaving);
-    if (m >= PARALLEL_THRESHOLD) {
-      try {
-        pivotConcurrently(entering, leaving);
-      } catch (InterruptedException e) {
-        logger.catching(e);
-        throw logger.throwing(
-            new SolutionException("Some thread was interrupted during calculation", e));
-      }
+    if (logger.isTraceEnabled()) {
+      logger.trace(
+          "Start pivoting with, entering - {}, leaving - {}",
+          hasVariablesNames() ? variables.get(entering) : entering,
+          hasVariablesNames() ? variables.get(leaving + n) : leaving);
+    }
+    if ((long) m * n >= PARALLEL_THRESHOLD && PivotPool.getParallelism() > 1) {
+      pivotConcurrently(entering, leaving);
     } else {
       pivotSequentially(entering, leaving);
     }
@@ -162,7 +155,6 @@ public class LPState {
         currentRow[j] = currentRow[j].subtract(curEntCoef.multiply(pivotRow[j], rounder), rounder);
       }
       b[i] = b[i].subtract(curEntCoef.multiply(bEntering, rounder), rounder);
-      logger.trace("Finished pivoting");
     }
 
     // computing new objective function
@@ -181,92 +173,73 @@ public class LPState {
   }
 
   @SuppressWarnings("Duplicates")
-  void pivotConcurrently(int entering, int leaving) throws InterruptedException {
+  void pivotConcurrently(int entering, int leaving) {
     logger.trace("Start pivoting concurrently");
-    if (pool == null) {
-      pool = Executors.newFixedThreadPool(THREAD_AMOUNT);
-    }
-    CountDownLatch latch1 = new CountDownLatch(THREAD_AMOUNT);
-
     // recalculate leaving row
     BigDecimal[] pivotRow = A[leaving];
     BigDecimal pivEntCoef = pivotRow[entering];
     pivotRow[entering] = BigDecimal.ONE.divide(pivEntCoef, rounder);
-    for (int k = 0; k < THREAD_AMOUNT; k++) {
-      int effectivelyFinalK = k;
-      pool.execute(
-          () -> {
-            int from = (effectivelyFinalK * n) / THREAD_AMOUNT;
-            int to = ((effectivelyFinalK + 1) * n) / THREAD_AMOUNT;
+    PivotPool.forEachRowBlock(
+        n,
+        BLOCK_WORK,
+        (from, to) -> {
+          if (logger.isTraceEnabled()) {
             logger.trace("Recalculating leaving row from {} to {}", from, to);
-            for (int i = from; i < to; i++) {
-              if (i == entering) {
-                continue;
-              }
-              pivotRow[i] = pivotRow[i].divide(pivEntCoef, rounder);
+          }
+          for (int i = from; i < to; i++) {
+            if (i == entering) {
+              continue;
             }
-            latch1.countDown();
-            logger.trace("Finished recalculating leaving row from {} to {}", from, to);
-          });
-    }
-    latch1.await();
+            pivotRow[i] = pivotRow[i].divide(pivEntCoef, rounder);
+          }
+        });
     b[leaving] = b[leaving].divide(pivEntCoef, rounder);
 
-    CountDownLatch latch2 = new CountDownLatch(THREAD_AMOUNT);
     // recalculate other rows
     BigDecimal bEntering = b[leaving];
-    for (int k = 0; k < THREAD_AMOUNT; k++) {
-      int effectivelyFinalK = k;
-      pool.execute(
-          () -> {
-            int from = (effectivelyFinalK * m) / THREAD_AMOUNT;
-            int to = ((effectivelyFinalK + 1) * m) / THREAD_AMOUNT;
+    PivotPool.forEachRowBlock(
+        m,
+        BLOCK_WORK / n,
+        (from, to) -> {
+          if (logger.isTraceEnabled()) {
             logger.trace("Recalculating constraint matrix from {} to {}", from, to);
-            for (int i = from; i < to; i++) {
-              if (i == leaving) {
+          }
+          for (int i = from; i < to; i++) {
+            if (i == leaving) {
+              continue;
+            }
+            BigDecimal[] currentRow = A[i];
+            BigDecimal curEntCoef = currentRow[entering];
+            currentRow[entering] = curEntCoef.divide(pivEntCoef, rounder).negate();
+            for (int j = 0; j < n; j++) {
+              if (j == entering) {
                 continue;
               }
-              BigDecimal[] currentRow = A[i];
-              BigDecimal curEntCoef = currentRow[entering];
-              currentRow[entering] = curEntCoef.divide(pivEntCoef, rounder).negate();
-              for (int j = 0; j < n; j++) {
-                if (j == entering) {
-                  continue;
-                }
-                currentRow[j] =
-                    currentRow[j].subtract(curEntCoef.multiply(pivotRow[j], rounder), rounder);
-              }
-              b[i] = b[i].subtract(curEntCoef.multiply(bEntering, rounder), rounder);
+              currentRow[j] =
+                  currentRow[j].subtract(curEntCoef.multiply(pivotRow[j], rounder), rounder);
             }
-            latch2.countDown();
-            logger.trace("Finished recalculating constraint matrix from {} to {}", from, to);
-          });
-    }
-    latch2.await();
+            b[i] = b[i].subtract(curEntCoef.multiply(bEntering, rounder), rounder);
+          }
+        });
 
-    CountDownLatch latch3 = new CountDownLatch(THREAD_AMOUNT);
     // computing new objective function
     BigDecimal pivotCoefficientInC = c[entering];
     v = v.add(b[leaving].multiply(pivotCoefficientInC, rounder), rounder);
     c[entering] = pivotCoefficientInC.divide(pivEntCoef, rounder).negate();
-    for (int k = 0; k < THREAD_AMOUNT; k++) {
-      int effectivelyFinalK = k;
-      pool.execute(
-          () -> {
-            int from = (effectivelyFinalK * n) / THREAD_AMOUNT;
-            int to = ((effectivelyFinalK + 1) * n) / THREAD_AMOUNT;
+    PivotPool.forEachRowBlock(
+        n,
+        BLOCK_WORK,
+        (from, to) -> {
+          if (logger.isTraceEnabled()) {
             logger.trace("Computing new objective function from {} to {}", from, to);
-            for (int i = from; i < to; i++) {
-              if (i == entering) {
-                continue;
-              }
-              c[i] = c[i].subtract(pivotCoefficientInC.multiply(pivotRow[i], rounder), rounder);
+          }
+          for (int i = from; i < to; i++) {
+            if (i == entering) {
+              continue;
             }
-            logger.trace("Finished computing new objective function from {} to {}", from, to);
-            latch3.countDown();
-          });
-    }
-    latch3.await();
+            c[i] = c[i].subtract(pivotCoefficientInC.multiply(pivotRow[i], rounder), rounder);
+          }
+        });
     exchangeIndexes(entering, leaving);
     logger.trace("Finished concurrent pivot");
   }
@@ -280,43 +253,127 @@ public class LPState {
         break;
       }
     }
-    logger.trace("Entering is {}", hasVariablesNames() ? variables.get(positiveInC) : positiveInC);
+    if (logger.isTraceEnabled()) {
+      logger.trace(
+          "Entering is {}", hasVariablesNames() ? variables.get(positiveInC) : positiveInC);
+    }
     return positiveInC;
   }
 
   public int getLeaving(int entering) {
     Validate.isTrue(entering >= 0 && entering < n);
     int leaving = -1;
-    BigDecimal minSlack = this.INF;
-    BigDecimal slack;
+    BigDecimal leavingCoef = null;
     for (int i = 0; i < m; i++) {
       BigDecimal aie = A[i][entering];
-      if (aie.compareTo(epsilon) < 0) {
-        slack = INF;
-      } else {
-        slack = b[i].divide(aie, rounder);
-      }
-      if (slack.compareTo(minSlack) < 0) {
-        minSlack = slack;
+      // b[i] / aie < b[leaving] / leavingCoef, both coefficients are positive
+      if (aie.compareTo(epsilon) >= 0
+          && (leaving == -1
+              || b[i].multiply(leavingCoef).compareTo(b[leaving].multiply(aie)) < 0)) {
         leaving = i;
+        leavingCoef = aie;
       }
     }
     return leaving;
   }
 
-  public boolean hasVariablesNames() {
-    return variables != null && coefficients != null;
+  @Override
+  void complementColumn(int column, double bound) {
+    BigDecimal u = BigDecimal.valueOf(bound);
+    for (int i = 0; i < m; i++) {
+      BigDecimal aij = A[i][column];
+      if (aij.signum() != 0) {
+        b[i] = b[i].subtract(aij.multiply(u, rounder), rounder);
+        A[i][column] = aij.negate();
+      }
+    }
+    v = v.add(c[column].multiply(u, rounder), rounder);
+    c[column] = c[column].negate();
+  }
+
+  @Override
+  void complementRow(int row, double bound) {
+    BigDecimal[] values = A[row];
+    for (int j = 0; j < n; j++) {
+      values[j] = values[j].negate();
+    }
+    b[row] = BigDecimal.valueOf(bound).subtract(b[row], rounder);
+  }
+
+  @Override
+  public BigDecimal getObjectiveValue() {
+    return v;
+  }
+
+  @Override
+  double getRhs(int row) {
+    return b[row].doubleValue();
+  }
+
+  @Override
+  double getEntry(int row, int column) {
+    return A[row][column].doubleValue();
+  }
+
+  @Override
+  double getReducedCost(int column) {
+    return c[column].doubleValue();
+  }
+
+  @Override
+  BigDecimal getBasicValue(int row) {
+    return b[row];
+  }
+
+  @Override
+  BigDecimal getObjectiveCoefficient(int column) {
+    return c[column];
+  }
+
+  @Override
+  double getTolerance() {
+    return epsilon.doubleValue();
   }
 
-  private void exchangeIndexes(int entering, int leaving) {
-    if (hasVariablesNames()) {
-      logger.trace("Exchanging indexes");
-      String enteringVarName = variables.get(entering), leavingVarName = variables.get(leaving + n);
-      variables.put(entering, leavingVarName);
-      variables.put(leaving + n, enteringVarName);
-      coefficients.put(enteringVarName, leaving + n);
-      coefficients.put(leavingVarName, entering);
+  @Override
+  LPState restoreInitialLP(LPStandardForm initial, int indexOfX0) {
+    logger.trace("Restoring initial linear program after initialization");
+    int n = initial.n;
+
+    // restoring A
+    BigDecimal[][] A = new BigDecimal[m][n];
+    for (int i = 0; i < m; i++) {
+      System.arraycopy(this.A[i], 0, A[i], 0, indexOfX0);
+      System.arraycopy(this.A[i], indexOfX0 + 1, A[i], indexOfX0, n - indexOfX0);
     }
+
+    Set<String> initialVariables = initial.coefficients.keySet();
+    BigDecimal v = BigDecimal.ZERO;
+    BigDecimal[] c = new BigDecimal[n];
+    Arrays.fill(c, BigDecimal.ZERO);
+    for (String currentVar : initialVariables) {
+      int index = initial.coefficients.get(currentVar);
+      BigDecimal initialCoefficient = initial.c[index];
+      int currentIndex = coefficients.get(currentVar);
+      if (currentIndex >= this.n) {
+        // basis variable, need to substitute
+        v = v.add(b[currentIndex - this.n].multiply(initialCoefficient, rounder), rounder);
+        BigDecimal[] row = A[currentIndex - this.n];
+        for (int j = 0; j < n; j++) {
+          BigDecimal varCoefficient = row[j].negate();
+          c[j] = c[j].add(varCoefficient.multiply(initialCoefficient, rounder), rounder);
+        }
+      } else {
+        // non-basis variable, columns after x0 are shifted
+        int column = currentIndex > indexOfX0 ? currentIndex - 1 : currentIndex;
+        c[column] = c[column].add(initialCoefficient, rounder);
+      }
+    }
+
+    removeVariable(indexOfX0, n, m);
+    return new LPState(
+        A, b, c, v, variables, coefficients, initial.m, initial.n, printRounder, rounder, epsilon,
+        INF);
   }
 
   public String toString() {
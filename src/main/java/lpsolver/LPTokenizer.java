@@ -0,0 +1,402 @@
+package lpsolver;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Single pass scanner of the text formats of {@link LPInputReader} and {@link MPSReader}. Lines are
+ * read into a reused buffer from a channel through a large byte buffer, or from a string, and
+ * scanned in place: only numbers and new names allocate. Bytes are decoded as ISO-8859-1, the
+ * formats are ASCII.
+ */
+class LPTokenizer {
+  static final int BUFFER_SIZE = 1 << 20;
+  // 10^k for k <= 22 are exact doubles
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+  // mantissas below 2^53 are exact doubles
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+  private final ReadableByteChannel channel;
+  private final ByteBuffer bytes;
+  private final CharSequence text;
+  private int textPosition;
+
+  private char[] line = new char[256];
+  private int length;
+  private int position;
+  private int lineNumber;
+
+  LPTokenizer(ReadableByteChannel channel) {
+    this(channel, BUFFER_SIZE);
+  }
+
+  LPTokenizer(ReadableByteChannel channel, int bufferSize) {
+    this(channel, ByteBuffer.allocate(bufferSize));
+  }
+
+  /** Reads the channel through {@code bytes}, which can be reused once this tokenizer is done. */
+  LPTokenizer(ReadableByteChannel channel, ByteBuffer bytes) {
+    this.channel = channel;
+    this.bytes = bytes;
+    this.bytes.clear().flip();
+    this.text = null;
+  }
+
+  /** Reads the remaining bytes of {@code content}, as a channel of the same bytes is read. */
+  LPTokenizer(ByteBuffer content) {
+    this.channel = Channels.newChannel(new ByteArrayInputStream(new byte[0]));
+    this.bytes = content;
+    this.text = null;
+  }
+
+  LPTokenizer(CharSequence text) {
+    this.channel = null;
+    this.bytes = null;
+    this.text = text;
+  }
+
+  /**
+   * Reads the next line without its terminator and moves to its start.
+   *
+   * @return {@code false} at the end of the input
+   */
+  boolean nextLine() throws IOException {
+    length = 0;
+    position = 0;
+    boolean read = channel == null ? readTextLine() : readChannelLine();
+    if (length > 0 && line[length - 1] == '\r') {
+      --length;
+    }
+    if (read) {
+      ++lineNumber;
+    }
+    return read;
+  }
+
+  private boolean readTextLine() {
+    int size = text.length();
+    if (textPosition >= size) {
+      return false;
+    }
+    while (textPosition < size) {
+      char ch = text.charAt(textPosition++);
+      if (ch == '\n') {
+        return true;
+      }
+      append(ch);
+    }
+    return true;
+  }
+
+  private boolean readChannelLine() throws IOException {
+    boolean read = false;
+    while (true) {
+      if (!bytes.hasRemaining()) {
+        bytes.clear();
+        int count;
+        do {
+          count = channel.read(bytes);
+        } while (count == 0);
+        bytes.flip();
+        if (count < 0) {
+          return read;
+        }
+      }
+      read = true;
+      while (bytes.hasRemaining()) {
+        char ch = (char) (bytes.get() & 0xff);
+        if (ch == '\n') {
+          return true;
+        }
+        append(ch);
+      }
+    }
+  }
+
+  private void append(char ch) {
+    if (length == line.length) {
+      line = Arrays.copyOf(line, length * 2);
+    }
+    line[length++] = ch;
+  }
+
+  int getLineNumber() {
+    return lineNumber;
+  }
+
+  /** Current line, for messages. */
+  String getLine() {
+    return new String(line, 0, length);
+  }
+
+  boolean isBlank() {
+    for (int k = 0; k < length; k++) {
+      if (!Character.isWhitespace(line[k])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Whether the trimmed line equals {@code word} ignoring case. */
+  boolean lineEquals(String word) {
+    int from = 0;
+    int to = length;
+    while (from < to && Character.isWhitespace(line[from])) {
+      ++from;
+    }
+    while (to > from && Character.isWhitespace(line[to - 1])) {
+      --to;
+    }
+    return to - from == word.length() && new String(line, from, to - from).equalsIgnoreCase(word);
+  }
+
+  void skipWhitespace() {
+    while (position < length && Character.isWhitespace(line[position])) {
+      ++position;
+    }
+  }
+
+  boolean atEnd() {
+    skipWhitespace();
+    return position == length;
+  }
+
+  /** Next non-whitespace character, {@code 0} at the end of the line. */
+  char peek() {
+    skipWhitespace();
+    return position < length ? line[position] : 0;
+  }
+
+  boolean consume(char ch) {
+    if (peek() == ch) {
+      ++position;
+      return true;
+    }
+    return false;
+  }
+
+  /** Consumes an optional sign, returns {@code -1} for minus and {@code 1} otherwise. */
+  int readSign() {
+    if (consume('-')) {
+      return -1;
+    }
+    consume('+');
+    return 1;
+  }
+
+  boolean atNumber() {
+    char ch = peek();
+    return isDigit(ch) || ch == '.';
+  }
+
+  /**
+   * Reads an unsigned number {@code digits[.digits]}.
+   *
+   * @return the number, {@code null} if there is no number at the position
+   */
+  BigDecimal readNumber() {
+    skipWhitespace();
+    int start = position;
+    int end = numberEnd();
+    if (end < 0) {
+      return null;
+    }
+    position = end;
+    return new BigDecimal(line, start, end - start);
+  }
+
+  /**
+   * Reads an unsigned number {@code digits[.digits]} as the nearest double. Numbers of at most 15
+   * significant digits are converted exactly without allocation.
+   *
+   * @return the number, {@code NaN} if there is no number at the position
+   */
+  double readDouble() {
+    skipWhitespace();
+    int start = position;
+    int end = numberEnd();
+    if (end < 0) {
+      return Double.NaN;
+    }
+    position = end;
+    return parseDouble(start, end);
+  }
+
+  /**
+   * Parses {@code [+-]digits[.digits][(e|E)[+-]digits]} from the {@code start} to the {@code end}
+   * of the line as the nearest double. Numbers of at most 15 significant digits and small
+   * exponents are converted exactly without allocation.
+   *
+   * @throws NumberFormatException if the characters are not a number
+   */
+  double parseDouble(int start, int end) {
+    int k = start;
+    boolean negative = false;
+    if (k < end && (line[k] == '-' || line[k] == '+')) {
+      negative = line[k++] == '-';
+    }
+    long mantissa = 0;
+    int power = 0;
+    boolean digits = false;
+    boolean fraction = false;
+    for (; k < end; k++) {
+      char ch = line[k];
+      if (ch == '.' && !fraction) {
+        fraction = true;
+      } else if (isDigit(ch) && mantissa < MAX_EXACT_MANTISSA) {
+        mantissa = mantissa * 10 + (ch - '0');
+        digits = true;
+        if (fraction) {
+          --power;
+        }
+      } else {
+        break;
+      }
+    }
+    if (k < end && digits && (line[k] == 'e' || line[k] == 'E')) {
+      int exponentStart = ++k;
+      if (k < end && (line[k] == '-' || line[k] == '+')) {
+        ++k;
+      }
+      int exponentDigits = k;
+      int exponent = 0;
+      for (; k < end && isDigit(line[k]) && exponent < 1000; k++) {
+        exponent = exponent * 10 + (line[k] - '0');
+      }
+      digits = k > exponentDigits;
+      power += line[exponentStart] == '-' ? -exponent : exponent;
+    }
+    if (k < end || !digits || mantissa >= MAX_EXACT_MANTISSA) {
+      return Double.parseDouble(new String(line, start, end - start));
+    }
+    double value;
+    if (power >= 0 && power < POWERS_OF_TEN.length) {
+      value = mantissa * POWERS_OF_TEN[power];
+    } else if (power < 0 && -power < POWERS_OF_TEN.length) {
+      value = mantissa / POWERS_OF_TEN[-power];
+    } else {
+      return Double.parseDouble(new String(line, start, end - start));
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Parses a number from the {@code start} to the {@code end} of the line exactly.
+   *
+   * @throws NumberFormatException if the characters are not a number
+   */
+  BigDecimal parseDecimal(int start, int end) {
+    return new BigDecimal(line, start, end - start);
+  }
+
+  /**
+   * Moves over the next sequence of non-whitespace characters, which ends at the position.
+   *
+   * @return the start of the word, {@code -1} at the end of the line
+   */
+  int readWord() {
+    skipWhitespace();
+    if (position == length) {
+      return -1;
+    }
+    int start = position;
+    while (position < length && !Character.isWhitespace(line[position])) {
+      ++position;
+    }
+    return start;
+  }
+
+  int getLength() {
+    return length;
+  }
+
+  /** End of the number at the position, {@code -1} if there is none. */
+  private int numberEnd() {
+    int end = position;
+    boolean digits = false;
+    while (end < length && isDigit(line[end])) {
+      ++end;
+      digits = true;
+    }
+    if (end < length && line[end] == '.') {
+      int fractionEnd = end + 1;
+      while (fractionEnd < length && isDigit(line[fractionEnd])) {
+        ++fractionEnd;
+        digits = true;
+      }
+      end = fractionEnd;
+    }
+    return digits ? end : -1;
+  }
+
+  boolean atName() {
+    return isLetter(peek());
+  }
+
+  /**
+   * Moves over a variable name: letters followed by an optional index. Its characters are {@link
+   * #chars} from the {@code start} to the position.
+   *
+   * @return the start of the name, {@code -1} if there is no name at the position
+   */
+  int readName() {
+    if (!atName()) {
+      return -1;
+    }
+    int start = position;
+    while (position < length && isLetter(line[position])) {
+      ++position;
+    }
+    while (position < length && isDigit(line[position])) {
+      ++position;
+    }
+    return start;
+  }
+
+  /** Buffer of the current line, valid until the next line is read. */
+  char[] chars() {
+    return line;
+  }
+
+  int getPosition() {
+    return position;
+  }
+
+  /**
+   * Reads a relation {@code <=}, {@code >=}, {@code =} or {@code ==}.
+   *
+   * @return {@code '<'}, {@code '>'} or {@code '='}, {@code 0} if there is no relation
+   */
+  char readRelation() {
+    char ch = peek();
+    if ((ch == '<' || ch == '>') && position + 1 < length && line[position + 1] == '=') {
+      position += 2;
+      return ch;
+    }
+    if (ch == '=') {
+      ++position;
+      if (position < length && line[position] == '=') {
+        ++position;
+      }
+      return ch;
+    }
+    return 0;
+  }
+
+  private static boolean isDigit(char ch) {
+    return ch >= '0' && ch <= '9';
+  }
+
+  private static boolean isLetter(char ch) {
+    return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+  }
+}
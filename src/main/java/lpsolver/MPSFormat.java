@@ -0,0 +1,12 @@
+package lpsolver;
+
+/** Layout of the data lines of an MPS file, see {@link MPSReader} and {@link MPSWriter}. */
+public enum MPSFormat {
+  /**
+   * Fields at fixed positions: 2-3, 5-12, 15-22, 25-36, 40-47 and 50-61. Names may contain spaces
+   * and have at most 8 characters.
+   */
+  FIXED,
+  /** Fields separated by whitespace, names of any length without spaces. */
+  FREE
+}
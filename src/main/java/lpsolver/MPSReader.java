@@ -0,0 +1,689 @@
+package lpsolver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Reads linear programs in fixed or free MPS format with the sections {@code NAME}, {@code
+ * OBJSENSE}, {@code ROWS}, {@code COLUMNS}, {@code RHS}, {@code RANGES}, {@code BOUNDS} and {@code
+ * ENDATA}. The first {@code N} row is the objective, other {@code N} rows are dropped. The program
+ * is minimized unless {@code OBJSENSE} is {@code MAX}.
+ *
+ * <p>{@code G} rows are negated into {@code <=} rows and {@code E} rows become equalities. A ranged
+ * row {@code l <= ax <= u} becomes the equality {@code ax - r = l} with a new variable {@code 0 <=
+ * r <= u - l} named after the row with the suffix {@code _range}. A variable without lower bound
+ * ({@code FR}, {@code MI} or a negative {@code UP} bound) is split into {@code x - x_neg} of two
+ * non-negative variables. Integrality markers and bounds are read as continuous.
+ *
+ * <p>The file is scanned in a single pass by {@link LPTokenizer}. Columns go straight into a
+ * {@link SparseMatrix.Builder} by columns, which is transposed once at the end, so programs with
+ * millions of nonzeros need only their sparse matrix in memory. The dense form is made from the
+ * sparse matrix.
+ */
+public class MPSReader {
+  private static final Logger logger = LogManager.getLogger(MPSReader.class);
+  private static final String RANGE_SUFFIX = "_range";
+  private static final String NEGATIVE_SUFFIX = "_neg";
+  // semantic fields of a data line, positions of the fixed format
+  private static final int TYPE = 0, NAME1 = 1, NAME2 = 2, VALUE1 = 3, NAME3 = 4, VALUE2 = 5;
+  private static final int[] FIXED_START = {1, 4, 14, 24, 39, 49};
+  private static final int[] FIXED_END = {3, 12, 22, 36, 47, 61};
+  private static final int MAX_WORDS = 6;
+
+  private enum Section {
+    NAME,
+    OBJSENSE,
+    ROWS,
+    COLUMNS,
+    RHS,
+    RANGES,
+    BOUNDS,
+    ENDATA
+  }
+
+  private final MPSFormat format;
+  private final boolean sparse;
+  private LPTokenizer tokenizer;
+  private final int[] fieldStart = new int[MAX_WORDS];
+  private final int[] fieldEnd = new int[MAX_WORDS];
+  private final int[] wordStart = new int[MAX_WORDS];
+  private final int[] wordEnd = new int[MAX_WORDS];
+
+  private boolean maximize;
+  private NameTable rows;
+  // type of the row of a name index, its index among constraints or -1 for N rows
+  private char[] rowTypes;
+  private int[] rowIndexes;
+  private int objective;
+  private int m;
+  // name index of the constraint of a row index
+  private int[] rowNames;
+  private BigDecimal[] rhs;
+  private BigDecimal[] ranges;
+
+  private NameTable columns;
+  private SparseMatrix.Builder byColumns;
+  private int currentColumn;
+  private ArrayList<BigDecimal> c;
+  private BigDecimal[] lower, upper;
+  private boolean[] unboundedBelow;
+  private boolean integralityIgnored;
+
+  /** Reads free MPS into dense standard forms. */
+  public MPSReader() {
+    this(MPSFormat.FREE, false);
+  }
+
+  /**
+   * @param format layout of the data lines, the free format also reads fixed files whose names
+   *     have no spaces
+   * @param sparse whether the constraint matrix should be a {@link SparseMatrix}
+   */
+  public MPSReader(MPSFormat format, boolean sparse) {
+    this.format = format;
+    this.sparse = sparse;
+  }
+
+  private void reload() {
+    maximize = false;
+    rows = new NameTable();
+    rowTypes = new char[16];
+    rowIndexes = new int[16];
+    objective = -1;
+    m = 0;
+    rowNames = new int[16];
+    rhs = null;
+    ranges = null;
+    columns = new NameTable();
+    byColumns = null;
+    currentColumn = -1;
+    c = new ArrayList<>();
+    lower = null;
+    upper = null;
+    unboundedBelow = null;
+    integralityIgnored = false;
+  }
+
+  @Contract("null -> fail")
+  public LPStandardForm readMPS(@NotNull File file) throws LPException, IOException {
+    logger.trace("Start reading MPS program from {}", file);
+    if (!file.isFile() || !file.canRead()) {
+      logger.error("{} should be a readable file", file);
+      throw new IllegalArgumentException();
+    }
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      return read(new LPTokenizer(channel));
+    }
+  }
+
+  @Contract("null -> fail")
+  public LPStandardForm readMPS(@NotNull String mps) throws LPException {
+    try {
+      return read(new LPTokenizer(mps));
+    } catch (IOException e) {
+      // a string is never read with an I/O error
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Reads a program from its bytes, as a file of the same bytes is read. */
+  @Contract("null -> fail")
+  public LPStandardForm readMPS(@NotNull byte[] mps) throws LPException {
+    try {
+      return read(new LPTokenizer(ByteBuffer.wrap(mps)));
+    } catch (IOException e) {
+      // bytes in memory are never read with an I/O error
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private LPStandardForm read(LPTokenizer tokenizer) throws LPException, IOException {
+    reload();
+    this.tokenizer = tokenizer;
+    Section section = null;
+    while (tokenizer.nextLine()) {
+      char[] line = tokenizer.chars();
+      if (tokenizer.isBlank() || line[0] == '*') {
+        continue;
+      }
+      if (!Character.isWhitespace(line[0])) {
+        section = readHeader(section);
+        if (section == Section.ENDATA) {
+          break;
+        }
+        continue;
+      }
+      if (section == null) {
+        throw error("Data line outside of a section");
+      }
+      try {
+        switch (section) {
+          case OBJSENSE:
+            readObjectiveSense();
+            break;
+          case ROWS:
+            readRow();
+            break;
+          case COLUMNS:
+            readColumn();
+            break;
+          case RHS:
+            readRhs(false);
+            break;
+          case RANGES:
+            readRhs(true);
+            break;
+          case BOUNDS:
+            readBound();
+            break;
+          default:
+            throw error("Unexpected data line in section " + section);
+        }
+      } catch (NumberFormatException e) {
+        throw error("Can't recognize number");
+      }
+    }
+    endRows();
+    endColumns();
+    this.tokenizer = null;
+    return createStandardForm();
+  }
+
+  /** Starts the section of the header line, sections should come in the order of the format. */
+  private Section readHeader(Section current) throws LPException {
+    int start = tokenizer.readWord();
+    String keyword = new String(tokenizer.chars(), start, tokenizer.getPosition() - start);
+    Section next;
+    try {
+      next = Section.valueOf(keyword.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw error("Unsupported section " + keyword);
+    }
+    if (current != null && next.compareTo(current) <= 0) {
+      throw error("Section " + next + " is out of order");
+    }
+    if (next.compareTo(Section.ROWS) > 0) {
+      endRows();
+    }
+    if (next.compareTo(Section.COLUMNS) > 0) {
+      endColumns();
+    }
+    if (next == Section.OBJSENSE && !tokenizer.atEnd()) {
+      readObjectiveSense();
+    }
+    return next;
+  }
+
+  private void readObjectiveSense() throws LPException {
+    int start = tokenizer.readWord();
+    String sense = new String(tokenizer.chars(), start, tokenizer.getPosition() - start);
+    if (sense.equalsIgnoreCase("MAX") || sense.equalsIgnoreCase("MAXIMIZE")) {
+      maximize = true;
+    } else if (sense.equalsIgnoreCase("MIN") || sense.equalsIgnoreCase("MINIMIZE")) {
+      maximize = false;
+    } else {
+      throw error("Incorrect objective sense " + sense);
+    }
+  }
+
+  private void readRow() throws LPException {
+    if (format == MPSFormat.FIXED) {
+      splitFixed();
+    } else {
+      splitFree();
+      assignWords(TYPE, NAME1);
+    }
+    if (!hasField(TYPE) || !hasField(NAME1) || fieldEnd[TYPE] - fieldStart[TYPE] != 1) {
+      throw error("Can't recognize row");
+    }
+    char type = Character.toUpperCase(tokenizer.chars()[fieldStart[TYPE]]);
+    if (type != 'N' && type != 'L' && type != 'G' && type != 'E') {
+      throw error("Unknown row type " + type);
+    }
+    if (find(rows, NAME1) >= 0) {
+      throw error("Duplicate row " + fieldString(NAME1));
+    }
+    int name = rows.add(fieldString(NAME1));
+    if (name == rowTypes.length) {
+      rowTypes = Arrays.copyOf(rowTypes, name * 2);
+      rowIndexes = Arrays.copyOf(rowIndexes, name * 2);
+    }
+    rowTypes[name] = type;
+    if (type == 'N') {
+      rowIndexes[name] = -1;
+      if (objective < 0) {
+        objective = name;
+      }
+    } else {
+      if (m == rowNames.length) {
+        rowNames = Arrays.copyOf(rowNames, m * 2);
+      }
+      rowNames[m] = name;
+      rowIndexes[name] = m++;
+    }
+  }
+
+  private void endRows() {
+    if (rhs == null) {
+      rhs = new BigDecimal[m];
+      ranges = new BigDecimal[m];
+      byColumns = new SparseMatrix.Builder();
+    }
+  }
+
+  private void readColumn() throws LPException {
+    if (format == MPSFormat.FIXED) {
+      splitFixed();
+    } else {
+      splitFree();
+      assignWords(NAME1, NAME2, VALUE1, NAME3, VALUE2);
+    }
+    if (!hasField(NAME1) || !hasField(NAME2)) {
+      throw error("Can't recognize column");
+    }
+    if (isMarker()) {
+      warnIntegrality();
+      return;
+    }
+    int column = find(columns, NAME1);
+    if (column < 0) {
+      if (currentColumn >= 0) {
+        byColumns.endRow();
+      }
+      column = columns.add(fieldString(NAME1));
+      c.add(BigDecimal.ZERO);
+      currentColumn = column;
+    } else if (column != currentColumn) {
+      throw error("Entries of column " + fieldString(NAME1) + " are not contiguous");
+    }
+    addEntry(column, NAME2, VALUE1);
+    if (hasField(NAME3)) {
+      addEntry(column, NAME3, VALUE2);
+    }
+  }
+
+  private void addEntry(int column, int rowField, int valueField) throws LPException {
+    if (!hasField(valueField)) {
+      throw error("Can't recognize column");
+    }
+    int name = findRow(rowField);
+    if (name == objective) {
+      c.set(column, decimal(valueField));
+    } else if (rowIndexes[name] >= 0) {
+      double value = tokenizer.parseDouble(fieldStart[valueField], fieldEnd[valueField]);
+      byColumns.add(rowIndexes[name], rowTypes[name] == 'G' ? -value : value);
+    }
+  }
+
+  // integrality markers name the column 'MARKER'
+  private boolean isMarker() {
+    int start = fieldStart[NAME2];
+    int length = fieldEnd[NAME2] - start;
+    return length == 8 && new String(tokenizer.chars(), start, length).equals("'MARKER'");
+  }
+
+  private void endColumns() {
+    if (lower == null) {
+      if (currentColumn >= 0) {
+        byColumns.endRow();
+      }
+      int n = columns.size();
+      lower = new BigDecimal[n];
+      upper = new BigDecimal[n];
+      unboundedBelow = new boolean[n];
+    }
+  }
+
+  /** Reads a line of the {@code RHS} or the {@code RANGES} section. */
+  private void readRhs(boolean range) throws LPException {
+    if (format == MPSFormat.FIXED) {
+      splitFixed();
+    } else {
+      int words = splitFree();
+      if (words % 2 == 1) {
+        assignWords(NAME1, NAME2, VALUE1, NAME3, VALUE2);
+      } else {
+        assignWords(NAME2, VALUE1, NAME3, VALUE2);
+      }
+    }
+    if (!hasField(NAME2)) {
+      throw error("Can't recognize right-hand side");
+    }
+    setRhs(range, NAME2, VALUE1);
+    if (hasField(NAME3)) {
+      setRhs(range, NAME3, VALUE2);
+    }
+  }
+
+  private void setRhs(boolean range, int rowField, int valueField) throws LPException {
+    if (!hasField(valueField)) {
+      throw error("Can't recognize right-hand side");
+    }
+    int name = findRow(rowField);
+    int row = rowIndexes[name];
+    if (row >= 0) {
+      BigDecimal value = decimal(valueField);
+      if (range) {
+        ranges[row] = value;
+      } else {
+        rhs[row] = value;
+      }
+    } else if (name == objective && !range) {
+      logger.warn("Constant {} of the objective function is ignored", fieldString(valueField));
+    }
+  }
+
+  private void readBound() throws LPException {
+    if (format == MPSFormat.FIXED) {
+      splitFixed();
+    } else {
+      int words = splitFree();
+      boolean withSet = words == 4;
+      if (words == 3) {
+        String type = new String(tokenizer.chars(), wordStart[0], wordEnd[0] - wordStart[0]);
+        withSet =
+            isWithoutValue(type) || (type.equalsIgnoreCase("BV") && !isNumber(wordStart[2]));
+      }
+      if (withSet) {
+        assignWords(TYPE, NAME1, NAME2, VALUE1);
+      } else {
+        assignWords(TYPE, NAME2, VALUE1);
+      }
+    }
+    if (!hasField(TYPE) || !hasField(NAME2)) {
+      throw error("Can't recognize bound");
+    }
+    String type = fieldString(TYPE).toUpperCase();
+    int column = find(columns, NAME2);
+    if (column < 0) {
+      throw error("Unknown column " + fieldString(NAME2));
+    }
+    if (isWithoutValue(type)) {
+      if (type.equals("FR")) {
+        unboundedBelow[column] = true;
+        upper[column] = null;
+      } else if (type.equals("MI")) {
+        unboundedBelow[column] = true;
+      } else {
+        upper[column] = null;
+      }
+      return;
+    }
+    if (type.equals("BV")) {
+      warnIntegrality();
+      lower[column] = BigDecimal.ZERO;
+      upper[column] = BigDecimal.ONE;
+      unboundedBelow[column] = false;
+      return;
+    }
+    if (!hasField(VALUE1)) {
+      throw error("Can't recognize bound");
+    }
+    BigDecimal value = decimal(VALUE1);
+    switch (type) {
+      case "LI":
+      case "LO":
+        if (type.equals("LI")) {
+          warnIntegrality();
+        }
+        lower[column] = value;
+        unboundedBelow[column] = false;
+        break;
+      case "UI":
+      case "UP":
+        if (type.equals("UI")) {
+          warnIntegrality();
+        }
+        upper[column] = value;
+        if (value.signum() < 0 && lower[column] == null && !unboundedBelow[column]) {
+          logger.warn("Negative upper bound of {} makes it unbounded below", fieldString(NAME2));
+          unboundedBelow[column] = true;
+        }
+        break;
+      case "FX":
+        lower[column] = value;
+        upper[column] = value;
+        unboundedBelow[column] = false;
+        break;
+      default:
+        throw error("Unsupported bound type " + type);
+    }
+  }
+
+  private static boolean isWithoutValue(String type) {
+    return type.equalsIgnoreCase("FR")
+        || type.equalsIgnoreCase("MI")
+        || type.equalsIgnoreCase("PL");
+  }
+
+  private void warnIntegrality() {
+    if (!integralityIgnored) {
+      logger.warn("Integrality of variables is ignored");
+      integralityIgnored = true;
+    }
+  }
+
+  private LPStandardForm createStandardForm() throws LPException {
+    int n = columns.size();
+    SparseMatrix transposed = byColumns.build(m);
+    int[] free = new int[n];
+    int frees = 0;
+    for (int j = 0; j < n; j++) {
+      if (unboundedBelow[j]) {
+        free[frees++] = j;
+      }
+    }
+    int[] ranged = new int[m];
+    int rangedRows = 0;
+    for (int i = 0; i < m; i++) {
+      if (ranges[i] != null) {
+        ranged[rangedRows++] = i;
+      }
+    }
+    if (frees + rangedRows > 0) {
+      SparseMatrix.Builder builder = new SparseMatrix.Builder();
+      for (int j = 0; j < n; j++) {
+        copyRow(transposed, j, 1.0, builder);
+      }
+      for (int k = 0; k < frees; k++) {
+        copyRow(transposed, free[k], -1.0, builder);
+      }
+      for (int k = 0; k < rangedRows; k++) {
+        int i = ranged[k];
+        builder.add(i, rowTypes[rowNames[i]] == 'G' ? 1.0 : -1.0).endRow();
+      }
+      transposed = builder.build(m);
+    }
+    SparseMatrix A = transposed.transpose();
+
+    int total = n + frees + rangedRows;
+    BigDecimal[] objectiveCoefficients = new BigDecimal[total];
+    BigDecimal[] lowerBounds = new BigDecimal[total];
+    BigDecimal[] upperBounds = new BigDecimal[total];
+    for (int j = 0; j < n; j++) {
+      objectiveCoefficients[j] = c.get(j);
+      lowerBounds[j] = lower[j] == null ? BigDecimal.ZERO : lower[j];
+      upperBounds[j] = upper[j];
+    }
+    for (int k = 0; k < frees; k++) {
+      int j = free[k];
+      objectiveCoefficients[n + k] = c.get(j).negate();
+      columns.add(uniqueName(columns.getName(j) + NEGATIVE_SUFFIX));
+      lowerBounds[j] = BigDecimal.ZERO;
+      lowerBounds[n + k] = BigDecimal.ZERO;
+      if (upper[j] != null) {
+        upperBounds[j] = upper[j].max(BigDecimal.ZERO);
+        lowerBounds[n + k] = upper[j].negate().max(BigDecimal.ZERO);
+      }
+    }
+
+    BigDecimal[] b = new BigDecimal[m];
+    boolean[] equalities = new boolean[m];
+    for (int i = 0; i < m; i++) {
+      char type = rowTypes[rowNames[i]];
+      BigDecimal value = rhs[i] == null ? BigDecimal.ZERO : rhs[i];
+      b[i] = type == 'G' ? value.negate() : value;
+      equalities[i] = type == 'E';
+    }
+    for (int k = 0; k < rangedRows; k++) {
+      int i = ranged[k];
+      char type = rowTypes[rowNames[i]];
+      BigDecimal value = rhs[i] == null ? BigDecimal.ZERO : rhs[i];
+      BigDecimal range = ranges[i];
+      BigDecimal low;
+      BigDecimal high;
+      if (type == 'L') {
+        low = value.subtract(range.abs());
+        high = value;
+      } else if (type == 'G') {
+        low = value;
+        high = value.add(range.abs());
+      } else {
+        low = range.signum() < 0 ? value.add(range) : value;
+        high = range.signum() < 0 ? value : value.add(range);
+      }
+      int j = n + frees + k;
+      objectiveCoefficients[j] = BigDecimal.ZERO;
+      columns.add(uniqueName(rows.getName(rowNames[i]) + RANGE_SUFFIX));
+      lowerBounds[j] = BigDecimal.ZERO;
+      upperBounds[j] = high.subtract(low);
+      b[i] = type == 'G' ? low.negate() : low;
+      equalities[i] = true;
+    }
+
+    logger.info(
+        "MPS program has {} rows, {} columns and {} nonzeros", m, total, A.getNonZeros());
+    HashMap<Integer, String> variables = columns.toVariables();
+    HashMap<String, Integer> coefficients = columns.toCoefficients();
+    LPStandardForm stForm =
+        sparse
+            ? new LPStandardForm(A, b, objectiveCoefficients, variables, coefficients, maximize)
+            : new LPStandardForm(
+                A.toDense(), b, objectiveCoefficients, variables, coefficients, m, total, maximize);
+    for (int i = 0; i < m; i++) {
+      if (equalities[i]) {
+        stForm.setEquality(i, true);
+      }
+    }
+    for (int j = 0; j < total; j++) {
+      if (upperBounds[j] != null && lowerBounds[j].compareTo(upperBounds[j]) > 0) {
+        logger.error("Lower bound of {} exceeds its upper bound", variables.get(j));
+        throw new LPException("Lower bound of " + variables.get(j) + " exceeds its upper bound");
+      }
+      if (lowerBounds[j].signum() != 0 || upperBounds[j] != null) {
+        stForm.setBounds(j, lowerBounds[j], upperBounds[j]);
+      }
+    }
+    return stForm;
+  }
+
+  private static void copyRow(
+      SparseMatrix matrix, int row, double sign, SparseMatrix.Builder builder) {
+    for (int k = matrix.rowStart[row]; k < matrix.rowStart[row + 1]; k++) {
+      builder.add(matrix.columnIndexes[k], sign * matrix.values[k]);
+    }
+    builder.endRow();
+  }
+
+  private String uniqueName(String name) {
+    while (columns.contains(name)) {
+      name += "_";
+    }
+    return name;
+  }
+
+  /** Splits the line into the fields of the fixed format, an empty field has no start. */
+  private void splitFixed() {
+    char[] line = tokenizer.chars();
+    int length = tokenizer.getLength();
+    for (int f = 0; f < MAX_WORDS; f++) {
+      int start = FIXED_START[f];
+      int end = Math.min(FIXED_END[f], length);
+      while (start < end && Character.isWhitespace(line[start])) {
+        ++start;
+      }
+      while (end > start && Character.isWhitespace(line[end - 1])) {
+        --end;
+      }
+      fieldStart[f] = start < end ? start : -1;
+      fieldEnd[f] = end;
+    }
+  }
+
+  /** Splits the line into words separated by whitespace, returns their number. */
+  private int splitFree() throws LPException {
+    Arrays.fill(fieldStart, -1);
+    int words = 0;
+    int start;
+    while ((start = tokenizer.readWord()) >= 0) {
+      if (words == MAX_WORDS) {
+        throw error("Too many fields");
+      }
+      wordStart[words] = start;
+      wordEnd[words++] = tokenizer.getPosition();
+    }
+    for (int k = words; k < MAX_WORDS; k++) {
+      wordStart[k] = -1;
+    }
+    return words;
+  }
+
+  /** Assigns the words of a free line to the fields in order. */
+  private void assignWords(int... fields) throws LPException {
+    for (int k = 0; k < fields.length; k++) {
+      fieldStart[fields[k]] = wordStart[k];
+      fieldEnd[fields[k]] = wordEnd[k];
+    }
+    if (fields.length < MAX_WORDS && wordStart[fields.length] >= 0) {
+      throw error("Too many fields");
+    }
+  }
+
+  private boolean hasField(int field) {
+    return fieldStart[field] >= 0;
+  }
+
+  private String fieldString(int field) {
+    return new String(tokenizer.chars(), fieldStart[field], fieldEnd[field] - fieldStart[field]);
+  }
+
+  private int find(NameTable names, int field) {
+    return names.get(tokenizer.chars(), fieldStart[field], fieldEnd[field] - fieldStart[field]);
+  }
+
+  private int findRow(int field) throws LPException {
+    int name = find(rows, field);
+    if (name < 0) {
+      throw error("Unknown row " + fieldString(field));
+    }
+    return name;
+  }
+
+  private BigDecimal decimal(int field) {
+    return tokenizer.parseDecimal(fieldStart[field], fieldEnd[field]);
+  }
+
+  private boolean isNumber(int start) {
+    char ch = tokenizer.chars()[start];
+    return Character.isDigit(ch) || ch == '-' || ch == '+' || ch == '.';
+  }
+
+  private LPException error(String message) {
+    int line = tokenizer.getLineNumber();
+    logger.error("{} at line {}: {}", message, line, tokenizer.getLine());
+    return new LPException(message + " at line " + line);
+  }
+}
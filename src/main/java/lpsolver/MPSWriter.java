@@ -0,0 +1,181 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Writes linear programs in fixed or free MPS format, see {@link MPSReader}. Rows are named {@code
+ * R1, R2, ...} and the objective {@code COST}; {@code <=} rows are {@code L} rows and equalities
+ * {@code E} rows. Columns are written from the transposed sparse matrix, or read by columns from
+ * the dense one, straight to {@code out}.
+ */
+public class MPSWriter {
+  private static final String OBJECTIVE = "COST";
+  private static final String SET = "SET";
+  private static final int FIXED_NAME_LENGTH = 8;
+  private static final int FIXED_VALUE_LENGTH = 12;
+
+  private final MPSFormat format;
+  private final StringBuilder builder = new StringBuilder();
+
+  public MPSWriter(MPSFormat format) {
+    this.format = format;
+  }
+
+  /**
+   * Writes {@code stForm}. Numbers of the fixed format that do not fit their 12 characters are
+   * rounded to fit.
+   *
+   * @throws IllegalArgumentException if a name of the fixed format is longer than 8 characters
+   */
+  public void write(LPStandardForm stForm, Writer out) throws IOException {
+    String[] names = new String[stForm.n];
+    for (int j = 0; j < stForm.n; j++) {
+      names[j] = stForm.hasVariableNames() ? stForm.variables.get(j) : "C" + (j + 1);
+      Validate.isTrue(
+          format == MPSFormat.FREE || names[j].length() <= FIXED_NAME_LENGTH,
+          "Name %s is too long for fixed MPS",
+          names[j]);
+    }
+    out.write("NAME\n");
+    if (stForm.maximize) {
+      out.write("OBJSENSE\n    MAX\n");
+    }
+    out.write("ROWS\n");
+    line(out, "N", OBJECTIVE, null, null, null, null);
+    for (int i = 0; i < stForm.m; i++) {
+      line(out, stForm.isEquality(i) ? "E" : "L", rowName(i), null, null, null, null);
+    }
+
+    out.write("COLUMNS\n");
+    SparseMatrix byColumns = stForm.isSparse() ? stForm.sparseA.transpose() : null;
+    for (int j = 0; j < stForm.n; j++) {
+      // entries are written in pairs, the objective first
+      boolean written = false;
+      String pendingRow = null;
+      BigDecimal pendingValue = null;
+      if (stForm.c[j].signum() != 0) {
+        pendingRow = OBJECTIVE;
+        pendingValue = stForm.c[j];
+      }
+      int count = byColumns != null ? byColumns.rowStart[j + 1] - byColumns.rowStart[j] : stForm.m;
+      for (int k = 0; k < count; k++) {
+        int row;
+        BigDecimal value;
+        if (byColumns != null) {
+          row = byColumns.columnIndexes[byColumns.rowStart[j] + k];
+          value = BigDecimal.valueOf(byColumns.values[byColumns.rowStart[j] + k]);
+        } else {
+          row = k;
+          value = stForm.A[k][j];
+          if (value.signum() == 0) {
+            continue;
+          }
+        }
+        if (pendingRow == null) {
+          pendingRow = rowName(row);
+          pendingValue = value;
+        } else {
+          line(out, null, names[j], pendingRow, pendingValue, rowName(row), value);
+          pendingRow = null;
+          written = true;
+        }
+      }
+      if (pendingRow != null) {
+        line(out, null, names[j], pendingRow, pendingValue, null, null);
+      } else if (!written) {
+        // a column without entries is still declared
+        line(out, null, names[j], OBJECTIVE, BigDecimal.ZERO, null, null);
+      }
+    }
+
+    out.write("RHS\n");
+    for (int i = 0; i < stForm.m; i++) {
+      if (stForm.b[i].signum() != 0) {
+        line(out, null, SET, rowName(i), stForm.b[i], null, null);
+      }
+    }
+
+    if (stForm.hasBounds()) {
+      out.write("BOUNDS\n");
+      for (int j = 0; j < stForm.n; j++) {
+        BigDecimal lower = stForm.getLowerBound(j);
+        BigDecimal upper = stForm.getUpperBound(j);
+        if (upper != null && lower.compareTo(upper) == 0) {
+          line(out, "FX", SET, names[j], lower, null, null);
+          continue;
+        }
+        if (lower.signum() != 0) {
+          line(out, "LO", SET, names[j], lower, null, null);
+        }
+        if (upper != null) {
+          line(out, "UP", SET, names[j], upper, null, null);
+        }
+      }
+    }
+    out.write("ENDATA\n");
+  }
+
+  private static String rowName(int row) {
+    return "R" + (row + 1);
+  }
+
+  /** Writes a data line, {@code null} fields are empty. */
+  private void line(
+      Writer out,
+      String type,
+      String name1,
+      String name2,
+      BigDecimal value1,
+      String name3,
+      BigDecimal value2)
+      throws IOException {
+    builder.setLength(0);
+    if (format == MPSFormat.FREE) {
+      builder.append(' ');
+      append(type);
+      append(name1);
+      append(name2);
+      append(value1 == null ? null : number(value1));
+      append(name3);
+      append(value2 == null ? null : number(value2));
+    } else {
+      pad(1, type);
+      pad(4, name1);
+      pad(14, name2);
+      pad(24, value1 == null ? null : number(value1));
+      pad(39, name3);
+      pad(49, value2 == null ? null : number(value2));
+    }
+    builder.append('\n');
+    out.write(builder.toString());
+  }
+
+  private void append(String field) {
+    if (field != null) {
+      builder.append(' ').append(field);
+    }
+  }
+
+  private void pad(int position, String field) {
+    if (field != null) {
+      while (builder.length() < position) {
+        builder.append(' ');
+      }
+      builder.append(field);
+    }
+  }
+
+  private String number(BigDecimal value) {
+    String text = value.stripTrailingZeros().toString();
+    if (format == MPSFormat.FREE || text.length() <= FIXED_VALUE_LENGTH) {
+      return text;
+    }
+    // sign, digit, point and exponent E-xxx leave 5 significant digits
+    return String.format(Locale.ROOT, "%.4E", value.doubleValue());
+  }
+}
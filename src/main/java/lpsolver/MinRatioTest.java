@@ -0,0 +1,18 @@
+package lpsolver;
+
+/**
+ * Textbook ratio test: the row with the smallest ratio {@code b_i / a_ie} over positive {@code
+ * a_ie} leaves the basis, ties are broken by the smallest row.
+ */
+public class MinRatioTest implements RatioTest {
+
+  @Override
+  public int getLeaving(SimplexState state, int entering) {
+    return state.getLeaving(entering);
+  }
+
+  @Override
+  public String getName() {
+    return "min ratio";
+  }
+}
@@ -0,0 +1,170 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * Cache of programs read by a {@link LPInputReader}, keyed by the SHA-256 hash of the file
+ * contents, so a file submitted again is hashed instead of parsed. Entries are weighted by the
+ * estimated size of the program in bytes and the least recently used ones are evicted once the
+ * total weight exceeds the limit; a program heavier than the limit is read but not cached.
+ *
+ * <p>Cached programs are shared by all callers and must not be changed; {@link LPSolver} never
+ * changes the programs it solves. The cache is thread safe, files are hashed and parsed outside
+ * of its lock, so two threads missing the same contents at once may both parse them.
+ */
+public class ModelCache {
+  public static final long DEF_MAX_WEIGHT = 256L << 20;
+  private static final Logger logger = LogManager.getLogger(ModelCache.class);
+
+  private final LPInputReader reader;
+  private final long maxWeight;
+  private final LinkedHashMap<ContentHash, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /** Cache of dense programs of at most {@link #DEF_MAX_WEIGHT} bytes. */
+  public ModelCache() {
+    this(new LPInputReader(), DEF_MAX_WEIGHT);
+  }
+
+  /**
+   * @param reader reads the programs that are not cached
+   * @param maxWeight limit of the estimated size of the cached programs in bytes
+   */
+  public ModelCache(LPInputReader reader, long maxWeight) {
+    Validate.isTrue(maxWeight > 0, "Maximum weight should be positive");
+    this.reader = Objects.requireNonNull(reader);
+    this.maxWeight = maxWeight;
+  }
+
+  /**
+   * Returns the cached program of the contents of {@code file}, or reads and caches it.
+   *
+   * @throws LPException if the program is malformed, malformed programs are not cached
+   */
+  @Contract("null -> fail")
+  public LPStandardForm readLP(@NotNull File file) throws LPException, IOException {
+    if (!file.isFile() || !file.canRead()) {
+      logger.error("{} should be a readable file", file);
+      throw new IllegalArgumentException();
+    }
+    ContentHash key = ContentHash.of(file);
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry != null) {
+        ++hits;
+        logger.trace("Cached program of {}", file);
+        return entry.stForm;
+      }
+      ++misses;
+    }
+    LPStandardForm stForm = reader.readLP(file);
+    put(key, stForm);
+    return stForm;
+  }
+
+  private synchronized void put(ContentHash key, LPStandardForm stForm) {
+    long entryWeight = weight(stForm);
+    if (entryWeight > maxWeight) {
+      logger.debug("Program of {} bytes is not cached, the limit is {}", entryWeight, maxWeight);
+      return;
+    }
+    Entry previous = entries.put(key, new Entry(stForm, entryWeight));
+    weight += entryWeight - (previous != null ? previous.weight : 0);
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (weight > maxWeight) {
+      Entry eldest = iterator.next();
+      weight -= eldest.weight;
+      iterator.remove();
+      ++evictions;
+    }
+  }
+
+  /**
+   * Estimated size of {@code stForm} in bytes: a double and a column index per entry of a sparse
+   * matrix, a reference per entry of a dense one, a number per element of b, c and the bounds and
+   * a name per variable.
+   */
+  static long weight(LPStandardForm stForm) {
+    long m = stForm.m;
+    long n = stForm.n;
+    long matrix = stForm.isSparse() ? 12L * stForm.sparseA.getNonZeros() + 4 * (m + 1) : 8 * m * n;
+    long numbers = 32 * (m + n) + (stForm.hasBounds() ? 64 * n : 0) + m;
+    long names = stForm.hasVariableNames() ? 96 * n : 0;
+    return matrix + numbers + names;
+  }
+
+  /** Removes all programs, keeping the counters. */
+  public synchronized void clear() {
+    entries.clear();
+    weight = 0;
+  }
+
+  /** Number of cached programs. */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /** Estimated size of the cached programs in bytes. */
+  public synchronized long getWeight() {
+    return weight;
+  }
+
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  /** Share of reads served from the cache, 0 before the first read. */
+  public synchronized double getHitRate() {
+    return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "ModelCache{size="
+        + entries.size()
+        + ", weight="
+        + weight
+        + ", hits="
+        + hits
+        + ", misses="
+        + misses
+        + ", evictions="
+        + evictions
+        + '}';
+  }
+
+  private static class Entry {
+    private final LPStandardForm stForm;
+    private final long weight;
+
+    Entry(LPStandardForm stForm, long weight) {
+      this.stForm = stForm;
+      this.weight = weight;
+    }
+  }
+}
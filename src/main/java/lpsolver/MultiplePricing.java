@@ -0,0 +1,105 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Multiple pricing: a full scan selects a short list of the variables with the greatest reduced
+ * costs, and the following iterations choose among them only. The list is refreshed when none of
+ * its variables is attractive any more or after it was used for as many iterations as its size.
+ */
+public class MultiplePricing implements PricingRule {
+  public static final int DEF_CANDIDATES = 8;
+
+  final int[] candidates;
+  private final double[] scores;
+  private int size;
+  private int minorIterations;
+
+  public MultiplePricing() {
+    this(DEF_CANDIDATES);
+  }
+
+  public MultiplePricing(int candidates) {
+    Validate.isTrue(candidates > 0, "Number of candidates should be positive");
+    this.candidates = new int[candidates];
+    this.scores = new double[candidates];
+  }
+
+  @Override
+  public void reset(SimplexState state) {
+    size = 0;
+    minorIterations = 0;
+  }
+
+  @Override
+  public int getEntering(SimplexState state) {
+    if (minorIterations < candidates.length) {
+      int entering = chooseCandidate(state);
+      if (entering != -1) {
+        ++minorIterations;
+        return entering;
+      }
+    }
+    refresh(state);
+    return size == 0 ? -1 : candidates[0];
+  }
+
+  @Override
+  public void beforePivot(SimplexState state, int entering, int leaving) {
+    // the leaving variable takes the slot of the entering one
+    for (int k = 0; k < size; k++) {
+      if (candidates[k] == entering) {
+        candidates[k] = candidates[--size];
+        return;
+      }
+    }
+  }
+
+  private int chooseCandidate(SimplexState state) {
+    int entering = -1;
+    double max = state.getTolerance();
+    for (int k = 0; k < size; k++) {
+      double reducedCost = state.getReducedCost(candidates[k]);
+      if (reducedCost > max) {
+        max = reducedCost;
+        entering = candidates[k];
+      }
+    }
+    return entering;
+  }
+
+  /** Keeps the candidates sorted by decreasing reduced cost. */
+  private void refresh(SimplexState state) {
+    size = 0;
+    minorIterations = 0;
+    double epsilon = state.getTolerance();
+    for (int j = 0; j < state.n; j++) {
+      double reducedCost = state.getReducedCost(j);
+      if (reducedCost > epsilon
+          && (size < candidates.length || reducedCost > scores[size - 1])) {
+        int k = size < candidates.length ? size++ : size - 1;
+        for (; k > 0 && scores[k - 1] < reducedCost; k--) {
+          candidates[k] = candidates[k - 1];
+          scores[k] = scores[k - 1];
+        }
+        candidates[k] = j;
+        scores[k] = reducedCost;
+      }
+    }
+  }
+
+  @Override
+  public PricingRule copy() {
+    return new MultiplePricing(candidates.length);
+  }
+
+  @Override
+  public String getName() {
+    return "multiple";
+  }
+
+  @Override
+  public String getKey() {
+    return getName() + '(' + candidates.length + ')';
+  }
+}
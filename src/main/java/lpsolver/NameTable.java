@@ -0,0 +1,119 @@
+package lpsolver;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Indexes of names looked up by characters of a buffer, a string is created only when a new name
+ * is added. Names get consecutive indexes from zero.
+ */
+class NameTable {
+  private String[] names = new String[16];
+  private int[] hashes = new int[16];
+  // open addressing, index + 1 of the name or 0 for an empty slot
+  private int[] slots = new int[32];
+  private int size;
+
+  /** Index of the name, {@code -1} if it is absent. */
+  int get(char[] chars, int offset, int length) {
+    int hash = hash(chars, offset, length);
+    int mask = slots.length - 1;
+    for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+      int index = slots[slot] - 1;
+      if (hashes[index] == hash && equals(names[index], chars, offset, length)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  boolean contains(String name) {
+    return get(name.toCharArray(), 0, name.length()) >= 0;
+  }
+
+  /** Adds a name that is absent from the table and returns its index. */
+  int add(String name) {
+    if (size == names.length) {
+      names = Arrays.copyOf(names, size * 2);
+      hashes = Arrays.copyOf(hashes, size * 2);
+    }
+    if (2 * (size + 1) > slots.length) {
+      rehash(slots.length * 2);
+    }
+    int hash = hash(name);
+    names[size] = name;
+    hashes[size] = hash;
+    insert(size, hash);
+    return size++;
+  }
+
+  String getName(int index) {
+    return names[index];
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** Maps of indexes to names and back in the form of {@link LPStandardForm}. */
+  HashMap<Integer, String> toVariables() {
+    HashMap<Integer, String> variables = new HashMap<>();
+    for (int k = 0; k < size; k++) {
+      variables.put(k, names[k]);
+    }
+    return variables;
+  }
+
+  HashMap<String, Integer> toCoefficients() {
+    HashMap<String, Integer> coefficients = new HashMap<>();
+    for (int k = 0; k < size; k++) {
+      coefficients.put(names[k], k);
+    }
+    return coefficients;
+  }
+
+  private void rehash(int capacity) {
+    slots = new int[capacity];
+    for (int k = 0; k < size; k++) {
+      insert(k, hashes[k]);
+    }
+  }
+
+  private void insert(int index, int hash) {
+    int mask = slots.length - 1;
+    int slot = hash & mask;
+    while (slots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    slots[slot] = index + 1;
+  }
+
+  private static int hash(char[] chars, int offset, int length) {
+    int hash = 0;
+    for (int k = offset; k < offset + length; k++) {
+      hash = 31 * hash + chars[k];
+    }
+    return mix(hash);
+  }
+
+  private static int hash(String name) {
+    return mix(name.hashCode());
+  }
+
+  // spreads the bits of String.hashCode over the low bits used by the mask
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean equals(String name, char[] chars, int offset, int length) {
+    if (name.length() != length) {
+      return false;
+    }
+    for (int k = 0; k < length; k++) {
+      if (name.charAt(k) != chars[offset + k]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
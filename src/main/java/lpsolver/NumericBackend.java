@@ -0,0 +1,21 @@
+package lpsolver;
+
+/** Representation of the simplex tableau entries used by {@link LPSolver}. */
+public enum NumericBackend {
+  /** {@link LPState}, every entry is rounded with the solver's {@code MathContext}. */
+  BIG_DECIMAL,
+  /** {@link DoubleLPState}, primitive row-major tableau without per-pivot allocations. */
+  DOUBLE,
+  /** {@link SparseLPState}, {@code double} tableau storing only non-zero entries. */
+  SPARSE,
+  /**
+   * {@link RevisedLPState}, revised simplex keeping a factorization of the basis instead of the
+   * tableau. The constraint matrix is left untouched.
+   */
+  REVISED;
+
+  /** Whether this backend works with sparse constraint matrices directly. */
+  boolean isSparse() {
+    return this == SPARSE || this == REVISED;
+  }
+}
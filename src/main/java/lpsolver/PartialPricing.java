@@ -0,0 +1,72 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Partial pricing: non-basic variables are split into segments which are scanned in turn. The
+ * variable with the greatest reduced cost of the first segment having a candidate enters the
+ * basis and the next iteration starts from the following segment. The dictionary is declared
+ * optimal only after all segments were scanned without finding a candidate.
+ */
+public class PartialPricing implements PricingRule {
+  public static final int DEF_SEGMENTS = 8;
+
+  private final int segments;
+  private int start;
+
+  public PartialPricing() {
+    this(DEF_SEGMENTS);
+  }
+
+  public PartialPricing(int segments) {
+    Validate.isTrue(segments > 0, "Number of segments should be positive");
+    this.segments = segments;
+  }
+
+  @Override
+  public void reset(SimplexState state) {
+    start = 0;
+  }
+
+  @Override
+  public int getEntering(SimplexState state) {
+    int n = state.n;
+    if (n == 0) {
+      return -1;
+    }
+    int segmentSize = (n + segments - 1) / segments;
+    int count = (n + segmentSize - 1) / segmentSize;
+    double epsilon = state.getTolerance();
+    for (int t = 0, segment = start % count; t < count; t++, segment = (segment + 1) % count) {
+      int entering = -1;
+      double max = epsilon;
+      for (int j = segment * segmentSize, end = Math.min(n, j + segmentSize); j < end; j++) {
+        double reducedCost = state.getReducedCost(j);
+        if (reducedCost > max) {
+          max = reducedCost;
+          entering = j;
+        }
+      }
+      if (entering != -1) {
+        start = segment + 1;
+        return entering;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public PricingRule copy() {
+    return new PartialPricing(segments);
+  }
+
+  @Override
+  public String getName() {
+    return "partial";
+  }
+
+  @Override
+  public String getKey() {
+    return getName() + '(' + segments + ')';
+  }
+}
@@ -0,0 +1,148 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fork-join pool shared by all parallel pivots. The pool is created on the first parallel pivot
+ * with one worker per available core and lives until {@link #shutdown()} is called, after which
+ * the next parallel pivot creates it again. Workers are daemon threads, so an application that
+ * never calls {@link #shutdown()} still exits normally.
+ *
+ * <p>Every parallel pivot holds the pool it started on until it returns, and a pool retired by
+ * {@link #shutdown()} or {@link #setParallelism(int)} is shut down only when no pivot holds it,
+ * so a pivot is never rejected halfway.
+ */
+public final class PivotPool {
+  public static final int DEF_PARALLELISM = Runtime.getRuntime().availableProcessors();
+  private static final Logger logger = LogManager.getLogger(PivotPool.class);
+  private static Generation current;
+  // retired pools that may still run pivots
+  private static final List<Generation> retired = new ArrayList<>();
+  private static int parallelism = DEF_PARALLELISM;
+
+  private PivotPool() {}
+
+  /** Returns the current pool, creating it if needed, held until {@link #release}. */
+  private static synchronized Generation acquire() {
+    if (current == null) {
+      logger.debug("Creating pivot pool with parallelism {}", parallelism);
+      current = new Generation(new ForkJoinPool(parallelism));
+    }
+    ++current.invocations;
+    return current;
+  }
+
+  private static synchronized void release(Generation generation) {
+    if (--generation.invocations == 0 && generation != current) {
+      generation.pool.shutdown();
+    }
+  }
+
+  public static synchronized int getParallelism() {
+    return parallelism;
+  }
+
+  /** Sets the number of workers, the running pool is shut down and replaced on the next pivot. */
+  public static synchronized void setParallelism(int parallelism) {
+    Validate.isTrue(parallelism > 0, "Parallelism should be positive");
+    if (PivotPool.parallelism != parallelism) {
+      PivotPool.parallelism = parallelism;
+      shutdown();
+    }
+  }
+
+  /** Shuts down the pool after the running pivots finish. */
+  public static synchronized void shutdown() {
+    if (current != null) {
+      logger.debug("Shutting down pivot pool");
+      if (current.invocations == 0) {
+        current.pool.shutdown();
+      }
+      retired.removeIf(generation -> generation.pool.isTerminated());
+      retired.add(current);
+      current = null;
+    }
+  }
+
+  /** Waits for the shut down pools to finish their pivots. */
+  public static boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    List<Generation> pending;
+    synchronized (PivotPool.class) {
+      retired.removeIf(generation -> generation.pool.isTerminated());
+      pending = new ArrayList<>(retired);
+    }
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (Generation generation : pending) {
+      long remaining = deadline - System.nanoTime();
+      if (!generation.pool.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+        return false;
+      }
+    }
+    synchronized (PivotPool.class) {
+      retired.removeAll(pending);
+    }
+    return true;
+  }
+
+  /**
+   * Runs {@code body} over the rows {@code 0..rows-1} split into blocks of at least {@code
+   * minBlock} rows. Blocks are forked recursively, so idle workers steal the remaining halves.
+   */
+  static void forEachRowBlock(int rows, int minBlock, RowBlock body) {
+    Generation generation = acquire();
+    try {
+      generation.pool.invoke(new RowBlockTask(0, rows, Math.max(1, minBlock), body));
+    } finally {
+      release(generation);
+    }
+  }
+
+  /** A pool and the number of pivots running on it. */
+  private static class Generation {
+    private final ForkJoinPool pool;
+    private int invocations;
+
+    Generation(ForkJoinPool pool) {
+      this.pool = pool;
+    }
+  }
+
+  /** Work over the rows {@code from..to-1}. */
+  @FunctionalInterface
+  interface RowBlock {
+    void update(int from, int to);
+  }
+
+  private static class RowBlockTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final int from, to, minBlock;
+    private final RowBlock body;
+
+    RowBlockTask(int from, int to, int minBlock, RowBlock body) {
+      this.from = from;
+      this.to = to;
+      this.minBlock = minBlock;
+      this.body = body;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= minBlock) {
+        body.update(from, to);
+      } else {
+        int middle = (from + to) >>> 1;
+        invokeAll(
+            new RowBlockTask(from, middle, minBlock, body),
+            new RowBlockTask(middle, to, minBlock, body));
+      }
+    }
+  }
+}
@@ -0,0 +1,652 @@
+package lpsolver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Reductions of a linear program {@code max cx, Ax <= b, l <= x <= u} before the simplex starts,
+ * and the mapping of the solution of the reduced program back to the initial one.
+ *
+ * <p>Rows are removed when they are empty, singletons (which become bounds of their variable, or
+ * fix it for an equality), positive multiples of a tighter row, or dominated: satisfied by every
+ * {@code x} within the bounds of its variables, including upper bounds implied by other rows with
+ * non-negative coefficients. Equality rows are only removed as empty or singletons. Columns are
+ * removed when they are fixed by their bounds, empty, or dominated: a variable with non-positive
+ * cost and non-negative coefficients in inequality rows stays at its lower bound. A singleton
+ * column with positive cost and coefficient and no upper bound takes up the slack of its
+ * inequality row, so it is substituted out of the objective function and its row keeps the other
+ * columns.
+ *
+ * <p>Bounds of the remaining variables are bounds of the reduced program. Implied upper bounds
+ * only serve to find dominated rows and are not written back: the solution of the reduced program
+ * could rest on them, and the duals of the rows they come from could not be recovered.
+ */
+class Presolve {
+  private static final Logger logger = LogManager.getLogger(Presolve.class);
+  private static final int MAX_PASSES = 20;
+
+  private final LPStandardForm initial;
+  private final MathContext rounder;
+  private final MathContext upperRounder;
+  private final BigDecimal epsilon;
+  private final int m, n;
+  private final int[][] rowColumns;
+  private final BigDecimal[][] rowValues;
+  private final int[][] columnRows;
+  private final BigDecimal[][] columnValues;
+  // b minus the activity of removed columns
+  private final BigDecimal[] rhs;
+  private final BigDecimal[] lower, upper;
+  // costs of the reduced program, changed by substituted columns
+  private final BigDecimal[] cost;
+  // objective function value of the removed columns
+  private BigDecimal objectiveShift = BigDecimal.ZERO;
+  // singleton rows the bounds come from, -1 for none
+  private final int[] lowerRow, upperRow;
+  private final boolean[] rowRemoved, columnRemoved;
+  private final BigDecimal[] fixedValue;
+  // row whose slack a substituted column takes up, -1 for none
+  private final int[] slackRow;
+  // cost of the substituted column per unit of its row, added to the dual of the row
+  private final BigDecimal[] dualShift;
+  // removed columns in the order of removal
+  private final int[] removedOrder;
+  private int removedRows, removedColumns;
+  // an empty column with positive cost and no upper bound, unbounded if the rest is feasible
+  private boolean unbounded;
+
+  // original indexes of the rows and columns of the reduced program
+  private int[] keptRows;
+  private int[] keptColumns;
+
+  Presolve(LPStandardForm initial, MathContext rounder, BigDecimal epsilon) {
+    this.initial = initial;
+    this.rounder = rounder;
+    this.upperRounder = new MathContext(rounder.getPrecision(), RoundingMode.CEILING);
+    this.epsilon = epsilon;
+    this.m = initial.m;
+    this.n = initial.n;
+    rowColumns = new int[m][];
+    rowValues = new BigDecimal[m][];
+    int[] columnSize = new int[n];
+    for (int i = 0; i < m; i++) {
+      loadRow(i);
+      for (int j : rowColumns[i]) {
+        ++columnSize[j];
+      }
+    }
+    columnRows = new int[n][];
+    columnValues = new BigDecimal[n][];
+    for (int j = 0; j < n; j++) {
+      columnRows[j] = new int[columnSize[j]];
+      columnValues[j] = new BigDecimal[columnSize[j]];
+      columnSize[j] = 0;
+    }
+    for (int i = 0; i < m; i++) {
+      for (int k = 0; k < rowColumns[i].length; k++) {
+        int j = rowColumns[i][k];
+        columnRows[j][columnSize[j]] = i;
+        columnValues[j][columnSize[j]++] = rowValues[i][k];
+      }
+    }
+    rhs = initial.b.clone();
+    cost = initial.c.clone();
+    lower = new BigDecimal[n];
+    upper = new BigDecimal[n];
+    for (int j = 0; j < n; j++) {
+      lower[j] = initial.getLowerBound(j);
+      upper[j] = initial.getUpperBound(j);
+    }
+    lowerRow = new int[n];
+    Arrays.fill(lowerRow, -1);
+    upperRow = new int[n];
+    Arrays.fill(upperRow, -1);
+    rowRemoved = new boolean[m];
+    columnRemoved = new boolean[n];
+    fixedValue = new BigDecimal[n];
+    slackRow = new int[n];
+    Arrays.fill(slackRow, -1);
+    dualShift = new BigDecimal[m];
+    removedOrder = new int[n];
+  }
+
+  private void loadRow(int i) {
+    ArrayList<Integer> columns = new ArrayList<>();
+    ArrayList<BigDecimal> values = new ArrayList<>();
+    if (initial.isSparse()) {
+      SparseMatrix A = initial.sparseA;
+      for (int k = A.rowStart[i]; k < A.rowStart[i + 1]; k++) {
+        columns.add(A.columnIndexes[k]);
+        values.add(BigDecimal.valueOf(A.values[k]));
+      }
+    } else {
+      BigDecimal[] row = initial.A[i];
+      for (int j = 0; j < n; j++) {
+        if (row[j].signum() != 0) {
+          columns.add(j);
+          values.add(row[j]);
+        }
+      }
+    }
+    rowColumns[i] = new int[columns.size()];
+    rowValues[i] = values.toArray(new BigDecimal[0]);
+    for (int k = 0; k < rowColumns[i].length; k++) {
+      rowColumns[i][k] = columns.get(k);
+    }
+  }
+
+  /**
+   * Applies the reductions until none of them changes the program.
+   *
+   * @return the reduced linear program, or {@code null} if nothing was reduced
+   * @throws SolutionException if the reductions prove the program infeasible
+   */
+  LPStandardForm presolve() throws SolutionException {
+    boolean changed = true;
+    for (int pass = 0; pass < MAX_PASSES && changed; pass++) {
+      changed = removeSingletonRows();
+      changed |= removeColumns();
+      changed |= removeDuplicateRows();
+      changed |= removeDominatedRows();
+    }
+    logger.info("Presolve removed {} rows and {} columns", removedRows, removedColumns);
+    return removedRows == 0 && removedColumns == 0 ? null : buildReduced();
+  }
+
+  int getRemovedRows() {
+    return removedRows;
+  }
+
+  int getRemovedColumns() {
+    return removedColumns;
+  }
+
+  /**
+   * Whether an empty column can increase the objective function without limit, so the program is
+   * unbounded once the reduced program turns out to be feasible.
+   */
+  boolean isUnbounded() {
+    return unbounded;
+  }
+
+  /**
+   * Removes empty rows, and singleton rows turning them into bounds of their variable. A singleton
+   * equality row fixes its variable.
+   */
+  private boolean removeSingletonRows() throws SolutionException {
+    boolean changed = false;
+    for (int i = 0; i < m; i++) {
+      if (rowRemoved[i]) {
+        continue;
+      }
+      int singleton = -1;
+      int count = 0;
+      for (int k = 0; k < rowColumns[i].length && count < 2; k++) {
+        if (!columnRemoved[rowColumns[i][k]]) {
+          singleton = k;
+          ++count;
+        }
+      }
+      boolean equality = initial.isEquality(i);
+      if (count == 0) {
+        if (rhs[i].compareTo(epsilon.negate()) < 0
+            || (equality && rhs[i].compareTo(epsilon) > 0)) {
+          throw infeasible();
+        }
+        removeRow(i);
+        changed = true;
+      } else if (count == 1) {
+        int j = rowColumns[i][singleton];
+        BigDecimal a = rowValues[i][singleton];
+        BigDecimal bound = rhs[i].divide(a, rounder);
+        if (equality) {
+          if (bound.compareTo(lower[j].subtract(epsilon)) < 0
+              || (upper[j] != null && bound.compareTo(upper[j].add(epsilon)) > 0)) {
+            throw infeasible();
+          }
+          lower[j] = bound;
+          upper[j] = bound;
+          lowerRow[j] = i;
+          upperRow[j] = i;
+        } else if (a.signum() > 0) {
+          if (upper[j] == null || bound.compareTo(upper[j]) < 0) {
+            upper[j] = bound;
+            upperRow[j] = i;
+          }
+        } else if (bound.compareTo(lower[j]) > 0) {
+          lower[j] = bound;
+          lowerRow[j] = i;
+        }
+        if (upper[j] != null && upper[j].compareTo(lower[j].subtract(epsilon)) < 0) {
+          throw infeasible();
+        }
+        removeRow(i);
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  /** Fixes variables whose bounds coincide, empty and dominated columns, substitutes singletons. */
+  private boolean removeColumns() {
+    boolean changed = false;
+    BigDecimal[] c = cost;
+    for (int j = 0; j < n; j++) {
+      if (columnRemoved[j]) {
+        continue;
+      }
+      if (upper[j] != null && upper[j].subtract(lower[j]).compareTo(epsilon) <= 0) {
+        fixColumn(j, lower[j]);
+        changed = true;
+        continue;
+      }
+      int rows = 0;
+      int single = -1;
+      boolean nonNegative = true;
+      for (int k = 0; k < columnRows[j].length; k++) {
+        int i = columnRows[j][k];
+        if (!rowRemoved[i]) {
+          ++rows;
+          single = k;
+          nonNegative &= columnValues[j][k].signum() >= 0 && !initial.isEquality(i);
+        }
+      }
+      boolean empty = rows == 0;
+      if (c[j].signum() <= 0 && nonNegative) {
+        fixColumn(j, lower[j]);
+        changed = true;
+      } else if (empty) {
+        if (upper[j] == null) {
+          // infeasibility of the other rows takes precedence, the verdict waits for the solve
+          logger.debug("Empty column {} is unbounded", j);
+          unbounded = true;
+          fixColumn(j, lower[j]);
+        } else {
+          fixColumn(j, upper[j]);
+        }
+        changed = true;
+      } else if (rows == 1
+          && c[j].signum() > 0
+          && upper[j] == null
+          && nonNegative
+          && dualShift[columnRows[j][single]] == null) {
+        substituteColumn(j, columnRows[j][single], columnValues[j][single]);
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Removes the column {@code j} whose only remaining entry {@code a > 0} is in the inequality row
+   * {@code i}. With positive cost and no upper bound, {@code x_j = (b_i - rest) / a} at the
+   * optimum, which moves {@code c_j / a} times the row out of the objective function and leaves
+   * {@code rest <= b_i - a l_j} of the row. A row takes up one substituted column.
+   */
+  private void substituteColumn(int j, int i, BigDecimal a) {
+    columnRemoved[j] = true;
+    slackRow[j] = i;
+    removedOrder[removedColumns++] = j;
+    BigDecimal ratio = cost[j].divide(a, rounder);
+    dualShift[i] = ratio;
+    objectiveShift = objectiveShift.add(ratio.multiply(rhs[i]));
+    rhs[i] = rhs[i].subtract(a.multiply(lower[j]));
+    for (int k = 0; k < rowColumns[i].length; k++) {
+      int column = rowColumns[i][k];
+      if (!columnRemoved[column]) {
+        cost[column] = cost[column].subtract(ratio.multiply(rowValues[i][k]));
+      }
+    }
+  }
+
+  /**
+   * Removes inequality rows that are positive multiples of an inequality row with a tighter
+   * right-hand side.
+   */
+  private boolean removeDuplicateRows() {
+    boolean changed = false;
+    HashMap<String, Integer> directions = new HashMap<>();
+    BigDecimal[] scaledRhs = new BigDecimal[m];
+    for (int i = 0; i < m; i++) {
+      if (rowRemoved[i] || initial.isEquality(i)) {
+        continue;
+      }
+      BigDecimal scale = null;
+      StringBuilder direction = new StringBuilder();
+      for (int k = 0; k < rowColumns[i].length; k++) {
+        int j = rowColumns[i][k];
+        if (!columnRemoved[j]) {
+          if (scale == null) {
+            scale = rowValues[i][k].abs();
+          }
+          direction
+              .append(j)
+              .append(':')
+              .append(rowValues[i][k].divide(scale, rounder).stripTrailingZeros().toPlainString())
+              .append(' ');
+        }
+      }
+      if (scale == null) {
+        continue;
+      }
+      scaledRhs[i] = rhs[i].divide(scale, rounder);
+      Integer other = directions.putIfAbsent(direction.toString(), i);
+      if (other != null) {
+        if (scaledRhs[i].compareTo(scaledRhs[other]) < 0) {
+          directions.put(direction.toString(), i);
+          removeRow(other);
+        } else {
+          removeRow(i);
+        }
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Removes inequality rows whose largest activity within the bounds of the variables does not
+   * exceed the right-hand side. Upper bounds implied by a row are not used to remove the row
+   * itself, nor after the row is removed in the same pass; equality rows imply bounds as well.
+   */
+  private boolean removeDominatedRows() {
+    BigDecimal[] best = new BigDecimal[n];
+    BigDecimal[] second = new BigDecimal[n];
+    int[] bestRow = new int[n];
+    int[] secondRow = new int[n];
+    Arrays.fill(bestRow, -1);
+    Arrays.fill(secondRow, -1);
+    for (int j = 0; j < n; j++) {
+      best[j] = upper[j];
+    }
+    for (int i = 0; i < m; i++) {
+      if (rowRemoved[i]) {
+        continue;
+      }
+      BigDecimal minActivity = BigDecimal.ZERO;
+      boolean nonNegative = true;
+      for (int k = 0; k < rowColumns[i].length && nonNegative; k++) {
+        int j = rowColumns[i][k];
+        if (!columnRemoved[j]) {
+          nonNegative = rowValues[i][k].signum() > 0;
+          minActivity = minActivity.add(rowValues[i][k].multiply(lower[j]));
+        }
+      }
+      if (!nonNegative) {
+        continue;
+      }
+      for (int k = 0; k < rowColumns[i].length; k++) {
+        int j = rowColumns[i][k];
+        if (columnRemoved[j]) {
+          continue;
+        }
+        BigDecimal a = rowValues[i][k];
+        BigDecimal bound =
+            rhs[i].subtract(minActivity).add(a.multiply(lower[j])).divide(a, upperRounder);
+        if (best[j] == null || bound.compareTo(best[j]) < 0) {
+          second[j] = best[j];
+          secondRow[j] = bestRow[j];
+          best[j] = bound;
+          bestRow[j] = i;
+        } else if (second[j] == null || bound.compareTo(second[j]) < 0) {
+          second[j] = bound;
+          secondRow[j] = i;
+        }
+      }
+    }
+
+    boolean changed = false;
+    for (int i = 0; i < m; i++) {
+      if (rowRemoved[i] || initial.isEquality(i)) {
+        continue;
+      }
+      BigDecimal maxActivity = BigDecimal.ZERO;
+      boolean bounded = true;
+      for (int k = 0; k < rowColumns[i].length && bounded; k++) {
+        int j = rowColumns[i][k];
+        if (columnRemoved[j]) {
+          continue;
+        }
+        BigDecimal a = rowValues[i][k];
+        if (a.signum() < 0) {
+          maxActivity = maxActivity.add(a.multiply(lower[j]));
+          continue;
+        }
+        BigDecimal bound = best[j];
+        int source = bestRow[j];
+        if (source == i) {
+          bound = second[j];
+          source = secondRow[j];
+        }
+        if (bound == null || (source >= 0 && rowRemoved[source])) {
+          bounded = false;
+        } else {
+          maxActivity = maxActivity.add(a.multiply(bound));
+        }
+      }
+      if (bounded && maxActivity.compareTo(rhs[i]) <= 0) {
+        removeRow(i);
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  private void removeRow(int i) {
+    rowRemoved[i] = true;
+    ++removedRows;
+  }
+
+  private void fixColumn(int j, BigDecimal value) {
+    columnRemoved[j] = true;
+    fixedValue[j] = value;
+    removedOrder[removedColumns++] = j;
+    objectiveShift = objectiveShift.add(cost[j].multiply(value));
+    if (value.signum() != 0) {
+      for (int k = 0; k < columnRows[j].length; k++) {
+        int i = columnRows[j][k];
+        rhs[i] = rhs[i].subtract(columnValues[j][k].multiply(value));
+      }
+    }
+  }
+
+  private SolutionException infeasible() {
+    logger.error("This linear program is infeasible");
+    return new SolutionException("This linear program is infeasible");
+  }
+
+  /** Remaining rows and columns in their initial order with the bounds of the variables. */
+  private LPStandardForm buildReduced() {
+    int[] reducedIndex = new int[n];
+    keptColumns = new int[n - removedColumns];
+    int reducedN = 0;
+    for (int j = 0; j < n; j++) {
+      if (!columnRemoved[j]) {
+        reducedIndex[j] = reducedN;
+        keptColumns[reducedN++] = j;
+      }
+    }
+    int reducedM = m - removedRows;
+    keptRows = new int[reducedM];
+    BigDecimal[] b = new BigDecimal[reducedM];
+    int r = 0;
+    for (int i = 0; i < m; i++) {
+      if (!rowRemoved[i]) {
+        keptRows[r] = i;
+        b[r++] = rhs[i];
+      }
+    }
+
+    BigDecimal[] c = new BigDecimal[reducedN];
+    HashMap<Integer, String> variables = new HashMap<>();
+    HashMap<String, Integer> coefficients = new HashMap<>();
+    for (int t = 0; t < reducedN; t++) {
+      int j = keptColumns[t];
+      c[t] = cost[j];
+      String name = initial.variables.get(j);
+      variables.put(t, name);
+      coefficients.put(name, t);
+    }
+
+    LPStandardForm reduced;
+    if (initial.isSparse()) {
+      SparseMatrix.Builder builder = new SparseMatrix.Builder();
+      for (int i : keptRows) {
+        for (int k = 0; k < rowColumns[i].length; k++) {
+          int j = rowColumns[i][k];
+          if (!columnRemoved[j]) {
+            builder.add(reducedIndex[j], rowValues[i][k].doubleValue());
+          }
+        }
+        builder.endRow();
+      }
+      reduced =
+          new LPStandardForm(
+              builder.build(reducedN), b, c, variables, coefficients, initial.maximize);
+    } else {
+      BigDecimal[][] A = new BigDecimal[reducedM][reducedN];
+      for (int t = 0; t < reducedM; t++) {
+        Arrays.fill(A[t], BigDecimal.ZERO);
+        int i = keptRows[t];
+        for (int k = 0; k < rowColumns[i].length; k++) {
+          int j = rowColumns[i][k];
+          if (!columnRemoved[j]) {
+            A[t][reducedIndex[j]] = rowValues[i][k];
+          }
+        }
+      }
+      reduced =
+          new LPStandardForm(
+              A, b, c, variables, coefficients, reducedM, reducedN, initial.maximize);
+    }
+    for (int t = 0; t < reducedM; t++) {
+      if (initial.isEquality(keptRows[t])) {
+        reduced.setEquality(t, true);
+      }
+    }
+    for (int t = 0; t < reducedN; t++) {
+      int j = keptColumns[t];
+      if (lower[j].signum() != 0 || upper[j] != null) {
+        reduced.setBounds(t, lower[j], upper[j]);
+      }
+    }
+    return reduced;
+  }
+
+  private BigDecimal singletonCoefficient(int i, int j) {
+    int k = Arrays.binarySearch(rowColumns[i], j);
+    return rowValues[i][k];
+  }
+
+  /**
+   * Maps the optimal solution of the reduced program back to the initial one. Duals of removed
+   * rows are zero, except for the singleton rows that keep the reduced cost of a variable at its
+   * bound non-positive. A substituted column takes up the slack of its row, whose dual grows by the
+   * cost of the column per unit of the row. Reduced costs and slacks are computed from the initial
+   * program.
+   *
+   * @param x values of the reduced variables
+   * @param y duals of the reduced rows
+   * @param v optimal objective function value of the reduced program
+   */
+  Solution postsolve(BigDecimal[] x, BigDecimal[] y, BigDecimal v) {
+    Solution solution = new Solution();
+    BigDecimal[] c = initial.c;
+    BigDecimal[] values = new BigDecimal[n];
+    for (int j = 0; j < n; j++) {
+      if (columnRemoved[j]) {
+        values[j] = fixedValue[j];
+      }
+    }
+    for (int t = 0; t < keptColumns.length; t++) {
+      values[keptColumns[t]] = x[t];
+    }
+    // the row of a substituted column holds only columns removed after it
+    for (int k = removedColumns - 1; k >= 0; k--) {
+      int j = removedOrder[k];
+      if (slackRow[j] != -1) {
+        values[j] = slackValue(j, values);
+      }
+    }
+
+    BigDecimal[] duals = new BigDecimal[m];
+    Arrays.fill(duals, BigDecimal.ZERO);
+    for (int t = 0; t < keptRows.length; t++) {
+      duals[keptRows[t]] = y[t];
+    }
+    for (int i = 0; i < m; i++) {
+      if (dualShift[i] != null) {
+        duals[i] = duals[i].add(dualShift[i]);
+      }
+    }
+
+    // a row may become a bound of a column after other columns of the row are removed, their
+    // reduced costs depend on the dual of the bound, so removals are undone in reverse order
+    int[] order = new int[n];
+    System.arraycopy(keptColumns, 0, order, 0, keptColumns.length);
+    for (int k = 0; k < removedColumns; k++) {
+      order[keptColumns.length + k] = removedOrder[removedColumns - 1 - k];
+    }
+    BigDecimal[] reducedCosts = new BigDecimal[n];
+    for (int j : order) {
+      BigDecimal d = c[j];
+      for (int k = 0; k < columnRows[j].length; k++) {
+        d = d.subtract(duals[columnRows[j][k]].multiply(columnValues[j][k]));
+      }
+      int boundRow = -1;
+      if (d.compareTo(epsilon) > 0) {
+        boundRow = upperRow[j];
+      } else if (d.compareTo(epsilon.negate()) < 0
+          && values[j].subtract(lower[j]).abs().compareTo(epsilon) <= 0) {
+        boundRow = lowerRow[j];
+      }
+      if (boundRow != -1) {
+        BigDecimal a = singletonCoefficient(boundRow, j);
+        duals[boundRow] = duals[boundRow].add(d.divide(a, rounder));
+        d = BigDecimal.ZERO;
+      }
+      reducedCosts[j] = d;
+    }
+
+    BigDecimal[] slacks = initial.b.clone();
+    for (int i = 0; i < m; i++) {
+      for (int k = 0; k < rowColumns[i].length; k++) {
+        slacks[i] = slacks[i].subtract(rowValues[i][k].multiply(values[rowColumns[i][k]]));
+      }
+    }
+    solution.objectiveValue = v.add(objectiveShift);
+    solution.values = values;
+    solution.reducedCosts = reducedCosts;
+    solution.duals = duals;
+    solution.slacks = slacks;
+    return solution;
+  }
+
+  /** Value of the substituted column {@code j} making its row tight. */
+  private BigDecimal slackValue(int j, BigDecimal[] values) {
+    int i = slackRow[j];
+    BigDecimal rest = initial.b[i];
+    for (int k = 0; k < rowColumns[i].length; k++) {
+      if (rowColumns[i][k] != j) {
+        rest = rest.subtract(rowValues[i][k].multiply(values[rowColumns[i][k]]));
+      }
+    }
+    return rest.divide(singletonCoefficient(i, j), rounder);
+  }
+
+  /** Solution of the initial program in the sense of maximization. */
+  static class Solution {
+    BigDecimal objectiveValue;
+    BigDecimal[] values;
+    BigDecimal[] reducedCosts;
+    BigDecimal[] duals;
+    BigDecimal[] slacks;
+  }
+}
@@ -0,0 +1,42 @@
+package lpsolver;
+
+/**
+ * Strategy choosing the entering variable of a simplex iteration. Implementations may keep
+ * information about the dictionary between iterations; such rules return a new instance from
+ * {@link #copy()}, which {@link LPSolver} calls on the start of every solve.
+ */
+public interface PricingRule {
+
+  /**
+   * Chooses the entering variable of the {@code state}.
+   *
+   * @return index of the non-basic variable with positive reduced cost or {@code -1} if the
+   *     dictionary is optimal
+   */
+  int getEntering(SimplexState state);
+
+  /** Called before the {@code state} is solved, e.g. on the start of every simplex phase. */
+  default void reset(SimplexState state) {}
+
+  /** Called right before the {@code state} pivots with the given variables. */
+  default void beforePivot(SimplexState state, int entering, int leaving) {}
+
+  /**
+   * Rule with the same settings for a single solve. Rules without state between iterations return
+   * themselves.
+   */
+  default PricingRule copy() {
+    return this;
+  }
+
+  /** Name of the rule used in iteration reports. */
+  String getName();
+
+  /**
+   * Name and parameters of the rule, equal for rules that choose the same entering variables. Keys
+   * solutions of {@link SolutionCache}; rules with parameters include them.
+   */
+  default String getKey() {
+    return getName();
+  }
+}
@@ -0,0 +1,33 @@
+package lpsolver;
+
+/**
+ * Strategy choosing the leaving variable of a simplex iteration once the entering variable is
+ * known. Implementations may keep buffers between iterations; such tests return a new instance
+ * from {@link #copy()}, which {@link LPSolver} calls on the start of every solve.
+ */
+public interface RatioTest {
+
+  /**
+   * Chooses the row of the leaving variable when {@code entering} enters the basis.
+   *
+   * @return row of the leaving variable or {@code -1} if the entering variable can increase
+   *     without bound
+   */
+  int getLeaving(SimplexState state, int entering);
+
+  /** Test with the same settings for a single solve, tests without buffers return themselves. */
+  default RatioTest copy() {
+    return this;
+  }
+
+  /** Name of the test used in iteration reports. */
+  String getName();
+
+  /**
+   * Name and parameters of the test, equal for tests that choose the same leaving variables. Keys
+   * solutions of {@link SolutionCache}; tests with parameters include them.
+   */
+  default String getKey() {
+    return getName();
+  }
+}
@@ -0,0 +1,144 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every request on its own thread, virtual where the platform has virtual threads, while the
+ * solves of all requests share a number of permits, one per core by default. A request that reads
+ * a program, solves it by {@link #optimize} and writes the result blocks in I/O without holding a
+ * permit, so many concurrent requests keep the cores busy with pivots instead of waiting.
+ *
+ * <p>Virtual threads are looked up reflectively, since the sources target Java 9; without them
+ * requests run on a cached pool of daemon threads, a thread per concurrent request.
+ */
+public class RequestExecutor implements AutoCloseable {
+  public static final int DEF_SOLVE_PERMITS = Runtime.getRuntime().availableProcessors();
+  private static final Logger logger = LogManager.getLogger(RequestExecutor.class);
+
+  private final LPSolver solver;
+  private final int solvePermits;
+  private final Semaphore permits;
+  private final ExecutorService requests;
+  private final boolean virtual;
+
+  /** Executor with a permit per available core. */
+  public RequestExecutor(LPSolver solver) {
+    this(solver, DEF_SOLVE_PERMITS);
+  }
+
+  /**
+   * @param solver solver shared by all requests
+   * @param solvePermits number of programs solved at once
+   */
+  public RequestExecutor(LPSolver solver, int solvePermits) {
+    Validate.isTrue(solvePermits > 0, "Number of solve permits should be positive");
+    this.solver = Objects.requireNonNull(solver);
+    this.solvePermits = solvePermits;
+    this.permits = new Semaphore(solvePermits, true);
+    this.requests = threadPerTask("lp-request");
+    this.virtual = !(requests instanceof ThreadPoolExecutor);
+    logger.debug(
+        "Created request executor with {} solve permits on {} threads",
+        solvePermits,
+        virtual ? "virtual" : "platform");
+  }
+
+  /**
+   * Executor running every task on a new virtual thread, {@code
+   * Executors.newVirtualThreadPerTaskExecutor()}, or on a cached pool of daemon threads named
+   * {@code name-N} if the platform has no virtual threads.
+   */
+  static ExecutorService threadPerTask(String name) {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | LinkageError e) {
+      logger.trace("Virtual threads are not available: {}", e.toString());
+      return Executors.newCachedThreadPool(daemonThreads(name));
+    }
+  }
+
+  /** Daemon platform threads named {@code name-N}. */
+  static ThreadFactory daemonThreads(String name) {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + '-' + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /** Whether requests run on virtual threads. */
+  public boolean isVirtual() {
+    return virtual;
+  }
+
+  public int getSolvePermits() {
+    return solvePermits;
+  }
+
+  /** Number of programs being solved. */
+  public int getActiveSolves() {
+    return solvePermits - permits.availablePermits();
+  }
+
+  /** Estimated number of requests waiting for a permit to solve. */
+  public int getWaitingSolves() {
+    return permits.getQueueLength();
+  }
+
+  /** Runs {@code request} on its own thread. */
+  public void execute(Runnable request) {
+    requests.execute(request);
+  }
+
+  /** Runs {@code request} on its own thread, its result or exception completes the future. */
+  public <T> CompletableFuture<T> submit(Callable<T> request) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    requests.execute(
+        () -> {
+          try {
+            future.complete(request.call());
+          } catch (Throwable e) {
+            future.completeExceptionally(e);
+          }
+        });
+    return future;
+  }
+
+  /**
+   * Solves {@code stForm} once a permit is free, see {@link LPSolver#optimize(LPStandardForm)}.
+   * Called from the thread of a request.
+   */
+  public LPSolution optimize(LPStandardForm stForm) throws LPException, InterruptedException {
+    permits.acquire();
+    try {
+      return solver.optimize(stForm);
+    } finally {
+      permits.release();
+    }
+  }
+
+  /** Stops accepting requests, the running ones finish. */
+  @Override
+  public void close() {
+    requests.shutdown();
+  }
+
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return requests.awaitTermination(timeout, unit);
+  }
+}
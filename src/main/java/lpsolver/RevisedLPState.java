@@ -0,0 +1,399 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Revised simplex dictionary. The constraint matrix is never modified: the dictionary is
+ * represented by the basis, its {@link BasisFactorization} and the values of basic variables.
+ * Columns and reduced costs of the dictionary are computed on demand, so an iteration costs a few
+ * solves with the factorization and one pass over the non-zeros of the constraint matrix.
+ *
+ * <p>Variables {@code 0..structural-1} are columns of the constraint matrix, variable {@code
+ * structural + i} is the slack of the row {@code i}. Complemented variables negate the sign of their
+ * column, kept apart from the constraint matrix, or the sign of their unit slack column.
+ */
+public class RevisedLPState extends SimplexState {
+  public static final int DEF_REFACTORIZATION_FREQUENCY = 64;
+  private static final Logger logger = LogManager.getLogger(RevisedLPState.class);
+  final SparseMatrix columnMatrix;
+  final int structural;
+  final double[] rhs;
+  final double[] cost;
+  final int[] basis;
+  final int[] nonBasic;
+  final double[] x;
+  final double[] columnSign;
+  final double[] slackSign;
+  private final BasisFactorization factorization;
+  // objective value of the complemented variables at their upper bounds
+  private double objectiveShift;
+  private final double[] y;
+  private boolean pricesValid;
+  private final double[] column;
+  private int columnSlot = -1;
+  private final double[] work;
+  private double epsilon;
+  private double INF;
+  private int refactorizationFrequency = DEF_REFACTORIZATION_FREQUENCY;
+
+  private RevisedLPState(
+      SparseMatrix columnMatrix,
+      double[] rhs,
+      double[] cost,
+      int[] basis,
+      int[] nonBasic,
+      double[] x,
+      double[] columnSign,
+      double[] slackSign,
+      BasisFactorization factorization,
+      HashMap<Integer, String> variables,
+      HashMap<String, Integer> coefficients,
+      double epsilon,
+      double INF) {
+    this.columnMatrix = columnMatrix;
+    this.structural = columnMatrix.rows;
+    this.rhs = rhs;
+    this.cost = cost;
+    this.basis = basis;
+    this.nonBasic = nonBasic;
+    this.x = x;
+    this.columnSign = columnSign;
+    this.slackSign = slackSign;
+    this.factorization = factorization;
+    factorization.columnSigns = columnSign;
+    factorization.slackSigns = slackSign;
+    this.variables = variables;
+    this.coefficients = coefficients;
+    this.m = basis.length;
+    this.n = nonBasic.length;
+    this.epsilon = epsilon;
+    this.INF = INF;
+    this.y = new double[m];
+    this.column = new double[m];
+    this.work = new double[m];
+  }
+
+  /**
+   * Creates the dictionary with slack basis.
+   *
+   * @param A constraint matrix
+   * @param auxiliary whether auxiliary variable {@code x0} with coefficient {@code -1} in every
+   *     row should be added as the last column
+   * @param b right-hand side
+   * @param c objective function coefficients of the columns of {@code A} (and {@code x0})
+   */
+  static RevisedLPState of(
+      SparseMatrix A,
+      boolean auxiliary,
+      double[] b,
+      double[] c,
+      HashMap<Integer, String> variables,
+      HashMap<String, Integer> coefficients,
+      double epsilon,
+      double INF)
+      throws SolutionException {
+    int m = A.rows;
+    SparseMatrix columnMatrix = A.transpose();
+    if (auxiliary) {
+      int nonZeros = columnMatrix.getNonZeros();
+      int columns = columnMatrix.rows;
+      int[] columnStart = Arrays.copyOf(columnMatrix.rowStart, columns + 2);
+      columnStart[columns + 1] = nonZeros + m;
+      int[] rowIndexes = Arrays.copyOf(columnMatrix.columnIndexes, nonZeros + m);
+      double[] values = Arrays.copyOf(columnMatrix.values, nonZeros + m);
+      for (int i = 0; i < m; i++) {
+        rowIndexes[nonZeros + i] = i;
+        values[nonZeros + i] = -1.0;
+      }
+      columnMatrix = new SparseMatrix(columns + 1, m, columnStart, rowIndexes, values);
+    }
+    int structural = columnMatrix.rows;
+    double[] cost = Arrays.copyOf(c, structural + m);
+    int[] basis = new int[m];
+    for (int i = 0; i < m; i++) {
+      basis[i] = structural + i;
+    }
+    int[] nonBasic = new int[structural];
+    for (int j = 0; j < structural; j++) {
+      nonBasic[j] = j;
+    }
+    BasisFactorization factorization = new BasisFactorization(columnMatrix, m);
+    factorization.factorize(basis);
+    double[] columnSign = new double[structural];
+    Arrays.fill(columnSign, 1.0);
+    double[] slackSign = new double[m];
+    Arrays.fill(slackSign, 1.0);
+    return new RevisedLPState(
+        columnMatrix,
+        b,
+        cost,
+        basis,
+        nonBasic,
+        b.clone(),
+        columnSign,
+        slackSign,
+        factorization,
+        variables,
+        coefficients,
+        epsilon,
+        INF);
+  }
+
+  public int getRefactorizationFrequency() {
+    return refactorizationFrequency;
+  }
+
+  public void setRefactorizationFrequency(int refactorizationFrequency) {
+    Validate.isTrue(refactorizationFrequency > 0, "Frequency should be positive");
+    this.refactorizationFrequency = refactorizationFrequency;
+  }
+
+  @Override
+  public void pivot(int entering, int leaving) throws SolutionException {
+    if (logger.isTraceEnabled()) {
+      logger.trace("Start pivoting with, entering - {}, leaving - {}", entering, leaving);
+    }
+    loadDictionaryColumn(entering);
+    double theta = x[leaving] / column[leaving];
+    for (int i = 0; i < m; i++) {
+      x[i] -= theta * column[i];
+    }
+    x[leaving] = theta;
+
+    int enteringVariable = nonBasic[entering];
+    nonBasic[entering] = basis[leaving];
+    basis[leaving] = enteringVariable;
+    if (factorization.getUpdates() + 1 >= refactorizationFrequency) {
+      refactorize();
+    } else {
+      factorization.update(column, leaving);
+    }
+    pricesValid = false;
+    columnSlot = -1;
+    exchangeIndexes(entering, leaving);
+  }
+
+  /** Computes a fresh factorization of the current basis and values of basic variables. */
+  void refactorize() throws SolutionException {
+    logger.trace("Refactorizing basis");
+    factorization.factorize(basis);
+    System.arraycopy(rhs, 0, x, 0, m);
+    factorization.ftran(x);
+  }
+
+  @Override
+  public int getEntering() {
+    for (int j = 0; j < n; j++) {
+      if (getReducedCost(j) > epsilon) {
+        return j;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int getLeaving(int entering) {
+    Validate.isTrue(entering >= 0 && entering < n);
+    loadDictionaryColumn(entering);
+    int leaving = -1;
+    double minSlack = INF;
+    for (int i = 0; i < m; i++) {
+      double aie = column[i];
+      if (aie >= epsilon) {
+        double slack = x[i] / aie;
+        if (slack < minSlack) {
+          minSlack = slack;
+          leaving = i;
+        }
+      }
+    }
+    return leaving;
+  }
+
+  /**
+   * Computes the simplex multipliers of the current basis. Reduced costs are derived from them on
+   * demand, so pricing only a part of the columns costs only their non-zeros.
+   */
+  private void price() {
+    if (pricesValid) {
+      return;
+    }
+    for (int i = 0; i < m; i++) {
+      y[i] = cost[basis[i]];
+    }
+    factorization.btran(y);
+    pricesValid = true;
+  }
+
+  private double dot(int var, double[] y) {
+    if (var >= structural) {
+      return slackSign[var - structural] * y[var - structural];
+    }
+    double sum = 0.0;
+    for (int t = columnMatrix.rowStart[var]; t < columnMatrix.rowStart[var + 1]; t++) {
+      sum += columnMatrix.values[t] * y[columnMatrix.columnIndexes[t]];
+    }
+    return columnSign[var] * sum;
+  }
+
+  private void loadDictionaryColumn(int slot) {
+    if (columnSlot == slot) {
+      return;
+    }
+    Arrays.fill(column, 0.0);
+    int var = nonBasic[slot];
+    if (var < structural) {
+      double sign = columnSign[var];
+      for (int t = columnMatrix.rowStart[var]; t < columnMatrix.rowStart[var + 1]; t++) {
+        column[columnMatrix.columnIndexes[t]] = sign * columnMatrix.values[t];
+      }
+    } else {
+      column[var - structural] = slackSign[var - structural];
+    }
+    factorization.ftran(column);
+    columnSlot = slot;
+  }
+
+  @Override
+  void loadRow(int row, double[] out) {
+    double[] rho = work;
+    Arrays.fill(rho, 0.0);
+    rho[row] = 1.0;
+    factorization.btran(rho);
+    for (int j = 0; j < n; j++) {
+      out[j] = dot(nonBasic[j], rho);
+    }
+  }
+
+  @Override
+  public BigDecimal getObjectiveValue() {
+    double v = 0.0;
+    for (int i = 0; i < m; i++) {
+      v += cost[basis[i]] * x[i];
+    }
+    return BigDecimal.valueOf(v + objectiveShift);
+  }
+
+  @Override
+  void complementColumn(int column, double bound) {
+    loadDictionaryColumn(column);
+    for (int i = 0; i < m; i++) {
+      x[i] -= bound * this.column[i];
+    }
+    negate(nonBasic[column], bound);
+    columnSlot = -1;
+  }
+
+  /** The basis matrix changes the sign of the column of the row, which is one more eta matrix. */
+  @Override
+  void complementRow(int row, double bound) {
+    negate(basis[row], bound);
+    x[row] = bound - x[row];
+    Arrays.fill(column, 0.0);
+    column[row] = -1.0;
+    factorization.update(column, row);
+    columnSlot = -1;
+    pricesValid = false;
+  }
+
+  /** Negates the column of the variable {@code var} and moves {@code bound} times it into rhs. */
+  private void negate(int var, double bound) {
+    if (var < structural) {
+      double scaled = columnSign[var] * bound;
+      for (int t = columnMatrix.rowStart[var]; t < columnMatrix.rowStart[var + 1]; t++) {
+        rhs[columnMatrix.columnIndexes[t]] -= columnMatrix.values[t] * scaled;
+      }
+      columnSign[var] = -columnSign[var];
+    } else {
+      int row = var - structural;
+      rhs[row] -= slackSign[row] * bound;
+      slackSign[row] = -slackSign[row];
+    }
+    objectiveShift += cost[var] * bound;
+    cost[var] = -cost[var];
+  }
+
+  @Override
+  double getRhs(int row) {
+    return x[row];
+  }
+
+  @Override
+  void loadColumn(int column, double[] out) {
+    loadDictionaryColumn(column);
+    System.arraycopy(this.column, 0, out, 0, m);
+  }
+
+  @Override
+  double getReducedCost(int column) {
+    price();
+    int var = nonBasic[column];
+    return cost[var] - dot(var, y);
+  }
+
+  @Override
+  double getTolerance() {
+    return epsilon;
+  }
+
+  @Override
+  double getEntry(int row, int column) {
+    loadDictionaryColumn(column);
+    return this.column[row];
+  }
+
+  @Override
+  RevisedLPState restoreInitialLP(LPStandardForm initial, int indexOfX0)
+      throws SolutionException {
+    logger.trace("Restoring initial linear program after initialization");
+    int x0 = nonBasic[indexOfX0];
+    Validate.isTrue(x0 == structural - 1, "Auxiliary variable should be the last column");
+    int[] nonBasic = new int[n - 1];
+    for (int j = 0, k = 0; j < n; j++) {
+      if (j != indexOfX0) {
+        int var = this.nonBasic[j];
+        nonBasic[k++] = var > x0 ? var - 1 : var;
+      }
+    }
+    int[] basis = new int[m];
+    for (int i = 0; i < m; i++) {
+      basis[i] = this.basis[i] > x0 ? this.basis[i] - 1 : this.basis[i];
+    }
+    SparseMatrix columnMatrix =
+        new SparseMatrix(
+            x0,
+            m,
+            Arrays.copyOf(this.columnMatrix.rowStart, x0 + 1),
+            this.columnMatrix.columnIndexes,
+            this.columnMatrix.values);
+    double[] cost = new double[x0 + m];
+    for (int j = 0; j < initial.n; j++) {
+      cost[j] = initial.c[j].doubleValue();
+    }
+    removeVariable(indexOfX0, initial.n, m);
+    RevisedLPState state =
+        new RevisedLPState(
+            columnMatrix,
+            rhs,
+            cost,
+            basis,
+            nonBasic,
+            x,
+            Arrays.copyOf(columnSign, x0),
+            slackSign,
+            new BasisFactorization(columnMatrix, m),
+            variables,
+            coefficients,
+            epsilon,
+            INF);
+    state.refactorizationFrequency = refactorizationFrequency;
+    state.refactorize();
+    return state;
+  }
+}
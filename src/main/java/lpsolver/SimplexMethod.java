@@ -0,0 +1,13 @@
+package lpsolver;
+
+/** Algorithm used by {@link LPSolver} to reach a feasible dictionary. */
+public enum SimplexMethod {
+  /** Primal simplex, an auxiliary linear program finds a feasible dictionary if needed. */
+  PRIMAL,
+  /**
+   * Dual simplex when the initial dictionary is dual feasible, i.e. every objective coefficient is
+   * non-positive, as in minimization of non-negative costs. Other programs are solved by {@link
+   * #PRIMAL}.
+   */
+  DUAL
+}
@@ -0,0 +1,166 @@
+package lpsolver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Simplex dictionary independent of the numeric representation of its entries. Non-basic
+ * variables occupy indexes {@code 0..n-1}, basic variable of the row {@code i} has index {@code n +
+ * i}.
+ *
+ * <p>Variables may have upper bounds. A variable at its upper bound {@code u} is replaced by its
+ * complement {@code u - x}, so non-basic variables are always zero and every variable of the
+ * dictionary lies in {@code [0, u]}.
+ */
+public abstract class SimplexState {
+  private static final Logger logger = LogManager.getLogger(SimplexState.class);
+  HashMap<Integer, String> variables;
+  HashMap<String, Integer> coefficients;
+  int m, n;
+  // upper bounds by index, null if no variable is bounded
+  double[] upper;
+  // whether the variable of the index is replaced by its complement
+  boolean[] complemented;
+
+  public abstract int getEntering();
+
+  public abstract int getLeaving(int entering);
+
+  public abstract void pivot(int entering, int leaving) throws SolutionException;
+
+  public abstract BigDecimal getObjectiveValue();
+
+  /** Value of the basic variable of the {@code row}. */
+  abstract double getRhs(int row);
+
+  /** Coefficient of the non-basic variable {@code column} in the {@code row}. */
+  abstract double getEntry(int row, int column);
+
+  /** Coefficient of the non-basic variable {@code column} in the objective function. */
+  abstract double getReducedCost(int column);
+
+  /** Values not greater than the tolerance are treated as zero. */
+  abstract double getTolerance();
+
+  /**
+   * Removes auxiliary variable {@code x0} from this solved auxiliary linear program and restores
+   * the objective function of the {@code initial} linear program.
+   */
+  abstract SimplexState restoreInitialLP(LPStandardForm initial, int indexOfX0)
+      throws SolutionException;
+
+  /**
+   * Substitutes {@code bound - x} for the non-basic variable {@code column}: its coefficients
+   * change sign and {@code bound} times the column moves into the right-hand side and the
+   * objective value.
+   */
+  abstract void complementColumn(int column, double bound);
+
+  /**
+   * Replaces the basic variable of the {@code row} by {@code bound - x}: the coefficients of the
+   * row change sign and its right-hand side becomes {@code bound - b}.
+   */
+  abstract void complementRow(int row, double bound);
+
+  /** Moves the non-basic variable {@code column} between its bounds. */
+  void complementColumn(int column) {
+    complementColumn(column, upper[column]);
+    complemented[column] = !complemented[column];
+  }
+
+  /** Replaces the basic variable of the {@code row} by its complement. */
+  void complementRow(int row) {
+    complementRow(row, upper[n + row]);
+    complemented[n + row] = !complemented[n + row];
+  }
+
+  /** Upper bound of the variable of the {@code index}, infinite if it is not bounded. */
+  double getUpperBound(int index) {
+    return upper == null ? Double.POSITIVE_INFINITY : upper[index];
+  }
+
+  /** Exact value of the basic variable of the {@code row}, if the state keeps one. */
+  BigDecimal getBasicValue(int row) {
+    return BigDecimal.valueOf(getRhs(row));
+  }
+
+  /** Exact coefficient of the non-basic variable {@code column} in the objective function. */
+  BigDecimal getObjectiveCoefficient(int column) {
+    return BigDecimal.valueOf(getReducedCost(column));
+  }
+
+  /** Copies coefficients of all non-basic variables in the {@code row} into {@code out}. */
+  void loadRow(int row, double[] out) {
+    for (int j = 0; j < n; j++) {
+      out[j] = getEntry(row, j);
+    }
+  }
+
+  /** Copies coefficients of the non-basic variable {@code column} in all rows into {@code out}. */
+  void loadColumn(int column, double[] out) {
+    for (int i = 0; i < m; i++) {
+      out[i] = getEntry(i, column);
+    }
+  }
+
+  /** Squared norm of the {@code column} extended by the unit entry of the entering variable. */
+  double getColumnNormSquared(int column) {
+    double norm = 1.0;
+    for (int i = 0; i < m; i++) {
+      double entry = getEntry(i, column);
+      norm += entry * entry;
+    }
+    return norm;
+  }
+
+  /** Names of the basic variables by row, a basis to warm start a solve of a similar program. */
+  public List<String> getBasicVariables() {
+    ArrayList<String> basis = new ArrayList<>(m);
+    for (int i = 0; i < m; i++) {
+      basis.add(variables.get(n + i));
+    }
+    return basis;
+  }
+
+  public boolean hasVariablesNames() {
+    return variables != null && coefficients != null;
+  }
+
+  void exchangeIndexes(int entering, int leaving) {
+    if (upper != null) {
+      double bound = upper[entering];
+      upper[entering] = upper[n + leaving];
+      upper[n + leaving] = bound;
+      boolean complement = complemented[entering];
+      complemented[entering] = complemented[n + leaving];
+      complemented[n + leaving] = complement;
+    }
+    if (hasVariablesNames()) {
+      logger.trace("Exchanging indexes");
+      String enteringVarName = variables.get(entering), leavingVarName = variables.get(leaving + n);
+      variables.put(entering, leavingVarName);
+      variables.put(leaving + n, enteringVarName);
+      coefficients.put(enteringVarName, leaving + n);
+      coefficients.put(leavingVarName, entering);
+    }
+  }
+
+  /**
+   * Shifts variable names after the column {@code indexOfX0} of size {@code n + m + 1} is removed.
+   */
+  void removeVariable(int indexOfX0, int n, int m) {
+    String x0 = variables.get(indexOfX0);
+    coefficients.remove(x0);
+    for (int i = indexOfX0; i < n + m; i++) {
+      String varName = variables.get(i + 1);
+      variables.put(i, varName);
+      coefficients.put(varName, i);
+    }
+    variables.remove(n + m);
+  }
+}
@@ -0,0 +1,221 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of solutions of {@link LPSolver}, see {@link LPSolver#setSolutionCache}. A solution is
+ * keyed by the SHA-256 hash of the program (A, b, c, the sense, equality rows, bounds and names)
+ * and of the settings of the solve that change the result (rounding, tolerances, backend, method,
+ * presolve, and the keys of the pricing rule and ratio test, which include their parameters), so a
+ * repeated solve returns the stored solution with the statistics of its first solve. Numbers equal
+ * in value hash the same, so a dense program and its sparse form share their solution.
+ *
+ * <p>Entries expire after the time to live and are weighted by the estimated size of the solution
+ * in bytes; the least recently used ones are evicted once the total weight exceeds the limit.
+ * Infeasible and unbounded programs are not cached. The cache is thread safe and may be shared by
+ * many solvers.
+ */
+public class SolutionCache {
+  public static final long DEF_MAX_WEIGHT = 64L << 20;
+  public static final long DEF_TIME_TO_LIVE_MINUTES = 10;
+  private static final Logger logger = LogManager.getLogger(SolutionCache.class);
+
+  private final long maxWeight;
+  private final long timeToLive;
+  private final LongSupplier clock;
+  private final LinkedHashMap<ContentHash, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long expirations;
+
+  /** Cache of at most {@link #DEF_MAX_WEIGHT} bytes of solutions kept for 10 minutes. */
+  public SolutionCache() {
+    this(DEF_MAX_WEIGHT, DEF_TIME_TO_LIVE_MINUTES, TimeUnit.MINUTES);
+  }
+
+  /**
+   * @param maxWeight limit of the estimated size of the cached solutions in bytes
+   * @param timeToLive time after which a cached solution is solved again
+   */
+  public SolutionCache(long maxWeight, long timeToLive, TimeUnit unit) {
+    this(maxWeight, unit.toNanos(timeToLive), System::nanoTime);
+  }
+
+  SolutionCache(long maxWeight, long timeToLive, LongSupplier clock) {
+    Validate.isTrue(maxWeight > 0, "Maximum weight should be positive");
+    Validate.isTrue(timeToLive > 0, "Time to live should be positive");
+    this.maxWeight = maxWeight;
+    this.timeToLive = timeToLive;
+    this.clock = Objects.requireNonNull(clock);
+  }
+
+  /**
+   * Key of solving {@code stForm} with the settings already put into {@code hasher}, see {@link
+   * LPSolver#solutionKey(LPStandardForm)}.
+   */
+  static ContentHash key(ContentHash.Hasher hasher, LPStandardForm stForm) {
+    int m = stForm.m;
+    int n = stForm.n;
+    hasher.putInt(m).putInt(n).putBoolean(stForm.maximize);
+    for (int i = 0; i < m; i++) {
+      // nonzero entries of the row, equal for the dense and the sparse form
+      if (stForm.isSparse()) {
+        SparseMatrix A = stForm.sparseA;
+        for (int k = A.rowStart[i]; k < A.rowStart[i + 1]; k++) {
+          if (A.values[k] != 0) {
+            hasher.putInt(A.columnIndexes[k]).putDecimal(BigDecimal.valueOf(A.values[k]));
+          }
+        }
+      } else {
+        for (int j = 0; j < n; j++) {
+          if (stForm.A[i][j].signum() != 0) {
+            hasher.putInt(j).putDecimal(stForm.A[i][j]);
+          }
+        }
+      }
+      hasher.putInt(-1).putDecimal(stForm.b[i]).putBoolean(stForm.isEquality(i));
+    }
+    for (int j = 0; j < n; j++) {
+      hasher.putDecimal(stForm.c[j]);
+      hasher.putDecimal(stForm.getLowerBound(j)).putDecimal(stForm.getUpperBound(j));
+      hasher.putString(stForm.hasVariableNames() ? stForm.variables.get(j) : null);
+    }
+    return hasher.hash();
+  }
+
+  /** Returns the solution cached for the key, {@code null} if it is missing or expired. */
+  synchronized LPSolution get(ContentHash key) {
+    Entry entry = entries.get(key);
+    if (entry != null && clock.getAsLong() - entry.created >= timeToLive) {
+      entries.remove(key);
+      weight -= entry.weight;
+      ++expirations;
+      entry = null;
+    }
+    if (entry == null) {
+      ++misses;
+      return null;
+    }
+    ++hits;
+    return entry.solution;
+  }
+
+  synchronized void put(ContentHash key, LPSolution solution) {
+    long entryWeight = weight(solution);
+    if (entryWeight > maxWeight) {
+      logger.debug("Solution of {} bytes is not cached, the limit is {}", entryWeight, maxWeight);
+      return;
+    }
+    long now = clock.getAsLong();
+    Entry previous = entries.put(key, new Entry(solution, entryWeight, now));
+    weight += entryWeight - (previous != null ? previous.weight : 0);
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (weight > maxWeight && iterator.hasNext()) {
+      Entry eldest = iterator.next();
+      weight -= eldest.weight;
+      iterator.remove();
+      if (now - eldest.created >= timeToLive) {
+        ++expirations;
+      } else {
+        ++evictions;
+      }
+    }
+  }
+
+  /**
+   * Estimated size of {@code solution} in bytes: a name and two numbers per variable, two numbers
+   * per row and a reference per basic variable.
+   */
+  static long weight(LPSolution solution) {
+    long variables = solution.getValues().size();
+    long rows = solution.getBasis().size();
+    return 256 + 160 * variables + 80 * rows + 8 * rows;
+  }
+
+  /** Removes all solutions, keeping the counters. */
+  public synchronized void clear() {
+    entries.clear();
+    weight = 0;
+  }
+
+  /** Number of cached solutions, expired ones included until they are looked up or evicted. */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /** Estimated size of the cached solutions in bytes. */
+  public synchronized long getWeight() {
+    return weight;
+  }
+
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  /** Time to live of a cached solution in nanoseconds. */
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  /** Number of solutions removed because their time to live passed. */
+  public synchronized long getExpirations() {
+    return expirations;
+  }
+
+  /** Share of solves served from the cache, 0 before the first solve. */
+  public synchronized double getHitRate() {
+    return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "SolutionCache{size="
+        + entries.size()
+        + ", weight="
+        + weight
+        + ", hits="
+        + hits
+        + ", misses="
+        + misses
+        + ", evictions="
+        + evictions
+        + ", expirations="
+        + expirations
+        + '}';
+  }
+
+  private static class Entry {
+    private final LPSolution solution;
+    private final long weight;
+    private final long created;
+
+    Entry(LPSolution solution, long weight, long created) {
+      this.solution = solution;
+      this.weight = weight;
+      this.created = created;
+    }
+  }
+}
@@ -0,0 +1,197 @@
+package lpsolver;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counters and timings of a single solve. Times are in nanoseconds; phase 1 makes an infeasible
+ * basic solution feasible, by the auxiliary linear program or by dual simplex, phase 2 is the
+ * simplex on the initial linear program. Phase 0 pivots install the basis of a warm start.
+ */
+public class SolveStatistics {
+  private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+  private int warmStartIterations;
+  private int phase1Iterations;
+  private int phase2Iterations;
+  private int degeneratePivots;
+  private int presolveRemovedRows;
+  private int presolveRemovedColumns;
+  private long presolveTime;
+  private int blandIterations;
+  private int boundFlips;
+  private long pricingTime;
+  private long ratioTestTime;
+  private long pivotTime;
+  private long totalTime;
+  private double maxPivot;
+  private double minPivot = Double.POSITIVE_INFINITY;
+  private long allocatedBytes = -1;
+  private long startTime;
+  private long startAllocatedBytes;
+
+  void start() {
+    startAllocatedBytes = currentThreadAllocatedBytes();
+    startTime = System.nanoTime();
+  }
+
+  void finish() {
+    totalTime = System.nanoTime() - startTime;
+    long allocated = currentThreadAllocatedBytes();
+    allocatedBytes =
+        allocated < 0 || startAllocatedBytes < 0 ? -1 : allocated - startAllocatedBytes;
+  }
+
+  void recordPresolve(int removedRows, int removedColumns, long time) {
+    presolveRemovedRows = removedRows;
+    presolveRemovedColumns = removedColumns;
+    presolveTime = time;
+  }
+
+  void addPricingTime(long time) {
+    pricingTime += time;
+  }
+
+  void addRatioTestTime(long time) {
+    ratioTestTime += time;
+  }
+
+  void countBlandIteration() {
+    ++blandIterations;
+  }
+
+  void countBoundFlip() {
+    ++boundFlips;
+  }
+
+  void recordPivot(int phase, double pivot, boolean degenerate, long time) {
+    if (phase == 0) {
+      ++warmStartIterations;
+    } else if (phase == 1) {
+      ++phase1Iterations;
+    } else {
+      ++phase2Iterations;
+    }
+    if (degenerate && phase > 0) {
+      ++degeneratePivots;
+    }
+    maxPivot = Math.max(maxPivot, pivot);
+    minPivot = Math.min(minPivot, pivot);
+    pivotTime += time;
+  }
+
+  /**
+   * Bytes allocated by the solving thread, or {@code -1} if the JVM does not measure allocations.
+   * Allocations of the {@link PivotPool} workers are not included.
+   */
+  private static long currentThreadAllocatedBytes() {
+    if (threadBean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+      if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  public int getPhase1Iterations() {
+    return phase1Iterations;
+  }
+
+  public int getPhase2Iterations() {
+    return phase2Iterations;
+  }
+
+  public int getIterations() {
+    return warmStartIterations + phase1Iterations + phase2Iterations;
+  }
+
+  /** Pivots installing the basis of a warm start. */
+  public int getWarmStartIterations() {
+    return warmStartIterations;
+  }
+
+  /** Pivots that did not change the objective function, i.e. with zero step. */
+  public int getDegeneratePivots() {
+    return degeneratePivots;
+  }
+
+  /** Iterations priced by Bland's rule because of a run of degenerate pivots. */
+  public int getBlandIterations() {
+    return blandIterations;
+  }
+
+  /**
+   * Iterations in which the entering variable reached its own upper bound, so it moved between its
+   * bounds without a pivot. They are not counted in {@link #getIterations()}.
+   */
+  public int getBoundFlips() {
+    return boundFlips;
+  }
+
+  public int getPresolveRemovedRows() {
+    return presolveRemovedRows;
+  }
+
+  public int getPresolveRemovedColumns() {
+    return presolveRemovedColumns;
+  }
+
+  public long getPresolveTime() {
+    return presolveTime;
+  }
+
+  /** Time spent choosing entering variables, including updates of pricing weights. */
+  public long getPricingTime() {
+    return pricingTime;
+  }
+
+  public long getRatioTestTime() {
+    return ratioTestTime;
+  }
+
+  public long getPivotTime() {
+    return pivotTime;
+  }
+
+  /** Time from the start of the solve, the total once the solve is finished. */
+  public long getTotalTime() {
+    return totalTime == 0 ? System.nanoTime() - startTime : totalTime;
+  }
+
+  /** Largest absolute value of a pivot element, {@code 0} if there were no pivots. */
+  public double getMaxPivot() {
+    return maxPivot;
+  }
+
+  /** Smallest absolute value of a pivot element, {@code 0} if there were no pivots. */
+  public double getMinPivot() {
+    return minPivot == Double.POSITIVE_INFINITY ? 0.0 : minPivot;
+  }
+
+  /** See {@link #currentThreadAllocatedBytes()}, {@code -1} until the solve is finished. */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "SolveStatistics{"
+        + "warmStartIterations=" + warmStartIterations
+        + ", phase1Iterations=" + phase1Iterations
+        + ", phase2Iterations=" + phase2Iterations
+        + ", degeneratePivots=" + degeneratePivots
+        + ", blandIterations=" + blandIterations
+        + ", boundFlips=" + boundFlips
+        + ", presolveRemovedRows=" + presolveRemovedRows
+        + ", presolveRemovedColumns=" + presolveRemovedColumns
+        + ", presolveTime=" + presolveTime
+        + ", pricingTime=" + pricingTime
+        + ", ratioTestTime=" + ratioTestTime
+        + ", pivotTime=" + pivotTime
+        + ", totalTime=" + getTotalTime()
+        + ", maxPivot=" + maxPivot
+        + ", minPivot=" + getMinPivot()
+        + ", allocatedBytes=" + allocatedBytes
+        + '}';
+  }
+}
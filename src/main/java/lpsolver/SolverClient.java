@@ -0,0 +1,147 @@
+package lpsolver;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Client of a {@link SolverService} on the same machine. A client is a single connection and
+ * sends one program at a time, so it must not be shared by threads that solve concurrently.
+ */
+public class SolverClient implements AutoCloseable {
+  private final Socket socket;
+  private final BufferedReader in;
+  private final OutputStream out;
+
+  /** Connects to the service on {@code port} of the loopback address. */
+  public SolverClient(int port) throws IOException {
+    socket = new Socket(InetAddress.getLoopbackAddress(), port);
+    in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    out = new BufferedOutputStream(socket.getOutputStream());
+  }
+
+  /** Solves a program in the format of {@link LPInputReader}. */
+  public Result solveLP(String program) throws IOException {
+    return solve("LP", program);
+  }
+
+  /** Solves a program in MPS {@code format}, see {@link MPSReader}. */
+  public Result solveMPS(String program, MPSFormat format) throws IOException {
+    return solve(format == MPSFormat.FREE ? "FREE_MPS" : "MPS", program);
+  }
+
+  private Result solve(String format, String program) throws IOException {
+    byte[] bytes = program.getBytes(StandardCharsets.UTF_8);
+    send("SOLVE " + format + ' ' + bytes.length + '\n');
+    out.write(bytes);
+    out.flush();
+    String response = readLine();
+    if (response.equals("BUSY")) {
+      return new Result(Status.BUSY, null, Collections.emptyMap(), null);
+    }
+    if (response.startsWith("ERROR ")) {
+      return new Result(Status.ERROR, null, Collections.emptyMap(), response.substring(6));
+    }
+    String[] fields = response.split(" ");
+    if (fields.length != 3 || !fields[0].equals("OPTIMAL")) {
+      throw new IOException("Unexpected response " + response);
+    }
+    int count = Integer.parseInt(fields[2]);
+    Map<String, BigDecimal> values = new LinkedHashMap<>(2 * count);
+    for (int k = 0; k < count; k++) {
+      String line = readLine();
+      int space = line.lastIndexOf(' ');
+      values.put(line.substring(0, space), new BigDecimal(line.substring(space + 1)));
+    }
+    return new Result(Status.OPTIMAL, new BigDecimal(fields[1]), values, null);
+  }
+
+  /** Checks that the service answers. */
+  public boolean ping() throws IOException {
+    send("PING\n");
+    out.flush();
+    return readLine().equals("PONG");
+  }
+
+  private void send(String header) throws IOException {
+    out.write(header.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String readLine() throws IOException {
+    String line = in.readLine();
+    if (line == null) {
+      throw new IOException("Service closed the connection");
+    }
+    return line;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      send("QUIT\n");
+      out.flush();
+    } finally {
+      socket.close();
+    }
+  }
+
+  public enum Status {
+    OPTIMAL,
+    /** The program is malformed, infeasible or unbounded. */
+    ERROR,
+    /** The service was overloaded, the program may be sent again. */
+    BUSY
+  }
+
+  /** Response of the service to a program. */
+  public static class Result {
+    private final Status status;
+    private final BigDecimal objectiveValue;
+    private final Map<String, BigDecimal> values;
+    private final String message;
+
+    Result(
+        Status status,
+        BigDecimal objectiveValue,
+        Map<String, BigDecimal> values,
+        String message) {
+      this.status = status;
+      this.objectiveValue = objectiveValue;
+      this.values = Collections.unmodifiableMap(values);
+      this.message = message;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    /** Optimal objective function value, {@code null} unless the status is optimal. */
+    public BigDecimal getObjectiveValue() {
+      return objectiveValue;
+    }
+
+    /** Values of the variables by name, empty unless the status is optimal. */
+    public Map<String, BigDecimal> getValues() {
+      return values;
+    }
+
+    /** Error message of the service, {@code null} unless the status is an error. */
+    public String getMessage() {
+      return message;
+    }
+
+    @Override
+    public String toString() {
+      return "Result{status=" + status + ", value=" + objectiveValue + ", message=" + message + '}';
+    }
+  }
+}
@@ -0,0 +1,342 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived local solver: accepts linear programs over a socket bound to the loopback address and
+ * solves them on a bounded pool of workers with one shared {@link LPSolver}, so solves skip the
+ * start of the JVM and reuse its compiled code and the caches of the solver. A connection sends
+ * requests one after another; each is a header line and the program in UTF-8:
+ *
+ * <pre>
+ *   SOLVE LP|MPS|FREE_MPS length   followed by length bytes of the program
+ *   PING                           answered by PONG
+ *   QUIT                           closes the connection
+ * </pre>
+ *
+ * and every request is answered before the next is read, by one of
+ *
+ * <pre>
+ *   OPTIMAL value n                followed by n lines "name value" of the variables
+ *   ERROR message                  the program is malformed, infeasible or unbounded
+ *   BUSY                           all workers are busy and the queue is full, try again later
+ * </pre>
+ *
+ * Programs are read and solved on the workers, from their bytes as their files would be read. A
+ * program is received only once a worker or a place in the queue is reserved for it, so at most
+ * {@code threads + queueCapacity} programs are held in memory; a request that finds none free is
+ * rejected at once, its program skipped unread, so an overloaded service pushes back on its
+ * clients. Connections are
+ * served on virtual threads where the platform has them, see {@link RequestExecutor}. See {@link
+ * SolverClient} for a client.
+ */
+public class SolverService implements AutoCloseable {
+  public static final int DEF_QUEUE_CAPACITY = 64;
+  public static final int MAX_PROGRAM_BYTES = 64 << 20;
+  private static final Logger logger = LogManager.getLogger(SolverService.class);
+  private static final int MAX_HEADER_LENGTH = 256;
+
+  private final LPSolver solver;
+  private final LPInputReader reader;
+  private final boolean sparse;
+  private final ServerSocket serverSocket;
+  private final ThreadPoolExecutor workers;
+  /** Workers and places in the queue not yet reserved by a received program. */
+  private final Semaphore slots;
+  private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+  private final ExecutorService connectionThreads;
+  private final AtomicLong solved = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final Thread acceptor;
+  private volatile boolean closed;
+
+  /**
+   * Starts a service on {@code port} of the loopback address.
+   *
+   * @param port port to listen on, 0 for any free port, see {@link #getPort()}
+   * @param threads number of workers solving programs
+   * @param queueCapacity number of programs waiting for a worker, 0 to reject a program whenever
+   *     all workers are busy
+   * @param sparse whether programs are read with a sparse constraint matrix
+   */
+  public SolverService(LPSolver solver, int port, int threads, int queueCapacity, boolean sparse)
+      throws IOException {
+    Validate.isTrue(threads > 0, "Number of threads should be positive");
+    Validate.isTrue(queueCapacity >= 0, "Queue capacity should not be negative");
+    this.solver = Objects.requireNonNull(solver);
+    this.sparse = sparse;
+    this.reader = new LPInputReader(sparse);
+    BlockingQueue<Runnable> queue =
+        queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity);
+    this.workers =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            queue,
+            RequestExecutor.daemonThreads("lp-service-worker"));
+    this.slots = new Semaphore(threads + queueCapacity);
+    this.connectionThreads = RequestExecutor.threadPerTask("lp-service-connection");
+    this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    this.acceptor = RequestExecutor.daemonThreads("lp-service-acceptor").newThread(this::accept);
+    acceptor.start();
+    logger.info(
+        "Solver service listens on port {} with {} workers and a queue of {}",
+        getPort(),
+        threads,
+        queueCapacity);
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /** Number of programs solved to optimality. */
+  public long getSolved() {
+    return solved.get();
+  }
+
+  /** Number of programs that were malformed, infeasible or unbounded. */
+  public long getFailed() {
+    return failed.get();
+  }
+
+  /** Number of programs rejected because the queue was full. */
+  public long getRejected() {
+    return rejected.get();
+  }
+
+  private void accept() {
+    while (!closed) {
+      try {
+        Socket socket = serverSocket.accept();
+        connections.add(socket);
+        connectionThreads.execute(() -> serve(socket));
+      } catch (IOException e) {
+        if (!closed) {
+          logger.error("Failed to accept a connection", e);
+        }
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (DataInputStream in =
+            new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        Writer out =
+            new BufferedWriter(
+                new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+      while (true) {
+        String header;
+        try {
+          header = readHeader(in);
+        } catch (HeaderTooLongException e) {
+          out.write("ERROR Request header is too long\n");
+          break;
+        }
+        if (header == null) {
+          break;
+        }
+        String[] fields = header.trim().split("\\s+");
+        if (fields[0].equals("QUIT")) {
+          break;
+        } else if (fields[0].equals("PING")) {
+          out.write("PONG\n");
+        } else if (fields[0].equals("SOLVE") && fields.length == 3) {
+          int length = parseLength(fields[2]);
+          if (length < 0) {
+            out.write("ERROR Program length should be at most " + MAX_PROGRAM_BYTES + " bytes\n");
+            break;
+          }
+          if (!slots.tryAcquire()) {
+            skip(in, length);
+            rejected.incrementAndGet();
+            out.write("BUSY\n");
+          } else {
+            byte[] program = new byte[length];
+            try {
+              in.readFully(program);
+            } catch (IOException e) {
+              slots.release();
+              throw e;
+            }
+            respond(fields[1], program, out);
+          }
+        } else {
+          out.write("ERROR Unknown request " + header + '\n');
+          break;
+        }
+        out.flush();
+      }
+    } catch (EOFException | SocketException e) {
+      logger.debug("Connection closed: {}", e.getMessage());
+    } catch (IOException e) {
+      logger.error("Connection failed", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      connections.remove(socket);
+      closeQuietly(socket);
+    }
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      logger.debug("Failed to close a connection: {}", e.getMessage());
+    }
+  }
+
+  /** Skips {@code length} bytes of a rejected program without buffering them. */
+  private static void skip(DataInputStream in, int length) throws IOException {
+    int remaining = length;
+    while (remaining > 0) {
+      int skipped = in.skipBytes(remaining);
+      if (skipped == 0) {
+        if (in.read() == -1) {
+          throw new EOFException();
+        }
+        skipped = 1;
+      }
+      remaining -= skipped;
+    }
+  }
+
+  /** Solves {@code program} on a worker, the slot reserved for it is released by the solve. */
+  private void respond(String format, byte[] program, Writer out)
+      throws IOException, InterruptedException {
+    Future<LPSolution> future;
+    try {
+      future =
+          workers.submit(
+              () -> {
+                try {
+                  return solver.optimize(read(format, program));
+                } finally {
+                  slots.release();
+                }
+              });
+    } catch (RejectedExecutionException e) {
+      slots.release();
+      rejected.incrementAndGet();
+      out.write("BUSY\n");
+      return;
+    }
+    try {
+      LPSolution solution = future.get();
+      solved.incrementAndGet();
+      Map<String, BigDecimal> values = solution.getValues();
+      out.write("OPTIMAL " + solution.getObjectiveValue().toPlainString() + ' ' + values.size());
+      out.write('\n');
+      for (Map.Entry<String, BigDecimal> value : values.entrySet()) {
+        out.write(value.getKey() + ' ' + value.getValue().toPlainString() + '\n');
+      }
+    } catch (ExecutionException e) {
+      failed.incrementAndGet();
+      Throwable cause = e.getCause();
+      if (!(cause instanceof LPException || cause instanceof IllegalArgumentException)) {
+        logger.error("Solve failed", cause);
+      }
+      String message = String.valueOf(cause.getMessage());
+      out.write("ERROR " + message.replace('\n', ' ') + '\n');
+    }
+  }
+
+  private LPStandardForm read(String format, byte[] program) throws LPException {
+    switch (format) {
+      case "LP":
+        return reader.readLP(program);
+      case "MPS":
+        return new MPSReader(MPSFormat.FIXED, sparse).readMPS(program);
+      case "FREE_MPS":
+        return new MPSReader(MPSFormat.FREE, sparse).readMPS(program);
+      default:
+        throw new LPException("Unknown format " + format);
+    }
+  }
+
+  private int parseLength(String field) {
+    try {
+      int length = Integer.parseInt(field);
+      return length <= MAX_PROGRAM_BYTES ? length : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Reads a line of at most {@link #MAX_HEADER_LENGTH} bytes, {@code null} at the end.
+   *
+   * @throws HeaderTooLongException if the line is longer, the rest of it is not read
+   */
+  private static String readHeader(DataInputStream in) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int next;
+    while ((next = in.read()) != '\n') {
+      if (next == -1) {
+        return line.size() == 0 ? null : line.toString("UTF-8");
+      }
+      if (line.size() == MAX_HEADER_LENGTH) {
+        throw new HeaderTooLongException();
+      }
+      line.write(next);
+    }
+    return line.toString("UTF-8");
+  }
+
+  /** Stops accepting programs and closes the connections, queued solves still finish. */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    serverSocket.close();
+    for (Socket socket : connections) {
+      socket.close();
+    }
+    connectionThreads.shutdown();
+    workers.shutdown();
+    logger.info("Solver service on port {} is closed", getPort());
+  }
+
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return workers.awaitTermination(timeout, unit);
+  }
+
+  private static class HeaderTooLongException extends IOException {
+    private static final long serialVersionUID = 1L;
+  }
+}
@@ -0,0 +1,422 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Simplex dictionary that keeps only non-zero entries of the constraint matrix. Every row holds its
+ * entries in growable arrays and every column knows the rows it has entries in, so a pivot only
+ * touches the rows of the entering column and the entries of the leaving row.
+ */
+public class SparseLPState extends SimplexState {
+  public static final double DEF_DROP_TOLERANCE = 1e-13;
+  private static final Logger logger = LogManager.getLogger(SparseLPState.class);
+  int[][] rowColumns;
+  double[][] rowValues;
+  int[] rowSize;
+  int[][] columnRows;
+  int[] columnSize;
+  double[] b, c;
+  double v;
+  private double epsilon;
+  private double INF;
+  private final int[] position;
+
+  SparseLPState(
+      int[][] rowColumns,
+      double[][] rowValues,
+      int[] rowSize,
+      double[] b,
+      double[] c,
+      double v,
+      HashMap<Integer, String> variables,
+      HashMap<String, Integer> coefficients,
+      int m,
+      int n,
+      double epsilon,
+      double INF) {
+    this.rowColumns = rowColumns;
+    this.rowValues = rowValues;
+    this.rowSize = rowSize;
+    this.b = b;
+    this.c = c;
+    this.v = v;
+    this.variables = variables;
+    this.coefficients = coefficients;
+    this.m = m;
+    this.n = n;
+    this.epsilon = epsilon;
+    this.INF = INF;
+    this.position = new int[n];
+    Arrays.fill(position, -1);
+    buildColumns();
+  }
+
+  /** Creates the dictionary of {@code A}, adding {@code extraColumns} empty non-basic columns. */
+  static SparseLPState of(
+      SparseMatrix A,
+      int extraColumns,
+      double[] b,
+      double[] c,
+      HashMap<Integer, String> variables,
+      HashMap<String, Integer> coefficients,
+      double epsilon,
+      double INF) {
+    int m = A.rows;
+    int[][] rowColumns = new int[m][];
+    double[][] rowValues = new double[m][];
+    int[] rowSize = new int[m];
+    for (int i = 0; i < m; i++) {
+      int from = A.rowStart[i], size = A.rowStart[i + 1] - from;
+      rowColumns[i] = Arrays.copyOfRange(A.columnIndexes, from, from + size + extraColumns);
+      rowValues[i] = Arrays.copyOfRange(A.values, from, from + size + extraColumns);
+      rowSize[i] = size;
+    }
+    return new SparseLPState(
+        rowColumns,
+        rowValues,
+        rowSize,
+        b,
+        c,
+        0.0,
+        variables,
+        coefficients,
+        m,
+        A.columns + extraColumns,
+        epsilon,
+        INF);
+  }
+
+  private void buildColumns() {
+    columnSize = new int[n];
+    for (int i = 0; i < m; i++) {
+      int[] columns = rowColumns[i];
+      for (int k = 0; k < rowSize[i]; k++) {
+        ++columnSize[columns[k]];
+      }
+    }
+    columnRows = new int[n][];
+    for (int j = 0; j < n; j++) {
+      columnRows[j] = new int[Math.max(4, columnSize[j] + (columnSize[j] >> 1))];
+    }
+    Arrays.fill(columnSize, 0);
+    for (int i = 0; i < m; i++) {
+      int[] columns = rowColumns[i];
+      for (int k = 0; k < rowSize[i]; k++) {
+        int j = columns[k];
+        columnRows[j][columnSize[j]++] = i;
+      }
+    }
+  }
+
+  /** Sets an entry of the column {@code column} in the row {@code row}, used while building. */
+  void setEntry(int row, int column, double value) {
+    int k = find(row, column);
+    if (k >= 0) {
+      rowValues[row][k] = value;
+    } else {
+      append(row, column, value);
+    }
+  }
+
+  @Override
+  public void pivot(int entering, int leaving) {
+    if (logger.isTraceEnabled()) {
+      logger.trace("Start pivoting with, entering - {}, leaving - {}", entering, leaving);
+    }
+    int[] pivotColumns = rowColumns[leaving];
+    double[] pivotValues = rowValues[leaving];
+    int pivotSize = rowSize[leaving];
+    int pivotPosition = find(leaving, entering);
+    double pivEntCoef = pivotValues[pivotPosition];
+
+    // recalculate leaving row
+    for (int k = 0; k < pivotSize; k++) {
+      pivotValues[k] /= pivEntCoef;
+    }
+    pivotValues[pivotPosition] = 1.0 / pivEntCoef;
+    b[leaving] /= pivEntCoef;
+
+    // recalculate rows having non-zero entry in the entering column
+    int[] rows = columnRows[entering];
+    for (int t = 0, size = columnSize[entering]; t < size; t++) {
+      int i = rows[t];
+      if (i != leaving) {
+        updateRow(i, entering, leaving, pivEntCoef);
+      }
+    }
+
+    // computing new objective function
+    double pivotCoefficientInC = c[entering];
+    if (pivotCoefficientInC != 0.0) {
+      v += b[leaving] * pivotCoefficientInC;
+      for (int k = 0; k < pivotSize; k++) {
+        c[pivotColumns[k]] -= pivotCoefficientInC * pivotValues[k];
+      }
+      c[entering] = -pivotCoefficientInC / pivEntCoef;
+    }
+
+    exchangeIndexes(entering, leaving);
+  }
+
+  private void updateRow(int i, int entering, int leaving, double pivEntCoef) {
+    int[] columns = rowColumns[i];
+    double[] values = rowValues[i];
+    int size = rowSize[i];
+    for (int k = 0; k < size; k++) {
+      position[columns[k]] = k;
+    }
+    int enteringPosition = position[entering];
+    double curEntCoef = values[enteringPosition];
+    int[] pivotColumns = rowColumns[leaving];
+    double[] pivotValues = rowValues[leaving];
+    boolean hasDropped = false;
+    for (int k = 0, pivotSize = rowSize[leaving]; k < pivotSize; k++) {
+      int j = pivotColumns[k];
+      if (j == entering) {
+        continue;
+      }
+      double delta = curEntCoef * pivotValues[k];
+      int p = position[j];
+      if (p >= 0) {
+        values[p] -= delta;
+        hasDropped |= Math.abs(values[p]) < DEF_DROP_TOLERANCE;
+      } else if (Math.abs(delta) >= DEF_DROP_TOLERANCE) {
+        rowSize[i] = size;
+        append(i, j, -delta);
+        columns = rowColumns[i];
+        values = rowValues[i];
+        position[j] = size++;
+      }
+    }
+    values[enteringPosition] = -curEntCoef / pivEntCoef;
+    b[i] -= curEntCoef * b[leaving];
+    for (int k = 0; k < size; k++) {
+      position[columns[k]] = -1;
+    }
+    rowSize[i] = size;
+    if (hasDropped) {
+      dropZeros(i, entering);
+    }
+  }
+
+  private void append(int row, int column, double value) {
+    int size = rowSize[row];
+    if (size == rowColumns[row].length) {
+      int capacity = Math.max(4, size * 2);
+      rowColumns[row] = Arrays.copyOf(rowColumns[row], capacity);
+      rowValues[row] = Arrays.copyOf(rowValues[row], capacity);
+    }
+    rowColumns[row][size] = column;
+    rowValues[row][size] = value;
+    rowSize[row] = size + 1;
+    if (columnSize[column] == columnRows[column].length) {
+      columnRows[column] = Arrays.copyOf(columnRows[column], columnSize[column] * 2);
+    }
+    columnRows[column][columnSize[column]++] = row;
+  }
+
+  private void dropZeros(int row, int keptColumn) {
+    int[] columns = rowColumns[row];
+    double[] values = rowValues[row];
+    int size = 0;
+    for (int k = 0; k < rowSize[row]; k++) {
+      if (columns[k] != keptColumn && Math.abs(values[k]) < DEF_DROP_TOLERANCE) {
+        removeFromColumn(columns[k], row);
+      } else {
+        columns[size] = columns[k];
+        values[size] = values[k];
+        ++size;
+      }
+    }
+    rowSize[row] = size;
+  }
+
+  private void removeFromColumn(int column, int row) {
+    int[] rows = columnRows[column];
+    int size = columnSize[column];
+    for (int t = 0; t < size; t++) {
+      if (rows[t] == row) {
+        rows[t] = rows[size - 1];
+        columnSize[column] = size - 1;
+        return;
+      }
+    }
+  }
+
+  private int find(int row, int column) {
+    int[] columns = rowColumns[row];
+    for (int k = 0, size = rowSize[row]; k < size; k++) {
+      if (columns[k] == column) {
+        return k;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int getEntering() {
+    for (int i = 0; i < n; i++) {
+      if (c[i] > epsilon) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int getLeaving(int entering) {
+    Validate.isTrue(entering >= 0 && entering < n);
+    int leaving = -1;
+    double minSlack = INF;
+    int[] rows = columnRows[entering];
+    for (int t = 0, size = columnSize[entering]; t < size; t++) {
+      int i = rows[t];
+      double aie = rowValues[i][find(i, entering)];
+      if (aie >= epsilon) {
+        double slack = b[i] / aie;
+        if (slack < minSlack || (slack == minSlack && i < leaving)) {
+          minSlack = slack;
+          leaving = i;
+        }
+      }
+    }
+    return leaving;
+  }
+
+  @Override
+  void complementColumn(int column, double bound) {
+    int[] rows = columnRows[column];
+    for (int t = 0, size = columnSize[column]; t < size; t++) {
+      int i = rows[t];
+      int k = find(i, column);
+      b[i] -= rowValues[i][k] * bound;
+      rowValues[i][k] = -rowValues[i][k];
+    }
+    v += c[column] * bound;
+    c[column] = -c[column];
+  }
+
+  @Override
+  void complementRow(int row, double bound) {
+    double[] values = rowValues[row];
+    for (int k = 0, size = rowSize[row]; k < size; k++) {
+      values[k] = -values[k];
+    }
+    b[row] = bound - b[row];
+  }
+
+  @Override
+  public BigDecimal getObjectiveValue() {
+    return BigDecimal.valueOf(v);
+  }
+
+  @Override
+  double getRhs(int row) {
+    return b[row];
+  }
+
+  @Override
+  void loadColumn(int column, double[] out) {
+    Arrays.fill(out, 0, m, 0.0);
+    int[] rows = columnRows[column];
+    for (int t = 0, size = columnSize[column]; t < size; t++) {
+      int i = rows[t];
+      out[i] = rowValues[i][find(i, column)];
+    }
+  }
+
+  @Override
+  double getReducedCost(int column) {
+    return c[column];
+  }
+
+  @Override
+  double getTolerance() {
+    return epsilon;
+  }
+
+  @Override
+  double getEntry(int row, int column) {
+    int k = find(row, column);
+    return k >= 0 ? rowValues[row][k] : 0.0;
+  }
+
+  int getNonZeros() {
+    int nonZeros = 0;
+    for (int i = 0; i < m; i++) {
+      nonZeros += rowSize[i];
+    }
+    return nonZeros;
+  }
+
+  @Override
+  SparseLPState restoreInitialLP(LPStandardForm initial, int indexOfX0) {
+    logger.trace("Restoring initial linear program after initialization");
+    int n = initial.n;
+
+    // restoring A
+    int[][] rowColumns = new int[m][];
+    double[][] rowValues = new double[m][];
+    int[] rowSize = new int[m];
+    for (int i = 0; i < m; i++) {
+      int[] columns = this.rowColumns[i];
+      double[] values = this.rowValues[i];
+      int size = 0;
+      for (int k = 0; k < this.rowSize[i]; k++) {
+        int j = columns[k];
+        if (j != indexOfX0) {
+          columns[size] = j > indexOfX0 ? j - 1 : j;
+          values[size] = values[k];
+          ++size;
+        }
+      }
+      rowColumns[i] = columns;
+      rowValues[i] = values;
+      rowSize[i] = size;
+    }
+
+    Set<String> initialVariables = initial.coefficients.keySet();
+    double v = 0.0;
+    double[] c = new double[n];
+    for (String currentVar : initialVariables) {
+      int index = initial.coefficients.get(currentVar);
+      double initialCoefficient = initial.c[index].doubleValue();
+      int currentIndex = coefficients.get(currentVar);
+      if (currentIndex >= this.n) {
+        // basis variable, need to substitute
+        int row = currentIndex - this.n;
+        v += b[row] * initialCoefficient;
+        int[] columns = rowColumns[row];
+        double[] values = rowValues[row];
+        for (int k = 0; k < rowSize[row]; k++) {
+          c[columns[k]] -= values[k] * initialCoefficient;
+        }
+      } else {
+        // non-basis variable, columns after x0 are shifted
+        c[currentIndex > indexOfX0 ? currentIndex - 1 : currentIndex] += initialCoefficient;
+      }
+    }
+
+    removeVariable(indexOfX0, n, m);
+    return new SparseLPState(
+        rowColumns,
+        rowValues,
+        rowSize,
+        b,
+        c,
+        v,
+        variables,
+        coefficients,
+        initial.m,
+        initial.n,
+        epsilon,
+        INF);
+  }
+}
@@ -0,0 +1,188 @@
+package lpsolver;
+
+import org.apache.commons.lang3.Validate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Immutable matrix in compressed sparse row format. Column indexes of every row are sorted and
+ * explicit zeros are not stored. The same layout read by columns is obtained with {@link
+ * #transpose()}.
+ */
+public class SparseMatrix {
+  final int rows, columns;
+  final int[] rowStart;
+  final int[] columnIndexes;
+  final double[] values;
+
+  SparseMatrix(int rows, int columns, int[] rowStart, int[] columnIndexes, double[] values) {
+    Validate.isTrue(rowStart.length == rows + 1, "Row pointers should have rows + 1 entries");
+    Validate.isTrue(columnIndexes.length >= rowStart[rows] && values.length >= rowStart[rows]);
+    this.rows = rows;
+    this.columns = columns;
+    this.rowStart = rowStart;
+    this.columnIndexes = columnIndexes;
+    this.values = values;
+  }
+
+  public static SparseMatrix fromDense(BigDecimal[][] A, int m, int n) {
+    Builder builder = new Builder();
+    for (int i = 0; i < m; i++) {
+      BigDecimal[] row = A[i];
+      for (int j = 0; j < n; j++) {
+        if (row[j].signum() != 0) {
+          builder.add(j, row[j].doubleValue());
+        }
+      }
+      builder.endRow();
+    }
+    return builder.build(n);
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getColumns() {
+    return columns;
+  }
+
+  public int getNonZeros() {
+    return rowStart[rows];
+  }
+
+  public double get(int row, int column) {
+    int position =
+        Arrays.binarySearch(columnIndexes, rowStart[row], rowStart[row + 1], column);
+    return position >= 0 ? values[position] : 0.0;
+  }
+
+  /** Returns the transposed matrix, i.e. this matrix in compressed sparse column format. */
+  public SparseMatrix transpose() {
+    int nonZeros = getNonZeros();
+    int[] columnStart = new int[columns + 1];
+    for (int k = 0; k < nonZeros; k++) {
+      ++columnStart[columnIndexes[k] + 1];
+    }
+    for (int j = 0; j < columns; j++) {
+      columnStart[j + 1] += columnStart[j];
+    }
+    int[] next = Arrays.copyOf(columnStart, columns);
+    int[] rowIndexes = new int[nonZeros];
+    double[] columnValues = new double[nonZeros];
+    for (int i = 0; i < rows; i++) {
+      for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+        int position = next[columnIndexes[k]]++;
+        rowIndexes[position] = i;
+        columnValues[position] = values[k];
+      }
+    }
+    return new SparseMatrix(columns, rows, columnStart, rowIndexes, columnValues);
+  }
+
+  public BigDecimal[][] toDense() {
+    BigDecimal[][] A = new BigDecimal[rows][columns];
+    for (int i = 0; i < rows; i++) {
+      BigDecimal[] row = A[i];
+      Arrays.fill(row, BigDecimal.ZERO);
+      for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+        row[columnIndexes[k]] = BigDecimal.valueOf(values[k]);
+      }
+    }
+    return A;
+  }
+
+  /**
+   * Assembles a {@link SparseMatrix} row by row. The number of columns is only fixed when the
+   * matrix is built, so columns can be discovered while reading.
+   */
+  public static class Builder {
+    private int[] rowStart = new int[16];
+    private int[] columnIndexes = new int[64];
+    private double[] values = new double[64];
+    private int rows;
+    private int size;
+    private int maxColumn = -1;
+
+    /** Adds an entry to the current row, a later entry of the same column replaces the former. */
+    public Builder add(int column, double value) {
+      Validate.isTrue(column >= 0, "Column index should be non-negative");
+      if (size == columnIndexes.length) {
+        columnIndexes = Arrays.copyOf(columnIndexes, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      columnIndexes[size] = column;
+      values[size] = value;
+      ++size;
+      maxColumn = Math.max(maxColumn, column);
+      return this;
+    }
+
+    /** Closes the current row: sorts its entries, merges duplicates and drops zeros. */
+    public Builder endRow() {
+      int from = rowStart[rows];
+      sortRow(from, size);
+      int last = from;
+      for (int k = from; k < size; k++) {
+        if (last > from && columnIndexes[last - 1] == columnIndexes[k]) {
+          values[last - 1] = values[k];
+        } else {
+          columnIndexes[last] = columnIndexes[k];
+          values[last] = values[k];
+          ++last;
+        }
+      }
+      int end = from;
+      for (int k = from; k < last; k++) {
+        if (values[k] != 0.0) {
+          columnIndexes[end] = columnIndexes[k];
+          values[end] = values[k];
+          ++end;
+        }
+      }
+      size = end;
+      if (rows + 2 > rowStart.length) {
+        rowStart = Arrays.copyOf(rowStart, rowStart.length * 2);
+      }
+      rowStart[++rows] = size;
+      return this;
+    }
+
+    public int getRows() {
+      return rows;
+    }
+
+    public SparseMatrix build(int columns) {
+      Validate.isTrue(size == rowStart[rows], "Last row is not finished");
+      Validate.isTrue(columns > maxColumn, "Matrix has entries beyond column %d", columns);
+      return new SparseMatrix(
+          rows,
+          columns,
+          Arrays.copyOf(rowStart, rows + 1),
+          Arrays.copyOf(columnIndexes, size),
+          Arrays.copyOf(values, size));
+    }
+
+    /** Stable sort of the row entries by column, rows are usually already ordered. */
+    private void sortRow(int from, int to) {
+      boolean sorted = true;
+      for (int k = from + 1; k < to && sorted; k++) {
+        sorted = columnIndexes[k - 1] <= columnIndexes[k];
+      }
+      if (sorted) {
+        return;
+      }
+      long[] keys = new long[to - from];
+      for (int k = from; k < to; k++) {
+        keys[k - from] = ((long) columnIndexes[k] << 32) | (k - from);
+      }
+      Arrays.sort(keys);
+      double[] rowValues = Arrays.copyOfRange(values, from, to);
+      for (int k = 0; k < keys.length; k++) {
+        columnIndexes[from + k] = (int) (keys[k] >>> 32);
+        values[from + k] = rowValues[(int) keys[k]];
+      }
+    }
+  }
+}
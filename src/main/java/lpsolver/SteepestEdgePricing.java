@@ -0,0 +1,35 @@
+package lpsolver;
+
+/**
+ * Steepest edge rule: the entering variable maximizes {@code d_j^2 / (1 + ||a_j||^2)}, where
+ * {@code d_j} is its reduced cost and {@code a_j} is its column of the dictionary, i.e. the
+ * objective function improves most per unit of distance moved along the edge.
+ *
+ * @implNote Norms are computed exactly and only for the columns with positive reduced cost. With
+ *     {@link NumericBackend#REVISED} every such column costs one FTRAN.
+ */
+public class SteepestEdgePricing implements PricingRule {
+
+  @Override
+  public int getEntering(SimplexState state) {
+    int entering = -1;
+    double max = 0.0;
+    double epsilon = state.getTolerance();
+    for (int j = 0; j < state.n; j++) {
+      double reducedCost = state.getReducedCost(j);
+      if (reducedCost > epsilon) {
+        double score = reducedCost * reducedCost / state.getColumnNormSquared(j);
+        if (score > max) {
+          max = score;
+          entering = j;
+        }
+      }
+    }
+    return entering;
+  }
+
+  @Override
+  public String getName() {
+    return "steepest edge";
+  }
+}
@@ -0,0 +1,148 @@
+package lpsolver
+
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class BatchSolverSpec extends Specification {
+  static final String INFEASIBLE = "max\nx1\nx1 <= -1"
+
+  def programs(int count) {
+    (0..<count).collect { seed -> new LPGenerator(seed).random(15, 20, 0.3) }
+  }
+
+  def "collection is solved in order with the results of sequential solving"() {
+    given:
+    def expected = programs(40).collect { new LPSolver().solve(it) }
+    def batch = new BatchSolver(4, { new LPSolver() })
+    when:
+    def results = batch.solveAll(programs(40))
+    then:
+    results*.index == (0..<40)
+    results.every { it.solved }
+    results*.solution*.objectiveValue == expected
+    cleanup:
+    batch.close()
+  }
+
+  def "failed program does not stop the batch"() {
+    given:
+    def forms = [new LPInputReader().readLP("max\nx1 + x2\nx1 + x2 <= 4"),
+                 new LPInputReader().readLP(INFEASIBLE),
+                 new LPInputReader().readLP("max\nx1\nx1 - x2 <= 1")]
+    def batch = new BatchSolver(2, { new LPSolver() })
+    when:
+    def results = batch.solveAll(forms)
+    then:
+    results[0].solution.objectiveValue == 4
+    !results[1].solved
+    results[1].exception instanceof LPException
+    results[2].exception instanceof SolutionException
+    cleanup:
+    batch.close()
+  }
+
+  def "runtime exception of a program does not stop the batch"() {
+    given:
+    def batch = new BatchSolver(2, {
+      new LPSolver() {
+        @Override
+        LPSolution optimize(LPStandardForm stForm) throws LPException {
+          if (stForm.m == 2) {
+            throw new IllegalStateException("Solver failed")
+          }
+          return super.optimize(stForm)
+        }
+      }
+    })
+    def forms = [new LPInputReader().readLP("max\nx1 + x2\nx1 + x2 <= 4"),
+                 new LPInputReader().readLP("max\nx1 + x2\nx1 <= 1\nx2 <= 2"),
+                 new LPInputReader().readLP("max\nx1\nx1 <= 3")]
+    when:
+    def results = batch.solveAll(forms)
+    def streamed = []
+    batch.solveAll(forms.stream(), { streamed << it })
+    then:
+    results*.solution*.objectiveValue == [4, null, 3]
+    results[1].exception instanceof IllegalStateException
+    streamed.size() == 3
+    streamed.count { it.exception instanceof IllegalStateException } == 1
+    cleanup:
+    batch.close()
+  }
+
+  def "files are read by the readers of the workers"() {
+    given:
+    def texts = ["max\nx1 + x2\nx1 + x2 <= 4", INFEASIBLE, "min\n-x1\nx1 <= 2.5"]
+    def files = texts.collect { text ->
+      def file = File.createTempFile("batch", ".lp")
+      file.text = text
+      file
+    } + [new File("missing.lp")]
+    def batch = new BatchSolver(2, { new LPSolver() })
+    when:
+    def results = batch.readAndSolveAll(files, sparse)
+    then:
+    results[0].solution.objectiveValue == 4
+    results[1].exception instanceof LPException
+    results[2].solution.objectiveValue == -2.5
+    results[3].exception instanceof IllegalArgumentException
+    cleanup:
+    batch.close()
+    files*.delete()
+    where:
+    sparse << [false, true]
+  }
+
+  def "stream results are consumed on the calling thread as they complete"() {
+    given:
+    def expected = programs(30).collect { new LPSolver().solve(it) }
+    def batch = new BatchSolver(3, { new LPSolver() })
+    def results = []
+    def threads = [] as Set
+    when:
+    batch.solveAll(programs(30).stream(), { result ->
+      results << result
+      threads << Thread.currentThread()
+    })
+    then:
+    results.size() == 30
+    results.sort { it.index }*.solution*.objectiveValue == expected
+    threads == [Thread.currentThread()] as Set
+    cleanup:
+    batch.close()
+  }
+
+  def "every worker gets its own solver"() {
+    given:
+    def solvers = Collections.synchronizedList([])
+    def batch = new BatchSolver(3, {
+      def solver = new LPSolver()
+      solver.setPricingRule(new DevexPricing())
+      solvers << solver
+      solver
+    })
+    when:
+    def results = batch.solveAll(programs(60))
+    batch.close()
+    then:
+    batch.awaitTermination(10, TimeUnit.SECONDS)
+    results.every { it.solved }
+    solvers.size() in 1..3
+    solvers*.pricingRule.toSet().size() == solvers.size()
+  }
+
+  def "workers may share one solver"() {
+    given:
+    def expected = programs(40).collect { new LPSolver().solve(it) }
+    def solver = new LPSolver()
+    solver.setPricingRule(new DevexPricing())
+    def batch = new BatchSolver(4, { solver })
+    when:
+    def results = batch.solveAll(programs(40))
+    then:
+    results*.solution*.objectiveValue == expected
+    cleanup:
+    batch.close()
+  }
+}
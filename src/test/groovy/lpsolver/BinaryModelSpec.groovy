@@ -0,0 +1,113 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.file.Files
+
+class BinaryModelSpec extends Specification {
+  File file
+
+  def setup() {
+    file = File.createTempFile("binary-model", ".lpb")
+  }
+
+  def cleanup() {
+    file.delete()
+  }
+
+  @Unroll
+  def "written program is read back, sparse #sparse"() {
+    given:
+    def lp = "max\n3x1 + 2.5x2 - x3\nx1 + x2 + x3 <= 10\n2x1 - x3 >= -4\nx2 + x3 = 3\nbounds\n-1 <= x1 <= 4\nx3 <= 2"
+    def form = new LPInputReader(sparse).readLP(lp)
+    when:
+    BinaryModel.write(form, file)
+    def read = BinaryModel.read(file)
+    then:
+    read.isSparse() == sparse
+    read.maximize
+    read.variables == form.variables
+    read.coefficients == form.coefficients
+    read.toDense().A*.toList()*.collect { it.stripTrailingZeros() } ==
+        form.toDense().A*.toList()*.collect { it.stripTrailingZeros() }
+    read.b*.stripTrailingZeros() == form.b*.stripTrailingZeros()
+    read.c*.stripTrailingZeros() == form.c*.stripTrailingZeros()
+    (0..<3).every { read.isEquality(it) == form.isEquality(it) }
+    (0..<3).every { read.getLowerBound(it) == form.getLowerBound(it) }
+    (0..<3).every { read.getUpperBound(it) == form.getUpperBound(it) }
+    new LPSolver().solve(read) == new LPSolver().solve(form)
+    where:
+    sparse << [false, true]
+  }
+
+  def "bounds and equalities of a generated program are read back"() {
+    given:
+    def form = new LPGenerator(3).maxFlow(12, 3)
+    when:
+    BinaryModel.write(form, file)
+    def read = BinaryModel.read(file)
+    then:
+    read.equalities == form.equalities
+    read.upper*.stripTrailingZeros() == form.upper*.stripTrailingZeros()
+    new LPSolver().solve(read) == new LPSolver().solve(form)
+  }
+
+  def "generated program without names is read back"() {
+    given:
+    def form = new LPGenerator(7).random(50, 80, 0.1)
+    form.variables = null
+    form.coefficients = null
+    when:
+    BinaryModel.write(form, file)
+    def read = BinaryModel.read(file)
+    then:
+    !read.hasVariableNames()
+    read.sparseA.rowStart == form.sparseA.rowStart
+    read.sparseA.columnIndexes == form.sparseA.columnIndexes
+    read.sparseA.values == form.sparseA.values
+    read.equalities == null
+    read.lower == null
+  }
+
+  static void header(byte[] bytes, int offset, int value) {
+    ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value)
+  }
+
+  @Unroll
+  def "#error is reported"() {
+    given:
+    def form = new LPInputReader(true).readLP("max\nx1 + x2\nx1 + 2x2 <= 4\nx2 <= 3")
+    BinaryModel.write(form, file)
+    def bytes = Files.readAllBytes(file.toPath())
+    corrupt(bytes)
+    Files.write(file.toPath(), bytes)
+    when:
+    BinaryModel.read(file)
+    then:
+    def e = thrown(LPException)
+    e.message.contains(error)
+    where:
+    corrupt                                 || error
+    { byte[] data -> data[0] = 0 }          || "is not a binary program"
+    { byte[] data -> header(data, 4, 2) }   || "Unsupported binary program version 2"
+    { byte[] data -> header(data, 20, 9) }  || "Corrupted row pointers"
+    { byte[] data -> header(data, 36, 4) }  || "Corrupted row pointers"
+    { byte[] data -> header(data, 48, 2) }  || "Corrupted column indexes"
+    { byte[] data -> header(data, 52, -1) } || "Corrupted column indexes"
+  }
+
+  def "truncated file is reported"() {
+    given:
+    BinaryModel.write(new LPInputReader(true).readLP("max\nx1 + x2\nx1 + 2x2 <= 4"), file)
+    def bytes = Files.readAllBytes(file.toPath())
+    Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 20))
+    when:
+    BinaryModel.read(file)
+    then:
+    def e = thrown(LPException)
+    e.message == "Binary program is truncated"
+  }
+}
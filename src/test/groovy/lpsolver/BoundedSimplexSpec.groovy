@@ -0,0 +1,88 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class BoundedSimplexSpec extends Specification {
+
+  @Unroll
+  def "upper bounds are reached by bound flips, backend #backend"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    def form = new LPInputReader().readLP("max\n3x1 + 2x2\nx1 + x2 <= 10\nbounds\nx1 <= 4\nx2 <= 3")
+    when:
+    def solution = solver.optimize(form)
+    then: "bounds are not rows of the dictionary"
+    form.m == 1
+    solution.objectiveValue == 18
+    solution.values == [x1: 4, x2: 3]
+    solution.reducedCosts == [x1: 3, x2: 2]
+    solution.getSlack(0) == 3
+    solution.statistics.boundFlips == 2
+    solution.statistics.phase2Iterations == 0
+    where:
+    backend << NumericBackend.values()
+  }
+
+  @Unroll
+  def "equality rows and negative lower bounds, backend #backend, method #method"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    solver.setMethod(method)
+    def lp = "min\nx1 + 3x2 - x3\nx1 + x2 == 4\nx1 + x3 <= 2\nbounds\nx1 <= 3\n-1 <= x3 <= 5"
+    when:
+    def solution = solver.optimize(new LPInputReader().readLP(lp))
+    then: "x1 stays at its upper bound and x3 at its lower bound"
+    solution.objectiveValue == 7
+    solution.values == [x1: 3, x2: 1, x3: -1]
+    solution.reducedCosts == [x1: -1, x2: 0, x3: 0]
+    solution.duals == [3, -1] as BigDecimal[]
+    solution.slacks == [0, 0] as BigDecimal[]
+    where:
+    [backend, method] << [NumericBackend.values(), SimplexMethod.values()].combinations()
+  }
+
+  def "equality that cannot be met within the bounds is infeasible"() {
+    given:
+    def solver = new LPSolver()
+    when:
+    solver.solve(new LPInputReader().readLP("max\nx1\nx1 + x2 == 10\nbounds\nx1 <= 2\nx2 <= 3"))
+    then:
+    thrown(LPException)
+  }
+
+  @Unroll
+  def "presolve keeps bounds and equalities, backend #backend"() {
+    given:
+    def lp = "max\n2x1 + x2 + 3x3\nx1 + x2 + x3 == 6\nx1 - x2 <= 3\nx3 <= 10\nbounds\nx1 <= 2\n1 <= x3 <= 3"
+    def plain = new LPSolver()
+    def presolved = new LPSolver()
+    plain.setBackend(backend)
+    presolved.setBackend(backend)
+    presolved.setPresolve(true)
+    when:
+    def expected = plain.optimize(new LPInputReader().readLP(lp))
+    def solution = presolved.optimize(new LPInputReader().readLP(lp))
+    then:
+    expected.objectiveValue == 14
+    solution.objectiveValue == expected.objectiveValue
+    solution.values == expected.values
+    solution.reducedCosts == expected.reducedCosts
+    solution.duals == expected.duals
+    solution.slacks == expected.slacks
+    solution.statistics.presolveRemovedRows == 2
+    where:
+    backend << NumericBackend.values()
+  }
+
+  def "generated max flow has capacities as bounds"() {
+    given:
+    def form = new LPGenerator(7).maxFlow(6, 2)
+    expect:
+    form.m == 4
+    form.hasEqualities()
+    form.hasBounds()
+  }
+}
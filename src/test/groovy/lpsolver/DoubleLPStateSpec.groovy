@@ -0,0 +1,116 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class DoubleLPStateSpec extends Specification {
+
+  @Unroll
+  def "test of getEntering method"() {
+    given:
+    def state = new DoubleLPState(new double[0], new double[0], c as double[], 0, c.size())
+    expect:
+    state.getEntering() == entering
+    where:
+    c               || entering
+    [1, 2, 3]       || 0
+    [0, 1, 2]       || 1
+    [0, 0, 0, 0, 1] || 4
+    [-1, -1, -1, 3] || 3
+    [1e-10, 0, 4]   || 2
+  }
+
+  @Unroll
+  def "test getting of leaving variable"() {
+    given:
+    double[] A = [1, -1, 0, -1, 2, -2, 0.1, -1, 3, -2, 0, -4, 4, 1, 0, 0.1]
+    double[] b = [1, 2, 3, 4]
+    def state = new DoubleLPState(A, b, new double[4], 4, 4)
+    expect:
+    state.getLeaving(entering as int) == value
+    where:
+    entering || value
+    0        || 0
+    1        || 3
+    2        || 1
+    3        || 3
+  }
+
+  @Unroll
+  def "test pivot"() {
+    given:
+    double[] A = [1, 2, 4, 4]
+    double[] b = [2, 4]
+    double[] c = [4, 2]
+    HashMap<Integer, String> variables = [0: "x1", 1: "x2", 2: "x3", 3: "x4"]
+    HashMap<String, Integer> coefficients = [x1: 0, x2: 1, x3: 2, x4: 3]
+    def state = new DoubleLPState(A, b, c, variables, coefficients, 2, 2)
+    when:
+    state.pivot(entering, leaving)
+    then:
+    state.A == resA as double[]
+    state.b == resB as double[]
+    state.c == resC as double[]
+    state.v == resV
+    state.variables == resVariables
+    where:
+    leaving | entering || resA                || resB    || resC      || resV
+    0       | 0        || [1, 2, -4, -4]      || [2, -4] || [-4, -6]  || 8
+    0       | 1        || [0.5, 0.5, 2, -2]   || [1, 0]  || [3, -1]   || 2
+    1       | 0        || [-0.25, 1, 0.25, 1] || [1, 1]  || [-1, -2]  || 4
+    1       | 1        || [-1, -0.5, 1, 0.25] || [0, 1]  || [2, -0.5] || 2
+
+    resVariables << [[0: "x3", 1: "x2", 2: "x1", 3: "x4"], [0: "x1", 1: "x3", 2: "x2", 3: "x4"],
+                     [0: "x4", 1: "x2", 2: "x3", 3: "x1"], [0: "x1", 1: "x4", 2: "x3", 3: "x2"]]
+  }
+
+  def "concurrent pivot agrees with sequential pivot"() {
+    given:
+    def random = new Random(3)
+    int m = 500, n = 120
+    double[] A = (0..<m * n).collect { random.nextInt(21) - 10 } as double[]
+    A[11 * n + 5] = 4
+    double[] b = (0..<m).collect { random.nextInt(50) } as double[]
+    double[] c = (0..<n).collect { random.nextInt(9) } as double[]
+    def sequential = new DoubleLPState(
+        Arrays.copyOf(A, A.length), Arrays.copyOf(b, b.length), Arrays.copyOf(c, c.length), m, n)
+    def concurrent = new DoubleLPState(A, b, c, m, n)
+    when:
+    sequential.pivotSequentially(5, 11)
+    concurrent.pivotConcurrently(5, 11)
+    then:
+    concurrent.A == sequential.A
+    concurrent.b == sequential.b
+    concurrent.c == sequential.c
+    concurrent.v == sequential.v
+  }
+
+  def "solving with double backend"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(NumericBackend.DOUBLE)
+    def form = new LPStandardForm(A as BigDecimal[][], b as BigDecimal[], c as BigDecimal[], b.size(), c.size(),
+        maximize)
+    expect:
+    solver.solve(form) == answer
+    where:
+    A                                  | b                | c       | maximize || answer
+    [[4, -1], [2, 1], [-5, 2]]         | [8, 10, 2]       | [1, 1]  | true     || 8
+    [[1, -4], [1, -1], [1, 1]]         | [0, 3, 11]       | [-3, 1] | false    || -17
+    [[1, 0], [-1, 0], [0, 1], [0, -1]] | [10, -2, 10, -2] | [1, 1]  | true     || 20
+  }
+
+  def "infeasible lp with double backend"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(NumericBackend.DOUBLE)
+    BigDecimal[][] A = [[1], [-1]]
+    BigDecimal[] b = [0, -1]
+    BigDecimal[] c = [1]
+    when:
+    solver.solve(new LPStandardForm(A, b, c, 2, 1, true))
+    then:
+    def e = thrown(LPException)
+    e.getMessage() == "This linear program is infeasible"
+  }
+}
@@ -0,0 +1,93 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class DualSimplexSpec extends Specification {
+
+  def "dual pricing chooses the most negative basic variable"() {
+    given:
+    def state = new DoubleLPState(new double[6], [-1, 2, -3] as double[], [-1, -1] as double[], 3, 2)
+    def dual = new DualSimplex()
+    expect:
+    dual.getLeaving(state, false) == 2
+    dual.getLeaving(state, true) == 0
+  }
+
+  def "dual ratio test keeps objective coefficients non-positive"() {
+    given:
+    double[] A = [-1, -2, 1, -4]
+    def state = new DoubleLPState(A, [-1] as double[], [-3, -4, -1, -4] as double[], 1, 4)
+    def dual = new DualSimplex()
+    expect: "ratios are 3, 2, - and 1"
+    dual.getEntering(state, 0, false) == 3
+    when:
+    state.pivot(3, 0)
+    then:
+    (0..<4).every { state.getReducedCost(it) <= 0 }
+    state.getRhs(0) == 0.25d
+  }
+
+  def "infeasible row has no entering variable"() {
+    given:
+    def state = new DoubleLPState([1, 2] as double[], [-1] as double[], [-1, -1] as double[], 1, 2)
+    expect:
+    new DualSimplex().getEntering(state, 0, false) == -1
+  }
+
+  @Unroll
+  def "dual simplex solves dual feasible program, backend #backend"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    solver.setMethod(SimplexMethod.DUAL)
+    when:
+    def first = solver.optimize(new LPInputReader().readLP("min\n6x1 + 5x2\n4x1 + x2 <= 3\n5x1 + 3x2 >= 1"))
+    def second = solver.optimize(new LPInputReader().readLP(
+        "min\n2x1 + 3x2 + 4x3\nx1 + x2 + x3 >= 6\nx1 - x3 >= 1\nx2 + x3 >= 2"))
+    then:
+    first.objectiveValue == 1.2
+    second.objectiveValue == 14
+    first.statistics.phase2Iterations == 0
+    second.statistics.phase2Iterations == 0
+    where:
+    backend << NumericBackend.values()
+  }
+
+  def "program that is not dual feasible is solved by primal simplex"() {
+    given:
+    def solver = new LPSolver()
+    solver.setMethod(SimplexMethod.DUAL)
+    expect:
+    solver.solve(new LPInputReader().readLP("max\nx1 + x2\nx1 <= 10\nx1 >= 2\nx2 <= 10\nx2 >= 2")) == 20
+  }
+
+  def "infeasibility is detected by dual simplex"() {
+    given:
+    def solver = new LPSolver()
+    solver.setMethod(SimplexMethod.DUAL)
+    when:
+    solver.solve(new LPInputReader().readLP("min\nx1 + x2\nx1 + x2 >= 5\nx1 <= 1\nx2 <= 1"))
+    then:
+    thrown(SolutionException)
+  }
+
+  @Unroll
+  def "tightened right-hand side is reoptimized by dual simplex, backend #backend"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    def lp = "min\n2x1 + 3x2 + 4x3\nx1 + x2 + x3 >= 6\nx1 - x3 >= 1\nx2 + x3 >= 2"
+    def basis = solver.optimize(new LPInputReader().readLP(lp)).basis
+    when:
+    def solution = solver.optimize(new LPInputReader().readLP(lp.replace(">= 2", ">= 7")), basis)
+    then: "the previous basis gives x1 = -1"
+    solution.objectiveValue == 23
+    solution.values == [x1: 1, x2: 7, x3: 0]
+    solution.statistics.warmStartIterations > 0
+    solution.statistics.phase1Iterations == 1
+    solution.statistics.phase2Iterations == 0
+    where:
+    backend << NumericBackend.values()
+  }
+}
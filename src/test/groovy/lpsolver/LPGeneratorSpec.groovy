@@ -0,0 +1,96 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class LPGeneratorSpec extends Specification {
+
+  def text(LPStandardForm form) {
+    def out = new StringWriter()
+    LPGenerator.write(form, out)
+    out.toString()
+  }
+
+  def "same seed gives the same program"() {
+    expect:
+    text(new LPGenerator(7).random(30, 40, 0.2)) == text(new LPGenerator(7).random(30, 40, 0.2))
+    text(new LPGenerator(7).random(30, 40, 0.2)) != text(new LPGenerator(8).random(30, 40, 0.2))
+  }
+
+  @Unroll
+  def "#family program of size #form.m x #form.n is solved consistently by all backends"() {
+    given:
+    def answers = NumericBackend.values().collect { backend ->
+      def solver = new LPSolver()
+      solver.setBackend(backend)
+      solver.setPricingRule(new DantzigPricing())
+      try {
+        solver.solve(new LPInputReader(true).readLP(text(form))).setScale(4, BigDecimal.ROUND_HALF_UP).toString()
+      } catch (LPException e) {
+        e.message
+      }
+    }
+    expect:
+    answers.unique().size() == 1
+    answers[0] ==~ outcome
+    where:
+    family           | form                                      || outcome
+    "random"         | new LPGenerator(1).random(30, 40, 0.1)    || /\d+\.\d{4}/
+    "dense"          | new LPGenerator(1).dense(10, 15)          || /\d+\.\d{4}/
+    "degenerate"     | new LPGenerator(1).degenerate(30, 40, 0.2) || /\d+\.\d{4}/
+    "infeasible"     | new LPGenerator(1).infeasible(20, 20, 0.2) || "This linear program is infeasible"
+    "unbounded"      | new LPGenerator(1).unbounded(20, 20, 0.2)  || "This linear program is unbounded"
+    "assignment"     | new LPGenerator(1).assignment(5)          || /\d+\.0000/
+    "transportation" | new LPGenerator(1).transportation(4, 6)   || /\d+\.0000/
+    "max flow"       | new LPGenerator(1).maxFlow(20, 3)         || /\d+\.0000/
+  }
+
+  def "written program is read back unchanged"() {
+    given:
+    def form = new LPGenerator(3).random(12, 9, 0.3)
+    when:
+    def read = new LPInputReader(true).readLP(text(form))
+    then:
+    read.sparseA.toDense() == form.sparseA.toDense()
+    read.b == form.b
+    read.c == form.c
+    read.maximize == form.maximize
+    read.variables == form.variables
+  }
+
+  def "written bounds are read back unchanged"() {
+    given:
+    def form = new LPGenerator(3).random(6, 5, 0.5)
+    form.setBounds(0, 2, null)
+    form.setBounds(1, -1.5, null)
+    form.setBounds(2, 0, 4)
+    form.setBounds(3, -1, 2.5)
+    when:
+    def read = new LPInputReader(true).readLP(text(form))
+    then:
+    (0..<5).every { read.getLowerBound(it) == form.getLowerBound(it) }
+    (0..<5).every { read.getUpperBound(it) == form.getUpperBound(it) }
+    read.sparseA.toDense() == form.sparseA.toDense()
+  }
+
+  def "sparse rows do not depend on the number of columns"() {
+    when:
+    def form = new LPGenerator(5).random(1000, 1000000, 0.00001)
+    then:
+    form.isSparse()
+    form.sparseA.getNonZeros() < 1000 * 30 + 1000000
+  }
+
+  def "optimum of assignment program is integral and every worker gets one job"() {
+    given:
+    def form = new LPGenerator(11).assignment(4)
+    def costs = form.c.collect { it }
+    def solver = new LPSolver()
+    solver.setBackend(NumericBackend.DOUBLE)
+    when:
+    def optimum = solver.solve(form)
+    def best = [0, 1, 2, 3].permutations().collect { p -> (0..3).sum { i -> costs[i * 4 + p[i]] } }.min()
+    then:
+    optimum == best
+  }
+}
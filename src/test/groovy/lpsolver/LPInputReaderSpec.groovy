@@ -2,6 +2,8 @@ package lpsolver
 
 import spock.lang.Specification
 
+import java.nio.channels.Channels
+
 class LPInputReaderSpec extends Specification {
 
   def "Simple lp reading test"() {
@@ -30,9 +32,8 @@ class LPInputReaderSpec extends Specification {
           6.338203729*x1   +   0.732932323x2 >=  9    
      -   102333.233232x1 + 2332.33214*x2 ==   13    
       11x1  -  x2   =  -   5435377467645646394439874397439347934734   """
-    BigDecimal[][] A = [[-6.338203729, -0.732932323], [-102333.233232, 2332.33214], [102333.233232, -2332.33214],
-                        [11, -1], [-11, 1]]
-    BigDecimal[] b = [-9, 13, -13, -5435377467645646394439874397439347934734, 5435377467645646394439874397439347934734]
+    BigDecimal[][] A = [[-6.338203729, -0.732932323], [-102333.233232, 2332.33214], [11, -1]]
+    BigDecimal[] b = [-9, 13, -5435377467645646394439874397439347934734]
     BigDecimal[] c = [782343246437439743943794343944324324324, 5273392392323.238324379948439874973439732242]
     HashMap<Integer, String> variables = [0: "x1", 1: "x2"]
     HashMap<String, Integer> coefficients = [x1: 0, x2: 1]
@@ -44,10 +45,119 @@ class LPInputReaderSpec extends Specification {
     form.c == c
     form.variables == variables
     form.coefficients == coefficients
-    form.m == 5
+    form.m == 3
     form.n == 2
+    !form.isEquality(0)
+    form.isEquality(1)
+    form.isEquality(2)
     !form.maximize
   }
 
+  def "Sparse lp reading"() {
+    def lp = "max\nx1 + 2x3\nx1 + x2 >= 1\nx3 + 4x4 == 2"
+    def reader = new LPInputReader(true)
+    def form = reader.readLP(lp)
+    expect:
+    form.isSparse()
+    form.A == null
+    form.m == 2
+    form.n == 4
+    form.sparseA.nonZeros == 4
+    form.sparseA.toDense() == [[-1, 0, -1, 0], [0, 1, 0, 4]] as BigDecimal[][]
+    form.b == [-1, 2] as BigDecimal[]
+    form.isEquality(1)
+    form.c == [1, 2, 0, 0] as BigDecimal[]
+  }
 
+  def "Bounds reading"() {
+    def lp = "max\nx1 + x2 + x3 + x4\nx1 + x2 + x3 + x4 <= 10\nbounds\nx1 <= 2\n-1 <= x2 <= 3\nx3 = 4\nx4 >= 1"
+    def form = new LPInputReader().readLP(lp)
+    expect:
+    form.m == 1
+    form.getLowerBound(0) == 0
+    form.getUpperBound(0) == 2
+    form.getLowerBound(1) == -1
+    form.getUpperBound(1) == 3
+    form.getLowerBound(2) == 4
+    form.getUpperBound(2) == 4
+    form.getLowerBound(3) == 1
+    form.getUpperBound(3) == null
+  }
+
+  def "Bounds reading with lower bound exceeding upper bound"() {
+    def lp = "max\nx1\nx1 <= 10\nbounds\n3 <= x1 <= 2"
+    when:
+    new LPInputReader().readLP(lp)
+    then:
+    thrown(LPException)
+  }
+
+  def "File reading matches string and byte reading"() {
+    given:
+    def lp = "min\r\n0.1x1 + 2y\r\n3.25x1 - 0.7*y >= 1.5\r\n x1 + y + z12 = 4\r\n\r\nignored after blank line"
+    def file = File.createTempFile("reader", ".lp")
+    file.deleteOnExit()
+    file.text = lp
+    when:
+    def fromFile = new LPInputReader(true).readLP(file)
+    def fromString = new LPInputReader(true).readLP(lp)
+    def fromBytes = new LPInputReader(true).readLP(lp.getBytes("UTF-8"))
+    then:
+    fromFile.m == 2
+    fromFile.n == 3
+    fromFile.variables == [0: "x1", 1: "y", 2: "z12"]
+    fromFile.sparseA.toDense()*.toList() == fromString.sparseA.toDense()*.toList()
+    fromFile.sparseA.toDense()*.toList() == fromBytes.sparseA.toDense()*.toList()
+    fromBytes.variables == fromFile.variables
+    fromBytes.b == fromFile.b
+    fromFile.sparseA.values as List == [-3.25d, 0.7d, 1d, 1d, 1d]
+    fromFile.b == [-1.5, 4] as BigDecimal[]
+    fromFile.c == [0.1, 2, 0] as BigDecimal[]
+    fromFile.isEquality(1)
+  }
+
+  def "Lines longer than the read buffer are split across reads"() {
+    given:
+    def lp = "max\n" + (1..50).collect { "${it}.5x$it" }.join(" + ") + "\n" + (1..50).collect { "x$it" }.join(" + ") + " <= 7\n"
+    def tokenizer = new LPTokenizer(Channels.newChannel(new ByteArrayInputStream(lp.bytes)), 7)
+    when:
+    def lines = []
+    while (tokenizer.nextLine()) {
+      lines << tokenizer.getLine()
+    }
+    then:
+    lines == lp.split("\n") as List
+    tokenizer.getLineNumber() == 3
+  }
+
+  def "Errors report the line"() {
+    when:
+    new LPInputReader().readLP("max\nx1 + x2\nx1 + x2 <= 4\nx1 + <= 2")
+    then:
+    def e = thrown(LPException)
+    e.message == "Can't recognize constraint at line 4"
+  }
+
+  def "One reader reads files from many threads"() {
+    given:
+    def reader = new LPInputReader(true)
+    def files = (0..<20).collect { seed ->
+      def file = File.createTempFile("reader", ".lp")
+      file.deleteOnExit()
+      file.withWriter { LPGenerator.write(new LPGenerator(seed).random(10, 15, 0.4), it) }
+      file
+    }
+    def expected = files.collect { reader.readLP(it).sparseA.toDense()*.toList() }
+    when:
+    def results = Collections.synchronizedList([])
+    def threads = (0..<4).collect {
+      Thread.start {
+        results << files.collect { reader.readLP(it).sparseA.toDense()*.toList() }
+      }
+    }
+    threads*.join()
+    then:
+    results.size() == 4
+    results.every { it == expected }
+  }
 }
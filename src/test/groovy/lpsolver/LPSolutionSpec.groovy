@@ -0,0 +1,70 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class LPSolutionSpec extends Specification {
+
+  @Unroll
+  def "primal and dual solution of maximization problem, backend #backend"() {
+    given:
+    def form = new LPInputReader().readLP("max\n3x1 + 5x2\nx1 <= 4\n2x2 <= 12\n3x1 + 2x2 <= 18")
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    when:
+    def solution = solver.optimize(form)
+    then:
+    solution.objectiveValue == 36
+    solution.values == [x1: 2, x2: 6]
+    solution.reducedCosts == [x1: 0, x2: 0]
+    solution.duals as List == [0, 1.5, 1]
+    solution.slacks as List == [2, 0, 0]
+    solution.basis as Set == ["x1", "x2", "x3"] as Set
+    where:
+    backend << NumericBackend.values()
+  }
+
+  @Unroll
+  def "duals and reduced costs follow the sense of minimization problem, backend #backend"() {
+    given:
+    def form = new LPInputReader().readLP("min\n6x1 + 5x2\n4x1 + x2 <= 3\n5x1 + 3x2 >= 1")
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    when:
+    def solution = solver.optimize(form)
+    then: "phase 1 was needed, the solution is read from the restored dictionary"
+    solution.statistics.phase1Iterations > 0
+    solution.objectiveValue == 1.2
+    solution.values == [x1: 0.2, x2: 0]
+    solution.reducedCosts == [x1: 0, x2: 1.4]
+    solution.duals as List == [0, -1.2]
+    solution.slacks as List == [2.2, 0]
+    solution.basis as Set == ["x1", "x3"] as Set
+    where:
+    backend << NumericBackend.values()
+  }
+
+  def "strong duality holds for generated program"() {
+    given:
+    def form = new LPGenerator(11).random(15, 20, 0.4).toDense()
+    def b = form.b as List
+    when:
+    def solution = new LPSolver().optimize(form)
+    def dualObjective = [b, solution.duals as List].transpose().sum { bi, yi -> bi * yi }
+    then:
+    (solution.objectiveValue - dualObjective).abs() < 1e-4
+    solution.duals.every { it >= 0 }
+    solution.reducedCosts.values().every { it <= 0 }
+  }
+
+  def "unnamed program gets default names"() {
+    given:
+    def form = new LPStandardForm([[1, 1]] as BigDecimal[][], [4] as BigDecimal[],
+        [1, 2] as BigDecimal[], 1, 2, true)
+    when:
+    def solution = new LPSolver().optimize(form)
+    then:
+    solution.values == [x1: 0, x2: 4]
+    solution.basis == ["x2"]
+  }
+}
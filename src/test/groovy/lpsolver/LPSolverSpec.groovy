@@ -3,6 +3,9 @@ package lpsolver
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.math.MathContext
+import java.math.RoundingMode
+
 class LPSolverSpec extends Specification {
 
   @Unroll
@@ -191,4 +194,81 @@ class LPSolverSpec extends Specification {
     [[1, 1]]    | [-1]    | [1, 1] | 1 | 2
   }
 
-}
\ No newline at end of file
+  @Unroll
+  def "solving does not change the program, #backend"() {
+    given:
+    BigDecimal[][] A = [[1, -4], [1, -1], [1, 1]]
+    BigDecimal[] b = [0, 3, 11]
+    BigDecimal[] c = [-3, 1]
+    def form = new LPStandardForm(A, b, c, 3, 2, false)
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    when:
+    def first = solver.solve(form)
+    def second = solver.solve(form)
+    then:
+    first == -17
+    second == -17
+    form.A == [[1, -4], [1, -1], [1, 1]] as BigDecimal[][]
+    form.b == [0, 3, 11] as BigDecimal[]
+    form.c == [-3, 1] as BigDecimal[]
+    form.variables == null
+    form.coefficients == null
+    where:
+    backend << NumericBackend.values()
+  }
+
+  def "solving keeps names of the program"() {
+    given:
+    def form = new LPInputReader().readLP("min\n-x1 - x2\nx1 + 2x2 <= 4\nx1 - x2 >= -2")
+    def variables = new HashMap(form.variables)
+    def coefficients = new HashMap(form.coefficients)
+    when:
+    new LPSolver().solve(form)
+    then:
+    form.variables == variables
+    form.coefficients == coefficients
+  }
+
+  def "one solver solves programs from many threads"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(NumericBackend.DOUBLE)
+    solver.setPricingRule(new DevexPricing())
+    solver.setRatioTest(new HarrisRatioTest())
+    def forms = (0..<40).collect { new LPGenerator(it).random(20, 30, 0.3) }
+    def expected = forms.collect { form ->
+      try {
+        solver.solve(form)
+      } catch (LPException e) {
+        e.message
+      }
+    }
+    def pool = java.util.concurrent.Executors.newFixedThreadPool(4)
+    when:
+    def futures = (0..<4).collect {
+      pool.submit({
+        forms.collect { form ->
+          try {
+            solver.solve(form)
+          } catch (LPException e) {
+            e.message
+          }
+        }
+      } as java.util.concurrent.Callable)
+    }
+    then:
+    futures.every { it.get() == expected }
+    cleanup:
+    pool.shutdown()
+  }
+
+  def "big decimal dictionary is rounded with the rounder of the solver"() {
+    given:
+    def lp = "max\nx1\n3x1 <= 1\n"
+    def coarse = new LPSolver(LPState.DEF_PRINT_ROUNDER, new MathContext(2, RoundingMode.HALF_UP))
+    expect:
+    coarse.solve(new LPInputReader().readLP(lp)) == 0.33
+    new LPSolver().solve(new LPInputReader().readLP(lp)) == 0.333333
+  }
+}
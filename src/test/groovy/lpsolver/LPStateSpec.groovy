@@ -164,19 +164,19 @@ class LPStateSpec extends Specification {
 
   def "test concurrent pivot invocation"() {
     given:
-    int threshold = LPState.PARALLEL_THRESHOLD
-    System.out.println(threshold)
-    BigDecimal[][] A = new BigDecimal[threshold][threshold]
-    BigDecimal[] b = new BigDecimal[threshold]
-    BigDecimal[] c = new BigDecimal[threshold]
-    Arrays.fill(A, Collections.nCopies(threshold, BigDecimal.ONE) as BigDecimal[])
+    int n = 100
+    int m = LPState.PARALLEL_THRESHOLD.intdiv(n)
+    BigDecimal[][] A = new BigDecimal[m][]
+    BigDecimal[] b = new BigDecimal[m]
+    BigDecimal[] c = new BigDecimal[n]
+    for (int i = 0; i < m; i++) {
+      A[i] = Collections.nCopies(n, BigDecimal.ONE) as BigDecimal[]
+    }
     Arrays.fill(b, BigDecimal.ONE)
     Arrays.fill(c, BigDecimal.ONE)
-    HashMap<Integer, String> variables = [0: "x1", (threshold): "x" + threshold]
-    HashMap<String, Integer> coefficients = [x1: 0, ("x" + threshold): threshold]
-    System.out.println(variables)
-    System.out.println(coefficients)
-    def state = Spy(LPState, constructorArgs: [A, b, c, variables, coefficients, threshold, threshold])
+    HashMap<Integer, String> variables = [0: "x1", (n): "x" + (n + 1)]
+    HashMap<String, Integer> coefficients = [x1: 0, ("x" + (n + 1)): n]
+    def state = Spy(LPState, constructorArgs: [A, b, c, variables, coefficients, m, n])
     when:
     state.pivot(0, 0)
     then:
@@ -184,6 +184,33 @@ class LPStateSpec extends Specification {
     1 * state.pivotConcurrently(0, 0)
   }
 
+  def "concurrent pivot agrees with sequential pivot"() {
+    given:
+    def random = new Random(17)
+    int m = 300, n = 80
+    BigDecimal[][] A = new BigDecimal[m][n]
+    for (int i = 0; i < m; i++) {
+      for (int j = 0; j < n; j++) {
+        A[i][j] = BigDecimal.valueOf(random.nextInt(21) - 10)
+      }
+    }
+    A[7][3] = BigDecimal.valueOf(3)
+    BigDecimal[] b = (0..<m).collect { BigDecimal.valueOf(random.nextInt(50)) }
+    BigDecimal[] c = (0..<n).collect { BigDecimal.valueOf(random.nextInt(9)) }
+    BigDecimal[][] copyOfA = A.collect { Arrays.copyOf(it, it.length) }
+    def sequential =
+        new LPState(copyOfA, Arrays.copyOf(b, b.length), Arrays.copyOf(c, c.length), m, n)
+    def concurrent = new LPState(A, b, c, m, n)
+    when:
+    sequential.pivotSequentially(3, 7)
+    concurrent.pivotConcurrently(3, 7)
+    then:
+    concurrent.A == sequential.A
+    concurrent.b == sequential.b
+    concurrent.c == sequential.c
+    concurrent.v == sequential.v
+  }
+
   def "test sequential pivot invocation"() {
     given:
     BigDecimal[][] A = [[1]]
@@ -0,0 +1,123 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class MPSSpec extends Specification {
+  static final String MPS = """\
+NAME          TESTLP
+ROWS
+ N  COST
+ L  LIM1
+ G  LIM2
+ E  MYEQN
+ N  OTHER
+ L  RNG
+COLUMNS
+    MARKER    'MARKER'                 'INTORG'
+    X1        COST      1.0            LIM1      1.0
+    X1        LIM2      1.0            OTHER     7
+    MARKER    'MARKER'                 'INTEND'
+    X2        COST      2.0            LIM1      1.0
+    X2        MYEQN     -1.0           RNG       1
+    X3        COST      -1.0           MYEQN     1.0
+    X3        RNG       1
+RHS
+    RHS       COST      10             LIM1      4.0
+    RHS       LIM2      1.0            MYEQN     -3.0
+    RHS       RNG       -2
+RANGES
+    RNG       RNG       2
+BOUNDS
+ UP BND       X1        4.0
+ MI BND       X2
+ UP BND       X2        1.0
+ UP BND       X3        -1
+ENDATA
+"""
+
+  @Unroll
+  def "ranges, free variables and integrality markers are read, #format, sparse #sparse"() {
+    given:
+    def form = new MPSReader(format, sparse).readMPS(MPS)
+    when:
+    def solution = new LPSolver().optimize(form)
+    then: "G row is negated, the ranged row is an equality with a range variable"
+    form.m == 4
+    form.variables == [0: "X1", 1: "X2", 2: "X3", 3: "X2_neg", 4: "X3_neg", 5: "RNG_range"]
+    (0..<4).collect { form.isEquality(it) } == [false, false, true, true]
+    form.b == [4, -1, -3, -4] as BigDecimal[]
+    form.getUpperBound(5) == 2
+    form.getLowerBound(4) == 1
+    !form.maximize
+    solution.objectiveValue == 3.5
+    solution.values.X1 == 1
+    solution.values.X2 - solution.values.X2_neg == -0.5
+    solution.values.X3 - solution.values.X3_neg == -3.5
+    where:
+    [format, sparse] << [MPSFormat.values(), [false, true]].combinations()
+  }
+
+  @Unroll
+  def "written program is read back, #format"() {
+    given:
+    def lp = "max\n3x1 + 2.5x2 - x3\nx1 + x2 + x3 <= 10\n2x1 - x3 >= -4\nx2 + x3 = 3\nbounds\n-1 <= x1 <= 4\nx3 <= 2"
+    def form = new LPInputReader(true).readLP(lp)
+    def writer = new StringWriter()
+    when:
+    new MPSWriter(format).write(form, writer)
+    def read = new MPSReader(format, true).readMPS(writer.toString())
+    def fromBytes = new MPSReader(format, true).readMPS(writer.toString().getBytes("UTF-8"))
+    then:
+    read.maximize
+    read.variables == form.variables
+    read.sparseA.toDense()*.toList() == form.sparseA.toDense()*.toList()
+    read.b == form.b
+    read.c*.stripTrailingZeros() == form.c*.stripTrailingZeros()
+    (0..<3).every { read.isEquality(it) == form.isEquality(it) }
+    (0..<3).every { read.getLowerBound(it) == form.getLowerBound(it) }
+    (0..<3).every { read.getUpperBound(it) == form.getUpperBound(it) }
+    new LPSolver().solve(read) == new LPSolver().solve(form)
+    fromBytes.sparseA.toDense()*.toList() == read.sparseA.toDense()*.toList()
+    fromBytes.b == read.b
+    where:
+    format << MPSFormat.values()
+  }
+
+  def "integer bounds are read as continuous bounds"() {
+    given:
+    def mps = "ROWS\n N COST\n L R\nCOLUMNS\n X1 R 1\n X2 R 1\nRHS\n RHS R 10\n" +
+        "BOUNDS\n LI BND X1 2\n UI BND X1 5\n UI BND X2 3\nENDATA"
+    when:
+    def form = new MPSReader().readMPS(mps)
+    then:
+    form.getLowerBound(0) == 2
+    form.getUpperBound(0) == 5
+    form.getLowerBound(1) == 0
+    form.getUpperBound(1) == 3
+  }
+
+  @Unroll
+  def "#error is reported"() {
+    when:
+    new MPSReader().readMPS(mps)
+    then:
+    def e = thrown(LPException)
+    e.message == error
+    where:
+    mps                                                                    || error
+    "ROWS\n N COST\nCOLUMNS\n X1 LIM 1\nENDATA"                          || "Unknown row LIM at line 4"
+    "ROWS\n N COST\n L R\nCOLUMNS\n X1 R 1\n X2 R 1\n X1 COST 1"         || "Entries of column X1 are not contiguous at line 7"
+    "ROWS\n N COST\nSOS\n"                                               || "Unsupported section SOS at line 3"
+    "ROWS\n N COST\n L R\nCOLUMNS\n X1 R 1\nBOUNDS\n SC BND X1 1"        || "Unsupported bound type SC at line 7"
+  }
+
+  def "fixed format limits names to 8 characters"() {
+    given:
+    def form = new LPInputReader().readLP("max\nlongname1\nlongname1 <= 1")
+    when:
+    new MPSWriter(MPSFormat.FIXED).write(form, new StringWriter())
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
@@ -0,0 +1,117 @@
+package lpsolver
+
+import spock.lang.Specification
+
+class ModelCacheSpec extends Specification {
+  static final String LP = "max\n3x1 + 2x2\nx1 + x2 <= 4\nx1 - x2 <= 1\n"
+  List<File> files = []
+
+  File write(String text) {
+    def file = File.createTempFile("model-cache", ".lp")
+    file.text = text
+    files << file
+    file
+  }
+
+  def cleanup() {
+    files*.delete()
+  }
+
+  def "same contents are parsed once"() {
+    given:
+    def reads = 0
+    def reader = new LPInputReader() {
+      @Override
+      LPStandardForm readLP(File file) {
+        ++reads
+        super.readLP(file)
+      }
+    }
+    def cache = new ModelCache(reader, ModelCache.DEF_MAX_WEIGHT)
+    def first = write(LP)
+    def second = write(LP)
+    when:
+    def firstForm = cache.readLP(first)
+    def secondForm = cache.readLP(second)
+    then:
+    reads == 1
+    firstForm.is(secondForm)
+    cache.hits == 1
+    cache.misses == 1
+    cache.hitRate == 0.5d
+    cache.size() == 1
+    new LPSolver().solve(secondForm) == 10.5
+  }
+
+  def "different contents are cached apart"() {
+    given:
+    def cache = new ModelCache()
+    when:
+    def first = cache.readLP(write(LP))
+    def second = cache.readLP(write(LP.replace("3x1", "x1")))
+    then:
+    !first.is(second)
+    cache.misses == 2
+    cache.size() == 2
+    cache.weight == ModelCache.weight(first) + ModelCache.weight(second)
+  }
+
+  def "least recently used programs are evicted"() {
+    given:
+    def a = write(LP)
+    def b = write(LP.replace("3x1", "x1"))
+    def c = write(LP.replace("2x2", "x2"))
+    def weight = ModelCache.weight(new LPInputReader().readLP(a))
+    def cache = new ModelCache(new LPInputReader(), 2 * weight)
+    when:
+    def formA = cache.readLP(a)
+    cache.readLP(b)
+    cache.readLP(a)
+    cache.readLP(c)
+    then:
+    cache.size() == 2
+    cache.evictions == 1
+    cache.readLP(a).is(formA)
+    cache.hits == 2
+    when:
+    cache.readLP(b)
+    then:
+    cache.misses == 4
+  }
+
+  def "program heavier than the limit is not cached"() {
+    given:
+    def cache = new ModelCache(new LPInputReader(), 1)
+    def file = write(LP)
+    when:
+    cache.readLP(file)
+    cache.readLP(file)
+    then:
+    cache.size() == 0
+    cache.misses == 2
+    cache.weight == 0
+  }
+
+  def "malformed program is not cached"() {
+    given:
+    def cache = new ModelCache()
+    def file = write("max\n3x1 +\nx1 <= \n")
+    when:
+    cache.readLP(file)
+    then:
+    thrown(LPException)
+    cache.size() == 0
+  }
+
+  def "solving a cached program does not change it"() {
+    given:
+    def cache = new ModelCache(new LPInputReader(true), ModelCache.DEF_MAX_WEIGHT)
+    def file = write(LP.replace("max", "min"))
+    when:
+    def first = new LPSolver().solve(cache.readLP(file))
+    def second = new LPSolver().solve(cache.readLP(file))
+    then:
+    first == second
+    cache.hits == 1
+  }
+}
@@ -0,0 +1,67 @@
+package lpsolver
+
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicIntegerArray
+
+class PivotPoolSpec extends Specification {
+
+  def cleanup() {
+    PivotPool.setParallelism(PivotPool.DEF_PARALLELISM)
+    PivotPool.shutdown()
+  }
+
+  def "rows are covered by the blocks exactly once"() {
+    given:
+    def counts = new AtomicIntegerArray(1000)
+    when:
+    PivotPool.forEachRowBlock(1000, 16, { from, to ->
+      for (int i = from; i < to; i++) {
+        counts.incrementAndGet(i)
+      }
+    } as PivotPool.RowBlock)
+    then:
+    (0..<1000).every { counts.get(it) == 1 }
+  }
+
+  def "pivots running while the pool is shut down or resized are not rejected"() {
+    given:
+    def failures = Collections.synchronizedList([])
+    def running = true
+    def pivots = (0..<4).collect {
+      Thread.start {
+        while (running) {
+          try {
+            def counts = new AtomicIntegerArray(256)
+            PivotPool.forEachRowBlock(256, 8, { from, to ->
+              for (int i = from; i < to; i++) {
+                counts.incrementAndGet(i)
+              }
+            } as PivotPool.RowBlock)
+            if (!(0..<256).every { counts.get(it) == 1 }) {
+              failures << new AssertionError("Rows were skipped")
+            }
+          } catch (Throwable e) {
+            failures << e
+          }
+        }
+      }
+    }
+    when:
+    200.times { k ->
+      if (k % 2 == 0) {
+        PivotPool.shutdown()
+      } else {
+        PivotPool.setParallelism(2 + k % 3)
+      }
+      Thread.sleep(1)
+    }
+    running = false
+    pivots*.join()
+    PivotPool.shutdown()
+    then:
+    failures.isEmpty()
+    PivotPool.awaitTermination(10, TimeUnit.SECONDS)
+  }
+}
@@ -0,0 +1,170 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class PresolveSpec extends Specification {
+
+  def presolve(String lp) {
+    def form = new LPInputReader().readLP(lp)
+    def presolve = new Presolve(form, LPState.DEF_ROUNDER, LPState.DEF_EPSILON)
+    [presolve, presolve.presolve()]
+  }
+
+  def "singleton rows become bounds"() {
+    when:
+    def (presolve, reduced) = presolve(
+        "max\nx1 + x2\nx1 + 2x2 <= 10\nx1 >= 2\n3x2 <= 9\nx2 <= 5\nx1 <= 8")
+    then: "2 <= x1 <= 8 and x2 <= 3 are bounds of the reduced program"
+    presolve.removedRows == 4
+    reduced.m == 1
+    reduced.b as List == [10]
+    reduced.A*.toList() == [[1, 2]]
+    reduced.getLowerBound(0) == 2
+    reduced.getUpperBound(0) == 8
+    reduced.getLowerBound(1) == 0
+    reduced.getUpperBound(1) == 3
+  }
+
+  def "duplicate and dominated rows are removed"() {
+    when:
+    def (presolve, reduced) = presolve(
+        "max\nx1 + x2 + x3\nx1 + x2 + x3 <= 10\n2x1 + 2x2 + 2x3 <= 30\nx1 + x2 <= 25\nx1 - x3 <= 4\n" +
+            "bounds\nx2 <= 20")
+    then: "the second row is a multiple of the first one, the third is implied by it"
+    presolve.removedRows == 2
+    reduced.b as List == [10, 4]
+  }
+
+  def "fixed, empty and dominated columns are removed"() {
+    when:
+    def (presolve, reduced) = presolve(
+        "max\nx1 + x2 - x3 + x4\nx1 + x2 + x3 <= 10\nx2 <= 4\nx2 >= 4\n-x1 + x4 <= 3\nbounds\nx4 <= 9")
+    then: "x2 is fixed at 4, x3 has negative cost and positive coefficients, the first row bounds x1"
+    presolve.removedColumns == 2
+    reduced.variables.values() as Set == ["x1", "x4"] as Set
+    reduced.b as List == [3]
+    reduced.getUpperBound(reduced.coefficients["x1"]) == 6
+  }
+
+  def "presolve detects infeasibility"() {
+    when:
+    presolve("max\nx1 + x2\nx1 <= 2\nx1 >= 3\nx1 + x2 <= 5")
+    then:
+    def e = thrown(SolutionException)
+    e.message.contains("infeasible")
+  }
+
+  def "empty column with positive cost and no upper bound is dropped and marks the program"() {
+    when:
+    def (presolve, reduced) = presolve("max\nx1 + x2\nx1 + x3 <= 2\nx1 - x3 <= 1")
+    then:
+    presolve.isUnbounded()
+    reduced.variables.values() as Set == ["x1", "x3"] as Set
+  }
+
+  @Unroll
+  def "presolved solve reports #result when an empty column has unbounded cost"() {
+    given:
+    def solver = new LPSolver()
+    solver.setPresolve(true)
+    when:
+    solver.optimize(new LPInputReader().readLP(lp))
+    then:
+    def e = thrown(LPException)
+    e.message.contains(result)
+    where:
+    lp                                                   || result
+    "max\nx1 + x2\nx1 <= 2"                              || "unbounded"
+    "max\nx1 + x2 + x3\nx1 + x3 <= 2\n-x1 - x3 <= -3"     || "infeasible"
+  }
+
+  def "singleton column takes up the slack of its row"() {
+    when:
+    def (presolve, reduced) = presolve(
+        "max\n3x1 + x2 + 3x3\n2x1 + x2 + x3 <= 10\nx2 + 2x3 <= 10\n-x2 + x3 <= 2")
+    then: "x1 = (10 - x2 - x3) / 2 leaves x2 + x3 <= 10 and costs -1/2 and 3/2 of x2 and x3"
+    presolve.removedColumns == 1
+    reduced.variables.values() as Set == ["x2", "x3"] as Set
+    reduced.A*.toList() == [[1, 1], [1, 2], [-1, 1]]
+    reduced.b as List == [10, 10, 2]
+    reduced.c as List == [-0.5, 1.5]
+  }
+
+  @Unroll
+  def "substituted column is mapped back with the dual of its row, backend #backend"() {
+    given:
+    def lp = "max\n3x1 + x2 + 3x3\n2x1 + x2 + x3 <= 10\nx2 + 2x3 <= 10\n-x2 + x3 <= 2\nbounds\nx1 >= 1"
+    def expected = new LPSolver().optimize(new LPInputReader().readLP(lp))
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    solver.setPresolve(true)
+    when:
+    def solution = solver.optimize(new LPInputReader().readLP(lp))
+    then:
+    solution.statistics.presolveRemovedColumns > 0
+    solution.objectiveValue == expected.objectiveValue
+    solution.values == expected.values
+    solution.values == [x1: 2, x2: 2, x3: 4]
+    solution.duals as List == expected.duals as List
+    solution.reducedCosts == expected.reducedCosts
+    solution.slacks as List == expected.slacks as List
+    where:
+    backend << NumericBackend.values()
+  }
+
+  def "singleton equality fixes its variable, other equalities are kept"() {
+    when:
+    def (presolve, reduced) = presolve(
+        "max\nx1 + x2 + x3\nx1 + x2 + x3 == 5\n2x2 == 4\nx1 + x3 <= 8\nx1 - x3 <= 1")
+    then: "x2 = 2 leaves x1 + x3 == 3, which implies the third row"
+    presolve.removedRows == 2
+    presolve.removedColumns == 1
+    reduced.m == 2
+    reduced.isEquality(0)
+    !reduced.isEquality(1)
+    reduced.b as List == [3, 1]
+  }
+
+  def "nothing to reduce"() {
+    expect:
+    presolve("max\nx1 + x2\nx1 + 2x2 <= 10\n3x1 + x2 <= 9")[1] == null
+  }
+
+  @Unroll
+  def "presolved solution satisfies optimality conditions of initial program, backend #backend"() {
+    given:
+    def lp = "min\n-3x1 - 2x2 + 4x3 - x4\nx1 + x2 + x3 + x4 <= 20\nx1 <= 6\nx2 >= 1\nx2 <= 1\n" +
+        "2x1 + 2x2 + 2x3 + 2x4 <= 50\nx3 - x4 >= -8\nx4 <= 9"
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    solver.setPresolve(true)
+    def expected = new LPSolver().optimize(new LPInputReader().readLP(lp))
+    when:
+    def solution = solver.optimize(new LPInputReader().readLP(lp))
+    then:
+    solution.statistics.presolveRemovedRows > 0
+    solution.objectiveValue == expected.objectiveValue
+    solution.values == [x1: 6, x2: 1, x3: 0, x4: 8]
+    solution.slacks as List == expected.slacks as List
+    solution.reducedCosts.values().every { it >= 0 }
+    solution.duals.every { it <= 0 }
+    [new LPInputReader().readLP(lp).b as List, solution.duals as List].transpose()
+        .sum { bi, yi -> bi * yi } == solution.objectiveValue
+    solution.basis.isEmpty()
+    where:
+    backend << NumericBackend.values()
+  }
+
+  def "sparse program is presolved into sparse program"() {
+    given:
+    def form = new LPInputReader(true).readLP(
+        "max\nx1 + x2\nx1 + 2x2 <= 10\nx1 >= 2\n3x2 <= 9\nx1 <= 8")
+    when:
+    def reduced = new Presolve(form, LPState.DEF_ROUNDER, LPState.DEF_EPSILON).presolve()
+    then:
+    reduced.isSparse()
+    reduced.sparseA.toDense()*.toList() == [[1, 2]]
+    reduced.getUpperBound(1) == 3
+  }
+}
@@ -0,0 +1,109 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class PricingRuleSpec extends Specification {
+
+  @Unroll
+  def "#rule.name pricing chooses entering variable"() {
+    given:
+    double[] A = [1, 1, 10, 2, 1, 10]
+    def state = new DoubleLPState(A, [4, 4] as double[], c as double[], 2, 3)
+    expect:
+    rule.getEntering(state) == entering
+    where:
+    rule                      | c            || entering
+    new BlandPricing()        | [1, 3, 5]    || 0
+    new DantzigPricing()      | [1, 3, 5]    || 2
+    new SteepestEdgePricing() | [1, 3, 5]    || 1
+    new DevexPricing()        | [1, 3, 5]    || 2
+    new DantzigPricing()      | [-1, 0, -5]  || -1
+    new SteepestEdgePricing() | [0, 1e-10, 0] || -1
+  }
+
+  def "devex weights are updated from the pivot row"() {
+    given:
+    double[] A = [2, 4, 1, 1, 1, 1]
+    def state = new DoubleLPState(A, [4, 4] as double[], [1, 1, 1] as double[], 2, 3)
+    def devex = new DevexPricing()
+    devex.reset(state)
+    when:
+    devex.beforePivot(state, 0, 0)
+    state.pivot(0, 0)
+    then: "weights are max(w_j, (a_rj / a_rq)^2 w_q) and max(w_q / a_rq^2, 1) for the leaving one"
+    devex.weights == [1, 4, 1] as double[]
+  }
+
+  def "partial pricing scans rotating segments"() {
+    given:
+    double[] c = [1, 5, 0, 2, 7, 0, 3]
+    def state = new DoubleLPState(new double[0], new double[0], c, 0, 7)
+    def partial = new PartialPricing(3)
+    partial.reset(state)
+    expect:
+    partial.getEntering(state) == 1
+    partial.getEntering(state) == 4
+    partial.getEntering(state) == 6
+    partial.getEntering(state) == 1
+    when:
+    state.c = [0, 0, 0, 0, 0, 0, 1] as double[]
+    then: "all segments are scanned before declaring optimality"
+    partial.getEntering(state) == 6
+    when:
+    state.c = new double[7]
+    then:
+    partial.getEntering(state) == -1
+  }
+
+  def "multiple pricing chooses among candidates until the list is exhausted"() {
+    given:
+    double[] c = [1, 5, 0, 2, 7, 0, 3]
+    def state = new DoubleLPState(new double[0], new double[0], c, 0, 7)
+    def multiple = new MultiplePricing(2)
+    multiple.reset(state)
+    expect:
+    multiple.getEntering(state) == 4
+    multiple.candidates as List == [4, 1]
+    when:
+    multiple.beforePivot(state, 4, 0)
+    state.c[4] = -1
+    state.c[6] = 10
+    then: "variables outside of the list are not priced"
+    multiple.getEntering(state) == 1
+    when:
+    multiple.beforePivot(state, 1, 0)
+    state.c[1] = -1
+    then: "empty list is refreshed by a full scan"
+    multiple.getEntering(state) == 6
+  }
+
+  @Unroll
+  def "solving with #rule.name pricing and #backend backend"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    solver.setPricingRule(rule)
+    def reader = new LPInputReader()
+    expect:
+    solver.solve(reader.readLP("max\nx1 + x2\n4x1 - x2 <= 8\n2x1 + x2 <= 10\n-5x1 + 2x2 <= 2")) == 8
+    solver.solve(reader.readLP("min\n-3x1 + x2\nx1 - 4x2 <= 0\nx1 - x2 <= 3\nx1 + x2 <= 11")) == -17
+    solver.solve(reader.readLP("max\nx1 + x2\nx1 <= 10\nx1 >= 2\nx2 <= 10\nx2 >= 2")) == 20
+    where:
+    [rule, backend] << [[new DantzigPricing(), new DevexPricing(), new SteepestEdgePricing(),
+                         new PartialPricing(2), new MultiplePricing(2)],
+                        NumericBackend.values()].combinations()
+  }
+
+  def "cycling example of Beale is solved with the degenerate pivots fallback"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(NumericBackend.DOUBLE)
+    solver.setPricingRule(new DantzigPricing())
+    solver.setDegeneratePivotsLimit(5)
+    def form = new LPStandardForm([[0.25, -60, -0.04, 9], [0.5, -90, -0.02, 3], [0, 0, 1, 0]] as BigDecimal[][],
+        [0, 0, 1] as BigDecimal[], [0.75, -150, 0.02, -6] as BigDecimal[], 3, 4, true)
+    expect:
+    solver.solve(form) == 0.05
+  }
+}
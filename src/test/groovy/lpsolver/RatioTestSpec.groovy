@@ -0,0 +1,58 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class RatioTestSpec extends Specification {
+
+  @Unroll
+  def "#test.name ratio test chooses leaving variable"() {
+    given:
+    def state = new DoubleLPState(column as double[], b as double[], [1] as double[], b.size(), 1)
+    expect:
+    test.getLeaving(state, 0) == leaving
+    where:
+    test                       | column         | b                  || leaving
+    new MinRatioTest()         | [1, 100, 2]    | [1, 100.00001, 3]  || 0
+    new HarrisRatioTest(1e-6)  | [1, 100, 2]    | [1, 100.00001, 3]  || 1
+    new HarrisRatioTest(1e-12) | [1, 100, 2]    | [1, 100.00001, 3]  || 0
+    new HarrisRatioTest()      | [-1, 0, 1e-10] | [1, 1, 1]          || -1
+    new HarrisRatioTest()      | [1, 2, 4]      | [4, 2, 1]          || 2
+    new HarrisRatioTest()      | [1, 3, 2]      | [0, 0, 5]          || 1
+  }
+
+  def "min ratio test of BigDecimal tableau compares ratios without division"() {
+    given:
+    BigDecimal[][] A = [[3], [7], [1]]
+    def state = new LPState(A, [1, 2.3333333333333332, 1] as BigDecimal[], [1] as BigDecimal[], 3, 1)
+    expect: "1/3 is greater than 2.3333333333333332/7 although they are equal when rounded"
+    new MinRatioTest().getLeaving(state, 0) == 1
+  }
+
+  @Unroll
+  def "solving with Harris ratio test and #backend backend"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    solver.setPricingRule(new DantzigPricing())
+    solver.setRatioTest(new HarrisRatioTest())
+    def reader = new LPInputReader()
+    expect:
+    solver.solve(reader.readLP("max\nx1 + x2\n4x1 - x2 <= 8\n2x1 + x2 <= 10\n-5x1 + 2x2 <= 2")) == 8
+    solver.solve(reader.readLP("min\n-3x1 + x2\nx1 - 4x2 <= 0\nx1 - x2 <= 3\nx1 + x2 <= 11")) == -17
+    solver.solve(reader.readLP("min\n6x1 + 5x2\n4x1 + x2 <= 3\n5x1 + 3x2 >= 1")) == 1.2
+    where:
+    backend << NumericBackend.values()
+  }
+
+  def "unboundedness is detected by Harris ratio test"() {
+    given:
+    def solver = new LPSolver()
+    solver.setRatioTest(new HarrisRatioTest())
+    when:
+    solver.solve(new LPInputReader().readLP("max\nx1 + x2\nx1 - x2 <= 1"))
+    then:
+    def e = thrown(SolutionException)
+    e.message == "This linear program is unbounded"
+  }
+}
@@ -0,0 +1,116 @@
+package lpsolver
+
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+class RequestExecutorSpec extends Specification {
+  static final String LP = "max\n3x1 + 2x2\nx1 + x2 <= 4\nx1 - x2 <= 1\n"
+  RequestExecutor executor
+
+  def cleanup() {
+    executor?.close()
+  }
+
+  def "virtual threads are used where the platform has them"() {
+    given:
+    executor = new RequestExecutor(new LPSolver())
+    def virtualThreads = Thread.metaClass.respondsTo(Thread, "ofVirtual")
+    expect:
+    executor.virtual == !virtualThreads.isEmpty()
+    executor.solvePermits == RequestExecutor.DEF_SOLVE_PERMITS
+  }
+
+  def "solves are bounded by the permits"() {
+    given:
+    def solver = new LPSolver()
+    def maxActive = 0
+    solver.iterationListener = { phase, entering, leaving, statistics ->
+      synchronized (this) {
+        maxActive = Math.max(maxActive, executor.activeSolves)
+      }
+      Thread.sleep(1)
+    } as IterationListener
+    executor = new RequestExecutor(solver, 2)
+    def forms = (0..<16).collect { new LPGenerator(it).random(10, 15, 0.4) }
+    def expected = forms.collect { form ->
+      try {
+        new LPSolver().solve(form)
+      } catch (LPException e) {
+        null
+      }
+    }
+    when:
+    def futures = forms.collect { form ->
+      executor.submit {
+        try {
+          executor.optimize(form).objectiveValue
+        } catch (LPException e) {
+          null
+        }
+      }
+    }
+    then:
+    futures*.get() == expected
+    maxActive <= 2
+    executor.activeSolves == 0
+  }
+
+  def "requests waiting for I/O do not hold a permit"() {
+    given:
+    executor = new RequestExecutor(new LPSolver(), 1)
+    def reading = new CountDownLatch(1)
+    def read = new CountDownLatch(1)
+    when:
+    def blocked = executor.submit {
+      reading.countDown()
+      read.await(10, TimeUnit.SECONDS)
+      executor.optimize(new LPInputReader().readLP(LP)).objectiveValue
+    }
+    reading.await(10, TimeUnit.SECONDS)
+    def value = executor.submit {
+      executor.optimize(new LPInputReader().readLP(LP)).objectiveValue
+    }.get(10, TimeUnit.SECONDS)
+    then:
+    value == 10.5
+    !blocked.done
+    when:
+    read.countDown()
+    then:
+    blocked.get(10, TimeUnit.SECONDS) == 10.5
+  }
+
+  def "exceptions of a request complete its future"() {
+    given:
+    executor = new RequestExecutor(new LPSolver(), 1)
+    when:
+    def infeasible = new LPInputReader().readLP("max\nx1\nx1 <= 1\nx1 >= 2\n")
+    executor.submit { executor.optimize(infeasible) }.get()
+    then:
+    def e = thrown(ExecutionException)
+    e.cause instanceof LPException
+    executor.activeSolves == 0
+  }
+
+  def "executed requests run on their own threads"() {
+    given:
+    executor = new RequestExecutor(new LPSolver(), 1)
+    def done = new CountDownLatch(8)
+    def threads = Collections.synchronizedSet(new HashSet())
+    def started = new CountDownLatch(8)
+    when:
+    8.times {
+      executor.execute {
+        threads << Thread.currentThread()
+        started.countDown()
+        started.await(10, TimeUnit.SECONDS)
+        done.countDown()
+      }
+    }
+    then:
+    done.await(10, TimeUnit.SECONDS)
+    threads.size() == 8
+  }
+}
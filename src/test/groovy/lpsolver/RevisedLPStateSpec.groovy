@@ -0,0 +1,152 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class RevisedLPStateSpec extends Specification {
+
+  def createState(BigDecimal[][] A, double[] b, double[] c) {
+    def matrix = SparseMatrix.fromDense(A, b.length, c.length)
+    HashMap<Integer, String> variables = new HashMap<>()
+    HashMap<String, Integer> coefficients = new HashMap<>()
+    for (int i = 0; i < b.length + c.length; i++) {
+      variables.put(i, "x" + (i + 1))
+      coefficients.put("x" + (i + 1), i)
+    }
+    return RevisedLPState.of(matrix, false, b, c, variables, coefficients, DoubleLPState.DEF_EPSILON,
+        DoubleLPState.DEF_INF)
+  }
+
+  def close(double a, double b) {
+    Math.abs(a - b) < 1e-9
+  }
+
+  @Unroll
+  def "revised pivots agree with tableau pivots, refactorization frequency #frequency"() {
+    given:
+    BigDecimal[][] A = [[1, 0, 4, 0], [0, 5, 0, 1], [2, 0, 1, 0], [0, 2, 0, 3]]
+    double[] b = [2, 1, 4, 2]
+    double[] c = [2, 4, 1, 5]
+    def revised = createState(A, Arrays.copyOf(b, b.length), Arrays.copyOf(c, c.length))
+    revised.setRefactorizationFrequency(frequency)
+    def dense = new DoubleLPState(
+        A.flatten() as double[], Arrays.copyOf(b, b.length), Arrays.copyOf(c, c.length),
+        new HashMap<>(revised.variables), new HashMap<>(revised.coefficients), 4, 4)
+    when:
+    [[0, 0], [1, 1], [3, 3], [2, 2]].each { entering, leaving ->
+      revised.pivot(entering, leaving)
+      dense.pivot(entering, leaving)
+    }
+    then:
+    (0..<4).every { i -> (0..<4).every { j -> close(revised.getEntry(i, j), dense.getEntry(i, j)) } }
+    (0..<4).every { i -> close(revised.getRhs(i), dense.getRhs(i)) }
+    close(revised.getObjectiveValue().doubleValue(), dense.v)
+    revised.getEntering() == dense.getEntering()
+    revised.variables == dense.variables
+    where:
+    frequency << [1, 2, 64]
+  }
+
+  def "constraint matrix is not modified by pivots"() {
+    given:
+    BigDecimal[][] A = [[1, 1], [2, 1]]
+    def state = createState(A, [4, 6] as double[], [3, 2] as double[])
+    def values = Arrays.copyOf(state.columnMatrix.values, state.columnMatrix.values.length)
+    when:
+    state.pivot(0, 1)
+    then:
+    state.columnMatrix.values == values
+    state.basis == [2, 0] as int[]
+    state.nonBasic == [3, 1] as int[]
+    close(state.getRhs(1), 3)
+  }
+
+  def "complemented columns agree with the tableau and keep the constraint matrix"() {
+    given:
+    BigDecimal[][] A = [[1, 2], [3, 1]]
+    double[] b = [4, 6]
+    double[] c = [1, 1]
+    def revised = createState(A, Arrays.copyOf(b, b.length), Arrays.copyOf(c, c.length))
+    def dense = new DoubleLPState(
+        A.flatten() as double[], Arrays.copyOf(b, b.length), Arrays.copyOf(c, c.length),
+        new HashMap<>(revised.variables), new HashMap<>(revised.coefficients), 2, 2)
+    def values = Arrays.copyOf(revised.columnMatrix.values, revised.columnMatrix.values.length)
+    when:
+    revised.complementColumn(0, 1.0)
+    dense.complementColumn(0, 1.0)
+    revised.pivot(0, 1)
+    dense.pivot(0, 1)
+    revised.complementRow(1, 2.0)
+    dense.complementRow(1, 2.0)
+    then:
+    revised.columnMatrix.values == values
+    (0..<2).every { i -> (0..<2).every { j -> close(revised.getEntry(i, j), dense.getEntry(i, j)) } }
+    (0..<2).every { i -> close(revised.getRhs(i), dense.getRhs(i)) }
+    (0..<2).every { j -> close(revised.getReducedCost(j), dense.getReducedCost(j)) }
+  }
+
+  def "factorization of a sparse basis with fill-in solves both systems"() {
+    given:
+    int m = 30
+    def random = new Random(7)
+    BigDecimal[][] A = (0..<m).collect { i ->
+      (0..<m).collect { j ->
+        i == j ? 4 : (random.nextDouble() < 0.1 ? random.nextInt(5) - 2 : 0) } as BigDecimal[]
+    } as BigDecimal[][]
+    def factorization = new BasisFactorization(SparseMatrix.fromDense(A, m, m).transpose(), m)
+    int[] basis = (0..<m).collect { (it * 7) % m } as int[]
+    double[] a = (0..<m).collect { random.nextDouble() } as double[]
+    when:
+    factorization.factorize(basis)
+    double[] x = Arrays.copyOf(a, m)
+    factorization.ftran(x)
+    double[] y = Arrays.copyOf(a, m)
+    factorization.btran(y)
+    then:
+    (0..<m).every { i -> close((0..<m).sum { k -> A[i][basis[k]] * x[k] } as double, a[i]) }
+    (0..<m).every { k -> close((0..<m).sum { i -> y[i] * A[i][basis[k]] } as double, a[k]) }
+  }
+
+  def "singular basis is reported"() {
+    given:
+    BigDecimal[][] A = [[1, 2], [2, 4]]
+    def state = createState(A, [1, 2] as double[], [1, 1] as double[])
+    state.pivot(0, 0)
+    when:
+    state.basis[1] = 1
+    state.refactorize()
+    then:
+    thrown(SolutionException)
+  }
+
+  @Unroll
+  def "solving with revised backend"() {
+    given:
+    def reader = new LPInputReader(sparse)
+    def form = reader.readLP(lp)
+    def solver = new LPSolver()
+    solver.setBackend(NumericBackend.REVISED)
+    expect:
+    solver.solve(form) == answer
+    where:
+    lp                                                             | sparse || answer
+    "max\nx1 + x2\n4x1 - x2 <= 8\n2x1 + x2 <= 10\n-5x1 + 2x2 <= 2" | true   || 8
+    "min\n-3x1 + x2\nx1 - 4x2 <= 0\nx1 - x2 <= 3\nx1 + x2 <= 11"   | true   || -17
+    "max\nx1 + x2\nx1 <= 10\nx1 >= 2\nx2 <= 10\nx2 >= 2"           | false  || 20
+    "max\nx1 + x2\nx1 + x2 == 3\nx1 <= 1"                          | true   || 3
+    "min\n6x1 + 5x2\n4x1 + x2 <= 3\n5x1 + 3x2 >= 1"                | false  || 1.2
+  }
+
+  @Unroll
+  def "initial objective is restored after x0 leaves the dictionary, backend #backend"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    def form = new LPStandardForm([[4, 1], [-5, -3]] as BigDecimal[][], [3, -1] as BigDecimal[],
+        [6, 5] as BigDecimal[], 2, 2, false)
+    expect:
+    Math.abs(solver.solve(form).doubleValue() - 1.2) < 1e-9
+    where:
+    backend << NumericBackend.values()
+  }
+}
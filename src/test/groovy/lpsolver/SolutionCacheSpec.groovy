@@ -0,0 +1,172 @@
+package lpsolver
+
+import spock.lang.Specification
+
+import java.math.MathContext
+import java.util.concurrent.TimeUnit
+
+class SolutionCacheSpec extends Specification {
+  static final String LP = "max\n3x1 + 2x2\nx1 + x2 <= 4\nx1 - x2 <= 1\n"
+  long now = 0
+  SolutionCache cache = new SolutionCache(SolutionCache.DEF_MAX_WEIGHT, 100, { now })
+
+  def "repeated solve returns the cached solution"() {
+    given:
+    def solver = new LPSolver()
+    solver.solutionCache = cache
+    def iterations = 0
+    solver.iterationListener = { phase, entering, leaving, statistics -> ++iterations } as IterationListener
+    when:
+    def first = solver.optimize(new LPInputReader().readLP(LP))
+    def pivots = iterations
+    def second = solver.optimize(new LPInputReader().readLP(LP))
+    then:
+    second.is(first)
+    second.objectiveValue == 10.5
+    iterations == pivots
+    cache.hits == 1
+    cache.misses == 1
+    cache.size() == 1
+  }
+
+  def "dense and sparse forms share the key"() {
+    expect:
+    new LPSolver().solutionKey(new LPInputReader(false).readLP(LP)) ==
+        new LPSolver().solutionKey(new LPInputReader(true).readLP(LP))
+  }
+
+  def "key depends on the program and the settings"() {
+    given:
+    def form = new LPInputReader().readLP(LP)
+    def key = new LPSolver().solutionKey(form)
+    def changed = new LPSolver()
+    change(changed)
+    expect:
+    changed.solutionKey(form) != key
+    where:
+    change << [
+        { it.backend = NumericBackend.DOUBLE },
+        { it.presolve = true },
+        { it.method = SimplexMethod.DUAL },
+        { it.pricingRule = new DevexPricing() },
+        { it.ratioTest = new HarrisRatioTest() },
+    ]
+  }
+
+  def "key depends on the parameters of the pricing rule and the ratio test"() {
+    given:
+    def form = new LPInputReader().readLP(LP)
+    def first = new LPSolver()
+    configure(first, firstValue)
+    def second = new LPSolver()
+    configure(second, secondValue)
+    def same = new LPSolver()
+    configure(same, firstValue)
+    expect:
+    first.solutionKey(form) != second.solutionKey(form)
+    first.solutionKey(form) == same.solutionKey(form)
+    where:
+    configure                                                            | firstValue | secondValue
+    { solver, value -> solver.pricingRule = new PartialPricing(value) }  | 2          | 4
+    { solver, value -> solver.pricingRule = new MultiplePricing(value) } | 4          | 8
+    { solver, value -> solver.ratioTest = new HarrisRatioTest(value) }   | 1e-7       | 1e-9
+  }
+
+  def "changing the Harris tolerance solves again"() {
+    given:
+    def solver = new LPSolver()
+    solver.solutionCache = cache
+    solver.ratioTest = new HarrisRatioTest(1e-7)
+    def form = new LPInputReader().readLP(LP)
+    def first = solver.optimize(form)
+    when:
+    solver.ratioTest = new HarrisRatioTest(1e-9)
+    def second = solver.optimize(form)
+    then:
+    !second.is(first)
+    cache.misses == 2
+    cache.size() == 2
+  }
+
+  def "key depends on every part of the program"() {
+    given:
+    def key = new LPSolver().solutionKey(new LPInputReader().readLP(LP))
+    expect:
+    new LPSolver().solutionKey(new LPInputReader().readLP(lp)) != key
+    new LPSolver(MathContext.DECIMAL64, MathContext.DECIMAL32)
+        .solutionKey(new LPInputReader().readLP(LP)) != key
+    where:
+    lp << [
+        LP.replace("max", "min"),
+        LP.replace("3x1", "4x1"),
+        LP.replace("x1 + x2 <= 4", "x1 + 2x2 <= 4"),
+        LP.replace("<= 1", "<= 2"),
+        LP.replace("<= 1", "= 1"),
+        LP + "bounds\nx1 <= 3\n",
+        LP.replace("x2", "y"),
+    ]
+  }
+
+  def "expired solutions are solved again"() {
+    given:
+    def solver = new LPSolver()
+    solver.solutionCache = cache
+    def form = new LPInputReader().readLP(LP)
+    def first = solver.optimize(form)
+    when:
+    now = 99
+    def second = solver.optimize(form)
+    now = 100
+    def third = solver.optimize(form)
+    then:
+    second.is(first)
+    !third.is(first)
+    third.objectiveValue == first.objectiveValue
+    cache.expirations == 1
+    cache.hits == 1
+    cache.misses == 2
+  }
+
+  def "least recently used solutions are evicted"() {
+    given:
+    def forms = [LP, LP.replace("3x1", "x1"), LP.replace("2x2", "x2")].collect {
+      new LPInputReader().readLP(it)
+    }
+    def solver = new LPSolver()
+    def weight = SolutionCache.weight(solver.optimize(forms[0]))
+    cache = new SolutionCache(2 * weight, 1, TimeUnit.HOURS)
+    solver.solutionCache = cache
+    when:
+    def first = solver.optimize(forms[0])
+    solver.optimize(forms[1])
+    solver.optimize(forms[0])
+    solver.optimize(forms[2])
+    then:
+    cache.size() == 2
+    cache.evictions == 1
+    cache.weight == 2 * weight
+    solver.optimize(forms[0]).is(first)
+    when:
+    solver.optimize(forms[1])
+    then:
+    cache.misses == 4
+  }
+
+  def "failures and warm starts are not cached"() {
+    given:
+    def solver = new LPSolver()
+    solver.solutionCache = cache
+    def form = new LPInputReader().readLP(LP)
+    def basis = solver.optimize(form).basis
+    when:
+    solver.optimize(new LPInputReader().readLP("max\nx1\nx1 >= 1\n"))
+    then:
+    thrown(LPException)
+    when:
+    solver.optimize(form, basis)
+    then:
+    cache.size() == 1
+    cache.hits == 0
+    cache.misses == 2
+  }
+}
@@ -0,0 +1,69 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class SolveStatisticsSpec extends Specification {
+
+  @Unroll
+  def "iterations are split between phases, backend #backend"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    def form = new LPStandardForm([[4, 1], [-5, -3]] as BigDecimal[][], [3, -1] as BigDecimal[],
+        [6, 5] as BigDecimal[], 2, 2, false)
+    when:
+    def solution = solver.optimize(form)
+    def statistics = solution.statistics
+    then:
+    Math.abs(solution.objectiveValue.doubleValue() - 1.2) < 1e-9
+    statistics.phase1Iterations > 0
+    statistics.iterations == statistics.phase1Iterations + statistics.phase2Iterations
+    statistics.minPivot > 0
+    statistics.minPivot <= statistics.maxPivot
+    statistics.totalTime >= statistics.pivotTime
+    statistics.allocatedBytes >= -1
+    where:
+    backend << NumericBackend.values()
+  }
+
+  def "feasible initial solution needs no phase 1"() {
+    given:
+    def form = new LPInputReader().readLP("max\nx1 + x2\n4x1 - x2 <= 8\n2x1 + x2 <= 10\n-5x1 + 2x2 <= 2")
+    when:
+    def statistics = new LPSolver().optimize(form).statistics
+    then:
+    statistics.phase1Iterations == 0
+    statistics.phase2Iterations > 0
+    statistics.blandIterations == 0
+  }
+
+  def "listener is notified after every pivot"() {
+    given:
+    def solver = new LPSolver()
+    solver.setPricingRule(new DantzigPricing())
+    def calls = []
+    solver.setIterationListener({ phase, entering, leaving, statistics ->
+      calls << [phase, statistics.iterations]
+    } as IterationListener)
+    def form = new LPGenerator(7).random(20, 30, 0.3)
+    when:
+    def statistics = solver.optimize(form).statistics
+    then:
+    calls.size() == statistics.iterations
+    calls*.get(1) == (1..statistics.iterations).toList()
+  }
+
+  def "degenerate pivots fall back to Bland's rule after the limit"() {
+    given:
+    def solver = new LPSolver()
+    solver.setPricingRule(new DantzigPricing())
+    solver.setDegeneratePivotsLimit(1)
+    def form = new LPGenerator(3).degenerate(20, 30, 0.3)
+    when:
+    def statistics = solver.optimize(form).statistics
+    then:
+    statistics.blandIterations > 0
+    statistics.degeneratePivots <= statistics.iterations
+  }
+}
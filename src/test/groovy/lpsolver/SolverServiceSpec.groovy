@@ -0,0 +1,168 @@
+package lpsolver
+
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class SolverServiceSpec extends Specification {
+  static final String LP = "max\n3x1 + 2x2\nx1 + x2 <= 4\nx1 - x2 <= 1\n"
+  SolverService service
+
+  def cleanup() {
+    service?.close()
+  }
+
+  def "programs are solved over a connection"() {
+    given:
+    service = new SolverService(new LPSolver(), 0, 2, 4, false)
+    def client = new SolverClient(service.port)
+    when:
+    def first = client.solveLP(LP)
+    def second = client.solveLP(LP.replace("max", "min"))
+    then:
+    client.ping()
+    first.status == SolverClient.Status.OPTIMAL
+    first.objectiveValue == 10.5
+    first.values == [x1: 2.5, x2: 1.5]
+    second.objectiveValue == 0
+    service.solved == 2
+    cleanup:
+    client.close()
+  }
+
+  def "MPS programs are solved"() {
+    given:
+    service = new SolverService(new LPSolver(), 0, 1, 4, true)
+    def form = new LPInputReader().readLP(LP)
+    def mps = new StringWriter()
+    new MPSWriter(MPSFormat.FREE).write(form, mps)
+    def client = new SolverClient(service.port)
+    expect:
+    client.solveMPS(mps.toString(), MPSFormat.FREE).objectiveValue == 10.5
+    cleanup:
+    client.close()
+  }
+
+  def "malformed and infeasible programs are errors"() {
+    given:
+    service = new SolverService(new LPSolver(), 0, 1, 4, false)
+    def client = new SolverClient(service.port)
+    when:
+    def malformed = client.solveLP("max\n3x1 +\nx1 <=\n")
+    def infeasible = client.solveLP("max\nx1\nx1 <= 1\nx1 >= 2\n")
+    def solved = client.solveLP(LP)
+    then:
+    malformed.status == SolverClient.Status.ERROR
+    malformed.message
+    infeasible.status == SolverClient.Status.ERROR
+    solved.status == SolverClient.Status.OPTIMAL
+    service.failed == 2
+    cleanup:
+    client.close()
+  }
+
+  def "programs are rejected when the workers and the queue are full"() {
+    given:
+    def started = new CountDownLatch(1)
+    def release = new CountDownLatch(1)
+    def solver = new LPSolver()
+    solver.iterationListener = { phase, entering, leaving, statistics ->
+      started.countDown()
+      release.await(10, TimeUnit.SECONDS)
+    } as IterationListener
+    service = new SolverService(solver, 0, 1, 0, false)
+    def busy = new SolverClient(service.port)
+    def client = new SolverClient(service.port)
+    def result = null
+    def thread = Thread.start { result = busy.solveLP(LP) }
+    when:
+    started.await(10, TimeUnit.SECONDS)
+    def rejected = client.solveLP(LP)
+    release.countDown()
+    thread.join()
+    then:
+    rejected.status == SolverClient.Status.BUSY
+    result.status == SolverClient.Status.OPTIMAL
+    service.rejected == 1
+    client.solveLP(LP).status == SolverClient.Status.OPTIMAL
+    cleanup:
+    busy.close()
+    client.close()
+  }
+
+  def "program of a rejected request is skipped without being read"() {
+    given:
+    def started = new CountDownLatch(1)
+    def release = new CountDownLatch(1)
+    def solver = new LPSolver()
+    solver.iterationListener = { phase, entering, leaving, statistics ->
+      started.countDown()
+      release.await(10, TimeUnit.SECONDS)
+    } as IterationListener
+    service = new SolverService(solver, 0, 1, 0, false)
+    def busy = new SolverClient(service.port)
+    def thread = Thread.start { busy.solveLP(LP) }
+    def socket = new Socket(InetAddress.loopbackAddress, service.port)
+    def reader = new BufferedReader(new InputStreamReader(socket.inputStream, "UTF-8"))
+    def body = new byte[1 << 20]
+    Arrays.fill(body, (byte) 'x')
+    when:
+    started.await(10, TimeUnit.SECONDS)
+    socket.outputStream.write("SOLVE LP ${body.length}\n".getBytes("UTF-8"))
+    socket.outputStream.write(body)
+    socket.outputStream.write("PING\n".getBytes("UTF-8"))
+    socket.outputStream.flush()
+    def replies = [reader.readLine(), reader.readLine()]
+    release.countDown()
+    thread.join()
+    then:
+    replies == ["BUSY", "PONG"]
+    service.rejected == 1
+    service.solved == 1
+    cleanup:
+    busy.close()
+    socket.close()
+  }
+
+  def "connections are served concurrently"() {
+    given:
+    service = new SolverService(new LPSolver(), 0, 2, 16, false)
+    def forms = (0..<8).collect { new LPGenerator(it).random(10, 15, 0.4) }
+    def programs = forms.collect { form ->
+      def out = new StringWriter()
+      form.printLP(out)
+      out.toString()
+    }
+    when:
+    def results = Collections.synchronizedMap([:])
+    def threads = (0..<4).collect { t ->
+      Thread.start {
+        def client = new SolverClient(service.port)
+        results[t] = programs.collect { client.solveLP(it).status }
+        client.close()
+      }
+    }
+    threads*.join()
+    then:
+    results.size() == 4
+    results.values().every { it == results[0] }
+    service.solved + service.failed == 32
+    service.rejected == 0
+  }
+
+  def "too long header is answered by an error and closes the connection"() {
+    given:
+    service = new SolverService(new LPSolver(), 0, 1, 4, false)
+    def socket = new Socket(InetAddress.loopbackAddress, service.port)
+    def reader = new BufferedReader(new InputStreamReader(socket.inputStream, "UTF-8"))
+    when:
+    socket.outputStream.write(("SOLVE " + "x" * 1000 + "\n").getBytes("UTF-8"))
+    socket.outputStream.flush()
+    then:
+    reader.readLine() == "ERROR Request header is too long"
+    reader.readLine() == null
+    cleanup:
+    socket.close()
+  }
+}
@@ -0,0 +1,78 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class SparseLPStateSpec extends Specification {
+
+  def createState(BigDecimal[][] A, double[] b, double[] c) {
+    def matrix = SparseMatrix.fromDense(A, b.length, c.length)
+    HashMap<Integer, String> variables = new HashMap<>()
+    HashMap<String, Integer> coefficients = new HashMap<>()
+    for (int i = 0; i < b.length + c.length; i++) {
+      variables.put(i, "x" + (i + 1))
+      coefficients.put("x" + (i + 1), i)
+    }
+    return SparseLPState.of(matrix, 0, b, c, variables, coefficients, DoubleLPState.DEF_EPSILON,
+        DoubleLPState.DEF_INF)
+  }
+
+  @Unroll
+  def "sparse pivot agrees with dense pivot"() {
+    given:
+    BigDecimal[][] A = [[1, 0, 4, 0], [0, 5, 0, 1], [2, 0, 1, 0], [0, 2, 0, 0]]
+    double[] b = [2, 1, 4, 2]
+    double[] c = [2, 4, 1, 5]
+    def sparse = createState(A, Arrays.copyOf(b, b.length), Arrays.copyOf(c, c.length))
+    def dense = new DoubleLPState(
+        A.flatten() as double[], Arrays.copyOf(b, b.length), Arrays.copyOf(c, c.length), 4, 4)
+    when:
+    sparse.pivot(entering, leaving)
+    dense.pivot(entering, leaving)
+    then:
+    (0..<4).every { i -> (0..<4).every { j -> sparse.getEntry(i, j) == dense.getEntry(i, j) } }
+    sparse.b == dense.b
+    sparse.c == dense.c
+    sparse.v == dense.v
+    where:
+    entering | leaving
+    0        | 0
+    0        | 2
+    1        | 1
+    2        | 0
+  }
+
+  def "pivot touches only rows of the entering column"() {
+    given:
+    BigDecimal[][] A = [[1, 1, 0], [0, 1, 1], [0, 0, 1]]
+    def state = createState(A, [1, 1, 1] as double[], [1, 1, 1] as double[])
+    when:
+    state.pivot(0, 0)
+    then:
+    state.getNonZeros() == 5
+    state.rowSize == [2, 2, 1] as int[]
+    when:
+    state.pivot(1, 1)
+    then: "fill-in appears in the rows of the entering column only"
+    state.getEntry(0, 2) == -1
+    state.rowSize == [3, 2, 1] as int[]
+    state.columnSize == [1, 2, 3] as int[]
+  }
+
+  def "solving with sparse backend"() {
+    given:
+    def reader = new LPInputReader(true)
+    def form = reader.readLP(lp)
+    def solver = new LPSolver()
+    solver.setBackend(NumericBackend.SPARSE)
+    expect:
+    form.isSparse()
+    solver.solve(form) == answer
+    where:
+    lp                                                     || answer
+    "max\nx1 + x2\n4x1 - x2 <= 8\n2x1 + x2 <= 10\n-5x1 + 2x2 <= 2" || 8
+    "min\n-3x1 + x2\nx1 - 4x2 <= 0\nx1 - x2 <= 3\nx1 + x2 <= 11"   || -17
+    "max\nx1 + x2\nx1 <= 10\nx1 >= 2\nx2 <= 10\nx2 >= 2"          || 20
+    "max\nx1 + x2\nx1 + x2 == 3\nx1 <= 1"                          || 3
+  }
+}
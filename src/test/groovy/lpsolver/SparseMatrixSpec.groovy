@@ -0,0 +1,39 @@
+package lpsolver
+
+import spock.lang.Specification
+
+class SparseMatrixSpec extends Specification {
+
+  def "building rows"() {
+    given:
+    def builder = new SparseMatrix.Builder()
+    builder.add(2, 3).add(0, 1).endRow()
+    builder.endRow()
+    builder.add(1, 5).add(1, 7).add(3, 0).endRow()
+    when:
+    def matrix = builder.build(4)
+    then:
+    matrix.rows == 3
+    matrix.columns == 4
+    matrix.nonZeros == 3
+    matrix.rowStart == [0, 2, 2, 3] as int[]
+    matrix.columnIndexes == [0, 2, 1] as int[]
+    matrix.values == [1, 3, 7] as double[]
+    matrix.get(0, 2) == 3
+    matrix.get(1, 2) == 0
+  }
+
+  def "transposition and densification"() {
+    given:
+    BigDecimal[][] A = [[1, 0, 2], [0, 0, 3]]
+    def matrix = SparseMatrix.fromDense(A, 2, 3)
+    when:
+    def transposed = matrix.transpose()
+    then:
+    matrix.nonZeros == 3
+    transposed.rows == 3
+    transposed.columns == 2
+    transposed.toDense() == [[1, 0], [0, 0], [2, 3]] as BigDecimal[][]
+    transposed.transpose().toDense() == A
+  }
+}
@@ -0,0 +1,67 @@
+package lpsolver
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class WarmStartSpec extends Specification {
+
+  @Unroll
+  def "warm start from optimal basis skips phase 1, backend #backend"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    def lp = "min\n6x1 + 5x2\n4x1 + x2 <= 3\n5x1 + 3x2 >= 1"
+    def cold = solver.optimize(new LPInputReader().readLP(lp))
+    when: "right-hand side changes slightly"
+    def warm = solver.optimize(new LPInputReader().readLP(lp.replace(">= 1", ">= 2")), cold.basis)
+    then:
+    cold.statistics.phase1Iterations > 0
+    warm.statistics.phase1Iterations == 0
+    warm.statistics.phase2Iterations == 0
+    warm.statistics.warmStartIterations == 1
+    warm.objectiveValue == 2.4
+    warm.basis == cold.basis
+    where:
+    backend << NumericBackend.values()
+  }
+
+  @Unroll
+  def "warm started solve matches cold solve, backend #backend"() {
+    given:
+    def solver = new LPSolver()
+    solver.setBackend(backend)
+    solver.setPricingRule(new DantzigPricing())
+    def basis = solver.optimize(new LPGenerator(5).random(30, 40, 0.3)).basis
+    def form = new LPGenerator(5).random(30, 40, 0.3)
+    form.c[0] = form.c[0] + 1
+    def expected = new LPSolver().solve(form.copy())
+    when:
+    def warm = solver.optimize(form, basis)
+    then:
+    (warm.objectiveValue - expected).abs() < 1e-5
+    warm.statistics.phase1Iterations == 0
+    warm.statistics.iterations < solver.optimize(form.copy()).statistics.iterations
+    where:
+    backend << NumericBackend.values()
+  }
+
+  def "infeasible or unknown basis falls back to a cold start"() {
+    given:
+    def solver = new LPSolver()
+    def lp = "max\nx1 + x2\nx1 <= 10\nx1 >= 2\nx2 <= 10\nx2 >= 2"
+    expect:
+    solver.optimize(new LPInputReader().readLP(lp), basis).objectiveValue == 20
+    where:
+    basis << [["x1", "x2", "x3"], ["x1", "x2", "x3", "y"], ["x3", "x4", "x5", "x6"]]
+  }
+
+  def "warm start does not change the linear program when it falls back"() {
+    given:
+    def form = new LPInputReader().readLP("max\nx1 + x2\nx1 <= 10\nx1 >= 2\nx2 <= 10\nx2 >= 2")
+    when:
+    def solution = new LPSolver().optimize(form, ["x1", "x2", "x5", "x6"])
+    then:
+    solution.objectiveValue == 20
+    solution.values == [x1: 10, x2: 10]
+  }
+}